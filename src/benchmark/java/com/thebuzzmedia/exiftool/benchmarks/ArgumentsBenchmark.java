@@ -0,0 +1,131 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.thebuzzmedia.exiftool.benchmarks;
+
+import com.thebuzzmedia.exiftool.ExecutionStrategy;
+import com.thebuzzmedia.exiftool.ExifTool;
+import com.thebuzzmedia.exiftool.ExifToolBuilder;
+import com.thebuzzmedia.exiftool.ExifToolOptions;
+import com.thebuzzmedia.exiftool.Tag;
+import com.thebuzzmedia.exiftool.Version;
+import com.thebuzzmedia.exiftool.core.StandardOptions;
+import com.thebuzzmedia.exiftool.core.StandardTag;
+import com.thebuzzmedia.exiftool.process.CommandExecutor;
+import com.thebuzzmedia.exiftool.process.OutputHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Arrays.asList;
+
+/**
+ * Build arguments of {@code exiftool} commands: serialization of options, and
+ * a read through {@link ExifTool#getImageMeta(File, ExifToolOptions, java.util.Collection)}
+ * with a strategy that does not run any command (only the arguments are built).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ArgumentsBenchmark {
+
+	private ExifTool exifTool;
+	private ExifToolOptions options;
+	private List<Tag> tags;
+	private File image;
+
+	@Setup
+	public void setUp() throws IOException {
+		exifTool = new ExifToolBuilder()
+				.withPath(Fixtures.installFakeExifTool())
+				.withStrategy(new NoOutputStrategy())
+				.build();
+
+		tags = asList(StandardTag.values());
+		image = Fixtures.createImage();
+		options = StandardOptions.builder()
+				.withNumericFormat()
+				.withIgnoreMinorErrors(true)
+				.withCharset(StandardCharsets.UTF_8)
+				.withDateFormat("%Y-%m-%d %H:%M:%S")
+				.withCoordFormat("%.6f")
+				.withLang("en")
+				.build();
+	}
+
+	@TearDown
+	public void tearDown() throws Exception {
+		exifTool.close();
+	}
+
+	@Benchmark
+	public Iterable<String> serializeOptions() {
+		return options.serialize();
+	}
+
+	@Benchmark
+	public Map<Tag, String> getImageMeta() throws IOException {
+		return exifTool.getImageMeta(image, options, tags);
+	}
+
+	/**
+	 * Strategy ending each command immediately, without any output.
+	 */
+	private static final class NoOutputStrategy implements ExecutionStrategy {
+		@Override
+		public void execute(CommandExecutor executor, String exifTool, List<String> arguments, OutputHandler handler) {
+			handler.readLine(null);
+		}
+
+		@Override
+		public boolean isRunning() {
+			return false;
+		}
+
+		@Override
+		public boolean isSupported(Version version) {
+			return true;
+		}
+
+		@Override
+		public void close() {
+		}
+
+		@Override
+		public void shutdown() {
+		}
+	}
+}
@@ -0,0 +1,105 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
+/**
+ * Fixtures shared by benchmarks.
+ */
+final class Fixtures {
+
+	/**
+	 * Output of {@code exiftool -S} for a real image.
+	 */
+	private static final String OUTPUT = "nikon-d90-audi.txt";
+
+	/**
+	 * Fake {@code exiftool} script, printing {@link #OUTPUT} for each command.
+	 */
+	private static final String FAKE_EXIFTOOL = "fake-exiftool.sh";
+
+	// Ensure non instantiation.
+	private Fixtures() {
+	}
+
+	/**
+	 * Read lines printed by {@code exiftool -S} for a real image.
+	 *
+	 * @return Output lines.
+	 * @throws IOException If output cannot be read.
+	 */
+	static List<String> readOutput() throws IOException {
+		Path directory = Files.createTempDirectory("exiftool-benchmark");
+		Path output = copy(OUTPUT, directory);
+		return Files.readAllLines(output, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Install the fake {@code exiftool} in a temporary directory: this fake executable
+	 * supports the {@code -ver} option, one-shot commands and the {@code stay_open} mode.
+	 *
+	 * @return The executable.
+	 * @throws IOException If executable cannot be installed.
+	 */
+	static File installFakeExifTool() throws IOException {
+		Path directory = Files.createTempDirectory("exiftool-benchmark");
+		copy(OUTPUT, directory);
+
+		File script = copy(FAKE_EXIFTOOL, directory).toFile();
+		if (!script.setExecutable(true)) {
+			throw new IOException("Cannot make " + script + " executable");
+		}
+
+		return script;
+	}
+
+	/**
+	 * Create an image file: the fake {@code exiftool} does not read it, but it must exist.
+	 *
+	 * @return The image.
+	 * @throws IOException If file cannot be created.
+	 */
+	static File createImage() throws IOException {
+		File image = File.createTempFile("exiftool-benchmark", ".jpg");
+		image.deleteOnExit();
+		return image;
+	}
+
+	private static Path copy(String name, Path directory) throws IOException {
+		Path target = directory.resolve(name);
+		target.toFile().deleteOnExit();
+
+		try (InputStream is = Fixtures.class.getResourceAsStream("/benchmarks/" + name)) {
+			if (is == null) {
+				throw new IOException("Benchmark resource " + name + " cannot be found");
+			}
+
+			Files.copy(is, target, StandardCopyOption.REPLACE_EXISTING);
+		}
+
+		return target;
+	}
+}
@@ -0,0 +1,97 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.benchmarks;
+
+import com.thebuzzmedia.exiftool.ExifTool;
+import com.thebuzzmedia.exiftool.ExifToolBuilder;
+import com.thebuzzmedia.exiftool.Tag;
+import com.thebuzzmedia.exiftool.core.StandardTag;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Arrays.asList;
+
+/**
+ * End-to-end throughput of execution strategies, with several threads reading
+ * metadata concurrently.
+ *
+ * <br>
+ *
+ * Commands are executed by a fake {@code exiftool} script printing the same output for each command,
+ * so that results only depend on the strategy, process management and parsing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(4)
+@Fork(1)
+public class StrategyBenchmark {
+
+	@Param({"default", "stay_open", "pool"})
+	public String strategy;
+
+	private ExifTool exifTool;
+	private File image;
+	private List<Tag> tags;
+
+	@Setup
+	public void setUp() throws IOException {
+		File fakeExifTool = Fixtures.installFakeExifTool();
+		image = Fixtures.createImage();
+		tags = asList(StandardTag.values());
+
+		ExifToolBuilder builder = new ExifToolBuilder().withPath(fakeExifTool);
+		if ("stay_open".equals(strategy)) {
+			builder.enableStayOpen();
+		}
+		else if ("pool".equals(strategy)) {
+			builder.withPoolSize(4);
+		}
+
+		exifTool = builder.build();
+	}
+
+	@TearDown
+	public void tearDown() throws Exception {
+		exifTool.close();
+	}
+
+	@Benchmark
+	public Map<Tag, String> getImageMeta() throws IOException {
+		return exifTool.getImageMeta(image, tags);
+	}
+}
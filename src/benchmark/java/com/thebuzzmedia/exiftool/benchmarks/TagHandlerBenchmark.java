@@ -0,0 +1,81 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.benchmarks;
+
+import com.thebuzzmedia.exiftool.Tag;
+import com.thebuzzmedia.exiftool.core.StandardTag;
+import com.thebuzzmedia.exiftool.core.handlers.AllTagHandler;
+import com.thebuzzmedia.exiftool.core.handlers.StandardTagHandler;
+import com.thebuzzmedia.exiftool.core.handlers.TagHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Arrays.asList;
+
+/**
+ * Parse output of {@code exiftool -S} with tag handlers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TagHandlerBenchmark {
+
+	private List<String> lines;
+	private List<Tag> tags;
+
+	@Setup
+	public void setUp() throws IOException {
+		lines = Fixtures.readOutput();
+		tags = asList(StandardTag.values());
+	}
+
+	@Benchmark
+	public Map<Tag, String> allTagHandler() {
+		return parse(new AllTagHandler());
+	}
+
+	@Benchmark
+	public Map<Tag, String> standardTagHandler() {
+		return parse(new StandardTagHandler(tags));
+	}
+
+	private Map<Tag, String> parse(TagHandler handler) {
+		for (String line : lines) {
+			handler.readLine(line);
+		}
+
+		handler.readLine("{ready}");
+		return handler.getTags();
+	}
+}
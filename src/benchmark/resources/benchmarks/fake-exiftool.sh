@@ -0,0 +1,30 @@
+#!/bin/bash
+
+# Fake exiftool, used by benchmarks: each command prints the same output, read once
+# from the file next to this script, so that results do not depend on exiftool itself.
+
+OUTPUT=$(<"$(dirname "$0")/nikon-d90-audi.txt")
+
+if [ "$1" = "-ver" ]; then
+	echo "10.16"
+	exit 0
+fi
+
+if [ "$1" = "-stay_open" ]; then
+	# Commands are read from standard input, until "-stay_open False" is received.
+	while IFS= read -r line; do
+		case "$line" in
+			-execute*)
+				printf '%s\n{ready%s}\n' "$OUTPUT" "${line#-execute}"
+				;;
+			False)
+				exit 0
+				;;
+		esac
+	done
+
+	exit 0
+fi
+
+printf '%s\n' "$OUTPUT"
+exit 0
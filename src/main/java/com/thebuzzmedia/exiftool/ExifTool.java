@@ -19,36 +19,79 @@ package com.thebuzzmedia.exiftool;
 
 import com.thebuzzmedia.exiftool.commons.gc.Cleaner;
 import com.thebuzzmedia.exiftool.commons.gc.CleanerFactory;
+import com.thebuzzmedia.exiftool.commons.io.BoundedInputStream;
+import com.thebuzzmedia.exiftool.commons.io.ByteBufferInputStream;
+import com.thebuzzmedia.exiftool.core.FileMetadata;
+import com.thebuzzmedia.exiftool.core.ReadResult;
 import com.thebuzzmedia.exiftool.core.StandardFormat;
 import com.thebuzzmedia.exiftool.core.StandardOptions;
+import com.thebuzzmedia.exiftool.core.TagValues;
 import com.thebuzzmedia.exiftool.core.UnspecifiedTag;
+import com.thebuzzmedia.exiftool.core.WriteResult;
+import com.thebuzzmedia.exiftool.core.async.AsyncExecutor;
+import com.thebuzzmedia.exiftool.core.async.MetadataPublisher;
 import com.thebuzzmedia.exiftool.core.cache.VersionCacheFactory;
+import com.thebuzzmedia.exiftool.core.cache.MetadataCacheKey;
+import com.thebuzzmedia.exiftool.core.cache.ReadCoalescer;
 import com.thebuzzmedia.exiftool.core.handlers.AllTagHandler;
+import com.thebuzzmedia.exiftool.core.handlers.BatchTagHandler;
+import com.thebuzzmedia.exiftool.core.handlers.BinaryTagHandler;
+import com.thebuzzmedia.exiftool.core.handlers.DirectoryScanHandler;
+import com.thebuzzmedia.exiftool.core.handlers.JsonTagHandler;
 import com.thebuzzmedia.exiftool.core.handlers.StandardTagHandler;
 import com.thebuzzmedia.exiftool.core.handlers.TagHandler;
+import com.thebuzzmedia.exiftool.core.handlers.WriteResultHandler;
+import com.thebuzzmedia.exiftool.core.strategies.DefaultStrategy;
+import com.thebuzzmedia.exiftool.core.strategies.WarmUpCommand;
+import com.thebuzzmedia.exiftool.exceptions.ProcessCrashedException;
 import com.thebuzzmedia.exiftool.exceptions.UnsupportedFeatureException;
 import com.thebuzzmedia.exiftool.logs.Logger;
 import com.thebuzzmedia.exiftool.logs.LoggerFactory;
+import com.thebuzzmedia.exiftool.process.Command;
 import com.thebuzzmedia.exiftool.process.CommandExecutor;
+import com.thebuzzmedia.exiftool.process.OutputHandler;
+import com.thebuzzmedia.exiftool.process.command.CommandBuilder;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
 import java.util.StringTokenizer;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.regex.Pattern;
 
 import static com.thebuzzmedia.exiftool.commons.iterables.Collections.addAll;
-import static com.thebuzzmedia.exiftool.commons.iterables.Collections.toCollection;
 import static com.thebuzzmedia.exiftool.commons.lang.PreConditions.isReadable;
 import static com.thebuzzmedia.exiftool.commons.lang.PreConditions.isWritable;
 import static com.thebuzzmedia.exiftool.commons.lang.PreConditions.notBlank;
 import static com.thebuzzmedia.exiftool.commons.lang.PreConditions.notEmpty;
 import static com.thebuzzmedia.exiftool.core.handlers.StopHandler.stopHandler;
+import static com.thebuzzmedia.exiftool.core.metrics.NoOpMetrics.noOpMetrics;
 import static java.util.Collections.singleton;
+import static java.util.Collections.singletonList;
+import static java.util.Collections.unmodifiableMap;
 import static java.util.Objects.requireNonNull;
 
 /**
@@ -296,6 +339,22 @@ public class ExifTool implements AutoCloseable {
 	 */
 	private static final VersionCache cache = VersionCacheFactory.newCache();
 
+	/**
+	 * Minimum version of {@code exiftool} supporting the {@code -echo3} option, used
+	 * to detect the end of binary output.
+	 */
+	private static final Version V9_15 = new Version("9.15");
+
+	/**
+	 * Minimum version of {@code exiftool} supporting the {@code -charset filename=UTF8} option.
+	 */
+	private static final Version V9_79 = new Version("9.79");
+
+	/**
+	 * File argument used to read an image from the standard input.
+	 */
+	private static final String STDIN = "-";
+
 	/**
 	 * Command Executor.
 	 * This withExecutor will be used to execute exiftool process and commands.
@@ -315,6 +374,14 @@ public class ExifTool implements AutoCloseable {
 	 */
 	private final Version version;
 
+	/**
+	 * Whether commands start with {@code -charset filename=UTF8}: arguments written to a {@code stay_open}
+	 * process are always encoded as {@code UTF-8}, but older {@code exiftool} versions do not support this option
+	 * (file names are then given as raw bytes). Arguments given on the command line (see {@link DefaultStrategy})
+	 * use the system encoding, so the option is never added with this strategy.
+	 */
+	private final boolean utf8FileNames;
+
 	/**
 	 * ExifTool execution strategy.
 	 * This strategy implement how exiftool is effectively used (as one-shot
@@ -322,6 +389,27 @@ public class ExifTool implements AutoCloseable {
 	 */
 	private final ExecutionStrategy strategy;
 
+	/**
+	 * Executor used to run asynchronous operations, may be {@code null} if
+	 * asynchronous operations have not been enabled.
+	 */
+	private final AsyncExecutor asyncExecutor;
+
+	/**
+	 * Metrics, notified of the number of tags extracted by each command.
+	 */
+	private final ExifToolMetrics metrics;
+
+	/**
+	 * Cache of image metadata, may be {@code null} if cache has not been enabled.
+	 */
+	private final MetadataCache metadataCache;
+
+	/**
+	 * Coalescer of identical concurrent reads, may be {@code null} if coalescing has not been enabled.
+	 */
+	private final ReadCoalescer readCoalescer;
+
 	/**
 	 * Create new ExifTool instance.
 	 * When exiftool is created, it will try to activate some features.
@@ -333,6 +421,64 @@ public class ExifTool implements AutoCloseable {
 	 * @param strategy Execution strategy.
 	 */
 	ExifTool(String path, CommandExecutor executor, ExecutionStrategy strategy) {
+		this(path, executor, strategy, null);
+	}
+
+	/**
+	 * Create new ExifTool instance, with asynchronous operations enabled.
+	 *
+	 * @param path ExifTool withPath.
+	 * @param executor Executor used to handle command line.
+	 * @param strategy Execution strategy.
+	 * @param asyncExecutor Executor used to run asynchronous operations, may be {@code null}.
+	 */
+	ExifTool(String path, CommandExecutor executor, ExecutionStrategy strategy, AsyncExecutor asyncExecutor) {
+		this(path, executor, strategy, asyncExecutor, noOpMetrics());
+	}
+
+	/**
+	 * Create new ExifTool instance, with asynchronous operations and metrics enabled.
+	 *
+	 * @param path ExifTool withPath.
+	 * @param executor Executor used to handle command line.
+	 * @param strategy Execution strategy.
+	 * @param asyncExecutor Executor used to run asynchronous operations, may be {@code null}.
+	 * @param metrics Metrics.
+	 */
+	ExifTool(String path, CommandExecutor executor, ExecutionStrategy strategy, AsyncExecutor asyncExecutor, ExifToolMetrics metrics) {
+		this(path, executor, strategy, asyncExecutor, metrics, null);
+	}
+
+	/**
+	 * Create new ExifTool instance, with asynchronous operations, metrics and metadata cache enabled.
+	 *
+	 * @param path ExifTool withPath.
+	 * @param executor Executor used to handle command line.
+	 * @param strategy Execution strategy.
+	 * @param asyncExecutor Executor used to run asynchronous operations, may be {@code null}.
+	 * @param metrics Metrics.
+	 * @param metadataCache Cache of image metadata, may be {@code null}.
+	 */
+	ExifTool(String path, CommandExecutor executor, ExecutionStrategy strategy, AsyncExecutor asyncExecutor, ExifToolMetrics metrics, MetadataCache metadataCache) {
+		this(path, executor, strategy, asyncExecutor, metrics, metadataCache, null);
+	}
+
+	/**
+	 * Create new ExifTool instance, with asynchronous operations, metrics, metadata cache and coalescing of reads enabled.
+	 *
+	 * @param path ExifTool withPath.
+	 * @param executor Executor used to handle command line.
+	 * @param strategy Execution strategy.
+	 * @param asyncExecutor Executor used to run asynchronous operations, may be {@code null}.
+	 * @param metrics Metrics.
+	 * @param metadataCache Cache of image metadata, may be {@code null}.
+	 * @param readCoalescer Coalescer of identical concurrent reads, may be {@code null}.
+	 */
+	ExifTool(String path, CommandExecutor executor, ExecutionStrategy strategy, AsyncExecutor asyncExecutor, ExifToolMetrics metrics, MetadataCache metadataCache, ReadCoalescer readCoalescer) {
+		this.asyncExecutor = asyncExecutor;
+		this.metadataCache = metadataCache;
+		this.readCoalescer = readCoalescer;
+		this.metrics = requireNonNull(metrics, "Metrics should not be null");
 		this.executor = requireNonNull(executor, "Executor should not be null");
 		this.path = notBlank(path, "ExifTool path should not be null");
 		this.strategy = requireNonNull(strategy, "Execution strategy should not be null");
@@ -343,9 +489,21 @@ public class ExifTool implements AutoCloseable {
 			throw new UnsupportedFeatureException(path, version);
 		}
 
+		this.utf8FileNames = V9_79.compareTo(version) <= 0 && !(strategy instanceof DefaultStrategy);
+
 		cleaner.register(this, new FinalizerTask(strategy));
 	}
 
+	/**
+	 * Get the cache of image metadata, to read hit and miss counts for instance.
+	 *
+	 * @return The cache, {@code null} if cache has not been enabled.
+	 * @see ExifToolBuilder#withMetadataCache(long)
+	 */
+	public MetadataCache getMetadataCache() {
+		return metadataCache;
+	}
+
 	/**
 	 * This method should be used to clean previous execution.
 	 *
@@ -446,7 +604,7 @@ public class ExifTool implements AutoCloseable {
 		log.debug("Querying all tags from image: {}", image);
 		UnspecifiedTag all = new UnspecifiedTag("All");
 		Set<UnspecifiedTag> tags = singleton(all);
-		return getImageMeta(image, tags, options, new AllTagHandler());
+		return read(image, tags, options, null).getTags();
 	}
 
 	/**
@@ -501,123 +659,1238 @@ public class ExifTool implements AutoCloseable {
 
 		log.debug("Querying {} tags from image: {}", tags.size(), image);
 
-		// Create a result map big enough to hold results for each of the tags
-		// and avoid collisions while inserting.
-		StandardTagHandler tagHandler = new StandardTagHandler(tags);
+		return read(image, tags, options, tags).getTags();
+	}
+
+	/**
+	 * Parse image metadata, and get warnings printed by {@code exiftool} while reading
+	 * the image (such as {@code Warning: [minor] Unrecognized MakerNotes}).
+	 *
+	 * <br>
+	 *
+	 * Note that results with warnings are never put in the metadata cache: each read of such
+	 * an image executes {@code exiftool} and reports its warnings.
+	 *
+	 * @param image Image.
+	 * @param options ExifTool options.
+	 * @param tags List of tags to extract.
+	 * @return Tags with their values, and warnings.
+	 * @throws IOException If something bad happen during I/O operations.
+	 * @throws NullPointerException If one parameter is null.
+	 * @throws IllegalArgumentException If list of tag is empty.
+	 * @throws com.thebuzzmedia.exiftool.exceptions.UnreadableFileException If image cannot be read.
+	 */
+	public ReadResult getImageMetaResult(File image, ExifToolOptions options, Collection<? extends Tag> tags) throws IOException {
+		requireNonNull(options, "Options cannot be null.");
+		notEmpty(tags, "Tags cannot be null and must contain 1 or more Tag to query the image for.");
+
+		log.debug("Querying {} tags from image: {}", tags.size(), image);
+
+		return read(image, tags, options, tags);
+	}
+
+	/**
+	 * Parse image metadata, in numeric format, as compact {@link TagValues}: values can be read
+	 * with primitive accessors, such as {@link TagValues#getInt(Tag, int)}.
+	 *
+	 * @param image Image.
+	 * @param tags List of tags to extract.
+	 * @return Tags with their values.
+	 * @throws IOException If something bad happen during I/O operations.
+	 * @throws NullPointerException If one parameter is null.
+	 * @throws IllegalArgumentException If list of tag is empty.
+	 * @throws com.thebuzzmedia.exiftool.exceptions.UnreadableFileException If image cannot be read.
+	 */
+	public TagValues getTagValues(File image, Collection<? extends Tag> tags) throws IOException {
+		return getTagValues(image, StandardOptions.builder().withFormat(StandardFormat.NUMERIC).build(), tags);
+	}
 
-		return getImageMeta(image, tags, options, tagHandler);
+	/**
+	 * Parse image metadata as compact {@link TagValues}: values can be read
+	 * with primitive accessors, such as {@link TagValues#getInt(Tag, int)}.
+	 *
+	 * @param image Image.
+	 * @param options ExifTool options.
+	 * @param tags List of tags to extract.
+	 * @return Tags with their values.
+	 * @throws IOException If something bad happen during I/O operations.
+	 * @throws NullPointerException If one parameter is null.
+	 * @throws IllegalArgumentException If list of tag is empty.
+	 * @throws com.thebuzzmedia.exiftool.exceptions.UnreadableFileException If image cannot be read.
+	 */
+	public TagValues getTagValues(File image, ExifToolOptions options, Collection<? extends Tag> tags) throws IOException {
+		return getImageMetaResult(image, options, tags).getTagValues();
 	}
 
-	private Map<Tag, String> getImageMeta(File image, Collection<? extends Tag> tags, ExifToolOptions options, TagHandler tagHandler) throws IOException {
+	private ReadResult read(File image, Collection<? extends Tag> tags, ExifToolOptions options, Collection<? extends Tag> expected) throws IOException {
 		requireNonNull(image, "Image cannot be null and must be a valid stream of image data.");
 		requireNonNull(options, "Options cannot be null.");
 		isReadable(image, String.format("Unable to read the given image [%s], ensure that the image exists at the given withPath and that the executing Java process has permissions to read it.", image));
 
+		if (metadataCache == null && readCoalescer == null) {
+			return readImageMeta(image, tags, options, expected);
+		}
+
+		// Keys only contain tag names: shared values may have been read with other instances of
+		// requested tags (such as StandardTag.ISO and new UnspecifiedTag("ISO")).
+		MetadataCacheKey key = MetadataCacheKey.of(image, options, tags);
+		if (metadataCache != null) {
+			TagValues cached = metadataCache.get(key);
+			if (cached != null) {
+				log.debug("Image Meta found in cache: {}", image);
+				return new ReadResult(expected == null ? cached : cached.forTags(expected), Collections.<String>emptyList());
+			}
+		}
+
+		if (readCoalescer == null) {
+			return readAndCacheImageMeta(key, image, tags, options, expected);
+		}
+
+		// Identical concurrent reads share the same command.
+		ReadResult result = readCoalescer.read(key, () -> readAndCacheImageMeta(key, image, tags, options, expected));
+		return expected == null ? result : forTags(result, expected);
+	}
+
+	private static ReadResult forTags(ReadResult result, Collection<? extends Tag> tags) {
+		TagValues values = result.getTagValues();
+		TagValues tagValues = values.forTags(tags);
+		return tagValues == values ? result : new ReadResult(tagValues, result.getWarnings());
+	}
+
+	private ReadResult readAndCacheImageMeta(MetadataCacheKey key, File image, Collection<? extends Tag> tags, ExifToolOptions options, Collection<? extends Tag> expected) throws IOException {
+		ReadResult result = readImageMeta(image, tags, options, expected);
+
+		// Do not cache results with warnings: next reads should report them too.
+		if (metadataCache != null && !result.hasWarnings()) {
+			metadataCache.put(key, result.getTagValues());
+		}
+
+		return result;
+	}
+
+	private ReadResult readImageMeta(File image, Collection<? extends Tag> tags, ExifToolOptions options, Collection<? extends Tag> expected) throws IOException {
 		// Build list of exiftool arguments.
 		List<String> args = toArguments(image, tags, options);
 
 		// Execute ExifTool command
-		strategy.execute(executor, path, args, tagHandler);
+		TagHandler tagHandler = executeRead(args, () -> newTagHandler(options, expected));
 
 		// Add some debugging log
 		log.debug("Image Meta Processed [queried {}, found {} values]", tagHandler.size(), tagHandler.size());
+		metrics.recordTags(tagHandler.size());
+		logWarnings(image, tagHandler);
 
-		return tagHandler.getTags();
+		return new ReadResult(tagHandler.getTagValues(), tagHandler.getWarnings());
 	}
 
 	/**
-	 * Write image metadata.
-	 * Default format is numeric.
+	 * Parse metadata of an image read from a stream, for all tags.
 	 *
-	 * @param image Image.
-	 * @param tags Tags to write.
-	 * @throws IOException If an error occurs during write operation.
+	 * @param stream Image content (this stream is not closed).
+	 * @param options ExifTool options.
+	 * @return Pair of tag associated with the value.
+	 * @throws IOException If something bad happen during I/O operations.
+	 * @throws NullPointerException If one parameter is null.
+	 * @see #getImageMeta(InputStream, ExifToolOptions, Collection)
 	 */
-	public void setImageMeta(File image, Map<? extends Tag, String> tags) throws IOException {
-		setImageMeta(image, StandardFormat.NUMERIC, tags);
+	public Map<Tag, String> getImageMeta(InputStream stream, ExifToolOptions options) throws IOException {
+		log.debug("Querying all tags from stream");
+		UnspecifiedTag all = new UnspecifiedTag("All");
+		Set<UnspecifiedTag> tags = singleton(all);
+		return read(stream, tags, options, newTagHandler(options, null)).getTags();
 	}
 
 	/**
-	 * Write image metadata in a specific format.
+	 * Parse metadata of an image read from a stream: this avoid writing a temporary file
+	 * for images that are not stored on the file system.
 	 *
-	 * @param image Image.
-	 * @param format Specified format.
-	 * @param tags Tags to write.
-	 * @throws IOException If an error occurs during write operation.
+	 * <br>
+	 *
+	 * The stream is given to {@code exiftool} through its standard input (using the {@code -} file
+	 * argument): since the {@code stay_open} feature already use the standard input to read commands,
+	 * a one-shot process is always used, whatever the execution strategy. Bytes are copied using
+	 * a small buffer, the stream is never read entirely in memory.
+	 *
+	 * @param stream Image content (this stream is not closed).
+	 * @param options ExifTool options.
+	 * @param tags List of tags to extract.
+	 * @return Pair of tag associated with the value.
+	 * @throws IOException If something bad happen during I/O operations.
+	 * @throws NullPointerException If one parameter is null.
+	 * @throws IllegalArgumentException If list of tag is empty.
+	 * @throws UnsupportedOperationException If command executor does not support standard input.
 	 */
-	public void setImageMeta(File image, Format format, Map<? extends Tag, String> tags) throws IOException {
-		requireNonNull(format, "Format cannot be null.");
-		ExifToolOptions options = StandardOptions.builder().withFormat(format).build();
-		setImageMeta(image, options, tags);
+	public Map<Tag, String> getImageMeta(InputStream stream, ExifToolOptions options, Collection<? extends Tag> tags) throws IOException {
+		requireNonNull(options, "Options cannot be null.");
+		notEmpty(tags, "Tags cannot be null and must contain 1 or more Tag to query the image for.");
+
+		log.debug("Querying {} tags from stream", tags.size());
+
+		return read(stream, tags, options, newTagHandler(options, tags)).getTags();
 	}
 
 	/**
-	 * Write image metadata in a specific format.
+	 * Parse metadata of an image read from a stream, and get warnings printed by {@code exiftool}
+	 * while reading the image (such as {@code Warning: Invalid EXIF text encoding}).
 	 *
-	 * @param image Image.
+	 * @param stream Image content (this stream is not closed).
 	 * @param options ExifTool options.
-	 * @param tags Tags to write.
-	 * @throws IOException If an error occurs during write operation.
+	 * @param tags List of tags to extract.
+	 * @return Tags with their values, and warnings.
+	 * @throws IOException If something bad happen during I/O operations.
+	 * @throws NullPointerException If one parameter is null.
+	 * @throws IllegalArgumentException If list of tag is empty.
+	 * @throws UnsupportedOperationException If command executor does not support standard input.
+	 * @see #getImageMeta(InputStream, ExifToolOptions, Collection)
 	 */
-	public void setImageMeta(File image, ExifToolOptions options, Map<? extends Tag, String> tags) throws IOException {
-		requireNonNull(image, "Image cannot be null and must be a valid stream of image data.");
+	public ReadResult getImageMetaResult(InputStream stream, ExifToolOptions options, Collection<? extends Tag> tags) throws IOException {
 		requireNonNull(options, "Options cannot be null.");
 		notEmpty(tags, "Tags cannot be null and must contain 1 or more Tag to query the image for.");
-		isWritable(image, String.format("Unable to read the given image [%s], ensure that the image exists at the given withPath and that the executing Java process has permissions to read it.", image));
 
-		log.debug("Writing {} tags to image: {}", tags.size(), image);
+		log.debug("Querying {} tags from stream", tags.size());
 
-		long startTime = System.currentTimeMillis();
+		return read(stream, tags, options, newTagHandler(options, tags));
+	}
 
-		// Get arguments
-		List<String> args = toArguments(image, tags, options);
+	/**
+	 * Parse metadata of an image read from a stream, giving only the first bytes of the
+	 * stream to {@code exiftool}.
+	 *
+	 * <br>
+	 *
+	 * Most formats (such as JPEG or TIFF) store metadata at the beginning of the file: reading
+	 * a header prefix is enough and avoid reading (and downloading) the whole image. Note that
+	 * {@code exiftool} may report a warning, or miss some tags, if metadata is not fully available
+	 * in the prefix.
+	 *
+	 * @param stream Image content (this stream is not closed).
+	 * @param maxBytes Maximum number of bytes given to {@code exiftool}.
+	 * @param options ExifTool options.
+	 * @param tags List of tags to extract.
+	 * @return Pair of tag associated with the value.
+	 * @throws IOException If something bad happen during I/O operations.
+	 * @throws NullPointerException If one parameter is null.
+	 * @throws IllegalArgumentException If list of tag is empty or if {@code maxBytes} is not strictly positive.
+	 * @see #getImageMeta(InputStream, ExifToolOptions, Collection)
+	 */
+	public Map<Tag, String> getImageMeta(InputStream stream, long maxBytes, ExifToolOptions options, Collection<? extends Tag> tags) throws IOException {
+		requireNonNull(stream, "Stream cannot be null.");
+		return getImageMeta(new BoundedInputStream(stream, maxBytes), options, tags);
+	}
 
-		// Execute ExifTool command
-		strategy.execute(executor, path, args, stopHandler());
+	/**
+	 * Parse metadata of an image stored in memory.
+	 *
+	 * @param image Image content.
+	 * @param options ExifTool options.
+	 * @param tags List of tags to extract.
+	 * @return Pair of tag associated with the value.
+	 * @throws IOException If something bad happen during I/O operations.
+	 * @throws NullPointerException If one parameter is null.
+	 * @throws IllegalArgumentException If list of tag is empty.
+	 * @see #getImageMeta(InputStream, ExifToolOptions, Collection)
+	 */
+	public Map<Tag, String> getImageMeta(byte[] image, ExifToolOptions options, Collection<? extends Tag> tags) throws IOException {
+		requireNonNull(image, "Image cannot be null.");
+		return getImageMeta(new ByteArrayInputStream(image), options, tags);
+	}
 
-		log.debug("Image Meta Processed in {} ms [write {} tags]", System.currentTimeMillis() - startTime, tags.size());
+	/**
+	 * Parse metadata of an image stored in memory: remaining bytes of the buffer are read, the
+	 * buffer position is not modified.
+	 *
+	 * @param image Image content.
+	 * @param options ExifTool options.
+	 * @param tags List of tags to extract.
+	 * @return Pair of tag associated with the value.
+	 * @throws IOException If something bad happen during I/O operations.
+	 * @throws NullPointerException If one parameter is null.
+	 * @throws IllegalArgumentException If list of tag is empty.
+	 * @see #getImageMeta(InputStream, ExifToolOptions, Collection)
+	 */
+	public Map<Tag, String> getImageMeta(ByteBuffer image, ExifToolOptions options, Collection<? extends Tag> tags) throws IOException {
+		requireNonNull(image, "Image cannot be null.");
+		return getImageMeta(new ByteBufferInputStream(image), options, tags);
 	}
 
-	private List<String> toArguments(File image, Collection<? extends Tag> tags, ExifToolOptions options) {
-		List<String> tagArgs = new ArrayList<>(tags.size());
-		for (Tag tag : tags) {
-			tagArgs.add("-" + tag.getName());
-		}
+	private ReadResult read(InputStream stream, Collection<? extends Tag> tags, ExifToolOptions options, TagHandler tagHandler) throws IOException {
+		requireNonNull(stream, "Stream cannot be null.");
+		requireNonNull(options, "Options cannot be null.");
 
-		return toArguments(image, options, tagArgs);
-	}
+		// Read image from standard input.
+		List<String> args = toArguments(singletonList(STDIN), options, toTagArguments(tags));
+		Command cmd = CommandBuilder.builder(path, args.size() + 2)
+				.addArgument("-sep", Constants.SEPARATOR)
+				.addAll(args)
+				.build();
 
-	private List<String> toArguments(File image, Map<? extends Tag, String> tags, ExifToolOptions options) {
-		List<String> tagArgs = new ArrayList<>(tags.size());
-		for (Map.Entry<? extends Tag, String> entry : tags.entrySet()) {
-			tagArgs.add("-" + entry.getKey().getName() + "=" + entry.getValue());
-		}
+		executor.execute(cmd, stream, tagHandler);
+
+		log.debug("Stream Meta Processed [found {} values]", tagHandler.size());
+		metrics.recordTags(tagHandler.size());
+		logWarnings(STDIN, tagHandler);
+
+		return new ReadResult(tagHandler.getTagValues(), tagHandler.getWarnings());
+	}
 
-		return toArguments(image, options, tagArgs);
+	/**
+	 * Parse metadata of several images for all tags, using a single {@code exiftool}
+	 * command.
+	 *
+	 * @param images Images.
+	 * @param options ExifTool options.
+	 * @return Pair of tag associated with the value, for each image.
+	 * @throws IOException If something bad happen during I/O operations.
+	 * @throws NullPointerException If one parameter is null.
+	 * @throws IllegalArgumentException If list of images is empty.
+	 * @throws com.thebuzzmedia.exiftool.exceptions.UnreadableFileException If one image cannot be read.
+	 * @see #getImageMeta(Collection, ExifToolOptions, Collection)
+	 */
+	public Map<File, Map<Tag, String>> getImageMeta(Collection<File> images, ExifToolOptions options) throws IOException {
+		log.debug("Querying all tags from images: {}", images);
+		UnspecifiedTag all = new UnspecifiedTag("All");
+		Set<UnspecifiedTag> tags = singleton(all);
+		return getImageMeta(images, tags, null, options);
 	}
 
-	private List<String> toArguments(File image, ExifToolOptions options, List<String> tags) {
-		Collection<String> optionArgs = toCollection(options.serialize());
-		int expectedSize = optionArgs.size() + tags.size() + 3;
-		List<String> args = new ArrayList<>(expectedSize);
+	/**
+	 * Parse metadata of several images, using a single {@code exiftool} command.
+	 *
+	 * <br>
+	 *
+	 * All images are sent to {@code exiftool} at once: this avoid paying the cost of
+	 * a round trip (or a new process, if {@code stay_open} flag is not enabled) for each
+	 * image. Note that, without {@code stay_open} flag, images are given as command line arguments,
+	 * so the number of images should remain reasonable.
+	 *
+	 * @param images Images.
+	 * @param options ExifTool options.
+	 * @param tags List of tags to extract.
+	 * @return Pair of tag associated with the value, for each image (in the same order than given images).
+	 * @throws IOException If something bad happen during I/O operations.
+	 * @throws NullPointerException If one parameter is null.
+	 * @throws IllegalArgumentException If list of images or list of tags is empty.
+	 * @throws com.thebuzzmedia.exiftool.exceptions.UnreadableFileException If one image cannot be read.
+	 */
+	public Map<File, Map<Tag, String>> getImageMeta(Collection<File> images, ExifToolOptions options, Collection<? extends Tag> tags) throws IOException {
+		requireNonNull(options, "Options cannot be null.");
+		notEmpty(tags, "Tags cannot be null and must contain 1 or more Tag to query the image for.");
+
+		log.debug("Querying {} tags from images: {}", tags.size(), images);
 
-		// Options.
-		addAll(args, optionArgs);
+		return getImageMeta(images, tags, tags, options);
+	}
 
-		// Compact output.
-		args.add("-S");
+	private Map<File, Map<Tag, String>> getImageMeta(Collection<File> images, Collection<? extends Tag> tags, Collection<? extends Tag> expected, ExifToolOptions options) throws IOException {
+		notEmpty(images, "Images cannot be null and must contain 1 or more image to query.");
+		requireNonNull(options, "Options cannot be null.");
+		for (File image : images) {
+			requireNonNull(image, "Image cannot be null and must be a valid stream of image data.");
+			isReadable(image, String.format("Unable to read the given image [%s], ensure that the image exists at the given withPath and that the executing Java process has permissions to read it.", image));
+		}
 
-		// Add tags arguments.
-		args.addAll(tags);
+		// Build list of exiftool arguments.
+		List<String> args = toArguments(images, tags, options);
 
-		// Add image argument.
-		args.add(image.getAbsolutePath());
+		if (isJsonFormat(options)) {
+			// With JSON output, each image is identified by the "SourceFile" entry.
+			JsonTagHandler tagHandler = executeRead(args, () -> new JsonTagHandler(expected));
+			log.debug("Images Meta Processed [queried {} images, found {} values]", images.size(), tagHandler.size());
+			metrics.recordTags(tagHandler.size());
 
-		// Add last argument.
-		// This argument will only be used by exiftool if stay_open flag has been set.
-		args.add("-execute");
+			Map<String, Map<Tag, String>> tagsBySourceFile = tagHandler.getTagsBySourceFile();
+			Map<File, Map<Tag, String>> results = new LinkedHashMap<>();
+			for (File image : images) {
+				Map<Tag, String> imageTags = tagsBySourceFile.get(image.getAbsolutePath());
+				results.put(image, imageTags == null ? Collections.<Tag, String>emptyMap() : imageTags);
+			}
 
-		return new ArrayList<>(args);
+			return unmodifiableMap(results);
+		}
+
+		// Execute ExifTool command
+		BatchTagHandler tagHandler = executeRead(args, () -> new BatchTagHandler(images, () -> newTagHandler(options, expected)));
+
+		// Add some debugging log
+		log.debug("Images Meta Processed [queried {} images, found {} values]", images.size(), tagHandler.size());
+		metrics.recordTags(tagHandler.size());
+
+		return tagHandler.getTags();
+	}
+
+	/**
+	 * Scan a directory, and its sub-directories, and parse metadata of each file found.
+	 *
+	 * @param directory Directory to scan.
+	 * @param options ExifTool options.
+	 * @param tags List of tags to extract.
+	 * @param consumer Consumer of the tags of each file.
+	 * @return The number of files given to the consumer.
+	 * @throws IOException If something bad happen during I/O operations.
+	 * @see #scanDirectory(Path, ExifToolOptions, Collection, Collection, Consumer)
+	 */
+	public long scanDirectory(Path directory, ExifToolOptions options, Collection<? extends Tag> tags, Consumer<? super FileMetadata> consumer) throws IOException {
+		return scanDirectory(directory, options, tags, Collections.<String>emptyList(), consumer);
+	}
+
+	/**
+	 * Scan a directory, and its sub-directories, and parse metadata of each file found.
+	 *
+	 * <br>
+	 *
+	 * Directory is scanned by {@code exiftool} itself (using {@code -r} and {@code -ext} flags): tags
+	 * of each file are given to the consumer as soon as they have been read, so that memory does not
+	 * depend on the number of files. Consumer is never called concurrently.
+	 *
+	 * <br>
+	 *
+	 * If asynchronous operations have been enabled, each sub-directory is scanned by a dedicated command:
+	 * the caller thread scans sub-directories, helped by tasks submitted to the asynchronous executor while
+	 * it has free slots, so that with a pool of {@code exiftool} processes, sub-directories are scanned in parallel.
+	 * The limits of the asynchronous executor never fail this operation. Otherwise, the whole directory is scanned
+	 * with a single command.
+	 *
+	 * <br>
+	 *
+	 * Note that, as {@code exiftool} does, sub-directories starting with a dot are not scanned, and JSON format is not supported.
+	 *
+	 * @param directory Directory to scan.
+	 * @param options ExifTool options.
+	 * @param tags List of tags to extract.
+	 * @param extensions Extensions of the files to read (case-insensitive, such as {@code jpg}), empty to read all files.
+	 * @param consumer Consumer of the tags of each file.
+	 * @return The number of files given to the consumer.
+	 * @throws IOException If something bad happen during I/O operations.
+	 * @throws NullPointerException If one parameter is null.
+	 * @throws IllegalArgumentException If list of tags is empty, if {@code directory} is not a directory or if options use JSON format.
+	 * @throws com.thebuzzmedia.exiftool.exceptions.UnreadableFileException If directory cannot be read.
+	 */
+	public long scanDirectory(Path directory, ExifToolOptions options, Collection<? extends Tag> tags, Collection<String> extensions, Consumer<? super FileMetadata> consumer) throws IOException {
+		requireNonNull(directory, "Directory cannot be null.");
+		requireNonNull(options, "Options cannot be null.");
+		notEmpty(tags, "Tags cannot be null and must contain 1 or more Tag to query the files for.");
+		requireNonNull(extensions, "Extensions cannot be null.");
+		requireNonNull(consumer, "Consumer cannot be null.");
+
+		if (isJsonFormat(options)) {
+			throw new IllegalArgumentException("JSON format is not supported to scan a directory");
+		}
+
+		File root = directory.toFile();
+		isReadable(root, String.format("Unable to read the given directory [%s], ensure that the directory exists and that the executing Java process has permissions to read it.", root));
+		if (!root.isDirectory()) {
+			throw new IllegalArgumentException(String.format("Path [%s] is not a directory", root));
+		}
+
+		log.debug("Scanning {} tags from directory: {}", tags.size(), root);
+
+		List<String> tagArgs = toTagArguments(tags);
+		Consumer<FileMetadata> synchronizedConsumer = new SynchronizedConsumer(consumer);
+
+		long count;
+		if (asyncExecutor == null) {
+			count = scan(root, true, options, tags, tagArgs, extensions, synchronizedConsumer);
+		}
+		else {
+			count = scanConcurrently(root, options, tags, tagArgs, extensions, synchronizedConsumer);
+		}
+
+		log.debug("Directory scanned [{}, found {} files]", root, count);
+		return count;
+	}
+
+	private long scanConcurrently(File root, ExifToolOptions options, Collection<? extends Tag> tags, List<String> tagArgs, Collection<String> extensions, Consumer<FileMetadata> consumer) throws IOException {
+		// Files of the root directory, then each sub-directory, in its own command.
+		Queue<File> directories = new ConcurrentLinkedQueue<>();
+		directories.add(root);
+
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(root.toPath(), p -> Files.isDirectory(p) && !p.getFileName().toString().startsWith("."))) {
+			for (Path subDirectory : stream) {
+				directories.add(subDirectory.toFile());
+			}
+		}
+
+		DirectoryScan scan = new DirectoryScan(root, directories, options, tags, tagArgs, extensions, consumer);
+
+		// Helpers are only submitted while the asynchronous executor has free slots: the caller thread scans
+		// directories too, so that a full (or busy) executor never fails, nor blocks, this synchronous operation.
+		int helpers = directories.size() - 1;
+		for (int i = 0; i < helpers; i++) {
+			if (asyncExecutor.trySubmit(scan) == null) {
+				break;
+			}
+		}
+
+		scan.call();
+		return scan.await();
+	}
+
+	private long scan(File directory, boolean recursive, ExifToolOptions options, Collection<? extends Tag> tags, List<String> tagArgs, Collection<String> extensions, Consumer<FileMetadata> consumer) throws IOException {
+		List<String> scanArgs = new ArrayList<>(extensions.size() * 2 + 2);
+		if (recursive) {
+			scanArgs.add("-r");
+		}
+		for (String extension : extensions) {
+			scanArgs.add("-ext");
+			scanArgs.add(extension);
+		}
+
+		scanArgs.add(directory.getAbsolutePath());
+
+		List<String> args = toArguments(scanArgs, options, tagArgs);
+		DirectoryScanHandler handler = new DirectoryScanHandler(() -> newTagHandler(options, tags), consumer);
+		strategy.execute(executor, path, args, handler);
+
+		// Output has been read until the end: consumer failure can now be thrown.
+		if (handler.getFailure() != null) {
+			throw handler.getFailure();
+		}
+
+		return handler.getCount();
+	}
+
+	/**
+	 * Execute a command that only reads files: if the {@code exiftool} process crashed while executing
+	 * the command, the command is executed once again (with a new handler) since the strategy has already
+	 * discarded the dead process.
+	 *
+	 * @param args Command arguments.
+	 * @param factory Factory of the handler used to read output.
+	 * @param <T> Type of handler.
+	 * @return The handler that has read the complete output.
+	 * @throws IOException If something bad happen during I/O operations.
+	 */
+	private <T extends OutputHandler> T executeRead(List<String> args, Supplier<T> factory) throws IOException {
+		T handler = factory.get();
+
+		try {
+			strategy.execute(executor, path, args, handler);
+			return handler;
+		}
+		catch (ProcessCrashedException ex) {
+			log.warn("ExifTool process crashed, command is executed again: {}", ex.getMessage());
+			T retryHandler = factory.get();
+			strategy.execute(executor, path, args, retryHandler);
+			return retryHandler;
+		}
+	}
+
+	private static void logWarnings(Object image, TagHandler tagHandler) {
+		for (String warning : tagHandler.getWarnings()) {
+			log.warn("ExifTool reported for {}: {}", image, warning);
+		}
+	}
+
+	/**
+	 * Create the handler used to read tags, according to given options.
+	 *
+	 * @param options ExifTool options.
+	 * @param tags Expected tags, {@code null} to read all tags.
+	 * @return The tag handler.
+	 */
+	private static TagHandler newTagHandler(ExifToolOptions options, Collection<? extends Tag> tags) {
+		if (isJsonFormat(options)) {
+			return new JsonTagHandler(tags);
+		}
+
+		return tags == null ? new AllTagHandler() : new StandardTagHandler(tags);
+	}
+
+	private static boolean isJsonFormat(ExifToolOptions options) {
+		return options instanceof StandardOptions && ((StandardOptions) options).isUseJsonFormat();
+	}
+
+	/**
+	 * Write image metadata.
+	 * Default format is numeric.
+	 *
+	 * @param image Image.
+	 * @param tags Tags to write.
+	 * @throws IOException If an error occurs during write operation.
+	 */
+	public void setImageMeta(File image, Map<? extends Tag, String> tags) throws IOException {
+		setImageMeta(image, StandardFormat.NUMERIC, tags);
+	}
+
+	/**
+	 * Write image metadata in a specific format.
+	 *
+	 * @param image Image.
+	 * @param format Specified format.
+	 * @param tags Tags to write.
+	 * @throws IOException If an error occurs during write operation.
+	 */
+	public void setImageMeta(File image, Format format, Map<? extends Tag, String> tags) throws IOException {
+		requireNonNull(format, "Format cannot be null.");
+		ExifToolOptions options = StandardOptions.builder().withFormat(format).build();
+		setImageMeta(image, options, tags);
+	}
+
+	/**
+	 * Write image metadata in a specific format.
+	 *
+	 * @param image Image.
+	 * @param options ExifTool options.
+	 * @param tags Tags to write.
+	 * @throws IOException If an error occurs during write operation.
+	 */
+	public void setImageMeta(File image, ExifToolOptions options, Map<? extends Tag, String> tags) throws IOException {
+		requireNonNull(image, "Image cannot be null and must be a valid stream of image data.");
+		requireNonNull(options, "Options cannot be null.");
+		notEmpty(tags, "Tags cannot be null and must contain 1 or more Tag to query the image for.");
+		isWritable(image, String.format("Unable to read the given image [%s], ensure that the image exists at the given withPath and that the executing Java process has permissions to read it.", image));
+
+		log.debug("Writing {} tags to image: {}", tags.size(), image);
+
+		long startTime = System.currentTimeMillis();
+
+		// Get arguments
+		List<String> args = toArguments(image, tags, options);
+
+		// Reads started before this write must not be shared anymore.
+		if (readCoalescer != null) {
+			readCoalescer.invalidate(image);
+		}
+
+		// Execute ExifTool command
+		try {
+			strategy.execute(executor, path, args, stopHandler());
+		}
+		finally {
+			// Image may have been updated, even partially.
+			invalidate(image);
+		}
+
+		log.debug("Image Meta Processed in {} ms [write {} tags]", System.currentTimeMillis() - startTime, tags.size());
+	}
+
+	/**
+	 * Write the same tags to several images, using a single {@code exiftool} command.
+	 *
+	 * <br>
+	 *
+	 * All images are given to the same command: this avoid paying the cost of a round trip (or a new process,
+	 * if {@code stay_open} flag is not enabled) for each image. Note that, without {@code stay_open} flag, images
+	 * are given as command line arguments, so the number of images should remain reasonable.
+	 *
+	 * <br>
+	 *
+	 * Contrary to {@link #setImageMeta(File, ExifToolOptions, Map)}, images are not checked before running the
+	 * command: images that cannot be written are reported in the returned result.
+	 *
+	 * @param images Images.
+	 * @param options ExifTool options.
+	 * @param tags Tags to write.
+	 * @return Result of the write operation, for each image.
+	 * @throws IOException If an error occurs during write operation.
+	 * @throws NullPointerException If one parameter is null.
+	 * @throws IllegalArgumentException If list of images or list of tags is empty.
+	 */
+	public WriteResult setImageMeta(Collection<File> images, ExifToolOptions options, Map<? extends Tag, String> tags) throws IOException {
+		notEmpty(images, "Images cannot be null and must contain 1 or more image to write.");
+		requireNonNull(options, "Options cannot be null.");
+		notEmpty(tags, "Tags cannot be null and must contain 1 or more Tag to query the image for.");
+		for (File image : images) {
+			requireNonNull(image, "Image cannot be null and must be a valid stream of image data.");
+		}
+
+		log.debug("Writing {} tags to {} images", tags.size(), images.size());
+
+		long startTime = System.currentTimeMillis();
+		WriteResultHandler handler = new WriteResultHandler(images);
+		write(images, options, tags, handler);
+
+		WriteResult result = handler.getResult();
+		log.debug("Images Meta Processed in {} ms [{}]", System.currentTimeMillis() - startTime, result);
+		return result;
+	}
+
+	/**
+	 * Write tags to several images, each image having its own tags.
+	 *
+	 * <br>
+	 *
+	 * Images sharing the same tags (and values) are written with a single {@code exiftool} command (see
+	 * {@link #setImageMeta(Collection, ExifToolOptions, Map)}): the number of commands is the number of
+	 * distinct maps of tags. These commands are independent: when an asynchronous executor is configured,
+	 * they are submitted concurrently (as long as this executor has free slots), so that a pipelined or a pool
+	 * strategy can run them in parallel; the caller thread runs remaining commands.
+	 *
+	 * <br>
+	 *
+	 * A failing command does not prevent other commands from being executed: each image of the failing command
+	 * is reported as an error in the returned result. An exception is thrown only if all commands have failed.
+	 *
+	 * @param tagsByImage Tags to write, indexed by image.
+	 * @param options ExifTool options.
+	 * @return Result of the write operations, for each image.
+	 * @throws IOException If all write operations failed.
+	 * @throws NullPointerException If one parameter is null.
+	 * @throws IllegalArgumentException If map of images is empty, or if one map of tags is empty.
+	 */
+	public WriteResult setImageMeta(Map<File, ? extends Map<? extends Tag, String>> tagsByImage, ExifToolOptions options) throws IOException {
+		notEmpty(tagsByImage, "Images cannot be null and must contain 1 or more image to write.");
+		requireNonNull(options, "Options cannot be null.");
+
+		// Group images sharing the same tags.
+		Map<Map<Tag, String>, List<File>> imagesByTags = new LinkedHashMap<>();
+		for (Map.Entry<File, ? extends Map<? extends Tag, String>> entry : tagsByImage.entrySet()) {
+			File image = requireNonNull(entry.getKey(), "Image cannot be null and must be a valid stream of image data.");
+			Map<? extends Tag, String> tags = notEmpty(entry.getValue(), "Tags cannot be null and must contain 1 or more Tag to query the image for.");
+			imagesByTags.computeIfAbsent(new LinkedHashMap<>(tags), k -> new ArrayList<>()).add(image);
+		}
+
+		log.debug("Writing tags to {} images, with {} commands", tagsByImage.size(), imagesByTags.size());
+
+		long startTime = System.currentTimeMillis();
+		GroupedWrite write = new GroupedWrite(new ArrayList<>(imagesByTags.entrySet()), options);
+
+		// Helpers are only submitted while the asynchronous executor has free slots: the caller thread writes
+		// groups too, so that a full (or busy) executor never fails, nor blocks, this synchronous operation.
+		if (asyncExecutor != null) {
+			int helpers = imagesByTags.size() - 1;
+			for (int i = 0; i < helpers; i++) {
+				if (asyncExecutor.trySubmit(write) == null) {
+					break;
+				}
+			}
+		}
+
+		write.call();
+
+		WriteResult result = write.await(tagsByImage.keySet());
+		log.debug("Images Meta Processed in {} ms [{}]", System.currentTimeMillis() - startTime, result);
+		return result;
+	}
+
+	private void write(Collection<File> images, ExifToolOptions options, Map<? extends Tag, String> tags, WriteResultHandler handler) throws IOException {
+		List<String> args = toArguments(toPaths(images), options, toTagArguments(tags));
+
+		// Reads started before this write must not be shared anymore.
+		if (readCoalescer != null) {
+			for (File image : images) {
+				readCoalescer.invalidate(image);
+			}
+		}
+
+		// Execute ExifTool command
+		try {
+			strategy.execute(executor, path, args, handler);
+		}
+		finally {
+			// Images may have been updated, even partially.
+			for (File image : images) {
+				invalidate(image);
+			}
+		}
+	}
+
+	/**
+	 * Invalidate cached metadata of given image, and detach pending reads of this image (a read started
+	 * while image was written may return previous metadata).
+	 *
+	 * @param image The image.
+	 */
+	private void invalidate(File image) {
+		if (metadataCache != null) {
+			metadataCache.invalidate(image);
+		}
+
+		if (readCoalescer != null) {
+			readCoalescer.invalidate(image);
+		}
+	}
+
+	/**
+	 * Extract binary value of a tag (such as {@code ThumbnailImage} or {@code PreviewImage})
+	 * and write it to given output stream.
+	 * Default format is numeric.
+	 *
+	 * @param image Image.
+	 * @param tag Tag to extract.
+	 * @param out Output stream, where binary value will be written (this stream is not closed).
+	 * @return Number of bytes written, {@code 0} if image does not contain the tag.
+	 * @throws IOException If something bad happen during I/O operations.
+	 * @see #extractBinaryTag(File, ExifToolOptions, Tag, OutputStream)
+	 */
+	public long extractBinaryTag(File image, Tag tag, OutputStream out) throws IOException {
+		ExifToolOptions options = StandardOptions.builder().withFormat(StandardFormat.NUMERIC).build();
+		return extractBinaryTag(image, options, tag, out);
+	}
+
+	/**
+	 * Extract binary value of a tag (such as {@code ThumbnailImage} or {@code PreviewImage})
+	 * and write it to given output stream.
+	 *
+	 * <br>
+	 *
+	 * Output of {@code exiftool} is copied, as raw bytes, to the output stream: the value is never
+	 * decoded or buffered entirely in memory. Warnings are suppressed (using {@code -q -q}) so that
+	 * they cannot be mixed with binary output, and the end of the output is detected with a marker
+	 * printed with {@code -echo3}.
+	 *
+	 * <br>
+	 *
+	 * Note that, with the pipelined strategy, bytes are written to the output stream
+	 * by the thread reading {@code exiftool} output.
+	 *
+	 * @param image Image.
+	 * @param options ExifTool options.
+	 * @param tag Tag to extract.
+	 * @param out Output stream, where binary value will be written (this stream is not closed).
+	 * @return Number of bytes written, {@code 0} if image does not contain the tag.
+	 * @throws IOException If something bad happen during I/O operations.
+	 * @throws NullPointerException If one parameter is null.
+	 * @throws UnsupportedFeatureException If {@code exiftool} version is lower than 9.15.
+	 * @throws com.thebuzzmedia.exiftool.exceptions.UnreadableFileException If image cannot be read.
+	 */
+	public long extractBinaryTag(File image, ExifToolOptions options, Tag tag, OutputStream out) throws IOException {
+		requireNonNull(image, "Image cannot be null and must be a valid stream of image data.");
+		requireNonNull(options, "Options cannot be null.");
+		requireNonNull(tag, "Tag cannot be null.");
+		requireNonNull(out, "Output stream cannot be null.");
+		isReadable(image, String.format("Unable to read the given image [%s], ensure that the image exists at the given withPath and that the executing Java process has permissions to read it.", image));
+
+		if (version.compareTo(V9_15) < 0) {
+			throw new UnsupportedFeatureException(path, version);
+		}
+
+		log.debug("Extracting binary tag {} from image: {}", tag.getName(), image);
+
+		List<String> tagArgs = toArguments(image, singleton(tag), options);
+		List<String> args = new ArrayList<>(tagArgs.size() + 5);
+		args.add("-b");
+		args.add("-q");
+		args.add("-q");
+		args.add("-echo3");
+		args.add("{ready}");
+		args.addAll(tagArgs);
+
+		BinaryTagHandler handler = new BinaryTagHandler(out);
+		strategy.execute(executor, path, args, handler);
+
+		log.debug("Binary tag {} extracted [{} bytes]", tag.getName(), handler.size());
+
+		return handler.size();
+	}
+
+	/**
+	 * Parse image metadata for all tags, asynchronously.
+	 * Output format is numeric.
+	 *
+	 * @param image Image.
+	 * @return The future tags, completed exceptionally if an error occurs.
+	 * @throws IllegalStateException If asynchronous operations have not been enabled.
+	 * @see #getImageMeta(File)
+	 */
+	public CompletableFuture<Map<Tag, String>> getImageMetaAsync(File image) {
+		return submit(() -> getImageMeta(image));
+	}
+
+	/**
+	 * Parse image metadata for all tags, asynchronously.
+	 *
+	 * @param image Image.
+	 * @param options ExifTool options.
+	 * @return The future tags, completed exceptionally if an error occurs.
+	 * @throws IllegalStateException If asynchronous operations have not been enabled.
+	 * @see #getImageMeta(File, ExifToolOptions)
+	 */
+	public CompletableFuture<Map<Tag, String>> getImageMetaAsync(File image, ExifToolOptions options) {
+		return submit(() -> getImageMeta(image, options));
+	}
+
+	/**
+	 * Parse image metadata, asynchronously.
+	 *
+	 * @param image Image.
+	 * @param options ExifTool options.
+	 * @param tags Tags to query.
+	 * @return The future tags, completed exceptionally if an error occurs.
+	 * @throws IllegalStateException If asynchronous operations have not been enabled.
+	 * @see #getImageMeta(File, ExifToolOptions, Collection)
+	 */
+	public CompletableFuture<Map<Tag, String>> getImageMetaAsync(File image, ExifToolOptions options, Collection<? extends Tag> tags) {
+		return submit(() -> getImageMeta(image, options, tags));
+	}
+
+	/**
+	 * Write image metadata, asynchronously.
+	 * Default format is numeric.
+	 *
+	 * @param image Image.
+	 * @param tags Tags to write.
+	 * @return The future, completed once tags have been written, or exceptionally if an error occurs.
+	 * @throws IllegalStateException If asynchronous operations have not been enabled.
+	 * @see #setImageMeta(File, Map)
+	 */
+	public CompletableFuture<Void> setImageMetaAsync(File image, Map<? extends Tag, String> tags) {
+		return submit(() -> {
+			setImageMeta(image, tags);
+			return null;
+		});
+	}
+
+	/**
+	 * Write image metadata, asynchronously.
+	 *
+	 * @param image Image.
+	 * @param options ExifTool options.
+	 * @param tags Tags to write.
+	 * @return The future, completed once tags have been written, or exceptionally if an error occurs.
+	 * @throws IllegalStateException If asynchronous operations have not been enabled.
+	 * @see #setImageMeta(File, ExifToolOptions, Map)
+	 */
+	public CompletableFuture<Void> setImageMetaAsync(File image, ExifToolOptions options, Map<? extends Tag, String> tags) {
+		return submit(() -> {
+			setImageMeta(image, options, tags);
+			return null;
+		});
+	}
+
+	/**
+	 * Create a publisher of the tags of given images: images are read asynchronously, when the
+	 * subscriber signals demand.
+	 *
+	 * <br>
+	 *
+	 * At most {@code concurrency} images are read at the same time (with a pool of {@code exiftool} processes,
+	 * this should usually be the pool size), and never more images than requested by the subscriber: a slow
+	 * subscriber throttles {@code exiftool} work. Note that {@code concurrency} should not exceed the maximum
+	 * number of pending tasks of the asynchronous executor.
+	 *
+	 * @param images Images.
+	 * @param options ExifTool options.
+	 * @param tags Tags to query.
+	 * @param concurrency Maximum number of images read at the same time.
+	 * @return The publisher.
+	 * @throws NullPointerException If one parameter is null.
+	 * @throws IllegalArgumentException If list of tags is empty, or if {@code concurrency} is not strictly positive.
+	 * @throws IllegalStateException If asynchronous operations have not been enabled.
+	 * @see MetadataPublisher
+	 */
+	public MetadataPublisher publishImageMeta(Iterable<File> images, ExifToolOptions options, Collection<? extends Tag> tags, int concurrency) {
+		requireNonNull(images, "Images cannot be null.");
+		requireNonNull(options, "Options cannot be null.");
+		notEmpty(tags, "Tags cannot be null and must contain 1 or more Tag to query the image for.");
+		checkAsyncExecutor();
+
+		return new MetadataPublisher(images, image -> submit(() -> new FileMetadata(image, getTagValues(image, options, tags))), concurrency);
+	}
+
+	/**
+	 * Start and warm up {@code exiftool} processes in the background: the warm-up command
+	 * is executed {@code parallelism} times concurrently, so that each member of a pool is
+	 * started and warmed up.
+	 *
+	 * @param parallelism Number of warm-up commands to execute concurrently.
+	 * @return Future completed once all warm-up commands have been executed.
+	 */
+	CompletableFuture<Void> warmUp(int parallelism) {
+		log.debug("Warm up {} exiftool process", parallelism);
+
+		CompletableFuture<?>[] futures = new CompletableFuture<?>[parallelism];
+		for (int i = 0; i < parallelism; i++) {
+			CompletableFuture<Void> future = new CompletableFuture<>();
+			Thread thread = new Thread(() -> {
+				try {
+					strategy.execute(executor, path, WarmUpCommand.arguments(), stopHandler());
+					future.complete(null);
+				}
+				catch (Exception ex) {
+					log.warn("Failed to warm up exiftool process");
+					log.warn(ex.getMessage(), ex);
+					future.completeExceptionally(ex);
+				}
+			}, "exiftool-warmup-" + (i + 1));
+
+			thread.setDaemon(true);
+			thread.start();
+			futures[i] = future;
+		}
+
+		return CompletableFuture.allOf(futures);
+	}
+
+	private <T> CompletableFuture<T> submit(Callable<T> task) {
+		checkAsyncExecutor();
+		return asyncExecutor.submit(task);
+	}
+
+	private void checkAsyncExecutor() {
+		if (asyncExecutor == null) {
+			throw new IllegalStateException("Asynchronous operations are not enabled, use ExifToolBuilder#withAsyncExecutor to enable them");
+		}
+	}
+
+	private List<String> toArguments(File image, Collection<? extends Tag> tags, ExifToolOptions options) {
+		return toArguments(singleton(image), tags, options);
+	}
+
+	private List<String> toArguments(Collection<File> images, Collection<? extends Tag> tags, ExifToolOptions options) {
+		return toArguments(toPaths(images), options, toTagArguments(tags));
+	}
+
+	private static List<String> toTagArguments(Collection<? extends Tag> tags) {
+		List<String> tagArgs = new ArrayList<>(tags.size());
+		for (Tag tag : tags) {
+			tagArgs.add("-" + tag.getName());
+		}
+
+		return tagArgs;
+	}
+
+	private static List<String> toPaths(Collection<File> images) {
+		List<String> paths = new ArrayList<>(images.size());
+		for (File image : images) {
+			paths.add(image.getAbsolutePath());
+		}
+
+		return paths;
+	}
+
+	private List<String> toArguments(File image, Map<? extends Tag, String> tags, ExifToolOptions options) {
+		return toArguments(singletonList(image.getAbsolutePath()), options, toTagArguments(tags));
+	}
+
+	private static List<String> toTagArguments(Map<? extends Tag, String> tags) {
+		List<String> tagArgs = new ArrayList<>(tags.size());
+		for (Map.Entry<? extends Tag, String> entry : tags.entrySet()) {
+			tagArgs.add("-" + entry.getKey().getName() + "=" + entry.getValue());
+		}
+
+		return tagArgs;
+	}
+
+	private List<String> toArguments(List<String> paths, ExifToolOptions options, List<String> tags) {
+		Iterable<String> optionArgs = options.serialize();
+		int optionSize = optionArgs instanceof Collection ? ((Collection<?>) optionArgs).size() : 10;
+		List<String> args = new ArrayList<>(optionSize + tags.size() + paths.size() + 4);
+
+		// Encoding of file names.
+		if (utf8FileNames) {
+			args.add("-charset");
+			args.add("filename=UTF8");
+		}
+
+		// Options.
+		addAll(args, optionArgs);
+
+		// Compact output.
+		args.add("-S");
+
+		// Add tags arguments.
+		args.addAll(tags);
+
+		// Add image arguments.
+		args.addAll(paths);
+
+		// Add last argument.
+		// This argument will only be used by exiftool if stay_open flag has been set.
+		args.add("-execute");
+
+		return args;
+	}
+
+	/**
+	 * Scan of directories taken from a shared queue, run by the caller thread and by tasks submitted to
+	 * the asynchronous executor. A task that starts once the queue is empty returns immediately: the caller
+	 * only waits for directories that are being scanned, never for tasks that have not started yet.
+	 */
+	private final class DirectoryScan implements Callable<Void> {
+		private final File root;
+		private final Queue<File> directories;
+		private final ExifToolOptions options;
+		private final Collection<? extends Tag> tags;
+		private final List<String> tagArgs;
+		private final Collection<String> extensions;
+		private final Consumer<FileMetadata> consumer;
+		private final CountDownLatch done;
+		private final AtomicLong count;
+		private final AtomicReference<Throwable> failure;
+
+		private DirectoryScan(File root, Queue<File> directories, ExifToolOptions options, Collection<? extends Tag> tags, List<String> tagArgs, Collection<String> extensions, Consumer<FileMetadata> consumer) {
+			this.root = root;
+			this.directories = directories;
+			this.options = options;
+			this.tags = tags;
+			this.tagArgs = tagArgs;
+			this.extensions = extensions;
+			this.consumer = consumer;
+			this.done = new CountDownLatch(directories.size());
+			this.count = new AtomicLong(0);
+			this.failure = new AtomicReference<>();
+		}
+
+		@Override
+		public Void call() {
+			File directory;
+			while ((directory = directories.poll()) != null) {
+				try {
+					// Stop scanning once a directory has failed, remaining directories are skipped.
+					if (failure.get() == null) {
+						count.addAndGet(scan(directory, directory != root, options, tags, tagArgs, extensions, consumer));
+					}
+				}
+				catch (IOException | RuntimeException | Error ex) {
+					failure.compareAndSet(null, ex);
+				}
+				finally {
+					done.countDown();
+				}
+			}
+
+			return null;
+		}
+
+		private long await() throws IOException {
+			try {
+				done.await();
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				InterruptedIOException ioe = new InterruptedIOException("Interrupted while scanning directory " + root);
+				ioe.initCause(ex);
+				throw ioe;
+			}
+
+			Throwable ex = failure.get();
+			if (ex instanceof IOException) {
+				throw (IOException) ex;
+			}
+			if (ex instanceof RuntimeException) {
+				throw (RuntimeException) ex;
+			}
+			if (ex instanceof Error) {
+				throw (Error) ex;
+			}
+
+			return count.get();
+		}
+	}
+
+	/**
+	 * Write groups of images, each group with its own {@code exiftool} command: the same instance
+	 * may be run by several threads, each thread taking the next group to write.
+	 */
+	private final class GroupedWrite implements Callable<Void> {
+		private final List<Map.Entry<Map<Tag, String>, List<File>>> groups;
+		private final ExifToolOptions options;
+		private final AtomicInteger next;
+		private final WriteResult[] results;
+		private final Throwable[] failures;
+		private final CountDownLatch done;
+
+		private GroupedWrite(List<Map.Entry<Map<Tag, String>, List<File>>> groups, ExifToolOptions options) {
+			this.groups = groups;
+			this.options = options;
+			this.next = new AtomicInteger(0);
+			this.results = new WriteResult[groups.size()];
+			this.failures = new Throwable[groups.size()];
+			this.done = new CountDownLatch(groups.size());
+		}
+
+		@Override
+		public Void call() {
+			int index;
+			while ((index = next.getAndIncrement()) < groups.size()) {
+				Map.Entry<Map<Tag, String>, List<File>> group = groups.get(index);
+				WriteResultHandler handler = new WriteResultHandler(group.getValue());
+				try {
+					write(group.getValue(), options, group.getKey(), handler);
+				}
+				catch (IOException | RuntimeException | Error ex) {
+					failures[index] = ex;
+				}
+				finally {
+					// Output read before a failure is kept.
+					results[index] = handler.getResult();
+					done.countDown();
+				}
+			}
+
+			return null;
+		}
+
+		private WriteResult await(Collection<File> images) throws IOException {
+			try {
+				done.await();
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				InterruptedIOException ioe = new InterruptedIOException("Interrupted while writing " + images.size() + " images");
+				ioe.initCause(ex);
+				throw ioe;
+			}
+
+			Map<File, String> errors = new LinkedHashMap<>();
+			int updated = 0;
+			int unchanged = 0;
+			int failed = 0;
+			Throwable failure = null;
+			int failedGroups = 0;
+
+			for (int i = 0; i < results.length; i++) {
+				WriteResult result = results[i];
+				errors.putAll(result.getErrors());
+				updated += result.getUpdatedCount();
+				unchanged += result.getUnchangedCount();
+				failed += result.getFailedCount();
+
+				Throwable ex = failures[i];
+				if (ex != null) {
+					if (ex instanceof Error) {
+						throw (Error) ex;
+					}
+
+					// Images of a failed command are reported as errors, unless exiftool already reported an error.
+					for (File image : result.getImages()) {
+						if (errors.putIfAbsent(image, ex.toString()) == null) {
+							failed++;
+						}
+					}
+
+					if (failure == null) {
+						failure = ex;
+					}
+					else {
+						failure.addSuppressed(ex);
+					}
+
+					failedGroups++;
+				}
+			}
+
+			if (failedGroups == results.length) {
+				if (failure instanceof IOException) {
+					throw (IOException) failure;
+				}
+
+				throw (RuntimeException) failure;
+			}
+
+			if (failure != null) {
+				log.warn(String.format("%d of %d write commands failed", failedGroups, results.length), failure);
+			}
+
+			return new WriteResult(images, errors, updated, unchanged, failed);
+		}
+	}
+
+	/**
+	 * Consumer wrapper, to ensure that a consumer is never called concurrently.
+	 */
+	private static final class SynchronizedConsumer implements Consumer<FileMetadata> {
+		private final Consumer<? super FileMetadata> consumer;
+
+		private SynchronizedConsumer(Consumer<? super FileMetadata> consumer) {
+			this.consumer = consumer;
+		}
+
+		@Override
+		public synchronized void accept(FileMetadata metadata) {
+			consumer.accept(metadata);
+		}
 	}
 
 	private static final class FinalizerTask implements Runnable {
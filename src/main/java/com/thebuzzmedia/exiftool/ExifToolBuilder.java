@@ -17,10 +17,22 @@
 
 package com.thebuzzmedia.exiftool;
 
-import com.thebuzzmedia.exiftool.core.schedulers.DefaultScheduler;
+import com.thebuzzmedia.exiftool.core.async.AsyncExecutor;
+import com.thebuzzmedia.exiftool.core.async.RejectionPolicy;
+import com.thebuzzmedia.exiftool.core.async.VirtualThreads;
+import com.thebuzzmedia.exiftool.core.cache.MetadataCacheFactory;
+import com.thebuzzmedia.exiftool.core.cache.ReadCoalescer;
+import com.thebuzzmedia.exiftool.core.metrics.MetricsFactory;
+import com.thebuzzmedia.exiftool.core.metrics.MicrometerMetrics;
 import com.thebuzzmedia.exiftool.core.schedulers.NoOpScheduler;
+import com.thebuzzmedia.exiftool.core.schedulers.SharedScheduler;
 import com.thebuzzmedia.exiftool.core.strategies.DefaultStrategy;
+import com.thebuzzmedia.exiftool.core.strategies.PipelinedStayOpenStrategy;
+import com.thebuzzmedia.exiftool.core.strategies.ElasticPoolStrategy;
 import com.thebuzzmedia.exiftool.core.strategies.PoolStrategy;
+import com.thebuzzmedia.exiftool.core.strategies.RecyclePolicy;
+import com.thebuzzmedia.exiftool.core.strategies.RoutedPoolStrategy;
+import com.thebuzzmedia.exiftool.core.strategies.RoutingPolicy;
 import com.thebuzzmedia.exiftool.core.strategies.StayOpenStrategy;
 import com.thebuzzmedia.exiftool.logs.Logger;
 import com.thebuzzmedia.exiftool.logs.LoggerFactory;
@@ -30,7 +42,11 @@ import com.thebuzzmedia.exiftool.process.executor.CommandExecutors;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
+import static com.thebuzzmedia.exiftool.core.metrics.MetricsFactory.newMetrics;
 import static com.thebuzzmedia.exiftool.core.schedulers.SchedulerDuration.millis;
 import static com.thebuzzmedia.exiftool.process.executor.CommandExecutors.newExecutor;
 
@@ -125,6 +141,95 @@ import static com.thebuzzmedia.exiftool.process.executor.CommandExecutors.newExe
  *     .withStrategy(new MyCustomStrategy())
  *     .build();
  * </code></pre>
+ *
+ * <h4>Elastic Pool</h4>
+ *
+ * A pool may also grow and shrink with the load, using {@link #withElasticPoolSize}: a new
+ * {@code exiftool} process is started when no process is available after a given threshold (until
+ * the maximum size is reached), and processes that have been idle for a given timeout are closed
+ * (until the minimum size is reached).
+ *
+ * <strong>Usage:</strong>
+ *
+ * <pre><code>
+ *   ExifTool exifTool = new ExifToolBuilder()
+ *     .withElasticPoolSize(2, 10, 50, 60000)
+ *     .build();
+ * </code></pre>
+ *
+ * <h4>Warm Up</h4>
+ *
+ * By default, {@code exiftool} processes are started lazily, when the first command is executed: this first
+ * command has to wait for {@code exiftool} to start. Using {@link #enableWarmUp(boolean)}, processes (i.e each
+ * member of a pool) are started in parallel when {@link #build()} is called, and a warm-up command is executed
+ * using a tiny image bundled with this library. Processes closed by the cleanup task are also started and warmed
+ * up again in the background (if they have been used since the previous warm-up).
+ *
+ * <strong>Usage:</strong>
+ *
+ * <pre><code>
+ *   ExifTool exifTool = new ExifToolBuilder()
+ *     .withPoolSize(4, 600000)
+ *     .enableWarmUp(true) // Wait for processes to be ready.
+ *     .build();
+ * </code></pre>
+ *
+ * <h4>Command timeout</h4>
+ *
+ * By default, a command waits for {@code exiftool} output as long as needed. With {@link #withCommandTimeout(long)},
+ * the {@code exiftool} process that does not complete a command in time (for example, because of a malformed file) is
+ * killed, and replaced by a fresh process for the next command.
+ *
+ * <strong>Usage:</strong>
+ *
+ * <pre><code>
+ *   ExifTool exifTool = new ExifToolBuilder()
+ *     .withPoolSize(4)
+ *     .withCommandTimeout(5000)
+ *     .build();
+ * </code></pre>
+ *
+ * <h4>Metrics</h4>
+ *
+ * {@link ExifTool} instances, default executor and default strategies record metrics (time spent waiting for a pool
+ * member, writing commands and reading their output, {@code exiftool} processes started and closed, and size of each
+ * response) with an instance of {@link ExifToolMetrics}. By default, metrics are recorded in Micrometer global registry
+ * if Micrometer is available on the classpath. Any other implementation may be given with
+ * {@link #withMetrics(ExifToolMetrics)}, such as {@link MicrometerMetrics#create(Object)} to use a specific registry.
+ *
+ * <h4>Metadata cache</h4>
+ *
+ * Metadata of images read many times can be kept in memory with {@link #withMetadataCache(long)}: entries are identified
+ * by the image (canonical path, size and last modification time), the options and the requested tags, and entries of an
+ * image are invalidated when it is updated with {@link ExifTool#setImageMeta}. Least recently used entries are evicted
+ * once the total weight of entries (approximately the number of characters of paths, tag names and values) exceeds
+ * the given maximum. Guava cache is used if it is available on the classpath. To keep cached metadata across restarts,
+ * use a {@link com.thebuzzmedia.exiftool.core.cache.PersistentMetadataCache} with {@link #withMetadataCache(MetadataCache)}.
+ *
+ * <strong>Usage:</strong>
+ *
+ * <pre><code>
+ *   ExifTool exifTool = new ExifToolBuilder()
+ *     .withMetadataCache(10_000_000)
+ *     .build();
+ *
+ *   long hits = exifTool.getMetadataCache().hitCount();
+ * </code></pre>
+ *
+ * <h4>Asynchronous operations</h4>
+ *
+ * Asynchronous operations (returning {@link java.util.concurrent.CompletableFuture}) are
+ * disabled by default and can be enabled using {@link #withAsyncExecutor}: tasks are run by
+ * the given executor, and the number of pending tasks is bounded.
+ *
+ * <strong>Usage:</strong>
+ *
+ * <pre><code>
+ *   ExifTool exifTool = new ExifToolBuilder()
+ *     .withPoolSize(4)
+ *     .withAsyncExecutor(executor, 100, RejectionPolicy.ABORT)
+ *     .build();
+ * </code></pre>
  */
 public class ExifToolBuilder {
 
@@ -144,9 +249,19 @@ public class ExifToolBuilder {
 	private static final DelayFunction DELAY = new DelayFunction();
 
 	/**
-	 * Function to get default executor environment.
+	 * Function to get default metrics.
 	 */
-	private static final ExecutorFunction EXECUTOR = new ExecutorFunction();
+	private static final MetricsFunction METRICS = new MetricsFunction();
+
+	/**
+	 * Default time to wait for an idle process before growing an elastic pool, in milliseconds.
+	 */
+	private static final long DEFAULT_POOL_GROW_THRESHOLD = 50;
+
+	/**
+	 * Default time after which an idle process of an elastic pool is closed, in milliseconds.
+	 */
+	private static final long DEFAULT_POOL_IDLE_TIMEOUT = 60000;
 
 	/**
 	 * ExifTool path.
@@ -163,6 +278,11 @@ public class ExifToolBuilder {
 	 */
 	private Boolean stayOpen;
 
+	/**
+	 * Check if commands sent to the {@code stay_open} process should be pipelined.
+	 */
+	private boolean pipelining;
+
 	/**
 	 * Cleanup Delay.
 	 */
@@ -179,10 +299,75 @@ public class ExifToolBuilder {
 	private Scheduler scheduler;
 
 	/**
-	 * Pool size.
+	 * Pool size (minimum size of an elastic pool).
 	 */
 	private int poolSize;
 
+	/**
+	 * Maximum size of an elastic pool, {@code 0} for a fixed size pool.
+	 */
+	private int maxPoolSize;
+
+	/**
+	 * Time to wait for an idle process before growing an elastic pool, in milliseconds.
+	 */
+	private long poolGrowThreshold;
+
+	/**
+	 * Time after which an idle process of an elastic pool is closed, in milliseconds.
+	 */
+	private long poolIdleTimeout;
+
+	/**
+	 * Size of the pool used by commands reading large files (see {@link #routingPolicy}).
+	 */
+	private int largePoolSize;
+
+	/**
+	 * Policy used to route commands reading large files to a dedicated pool.
+	 */
+	private RoutingPolicy routingPolicy;
+
+	/**
+	 * Executor used to run asynchronous operations.
+	 */
+	private AsyncExecutor asyncExecutor;
+
+	/**
+	 * Metrics recorder.
+	 */
+	private ExifToolMetrics metrics;
+
+	/**
+	 * Cache of image metadata, disabled by default.
+	 */
+	private MetadataCache metadataCache;
+
+	/**
+	 * Check if identical concurrent reads should share the same command.
+	 */
+	private boolean readCoalescing;
+
+	/**
+	 * Maximum time to wait for the output of a command, in milliseconds.
+	 */
+	private long commandTimeout;
+
+	/**
+	 * Check if {@code stay_open} processes should be started and warmed up eagerly.
+	 */
+	private boolean warmUp;
+
+	/**
+	 * Check if {@link #build()} should wait for processes to be warmed up.
+	 */
+	private boolean awaitWarmUp;
+
+	/**
+	 * Policy used to recycle {@code stay_open} processes.
+	 */
+	private RecyclePolicy recyclePolicy;
+
 	/**
 	 * Create builder with default settings.
 	 */
@@ -324,6 +509,37 @@ public class ExifToolBuilder {
 		return this;
 	}
 
+	/**
+	 * Enable {@code stay_open} feature, and pipeline commands sent to the {@code exiftool} process: several
+	 * commands may be written to the process without waiting for the output of the previous ones (an
+	 * instance of {@link PipelinedStayOpenStrategy} will be used).
+	 *
+	 * <strong>Note:</strong>
+	 *
+	 * <ul>
+	 *   <li>If {@link #withStrategy} has already been called, then calling is useless.</li>
+	 *   <li>If {@link #withPoolSize} is called, then pipelining is ignored.</li>
+	 *   <li>Delay or scheduler given to {@link #enableStayOpen(long)} or {@link #enableStayOpen(Scheduler)} are still used.</li>
+	 * </ul>
+	 *
+	 * @return Current builder.
+	 */
+	public ExifToolBuilder enablePipelining() {
+		log.debug("Enable 'stay_open' feature with pipelining");
+
+		if (strategy != null) {
+			log.warn("A custom strategy is defined, enabling pipelining will be ignored");
+		}
+
+		if (poolSize > 0) {
+			log.warn("A pool is defined, enabling pipelining will be ignored");
+		}
+
+		this.stayOpen = true;
+		this.pipelining = true;
+		return this;
+	}
+
 	/**
 	 * Override default execution strategy.
 	 *
@@ -362,6 +578,8 @@ public class ExifToolBuilder {
 
 		if (poolSize > 0) {
 			this.poolSize = poolSize;
+			this.maxPoolSize = 0;
+			this.largePoolSize = 0;
 			this.cleanupDelay = cleanupDelay;
 		}
 		else {
@@ -387,6 +605,8 @@ public class ExifToolBuilder {
 
 		if (poolSize > 0) {
 			this.poolSize = poolSize;
+			this.maxPoolSize = 0;
+			this.largePoolSize = 0;
 			this.cleanupDelay = 0L;
 		}
 		else {
@@ -396,6 +616,275 @@ public class ExifToolBuilder {
 		return this;
 	}
 
+	/**
+	 * Override default execution strategy:
+	 *
+	 * <ul>
+	 *   <li>a pool of {@link StayOpenStrategy} with a size between {@code minSize} and {@code maxSize} will be used.</li>
+	 *   <li>a new process is started if no process is available after 50 milliseconds.</li>
+	 *   <li>a process idle for one minute is closed.</li>
+	 * </ul>
+	 *
+	 * @param minSize Minimum pool size.
+	 * @param maxSize Maximum pool size.
+	 * @return Current builder.
+	 * @see #withElasticPoolSize(int, int, long, long)
+	 */
+	public ExifToolBuilder withElasticPoolSize(int minSize, int maxSize) {
+		return withElasticPoolSize(minSize, maxSize, DEFAULT_POOL_GROW_THRESHOLD, DEFAULT_POOL_IDLE_TIMEOUT);
+	}
+
+	/**
+	 * Override default execution strategy:
+	 *
+	 * <ul>
+	 *   <li>a pool of {@link StayOpenStrategy} with a size between {@code minSize} and {@code maxSize} will be used.</li>
+	 *   <li>a new process is started if no process is available after {@code growThreshold} milliseconds.</li>
+	 *   <li>a process idle for {@code idleTimeout} milliseconds is closed, and removed from the pool.</li>
+	 * </ul>
+	 *
+	 * Invalid settings (sizes or delays less than or equal to zero, or maximum size less than minimum size)
+	 * are ignored.
+	 *
+	 * @param minSize Minimum pool size.
+	 * @param maxSize Maximum pool size.
+	 * @param growThreshold Time to wait for an idle process before starting a new one, in milliseconds.
+	 * @param idleTimeout Time after which an idle process is closed, in milliseconds.
+	 * @return Current builder.
+	 */
+	public ExifToolBuilder withElasticPoolSize(int minSize, int maxSize, long growThreshold, long idleTimeout) {
+		log.debug("Overriding default strategy");
+
+		if (minSize > 0 && maxSize >= minSize && growThreshold > 0 && idleTimeout > 0) {
+			this.poolSize = minSize;
+			this.maxPoolSize = maxSize;
+			this.largePoolSize = 0;
+			this.poolGrowThreshold = growThreshold;
+			this.poolIdleTimeout = idleTimeout;
+			this.cleanupDelay = 0L;
+		}
+		else {
+			log.warn("Elastic pool has been enabled with invalid settings, ignore it.");
+		}
+
+		return this;
+	}
+
+	/**
+	 * Override default execution strategy:
+	 *
+	 * <ul>
+	 *   <li>a pool of {@link StayOpenStrategy} with a size of {@code poolSize} will be used for commands reading small files.</li>
+	 *   <li>a pool of {@link StayOpenStrategy} with a size of {@code largePoolSize} will be used for commands reading large files.</li>
+	 *   <li>commands are classified with given {@code policy} (by file size and extension).</li>
+	 *   <li>No cleanup scheduler will be used.</li>
+	 * </ul>
+	 *
+	 * Idle processes of a pool may be used by commands of the other pool (see {@link RoutedPoolStrategy}).
+	 *
+	 * @param poolSize Size of the pool used by commands reading small files.
+	 * @param largePoolSize Size of the pool used by commands reading large files.
+	 * @param policy Policy used to classify commands.
+	 * @return Current builder.
+	 */
+	public ExifToolBuilder withRoutedPoolSize(int poolSize, int largePoolSize, RoutingPolicy policy) {
+		log.debug("Overriding default strategy");
+
+		if (poolSize > 0 && largePoolSize > 0 && policy != null) {
+			this.poolSize = poolSize;
+			this.maxPoolSize = 0;
+			this.largePoolSize = largePoolSize;
+			this.routingPolicy = policy;
+			this.cleanupDelay = 0L;
+		}
+		else {
+			log.warn("Routed pool has been enabled with invalid settings, ignore it.");
+		}
+
+		return this;
+	}
+
+	/**
+	 * Enable asynchronous operations (such as {@link ExifTool#getImageMetaAsync(File)}): tasks
+	 * are submitted to given {@code executor}, with at most {@code maxPendingTasks} pending tasks.
+	 *
+	 * When the maximum number of pending tasks is reached, new tasks are rejected (returned futures
+	 * are completed exceptionally with a {@link java.util.concurrent.RejectedExecutionException}).
+	 *
+	 * <strong>Note:</strong> The executor is not managed by {@link ExifTool}: closing {@link ExifTool}
+	 * instance will not shutdown the executor.
+	 *
+	 * @param executor Executor used to run asynchronous operations.
+	 * @param maxPendingTasks Maximum number of pending tasks.
+	 * @return Current builder.
+	 * @see #withAsyncExecutor(Executor, int, RejectionPolicy)
+	 */
+	public ExifToolBuilder withAsyncExecutor(Executor executor, int maxPendingTasks) {
+		return withAsyncExecutor(executor, maxPendingTasks, RejectionPolicy.ABORT);
+	}
+
+	/**
+	 * Enable asynchronous operations (such as {@link ExifTool#getImageMetaAsync(File)}): tasks
+	 * are submitted to given {@code executor}, with at most {@code maxPendingTasks} pending tasks.
+	 *
+	 * When the maximum number of pending tasks is reached, the given {@code policy} is applied.
+	 *
+	 * <strong>Note:</strong> The executor is not managed by {@link ExifTool}: closing {@link ExifTool}
+	 * instance will not shutdown the executor.
+	 *
+	 * @param executor Executor used to run asynchronous operations.
+	 * @param maxPendingTasks Maximum number of pending tasks.
+	 * @param policy Policy applied when the maximum number of pending tasks is reached.
+	 * @return Current builder.
+	 */
+	public ExifToolBuilder withAsyncExecutor(Executor executor, int maxPendingTasks, RejectionPolicy policy) {
+		log.debug("Enable asynchronous operations");
+		this.asyncExecutor = new AsyncExecutor(executor, maxPendingTasks, policy);
+		return this;
+	}
+
+	/**
+	 * Enable asynchronous operations (such as {@link ExifTool#getImageMetaAsync(File)}), each task
+	 * being run on its own virtual thread: thousands of concurrent tasks can share the {@code exiftool}
+	 * processes without using as many platform threads.
+	 *
+	 * When the maximum number of pending tasks is reached, the given {@code policy} is applied.
+	 *
+	 * <strong>Note:</strong> Virtual threads require Java 21 or later.
+	 *
+	 * @param maxPendingTasks Maximum number of pending tasks.
+	 * @param policy Policy applied when the maximum number of pending tasks is reached.
+	 * @return Current builder.
+	 * @throws UnsupportedOperationException If virtual threads are not available on the running JVM.
+	 * @see #withAsyncExecutor(Executor, int, RejectionPolicy)
+	 */
+	public ExifToolBuilder withVirtualThreads(int maxPendingTasks, RejectionPolicy policy) {
+		return withAsyncExecutor(VirtualThreads.newExecutor(), maxPendingTasks, policy);
+	}
+
+	/**
+	 * Override default metrics: by default, metrics are recorded in Micrometer global
+	 * registry if Micrometer is available on the classpath, and are disabled otherwise.
+	 *
+	 * <strong>Note:</strong> Metrics are given to the default executor and to the default strategies, a custom
+	 * executor (see {@link #withExecutor(CommandExecutor)}) or strategy (see {@link #withStrategy(ExecutionStrategy)})
+	 * is not notified.
+	 *
+	 * @param metrics Metrics.
+	 * @return Current builder.
+	 */
+	public ExifToolBuilder withMetrics(ExifToolMetrics metrics) {
+		log.debug("Set metrics: {}", metrics);
+		this.metrics = metrics;
+		return this;
+	}
+
+	/**
+	 * Set the maximum time to wait for the output of each command: once this timeout is
+	 * reached, the {@code exiftool} process is killed and the command fails with
+	 * a {@link com.thebuzzmedia.exiftool.exceptions.CommandTimeoutException}. A fresh process is started
+	 * for the next command, so that a pool does not lose a member because of a file that {@code exiftool}
+	 * cannot process.
+	 *
+	 * This setting is ignored if {@code stay_open} feature (or a pool) is not enabled, if pipelining is enabled,
+	 * or if a custom strategy is used.
+	 *
+	 * @param timeout Timeout, in milliseconds.
+	 * @return Current builder.
+	 */
+	public ExifToolBuilder withCommandTimeout(long timeout) {
+		if (timeout > 0) {
+			log.debug("Set command timeout: {} ms", timeout);
+			this.commandTimeout = timeout;
+		}
+		else {
+			log.warn("Command timeout must be strictly positive, ignore it.");
+		}
+
+		return this;
+	}
+
+	/**
+	 * Enable the cache of image metadata, bounded by the total weight of entries.
+	 *
+	 * @param maximumWeight Maximum total weight of entries, approximately the number of characters of cached paths, tag names and values.
+	 * @return Current builder.
+	 */
+	public ExifToolBuilder withMetadataCache(long maximumWeight) {
+		if (maximumWeight > 0) {
+			log.debug("Set metadata cache maximum weight: {}", maximumWeight);
+			this.metadataCache = MetadataCacheFactory.newCache(maximumWeight);
+		}
+		else {
+			log.warn("Metadata cache maximum weight must be strictly positive, ignore it.");
+		}
+
+		return this;
+	}
+
+	/**
+	 * Enable the cache of image metadata, using a custom implementation.
+	 *
+	 * @param metadataCache Cache implementation.
+	 * @return Current builder.
+	 */
+	public ExifToolBuilder withMetadataCache(MetadataCache metadataCache) {
+		log.debug("Set metadata cache: {}", metadataCache);
+		this.metadataCache = metadataCache;
+		return this;
+	}
+
+	/**
+	 * Coalesce identical concurrent reads: concurrent calls to {@link ExifTool#getImageMeta(File, ExifToolOptions, java.util.Collection)}
+	 * with the same image (same canonical path, size and last modification time), options and tags share the same
+	 * {@code exiftool} command, and receive the same result.
+	 *
+	 * Writes to an image (see {@link ExifTool#setImageMeta(File, ExifToolOptions, java.util.Map)}) act as a barrier: a read
+	 * made once a write has started never shares a command started before the write.
+	 *
+	 * @return Current builder.
+	 */
+	public ExifToolBuilder enableReadCoalescing() {
+		this.readCoalescing = true;
+		return this;
+	}
+
+	/**
+	 * Start and warm up {@code exiftool} processes eagerly:
+	 *
+	 * <ul>
+	 *   <li>When {@link #build()} is called, each process (i.e each member of a pool) is started in parallel, and a warm-up command is executed.</li>
+	 *   <li>Once a process has been closed by the cleanup task, it is started and warmed up again in the background.</li>
+	 * </ul>
+	 *
+	 * This setting is ignored if {@code stay_open} feature (or a pool) is not enabled, or if a custom strategy is used.
+	 *
+	 * @param awaitReadiness If {@code true}, {@link #build()} will wait for all processes to be warmed up.
+	 * @return Current builder.
+	 */
+	public ExifToolBuilder enableWarmUp(boolean awaitReadiness) {
+		this.warmUp = true;
+		this.awaitWarmUp = awaitReadiness;
+		return this;
+	}
+
+	/**
+	 * Recycle {@code stay_open} processes: once a process reaches one of the limits of given policy (number
+	 * of commands, age or resident memory), a fresh process is started and warmed up in the background, then swapped
+	 * with the current process. Callers do not wait for the fresh process to start.
+	 *
+	 * This setting is ignored if {@code stay_open} feature (or a pool) is not enabled, if pipelining is enabled,
+	 * or if a custom strategy is used.
+	 *
+	 * @param recyclePolicy Recycle policy.
+	 * @return Current builder.
+	 */
+	public ExifToolBuilder withRecyclePolicy(RecyclePolicy recyclePolicy) {
+		log.debug("Set recycle policy: {}", recyclePolicy);
+		this.recyclePolicy = recyclePolicy;
+		return this;
+	}
+
 	/**
 	 * Create exiftool instance with previous settings.
 	 *
@@ -403,8 +892,9 @@ public class ExifToolBuilder {
 	 */
 	public ExifTool build() {
 		String path = firstNonNull(this.path, PATH);
-		CommandExecutor executor = firstNonNull(this.executor, EXECUTOR);
-		ExecutionStrategy strategy = firstNonNull(this.strategy, new StrategyFunction(stayOpen, cleanupDelay, scheduler, poolSize));
+		ExifToolMetrics metrics = firstNonNull(this.metrics, METRICS);
+		CommandExecutor executor = firstNonNull(this.executor, new ExecutorFunction(metrics));
+		ExecutionStrategy strategy = firstNonNull(this.strategy, new StrategyFunction(stayOpen, pipelining, cleanupDelay, scheduler, poolSize, maxPoolSize, poolGrowThreshold, poolIdleTimeout, largePoolSize, routingPolicy, warmUp, metrics, commandTimeout, recyclePolicy));
 
 		// Add some debugging information
 		if (log.isDebugEnabled()) {
@@ -413,9 +903,40 @@ public class ExifToolBuilder {
 			log.debug(" - Executor: {}", executor);
 			log.debug(" - Strategy: {}", strategy);
 			log.debug(" - StayOpen: {}", stayOpen);
+			log.debug(" - Async: {}", asyncExecutor);
+			log.debug(" - Metadata cache: {}", metadataCache);
+			log.debug(" - Read coalescing: {}", readCoalescing);
+		}
+
+		ReadCoalescer readCoalescer = readCoalescing ? new ReadCoalescer() : null;
+		ExifTool exifTool = new ExifTool(path, executor, strategy, asyncExecutor, metrics, metadataCache, readCoalescer);
+
+		if (warmUp && this.strategy == null && (poolSize > 0 || Boolean.TRUE.equals(stayOpen))) {
+			warmUp(exifTool, poolSize > 0 ? poolSize + largePoolSize : 1);
 		}
 
-		return new ExifTool(path, executor, strategy);
+		return exifTool;
+	}
+
+	private void warmUp(ExifTool exifTool, int parallelism) {
+		CompletableFuture<Void> future = exifTool.warmUp(parallelism);
+		if (!awaitWarmUp) {
+			return;
+		}
+
+		try {
+			future.join();
+		}
+		catch (CompletionException ex) {
+			try {
+				exifTool.close();
+			}
+			catch (Exception closeEx) {
+				log.warn(closeEx.getMessage(), closeEx);
+			}
+
+			throw new IllegalStateException("ExifTool processes failed to start", ex.getCause());
+		}
 	}
 
 	/**
@@ -499,12 +1020,29 @@ public class ExifToolBuilder {
 
 	/**
 	 * Returns the default executor for the created exifTool instance.
-	 * Default executor is the result of {@link CommandExecutors#newExecutor()} method.
+	 * Default executor is the result of {@link CommandExecutors#newExecutor(ExifToolMetrics)} method.
 	 */
 	private static class ExecutorFunction implements FactoryFunction<CommandExecutor> {
+		private final ExifToolMetrics metrics;
+
+		public ExecutorFunction(ExifToolMetrics metrics) {
+			this.metrics = metrics;
+		}
+
 		@Override
 		public CommandExecutor apply() {
-			return newExecutor();
+			return newExecutor(metrics);
+		}
+	}
+
+	/**
+	 * Returns the default metrics for the created exifTool instance.
+	 * Default metrics is the result of {@link MetricsFactory#newMetrics()} method.
+	 */
+	private static class MetricsFunction implements FactoryFunction<ExifToolMetrics> {
+		@Override
+		public ExifToolMetrics apply() {
+			return newMetrics();
 		}
 	}
 
@@ -513,7 +1051,7 @@ public class ExifToolBuilder {
 	 * Default scheduler will depend on the given {@code delay}:
 	 * <ul>
 	 * <li>If {@code delay} is less than or equal to zero, then an instance of {@link NoOpScheduler} will be returned.</li>
-	 * <li>If {@code delay} is greater than zero, then an instance of {@link DefaultScheduler} will be returned.</li>
+	 * <li>If {@code delay} is greater than zero, then an instance of {@link SharedScheduler} will be returned: all strategies share the same thread.</li>
 	 * </ul>
 	 */
 	private static class SchedulerFunction implements FactoryFunction<Scheduler> {
@@ -529,7 +1067,7 @@ public class ExifToolBuilder {
 			// We have to look up the delay between automatic clean and create
 			// the scheduler.
 			final long delay = firstNonNull(this.delay, DELAY);
-			return delay > 0 ? new DefaultScheduler(millis(delay)) : new NoOpScheduler();
+			return delay > 0 ? new SharedScheduler(millis(delay)) : new NoOpScheduler();
 		}
 	}
 
@@ -544,45 +1082,95 @@ public class ExifToolBuilder {
 	 * will be created. For this strategy, a scheduler will be created. This scheduler will be used to run
 	 * a task to clean resources used by this strategy. This task will run automatically after a specified
 	 * delay.
+	 *
+	 * If pipelining has also been enabled, an instance of {@link PipelinedStayOpenStrategy} is created instead.
 	 */
 	private static class StrategyFunction implements FactoryFunction<ExecutionStrategy> {
 		private final Boolean stayOpen;
 
+		private final boolean pipelining;
+
 		private final Long delay;
 
 		private final Scheduler scheduler;
 
 		private final int poolSize;
 
-		public StrategyFunction(Boolean stayOpen, Long delay, Scheduler scheduler, int poolSize) {
+		private final int maxPoolSize;
+
+		private final long poolGrowThreshold;
+
+		private final long poolIdleTimeout;
+
+		private final int largePoolSize;
+
+		private final RoutingPolicy routingPolicy;
+
+		private final boolean rewarm;
+
+		private final ExifToolMetrics metrics;
+
+		private final long commandTimeout;
+
+		private final RecyclePolicy recyclePolicy;
+
+		public StrategyFunction(Boolean stayOpen, boolean pipelining, Long delay, Scheduler scheduler, int poolSize, int maxPoolSize, long poolGrowThreshold, long poolIdleTimeout, int largePoolSize, RoutingPolicy routingPolicy, boolean rewarm, ExifToolMetrics metrics, long commandTimeout, RecyclePolicy recyclePolicy) {
 			this.stayOpen = stayOpen;
+			this.pipelining = pipelining;
 			this.delay = delay;
 			this.scheduler = scheduler;
 			this.poolSize = poolSize;
+			this.maxPoolSize = maxPoolSize;
+			this.poolGrowThreshold = poolGrowThreshold;
+			this.poolIdleTimeout = poolIdleTimeout;
+			this.largePoolSize = largePoolSize;
+			this.routingPolicy = routingPolicy;
+			this.rewarm = rewarm;
+			this.metrics = metrics;
+			this.commandTimeout = commandTimeout;
+			this.recyclePolicy = recyclePolicy == null ? RecyclePolicy.noRecycle() : recyclePolicy;
 		}
 
 		@Override
 		public ExecutionStrategy apply() {
-			// First, try the pool strategy.
+			// First, try the elastic pool strategy: idle processes are closed by the pool itself.
+			if (poolSize > 0 && maxPoolSize > 0) {
+				Scheduler scheduler = new SharedScheduler(millis(poolIdleTimeout));
+				return new ElasticPoolStrategy(poolSize, maxPoolSize, poolGrowThreshold, poolIdleTimeout, scheduler, () ->
+					new StayOpenStrategy(new SchedulerFunction(delay).apply(), rewarm, metrics, commandTimeout, recyclePolicy)
+				);
+			}
+
+			// Then, try the routed pool strategy.
+			if (poolSize > 0 && largePoolSize > 0 && routingPolicy != null) {
+				return new RoutedPoolStrategy(createPool(poolSize), createPool(largePoolSize), routingPolicy, metrics);
+			}
+
+			// Then, try the pool strategy.
 			if (poolSize > 0) {
-				List<ExecutionStrategy> strategies = new ArrayList<>(poolSize);
-				for (int i = 0; i < poolSize; i++) {
-					Scheduler scheduler = new SchedulerFunction(delay).apply();
-					StayOpenStrategy strategy = new StayOpenStrategy(scheduler);
-					strategies.add(strategy);
-				}
-
-				return new PoolStrategy(strategies);
+				return new PoolStrategy(createPool(poolSize), metrics);
 			}
 
 			// Try the stayOpen strategy.
 			if (stayOpen != null && stayOpen) {
-				return new StayOpenStrategy(firstNonNull(scheduler, new SchedulerFunction(delay)));
+				Scheduler scheduler = firstNonNull(this.scheduler, new SchedulerFunction(delay));
+				return pipelining ? new PipelinedStayOpenStrategy(scheduler) : new StayOpenStrategy(scheduler, rewarm, metrics, commandTimeout, recyclePolicy);
 			}
 
 			// Simple use case: nothing has been parametrized, so
 			// just return the default strategy.
 			return new DefaultStrategy();
 		}
+
+		private List<ExecutionStrategy> createPool(int size) {
+			List<ExecutionStrategy> strategies = new ArrayList<>(size);
+			for (int i = 0; i < size; i++) {
+				Scheduler scheduler = new SchedulerFunction(delay).apply();
+				StayOpenStrategy strategy = new StayOpenStrategy(scheduler, rewarm, metrics, commandTimeout, recyclePolicy);
+				strategies.add(strategy);
+			}
+
+			return strategies;
+		}
 	}
 }
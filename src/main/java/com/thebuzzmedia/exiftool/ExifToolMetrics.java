@@ -0,0 +1,103 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool;
+
+/**
+ * Metrics recorder, notified by {@link ExifTool}, execution strategies and processes.
+ *
+ * Each implementation should provide implementation for:
+ * <ul>
+ *   <li>Timers: time spent waiting for a pool member, writing commands and reading their output.</li>
+ *   <li>Counters: {@code exiftool} processes started, restarted, recycled, closed, crashes and failures.</li>
+ *   <li>Distributions: bytes and lines read, and tags extracted, for each response.</li>
+ * </ul>
+ *
+ * Implementations are called on the execution path of each command, so they must be
+ * thread-safe and should not block.
+ */
+public interface ExifToolMetrics {
+
+	/**
+	 * Record time spent waiting for an available member of a pool.
+	 *
+	 * @param nanos Duration, in nanoseconds.
+	 */
+	void recordQueueWait(long nanos);
+
+	/**
+	 * Record time spent writing a command (and flushing it) to an {@code exiftool} process.
+	 *
+	 * @param nanos Duration, in nanoseconds.
+	 */
+	void recordWrite(long nanos);
+
+	/**
+	 * Record time spent reading (and parsing) the output of a command.
+	 *
+	 * @param nanos Duration, in nanoseconds.
+	 */
+	void recordRead(long nanos);
+
+	/**
+	 * Record output of a command read from an {@code exiftool} process.
+	 *
+	 * @param bytes Number of bytes read.
+	 * @param lines Number of lines read.
+	 */
+	void recordOutput(long bytes, int lines);
+
+	/**
+	 * Record number of tags extracted from the output of a command.
+	 *
+	 * @param tags Number of tags.
+	 */
+	void recordTags(int tags);
+
+	/**
+	 * Notify that an {@code exiftool} process has been started.
+	 */
+	void processStarted();
+
+	/**
+	 * Notify that an {@code exiftool} process has been started again, since
+	 * the previous one was not running anymore.
+	 */
+	void processRestarted();
+
+	/**
+	 * Notify that an {@code exiftool} process has been closed.
+	 */
+	void processClosed();
+
+	/**
+	 * Notify that an {@code exiftool} process failed to execute a command.
+	 */
+	void processFailed();
+
+	/**
+	 * Notify that an {@code exiftool} process terminated unexpectedly (i.e
+	 * it has not been closed).
+	 */
+	void processCrashed();
+
+	/**
+	 * Notify that an {@code exiftool} process has been replaced by a fresh process, since
+	 * it reached a limit of its recycle policy.
+	 */
+	void processRecycled();
+}
@@ -0,0 +1,88 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool;
+
+import com.thebuzzmedia.exiftool.core.TagValues;
+import com.thebuzzmedia.exiftool.core.cache.MetadataCacheKey;
+
+import java.io.File;
+
+/**
+ * Cache of image metadata, read with {@code exiftool}.
+ *
+ * <br>
+ *
+ * Each entry is identified by a {@link MetadataCacheKey}: the file (canonical path, size
+ * and last modification time), the options and the tags given to {@code exiftool}, so an
+ * entry is never returned once the image has been modified.
+ *
+ * <br>
+ *
+ * Implementations must be thread-safe.
+ */
+public interface MetadataCache {
+
+	/**
+	 * Get metadata associated to given key.
+	 *
+	 * @param key The key.
+	 * @return Metadata, {@code null} if the entry is not in the cache.
+	 */
+	TagValues get(MetadataCacheKey key);
+
+	/**
+	 * Put metadata in the cache, this may evict other entries.
+	 *
+	 * @param key The key.
+	 * @param tags Metadata read with {@code exiftool}.
+	 */
+	void put(MetadataCacheKey key, TagValues tags);
+
+	/**
+	 * Invalidate all entries of given image.
+	 *
+	 * @param image The image.
+	 */
+	void invalidate(File image);
+
+	/**
+	 * Get current size of cache (a.k.a number of entries).
+	 *
+	 * @return Cache Size.
+	 */
+	long size();
+
+	/**
+	 * Get the number of times an entry has been found in the cache.
+	 *
+	 * @return Number of hits.
+	 */
+	long hitCount();
+
+	/**
+	 * Get the number of times an entry has not been found in the cache.
+	 *
+	 * @return Number of misses.
+	 */
+	long missCount();
+
+	/**
+	 * Invalidate all entries.
+	 */
+	void clear();
+}
@@ -0,0 +1,99 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.commons.io;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static com.thebuzzmedia.exiftool.commons.lang.PreConditions.isPositive;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Input stream reading, at most, a given number of bytes from another stream: the
+ * end of the stream is reached once the limit has been read.
+ *
+ * <br>
+ *
+ * Closing this stream closes the underlying stream.
+ */
+public final class BoundedInputStream extends FilterInputStream {
+
+	/**
+	 * Number of bytes that may still be read.
+	 */
+	private long remaining;
+
+	/**
+	 * Create stream.
+	 *
+	 * @param in Underlying stream.
+	 * @param maxBytes Maximum number of bytes to read.
+	 * @throws NullPointerException If {@code in} is {@code null}.
+	 * @throws IllegalArgumentException If {@code maxBytes} is not strictly positive.
+	 */
+	public BoundedInputStream(InputStream in, long maxBytes) {
+		super(requireNonNull(in, "Input stream should not be null"));
+		this.remaining = isPositive(maxBytes, "Maximum number of bytes should be strictly positive");
+	}
+
+	@Override
+	public int read() throws IOException {
+		if (remaining <= 0) {
+			return -1;
+		}
+
+		int b = in.read();
+		if (b >= 0) {
+			remaining--;
+		}
+
+		return b;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		if (remaining <= 0) {
+			return -1;
+		}
+
+		int n = in.read(b, off, (int) Math.min(len, remaining));
+		if (n > 0) {
+			remaining -= n;
+		}
+
+		return n;
+	}
+
+	@Override
+	public long skip(long n) throws IOException {
+		long skipped = in.skip(Math.min(n, remaining));
+		remaining -= skipped;
+		return skipped;
+	}
+
+	@Override
+	public int available() throws IOException {
+		return (int) Math.min(in.available(), remaining);
+	}
+
+	@Override
+	public boolean markSupported() {
+		return false;
+	}
+}
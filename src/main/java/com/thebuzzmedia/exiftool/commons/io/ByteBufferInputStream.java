@@ -0,0 +1,81 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.commons.io;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Input stream reading the remaining bytes of a {@link ByteBuffer}.
+ *
+ * <br>
+ *
+ * The buffer is not modified: bytes are read from a duplicate of the buffer, so that
+ * direct buffers are read without being copied entirely.
+ */
+public final class ByteBufferInputStream extends InputStream {
+
+	/**
+	 * The buffer being read.
+	 */
+	private final ByteBuffer buffer;
+
+	/**
+	 * Create stream.
+	 *
+	 * @param buffer The buffer.
+	 * @throws NullPointerException If {@code buffer} is {@code null}.
+	 */
+	public ByteBufferInputStream(ByteBuffer buffer) {
+		this.buffer = requireNonNull(buffer, "Buffer should not be null").duplicate();
+	}
+
+	@Override
+	public int read() {
+		return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) {
+		if (len == 0) {
+			return 0;
+		}
+
+		if (!buffer.hasRemaining()) {
+			return -1;
+		}
+
+		int n = Math.min(len, buffer.remaining());
+		buffer.get(b, off, n);
+		return n;
+	}
+
+	@Override
+	public long skip(long n) {
+		int skipped = (int) Math.max(0, Math.min(n, buffer.remaining()));
+		buffer.position(buffer.position() + skipped);
+		return skipped;
+	}
+
+	@Override
+	public int available() {
+		return buffer.remaining();
+	}
+}
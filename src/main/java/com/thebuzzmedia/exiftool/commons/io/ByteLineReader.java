@@ -0,0 +1,514 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.commons.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Buffered reader of an input stream, working on bytes: the stream may be read
+ * as text lines (decoded as {@code UTF-8}), or as raw bytes.
+ *
+ * <br>
+ *
+ * Since text and binary output are read from the same buffer, a reader may be re-used
+ * for several read operations: bytes buffered after the last read operation are not lost.
+ *
+ * <br>
+ *
+ * This class is not thread-safe.
+ */
+public final class ByteLineReader implements Closeable {
+
+	/**
+	 * Encoding.
+	 */
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	/**
+	 * Default buffer size.
+	 */
+	private static final int DEFAULT_BUFFER_SIZE = 8192;
+
+	/**
+	 * Prefix of the marker printed by {@code exiftool} at the end of a command.
+	 */
+	private static final byte[] READY = "{ready".getBytes(UTF_8);
+
+	/**
+	 * Maximum length of the marker (prefix, a command number and line break).
+	 */
+	private static final int MAX_MARKER_LENGTH = READY.length + 10 + 3;
+
+	/**
+	 * The input stream.
+	 */
+	private final InputStream is;
+
+	/**
+	 * The buffer.
+	 */
+	private final byte[] buffer;
+
+	/**
+	 * Position of the next byte to read in {@link #buffer}.
+	 */
+	private int pos;
+
+	/**
+	 * Number of bytes available in {@link #buffer}.
+	 */
+	private int limit;
+
+	/**
+	 * Buffer of a line that does not fit in {@link #buffer}, lazily allocated.
+	 */
+	private byte[] line;
+
+	/**
+	 * Bytes of the last line found by {@link #nextLine()}: either {@link #buffer} or {@link #line}.
+	 */
+	private byte[] current;
+
+	/**
+	 * Index of the first byte of the last line in {@link #current}.
+	 */
+	private int currentStart;
+
+	/**
+	 * Index following the last byte of the last line in {@link #current} (line terminator excluded).
+	 */
+	private int currentEnd;
+
+	/**
+	 * Tag names decoded by {@link #readPair(PairVisitor)}, lazily allocated.
+	 */
+	private NameCache names;
+
+	/**
+	 * Flag set when the end of the stream has been reached.
+	 */
+	private boolean eof;
+
+	/**
+	 * Total number of bytes read from {@link #is}.
+	 */
+	private long total;
+
+	/**
+	 * Number of lines returned by {@link #readLine()}.
+	 */
+	private long lines;
+
+	/**
+	 * Create reader.
+	 *
+	 * @param is The input stream.
+	 */
+	public ByteLineReader(InputStream is) {
+		this(is, DEFAULT_BUFFER_SIZE);
+	}
+
+	/**
+	 * Create reader.
+	 *
+	 * @param is The input stream.
+	 * @param bufferSize The buffer size.
+	 */
+	public ByteLineReader(InputStream is, int bufferSize) {
+		this.is = requireNonNull(is, "Input stream should not be null");
+		this.buffer = new byte[Math.max(bufferSize, MAX_MARKER_LENGTH)];
+		this.pos = 0;
+		this.limit = 0;
+	}
+
+	/**
+	 * Read next line, decoded as {@code UTF-8}: a line is terminated by {@code \n} or {@code \r\n}.
+	 *
+	 * @return The line, without line terminator, {@code null} if the end of the stream has been reached.
+	 * @throws IOException If an error occurred during read operation.
+	 */
+	public String readLine() throws IOException {
+		return nextLine() ? decode(current, currentStart, currentEnd) : null;
+	}
+
+	/**
+	 * Read next line, and give it to the visitor as a {@code name: value} pair.
+	 *
+	 * <br>
+	 *
+	 * The {@code ": "} separator is searched on raw bytes: the name is decoded (names are cached, since
+	 * they are the same from one command to another) and the value is decoded only if the visitor accepts
+	 * the name. Lines without separator (such as the {@code {ready}} marker) are decoded and given to
+	 * {@link PairVisitor#readLine(String)}, as well as {@code null} if the end of the stream has been reached.
+	 *
+	 * @param visitor The visitor.
+	 * @return {@code true} if next line should be read, {@code false} otherwise.
+	 * @throws IOException If an error occurred during read operation.
+	 */
+	public boolean readPair(PairVisitor visitor) throws IOException {
+		if (!nextLine()) {
+			return visitor.readLine(null);
+		}
+
+		int separator = indexOfSeparator(current, currentStart, currentEnd);
+		if (separator < 0) {
+			return visitor.readLine(decode(current, currentStart, currentEnd));
+		}
+
+		if (names == null) {
+			names = new NameCache();
+		}
+
+		String name = names.get(current, currentStart, separator);
+		if (!visitor.accept(name)) {
+			return true;
+		}
+
+		return visitor.readPair(name, decode(current, separator + 2, currentEnd));
+	}
+
+	/**
+	 * Check if the end of the stream has been reached by a read operation.
+	 *
+	 * @return {@code true} if the end of the stream has been reached, {@code false} otherwise.
+	 */
+	public boolean isEof() {
+		return eof;
+	}
+
+	/**
+	 * Find next line, and set {@link #current}, {@link #currentStart} and {@link #currentEnd} accordingly:
+	 * a line is terminated by {@code \n} or {@code \r\n}. Bytes are copied only if the line does not fit in
+	 * the buffer.
+	 *
+	 * @return {@code true} if a line has been found, {@code false} if the end of the stream has been reached.
+	 * @throws IOException If an error occurred during read operation.
+	 */
+	private boolean nextLine() throws IOException {
+		int length = 0;
+
+		while (true) {
+			if (pos == limit && fill() < 0) {
+				if (length == 0) {
+					return false;
+				}
+
+				return found(line, 0, length);
+			}
+
+			int start = pos;
+			int end = indexOf((byte) '\n', start, limit);
+			if (end >= 0) {
+				pos = end + 1;
+				if (length == 0) {
+					return found(buffer, start, end);
+				}
+
+				line = append(line, length, buffer, start, end - start);
+				return found(line, 0, length + end - start);
+			}
+
+			// No line terminator in the buffer: keep bytes and read more.
+			line = append(line, length, buffer, start, limit - start);
+			length += limit - start;
+			pos = limit;
+		}
+	}
+
+	private boolean found(byte[] bytes, int from, int to) {
+		lines++;
+		current = bytes;
+		currentStart = from;
+		currentEnd = to > from && bytes[to - 1] == '\r' ? to - 1 : to;
+		return true;
+	}
+
+	/**
+	 * Copy raw bytes to given output stream, until the {@code {ready}} marker (optionally followed by a
+	 * command number, such as {@code {ready12}}) and a line terminator is found.
+	 *
+	 * <br>
+	 *
+	 * Since raw bytes are not terminated by a line break, the marker is searched anywhere in the stream.
+	 *
+	 * @param out The output stream.
+	 * @return The marker (without line terminator), or {@code null} if the end of the stream has been reached.
+	 * @throws IOException If an error occurred during read or write operation.
+	 */
+	public String copyUntilReady(OutputStream out) throws IOException {
+		while (true) {
+			if (pos == limit && fill() < 0) {
+				return null;
+			}
+
+			int start = pos;
+			int markerStart = indexOf(READY[0], start, limit);
+			if (markerStart < 0) {
+				out.write(buffer, start, limit - start);
+				pos = limit;
+				continue;
+			}
+
+			// Copy bytes before the marker candidate.
+			if (markerStart > start) {
+				out.write(buffer, start, markerStart - start);
+			}
+
+			pos = markerStart;
+
+			int markerEnd = matchReady();
+			if (markerEnd < 0) {
+				// Not a marker, this is a simple byte.
+				out.write(buffer, pos, 1);
+				pos++;
+				continue;
+			}
+
+			String marker = new String(buffer, pos, markerEnd - pos, UTF_8);
+			pos = skipLineTerminator(markerEnd);
+			return marker;
+		}
+	}
+
+	/**
+	 * Get the number of bytes consumed so far: bytes that have been read from the
+	 * stream but are still buffered are not counted.
+	 *
+	 * @return Number of bytes.
+	 */
+	public long getBytesRead() {
+		return total - (limit - pos);
+	}
+
+	/**
+	 * Get the number of lines returned by {@link #readLine()} so far.
+	 *
+	 * @return Number of lines.
+	 */
+	public long getLinesRead() {
+		return lines;
+	}
+
+	@Override
+	public void close() throws IOException {
+		is.close();
+	}
+
+	/**
+	 * Check if a ready marker starts at current position: {@code {ready}}, with optional digits,
+	 * followed by {@code \n} or {@code \r\n} (or by the end of the stream).
+	 *
+	 * Bytes are read only when they are needed to take a decision, so that this
+	 * method never blocks once the marker has been fully read.
+	 *
+	 * @return Index following the closing brace of the marker, {@code -1} if there is no marker.
+	 * @throws IOException If an error occurred during read operation.
+	 */
+	private int matchReady() throws IOException {
+		int i = 0;
+		for (byte b : READY) {
+			if (!ensure(i + 1) || buffer[pos + i] != b) {
+				return -1;
+			}
+
+			i++;
+		}
+
+		while (ensure(i + 1) && buffer[pos + i] >= '0' && buffer[pos + i] <= '9') {
+			i++;
+			if (i > MAX_MARKER_LENGTH - 3) {
+				return -1;
+			}
+		}
+
+		if (!ensure(i + 1) || buffer[pos + i] != '}') {
+			return -1;
+		}
+
+		i++;
+
+		if (!ensure(i + 1)) {
+			// Marker at the very end of the stream.
+			return pos + i;
+		}
+
+		if (buffer[pos + i] == '\n') {
+			return pos + i;
+		}
+
+		if (buffer[pos + i] == '\r' && ensure(i + 2) && buffer[pos + i + 1] == '\n') {
+			return pos + i;
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Ensure that at least {@code size} bytes are available in the buffer, starting
+	 * at current position.
+	 *
+	 * @param size Number of bytes.
+	 * @return {@code true} if bytes are available, {@code false} if the end of the stream has been reached.
+	 * @throws IOException If an error occurred during read operation.
+	 */
+	private boolean ensure(int size) throws IOException {
+		if (limit - pos >= size) {
+			return true;
+		}
+
+		compact();
+		while (limit - pos < size) {
+			int n = is.read(buffer, limit, buffer.length - limit);
+			if (n < 0) {
+				eof = true;
+				return false;
+			}
+
+			limit += n;
+			total += n;
+		}
+
+		return true;
+	}
+
+	private int skipLineTerminator(int i) {
+		if (i < limit && buffer[i] == '\r') {
+			i++;
+		}
+
+		if (i < limit && buffer[i] == '\n') {
+			i++;
+		}
+
+		return i;
+	}
+
+	private int indexOf(byte b, int from, int to) {
+		for (int i = from; i < to; i++) {
+			if (buffer[i] == b) {
+				return i;
+			}
+		}
+
+		return -1;
+	}
+
+	private static int indexOfSeparator(byte[] bytes, int from, int to) {
+		for (int i = from; i < to - 1; i++) {
+			if (bytes[i] == ':' && bytes[i + 1] == ' ') {
+				return i;
+			}
+		}
+
+		return -1;
+	}
+
+	private void compact() {
+		int remaining = limit - pos;
+		if (pos > 0) {
+			System.arraycopy(buffer, pos, buffer, 0, remaining);
+			pos = 0;
+			limit = remaining;
+		}
+	}
+
+	private int fill() throws IOException {
+		int n = is.read(buffer, 0, buffer.length);
+		eof = n < 0;
+		pos = 0;
+		limit = Math.max(n, 0);
+		total += limit;
+		return n;
+	}
+
+	private static String decode(byte[] bytes, int from, int to) {
+		return new String(bytes, from, to - from, UTF_8);
+	}
+
+	private static byte[] append(byte[] dest, int length, byte[] src, int from, int count) {
+		byte[] result = dest;
+		if (result == null || result.length < length + count) {
+			int newSize = Math.max(length + count, result == null ? 128 : result.length * 2);
+			result = result == null ? new byte[newSize] : Arrays.copyOf(result, newSize);
+		}
+
+		System.arraycopy(src, from, result, length, count);
+		return result;
+	}
+
+	/**
+	 * Cache of decoded names, indexed by their bytes: a name is decoded once and the same string is returned
+	 * for next lines. The cache has a fixed number of slots, a slot is overwritten in case of collision.
+	 */
+	private static final class NameCache {
+
+		/**
+		 * Number of slots, must be a power of two.
+		 */
+		private static final int SIZE = 512;
+
+		/**
+		 * Bytes of the cached names.
+		 */
+		private final byte[][] keys = new byte[SIZE][];
+
+		/**
+		 * Cached names.
+		 */
+		private final String[] values = new String[SIZE];
+
+		private String get(byte[] bytes, int from, int to) {
+			int hash = 0x811c9dc5;
+			for (int i = from; i < to; i++) {
+				hash = (hash ^ bytes[i]) * 0x01000193;
+			}
+
+			int slot = (hash ^ (hash >>> 16)) & (SIZE - 1);
+			byte[] key = keys[slot];
+			if (key != null && equals(key, bytes, from, to)) {
+				return values[slot];
+			}
+
+			String name = decode(bytes, from, to);
+			keys[slot] = Arrays.copyOfRange(bytes, from, to);
+			values[slot] = name;
+			return name;
+		}
+
+		private static boolean equals(byte[] key, byte[] bytes, int from, int to) {
+			if (key.length != to - from) {
+				return false;
+			}
+
+			for (int i = 0; i < key.length; i++) {
+				if (key[i] != bytes[from + i]) {
+					return false;
+				}
+			}
+
+			return true;
+		}
+	}
+}
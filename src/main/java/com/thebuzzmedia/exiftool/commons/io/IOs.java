@@ -20,12 +20,9 @@ package com.thebuzzmedia.exiftool.commons.io;
 import com.thebuzzmedia.exiftool.logs.Logger;
 import com.thebuzzmedia.exiftool.logs.LoggerFactory;
 
-import java.io.BufferedReader;
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.nio.charset.Charset;
 
 /**
  * Static Input/Output Utilities.
@@ -37,11 +34,6 @@ public final class IOs {
 	 */
 	private static final Logger log = LoggerFactory.getLogger(IOs.class);
 
-	/**
-	 * Encoding.
-	 */
-	private static final Charset UTF_8 = Charset.forName("UTF-8");
-
 	// Ensure non instantiation.
 	private IOs() {
 	}
@@ -55,9 +47,23 @@ public final class IOs {
 	 */
 	public static void readInputStream(InputStream is, StreamVisitor visitor) throws IOException {
 		log.trace("Read input stream");
+		readLines(new ByteLineReader(is), visitor);
+	}
 
+	/**
+	 * Read lines and continue until {@link StreamVisitor#readLine(String)} returns {@code false}.
+	 *
+	 * <br>
+	 *
+	 * Contrary to {@link #readInputStream(InputStream, StreamVisitor)}, the given reader may be
+	 * re-used for next read operations: bytes buffered after the last visited line are not lost.
+	 *
+	 * @param br Reader.
+	 * @param visitor Result handler.
+	 * @throws IOException If an error occurred during read operation.
+	 */
+	public static void readLines(ByteLineReader br, StreamVisitor visitor) throws IOException {
 		String line = null;
-		BufferedReader br = new BufferedReader(new InputStreamReader(is, UTF_8));
 
 		try {
 			boolean hasNext = true;
@@ -81,6 +87,37 @@ public final class IOs {
 		}
 	}
 
+	/**
+	 * Read {@code name: value} lines and continue until visitor returns {@code false}
+	 * (see {@link ByteLineReader#readPair(PairVisitor)}).
+	 *
+	 * <br>
+	 *
+	 * As with {@link #readLines(ByteLineReader, StreamVisitor)}, the given reader may be re-used
+	 * for next read operations.
+	 *
+	 * @param br Reader.
+	 * @param visitor Pair visitor.
+	 * @throws IOException If an error occurred during read operation.
+	 */
+	public static void readPairs(ByteLineReader br, PairVisitor visitor) throws IOException {
+		try {
+			boolean hasNext = true;
+			while (hasNext) {
+				hasNext = br.readPair(visitor);
+			}
+		}
+		catch (IOException ex) {
+			log.error(ex.getMessage(), ex);
+			throw ex;
+		}
+		finally {
+			if (br.isEof()) {
+				closeQuietly(br);
+			}
+		}
+	}
+
 	/**
 	 * Close instance of {@link Closeable} object (stream, reader, writer, etc.).
 	 * If an {@link IOException} occurs during the close operation, then it is logged but it
@@ -0,0 +1,48 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.commons.io;
+
+/**
+ * Visitor used to read {@code name: value} lines of {@link java.io.InputStream} during
+ * read operation (see {@link ByteLineReader#readPair(PairVisitor)}).
+ *
+ * <br>
+ *
+ * Each line is split on the first {@code ": "} separator: the value is decoded only if the
+ * name is accepted by {@link #accept(String)}. Lines without separator are given to
+ * {@link #readLine(String)}, as well as {@code null} when the end of the stream has been reached.
+ */
+public interface PairVisitor extends StreamVisitor {
+
+	/**
+	 * Check if the value associated to the given name should be read.
+	 *
+	 * @param name Name.
+	 * @return {@code true} if the value should be read, {@code false} if the line should be skipped.
+	 */
+	boolean accept(String name);
+
+	/**
+	 * Read pair.
+	 *
+	 * @param name Name.
+	 * @param value Value.
+	 * @return {@code true} if next line should be read, {@code false} otherwise.
+	 */
+	boolean readPair(String name, String value);
+}
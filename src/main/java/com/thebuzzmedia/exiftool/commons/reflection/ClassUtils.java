@@ -46,6 +46,27 @@ public final class ClassUtils {
 		}
 	}
 
+	/**
+	 * Find getter of static field with given type on given class.
+	 *
+	 * @param klass The class.
+	 * @param fieldName The field name.
+	 * @param fieldType The field type.
+	 * @return The getter.
+	 * @throws ReflectionException If given field does not exist.
+	 * @throws ReflectionException If given field is not accessible.
+	 */
+	public static MethodHandle findStaticGetter(Class<?> klass, String fieldName, Class<?> fieldType) {
+		MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+
+		try {
+			return lookup.findStaticGetter(klass, fieldName, fieldType);
+		}
+		catch (NoSuchFieldException | IllegalAccessException ex) {
+			throw new ReflectionException(ex);
+		}
+	}
+
 	/**
 	 * Find static method with given return type parameter types on given class.
 	 *
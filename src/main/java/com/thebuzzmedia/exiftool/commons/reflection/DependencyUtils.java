@@ -38,6 +38,9 @@ public final class DependencyUtils {
 	private static final String LOG4J2_FQN = "org.apache.logging.log4j.Logger";
 	private static final boolean LOG4J2_AVAILABLE = ClassUtils.isPresent(LOG4J2_FQN);
 
+	private static final String MICROMETER_FQN = "io.micrometer.core.instrument.MeterRegistry";
+	private static final boolean MICROMETER_AVAILABLE = ClassUtils.isPresent(MICROMETER_FQN);
+
 	/**
 	 * Check if Guava is available on the classpath.
 	 *
@@ -73,4 +76,13 @@ public final class DependencyUtils {
 	public static boolean isLog4j2Available() {
 		return LOG4J2_AVAILABLE;
 	}
+
+	/**
+	 * Check if micrometer is available on the classpath.
+	 *
+	 * @return {@code true} if micrometer is available, {@code false} otherwise.
+	 */
+	public static boolean isMicrometerAvailable() {
+		return MICROMETER_AVAILABLE;
+	}
 }
@@ -0,0 +1,93 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core;
+
+import com.thebuzzmedia.exiftool.Tag;
+import com.thebuzzmedia.exiftool.commons.lang.ToStringBuilder;
+
+import java.io.File;
+import java.util.Map;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Tags extracted from a file, found while scanning a directory.
+ *
+ * <br>
+ *
+ * This class is immutable and thread-safe.
+ */
+public final class FileMetadata {
+
+	/**
+	 * The file, as printed by {@code exiftool}.
+	 */
+	private final File file;
+
+	/**
+	 * Tags extracted from the file.
+	 */
+	private final TagValues tags;
+
+	/**
+	 * Create metadata.
+	 *
+	 * @param file The file.
+	 * @param tags Tags extracted from the file.
+	 * @throws NullPointerException If one parameter is {@code null}.
+	 */
+	public FileMetadata(File file, TagValues tags) {
+		this.file = requireNonNull(file, "File should not be null");
+		this.tags = requireNonNull(tags, "Tags should not be null");
+	}
+
+	/**
+	 * Get {@link #file}
+	 *
+	 * @return {@link #file}
+	 */
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * Get {@link #tags}
+	 *
+	 * @return {@link #tags}
+	 */
+	public TagValues getTagValues() {
+		return tags;
+	}
+
+	/**
+	 * Get tags extracted from the file, as a map.
+	 *
+	 * @return Pair of tag associated with the value.
+	 */
+	public Map<Tag, String> getTags() {
+		return tags.asMap();
+	}
+
+	@Override
+	public String toString() {
+		return ToStringBuilder.create(getClass())
+				.append("file", file)
+				.append("tags", tags)
+				.build();
+	}
+}
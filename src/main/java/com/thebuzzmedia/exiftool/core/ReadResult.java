@@ -0,0 +1,107 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.thebuzzmedia.exiftool.core;
+
+import com.thebuzzmedia.exiftool.Tag;
+import com.thebuzzmedia.exiftool.commons.lang.ToStringBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.unmodifiableList;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Result of a read operation: tags extracted from an image, and warnings (or errors) printed by
+ * {@code exiftool} while reading it (such as {@code Warning: [minor] Unrecognized MakerNotes}).
+ *
+ * <br>
+ *
+ * This class is immutable and thread-safe.
+ */
+public final class ReadResult {
+
+	/**
+	 * Tags extracted from the image.
+	 */
+	private final TagValues tags;
+
+	/**
+	 * Warnings printed by {@code exiftool}, in the order they have been printed.
+	 */
+	private final List<String> warnings;
+
+	/**
+	 * Create result.
+	 *
+	 * @param tags Tags extracted from the image.
+	 * @param warnings Warnings printed by {@code exiftool}.
+	 * @throws NullPointerException If one parameter is {@code null}.
+	 */
+	public ReadResult(TagValues tags, List<String> warnings) {
+		this.tags = requireNonNull(tags, "Tags should not be null");
+		this.warnings = warnings.isEmpty() ? emptyList() : unmodifiableList(new ArrayList<>(warnings));
+	}
+
+	/**
+	 * Get {@link #tags}
+	 *
+	 * @return {@link #tags}
+	 */
+	public TagValues getTagValues() {
+		return tags;
+	}
+
+	/**
+	 * Get tags extracted from the image, as a map.
+	 *
+	 * @return Pair of tag associated with the value.
+	 */
+	public Map<Tag, String> getTags() {
+		return tags.asMap();
+	}
+
+	/**
+	 * Get {@link #warnings}
+	 *
+	 * @return {@link #warnings}
+	 */
+	public List<String> getWarnings() {
+		return warnings;
+	}
+
+	/**
+	 * Check if {@code exiftool} printed warnings (or errors) while reading the image.
+	 *
+	 * @return {@code true} if there is at least one warning, {@code false} otherwise.
+	 */
+	public boolean hasWarnings() {
+		return !warnings.isEmpty();
+	}
+
+	@Override
+	public String toString() {
+		return ToStringBuilder.create(getClass())
+				.append("tags", tags)
+				.append("warnings", warnings)
+				.build();
+	}
+}
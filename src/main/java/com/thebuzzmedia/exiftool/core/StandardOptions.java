@@ -163,6 +163,17 @@ public final class StandardOptions implements ExifToolOptions {
 	 */
 	private final boolean useArgsFormat;
 
+	/**
+	 * Output information in JSON format.
+	 */
+	private final boolean useJsonFormat;
+
+	/**
+	 * Serialized arguments, computed once (options are immutable): this is not
+	 * part of the state of the options.
+	 */
+	private transient volatile List<String> arguments;
+
 	/**
 	 * Create options.
 	 *
@@ -181,6 +192,7 @@ public final class StandardOptions implements ExifToolOptions {
 	 * @param extractUnknown Extract unknown tags.
 	 * @param overwriteMode The overwrite mode.
 	 * @param useArgsFormat Output information in the form of exiftool arguments.
+	 * @param useJsonFormat Output information in JSON format.
 	 */
 	private StandardOptions(
 			Format format,
@@ -197,7 +209,8 @@ public final class StandardOptions implements ExifToolOptions {
 			boolean extractEmbedded,
 			boolean extractUnknown,
 			OverwriteMode overwriteMode,
-			boolean useArgsFormat) {
+			boolean useArgsFormat,
+			boolean useJsonFormat) {
 
 		this.format = format;
 		this.ignoreMinorErrors = ignoreMinorErrors;
@@ -214,10 +227,21 @@ public final class StandardOptions implements ExifToolOptions {
 		this.duplicates = duplicates;
 		this.overwriteOriginal = overwriteMode;
 		this.useArgsFormat = useArgsFormat;
+		this.useJsonFormat = useJsonFormat;
 	}
 
 	@Override
 	public Iterable<String> serialize() {
+		List<String> result = arguments;
+		if (result == null) {
+			result = unmodifiableList(toArguments());
+			arguments = result;
+		}
+
+		return result;
+	}
+
+	private List<String> toArguments() {
 		List<String> arguments = new ArrayList<>(30);
 
 		if (format != null) {
@@ -236,6 +260,10 @@ public final class StandardOptions implements ExifToolOptions {
 			arguments.add("-args");
 		}
 
+		if (useJsonFormat) {
+			arguments.add("-j");
+		}
+
 		if (isNotEmpty(dateFormat)) {
 			arguments.add("-dateFormat");
 			arguments.add(dateFormat);
@@ -438,6 +466,15 @@ public final class StandardOptions implements ExifToolOptions {
 		return useArgsFormat;
 	}
 
+	/**
+	 * Get {@link #useJsonFormat}
+	 *
+	 * @return {@link #useJsonFormat}
+	 */
+	public boolean isUseJsonFormat() {
+		return useJsonFormat;
+	}
+
 	/**
 	 * Re-Create builder from given options.
 	 *
@@ -459,7 +496,8 @@ public final class StandardOptions implements ExifToolOptions {
 				.withExtractEmbedded(extractEmbedded)
 				.withExtractUnknown(extractUnknown)
 				.withOverwriteMode(overwriteOriginal)
-				.withUseArgsFormat(useArgsFormat);
+				.withUseArgsFormat(useArgsFormat)
+				.withUseJsonFormat(useJsonFormat);
 	}
 
 	@Override
@@ -484,7 +522,8 @@ public final class StandardOptions implements ExifToolOptions {
 					&& Objects.equals(extractEmbedded, opts.extractEmbedded)
 					&& Objects.equals(extractUnknown, opts.extractUnknown)
 					&& Objects.equals(overwriteOriginal, opts.overwriteOriginal)
-					&& Objects.equals(useArgsFormat, opts.useArgsFormat);
+					&& Objects.equals(useArgsFormat, opts.useArgsFormat)
+					&& Objects.equals(useJsonFormat, opts.useJsonFormat);
 		}
 
 		return false;
@@ -507,7 +546,8 @@ public final class StandardOptions implements ExifToolOptions {
 				extractEmbedded,
 				extractUnknown,
 				overwriteOriginal,
-				useArgsFormat
+				useArgsFormat,
+				useJsonFormat
 		);
 	}
 
@@ -529,6 +569,7 @@ public final class StandardOptions implements ExifToolOptions {
 				.append("extractUnknown", extractUnknown)
 				.append("overwriteOriginal", overwriteOriginal)
 				.append("useArgsFormat", useArgsFormat)
+				.append("useJsonFormat", useJsonFormat)
 				.build();
 	}
 
@@ -640,6 +681,11 @@ public final class StandardOptions implements ExifToolOptions {
 		 */
 		private boolean useArgsFormat;
 
+		/**
+		 * Output information in JSON format.
+		 */
+		private boolean useJsonFormat;
+
 		private Builder() {
 			this.ignoreMinorErrors = false;
 			this.format = StandardFormat.HUMAN_READABLE;
@@ -656,6 +702,7 @@ public final class StandardOptions implements ExifToolOptions {
 			this.extractUnknown = false;
 			this.overwriteOriginal = OverwriteMode.NONE;
 			this.useArgsFormat = false;
+			this.useJsonFormat = false;
 		}
 
 		/**
@@ -925,6 +972,19 @@ public final class StandardOptions implements ExifToolOptions {
 			return this;
 		}
 
+		/**
+		 * Update {@link #useJsonFormat}.
+		 *
+		 * When enabled, {@code exiftool} output is read as a JSON stream (see {@link com.thebuzzmedia.exiftool.core.handlers.JsonTagHandler}).
+		 *
+		 * @param useJsonFormat The flag.
+		 * @return The builder.
+		 */
+		public Builder withUseJsonFormat(boolean useJsonFormat) {
+			this.useJsonFormat = useJsonFormat;
+			return this;
+		}
+
 		/**
 		 * Build ExifTool options.
 		 *
@@ -946,7 +1006,8 @@ public final class StandardOptions implements ExifToolOptions {
 					extractEmbedded,
 					extractUnknown,
 					overwriteOriginal,
-					useArgsFormat
+					useArgsFormat,
+					useJsonFormat
 			);
 		}
 
@@ -1096,6 +1157,15 @@ public final class StandardOptions implements ExifToolOptions {
 			return useArgsFormat;
 		}
 
+		/**
+		 * Get {@link #useJsonFormat}
+		 *
+		 * @return {@link #useJsonFormat}
+		 */
+		public boolean isUseJsonFormat() {
+			return useJsonFormat;
+		}
+
 		@Override
 		public String toString() {
 			return ToStringBuilder.create(getClass())
@@ -1113,6 +1183,7 @@ public final class StandardOptions implements ExifToolOptions {
 					.append("extractEmbedded", extractEmbedded)
 					.append("overwriteOriginal", overwriteOriginal)
 					.append("useArgsFormat", useArgsFormat)
+					.append("useJsonFormat", useJsonFormat)
 					.build();
 		}
 	}
@@ -0,0 +1,126 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core;
+
+import com.thebuzzmedia.exiftool.Tag;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static java.util.Collections.unmodifiableMap;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Registry of canonical {@link Tag} instances, indexed by name.
+ *
+ * <br>
+ *
+ * Reading all tags of images creates a tag for each line of {@code exiftool} output, and most of
+ * these names are the same from one image to another: interned tags are created once, and shared by all
+ * results. The number of interned tags is bounded: once the limit is reached, new names are no longer
+ * interned (a new tag is created each time).
+ *
+ * <br>
+ *
+ * This class is thread-safe.
+ */
+public final class TagRegistry {
+
+	/**
+	 * Maximum number of interned tags.
+	 */
+	private static final int MAX_SIZE = 8192;
+
+	/**
+	 * Standard tags, indexed by name.
+	 */
+	private static final Map<String, StandardTag> STANDARD_TAGS = standardTags();
+
+	/**
+	 * Interned tags, indexed by name.
+	 */
+	private static final ConcurrentMap<String, UnspecifiedTag> TAGS = new ConcurrentHashMap<>(1024);
+
+	// Ensure non instantiation.
+	private TagRegistry() {
+	}
+
+	/**
+	 * Get the canonical {@link UnspecifiedTag} with given name.
+	 *
+	 * @param name Tag name.
+	 * @return The tag.
+	 * @throws NullPointerException If name is {@code null}.
+	 */
+	public static UnspecifiedTag intern(String name) {
+		requireNonNull(name, "Tag name should not be null");
+
+		UnspecifiedTag tag = TAGS.get(name);
+		if (tag != null) {
+			return tag;
+		}
+
+		tag = new UnspecifiedTag(name);
+		if (TAGS.size() >= MAX_SIZE) {
+			return tag;
+		}
+
+		UnspecifiedTag previous = TAGS.putIfAbsent(name, tag);
+		return previous == null ? tag : previous;
+	}
+
+	/**
+	 * Get the {@link StandardTag} with given name if it exists, the canonical {@link UnspecifiedTag}
+	 * otherwise.
+	 *
+	 * @param name Tag name.
+	 * @return The tag.
+	 * @throws NullPointerException If name is {@code null}.
+	 */
+	public static Tag resolve(String name) {
+		StandardTag tag = STANDARD_TAGS.get(name);
+		return tag != null ? tag : intern(name);
+	}
+
+	/**
+	 * Get the number of interned tags.
+	 *
+	 * @return Number of interned tags.
+	 */
+	static int size() {
+		return TAGS.size();
+	}
+
+	/**
+	 * Remove all interned tags.
+	 */
+	static void clear() {
+		TAGS.clear();
+	}
+
+	private static Map<String, StandardTag> standardTags() {
+		Map<String, StandardTag> tags = new HashMap<>();
+		for (StandardTag tag : StandardTag.values()) {
+			tags.put(tag.getName(), tag);
+		}
+
+		return unmodifiableMap(tags);
+	}
+}
@@ -0,0 +1,496 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core;
+
+import com.thebuzzmedia.exiftool.Tag;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Tags extracted from an image, with their values.
+ *
+ * <br>
+ *
+ * Values of {@link StandardTag} are stored in an array indexed by {@link StandardTag#ordinal()}, values of
+ * other tags (such as {@link UnspecifiedTag}) are stored in an overflow map: compared to a {@link HashMap}, no
+ * entry object is allocated for standard tags. Numeric accessors ({@link #getInt(Tag, int)}, {@link #getLong(Tag, long)}
+ * and {@link #getDouble(Tag, double)}) parse values when they are called, and return primitive values: contrary
+ * to {@link Tag#parse(String)}, values are never boxed.
+ *
+ * <br>
+ *
+ * A {@link Map} view, returned by {@link #asMap()}, can be used wherever a {@code Map<Tag, String>} is expected.
+ *
+ * <br>
+ *
+ * This class is immutable and thread-safe.
+ */
+public final class TagValues {
+
+	/**
+	 * Standard tags, indexed by their ordinal.
+	 */
+	private static final StandardTag[] STANDARD_TAGS = StandardTag.values();
+
+	/**
+	 * Empty instance.
+	 */
+	private static final TagValues EMPTY = new TagValues(new String[0], null, 0);
+
+	/**
+	 * Values of standard tags, indexed by {@link StandardTag#ordinal()}: the array may be shorter than the
+	 * number of standard tags, if last tags have no values.
+	 */
+	private final String[] standard;
+
+	/**
+	 * Values of other tags, may be {@code null}.
+	 */
+	private final Map<Tag, String> others;
+
+	/**
+	 * Number of tags.
+	 */
+	private final int size;
+
+	/**
+	 * Map view, created lazily.
+	 */
+	private Map<Tag, String> map;
+
+	private TagValues(String[] standard, Map<Tag, String> others, int size) {
+		this.standard = standard;
+		this.others = others;
+		this.size = size;
+	}
+
+	/**
+	 * Get an empty instance.
+	 *
+	 * @return Empty instance.
+	 */
+	public static TagValues empty() {
+		return EMPTY;
+	}
+
+	/**
+	 * Create an instance from a map of tags.
+	 *
+	 * @param tags Tags, with their values.
+	 * @return The tag values.
+	 */
+	public static TagValues copyOf(Map<? extends Tag, String> tags) {
+		if (tags instanceof MapView) {
+			return ((MapView) tags).values;
+		}
+
+		Builder builder = builder();
+		for (Map.Entry<? extends Tag, String> entry : tags.entrySet()) {
+			builder.put(entry.getKey(), entry.getValue());
+		}
+
+		return builder.build();
+	}
+
+	/**
+	 * Create a new builder.
+	 *
+	 * @return The builder.
+	 */
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * Get the value of a tag.
+	 *
+	 * @param tag The tag.
+	 * @return The value, {@code null} if the tag has no value.
+	 */
+	public String getString(Tag tag) {
+		if (tag instanceof StandardTag) {
+			int ordinal = ((StandardTag) tag).ordinal();
+			return ordinal < standard.length ? standard[ordinal] : null;
+		}
+
+		return others == null ? null : others.get(tag);
+	}
+
+	/**
+	 * Get the value of a tag as an {@code int}.
+	 *
+	 * @param tag The tag.
+	 * @param defaultValue Value returned if the tag has no value.
+	 * @return The value.
+	 * @throws NumberFormatException If the value is not a valid integer.
+	 */
+	public int getInt(Tag tag, int defaultValue) {
+		String value = getString(tag);
+		return value == null ? defaultValue : Integer.parseInt(value);
+	}
+
+	/**
+	 * Get the value of a tag as a {@code long}.
+	 *
+	 * @param tag The tag.
+	 * @param defaultValue Value returned if the tag has no value.
+	 * @return The value.
+	 * @throws NumberFormatException If the value is not a valid long.
+	 */
+	public long getLong(Tag tag, long defaultValue) {
+		String value = getString(tag);
+		return value == null ? defaultValue : Long.parseLong(value);
+	}
+
+	/**
+	 * Get the value of a tag as a {@code double}: {@code inf} and {@code undef} values (printed
+	 * by {@code exiftool}) are returned as {@link Double#POSITIVE_INFINITY} and {@link Double#NaN}.
+	 *
+	 * @param tag The tag.
+	 * @param defaultValue Value returned if the tag has no value.
+	 * @return The value.
+	 * @throws NumberFormatException If the value is not a valid double.
+	 */
+	public double getDouble(Tag tag, double defaultValue) {
+		String value = getString(tag);
+		if (value == null) {
+			return defaultValue;
+		}
+
+		if ("inf".equals(value)) {
+			return Double.POSITIVE_INFINITY;
+		}
+
+		if ("undef".equals(value)) {
+			return Double.NaN;
+		}
+
+		return Double.parseDouble(value);
+	}
+
+	/**
+	 * Check if a tag has a value.
+	 *
+	 * @param tag The tag.
+	 * @return {@code true} if the tag has a value, {@code false} otherwise.
+	 */
+	public boolean contains(Tag tag) {
+		return getString(tag) != null;
+	}
+
+	/**
+	 * Get the values of given tags, matching tags by name: a value stored with {@link StandardTag#ISO} is
+	 * returned for {@code new UnspecifiedTag("ISO")} for instance. This is useful when values have been read
+	 * with other instances of the same tags (such as values shared by a cache).
+	 *
+	 * @param tags The tags.
+	 * @return The values, keyed by given tags (this instance if it already is).
+	 */
+	public TagValues forTags(Collection<? extends Tag> tags) {
+		if (size <= tags.size() && containsAll(tags)) {
+			return this;
+		}
+
+		Map<String, String> values = new HashMap<>(size * 2);
+		for (Map.Entry<Tag, String> entry : asMap().entrySet()) {
+			values.put(entry.getKey().getName(), entry.getValue());
+		}
+
+		Builder builder = builder();
+		for (Tag tag : tags) {
+			String value = values.get(tag.getName());
+			if (value != null) {
+				builder.put(tag, value);
+			}
+		}
+
+		return builder.build();
+	}
+
+	private boolean containsAll(Collection<? extends Tag> tags) {
+		for (Tag tag : tags) {
+			if (!contains(tag)) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Get the number of tags.
+	 *
+	 * @return Number of tags.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Check if there is no tag.
+	 *
+	 * @return {@code true} if there is no tag, {@code false} otherwise.
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Get an unmodifiable {@link Map} view of the tags.
+	 *
+	 * @return The map view.
+	 */
+	public Map<Tag, String> asMap() {
+		// Racy, but the view is stateless: at worst, several views are created.
+		Map<Tag, String> view = map;
+		if (view == null) {
+			view = new MapView(this);
+			map = view;
+		}
+
+		return view;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (o == this) {
+			return true;
+		}
+
+		if (o instanceof TagValues) {
+			return asMap().equals(((TagValues) o).asMap());
+		}
+
+		return false;
+	}
+
+	@Override
+	public int hashCode() {
+		return asMap().hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return asMap().toString();
+	}
+
+	/**
+	 * Builder of {@link TagValues}.
+	 *
+	 * <br>
+	 *
+	 * This class is not thread-safe.
+	 */
+	public static final class Builder {
+		/**
+		 * Initial capacity of {@link #standard}: most reads only query a few tags.
+		 */
+		private static final int INITIAL_CAPACITY = 8;
+
+		/**
+		 * Values of standard tags, indexed by their ordinal: allocated on the first one, and grown
+		 * when a tag with a higher ordinal is added.
+		 */
+		private String[] standard;
+
+		/**
+		 * Highest ordinal of standard tags, plus one.
+		 */
+		private int length;
+
+		/**
+		 * Values of other tags, allocated on the first one.
+		 */
+		private Map<Tag, String> others;
+
+		/**
+		 * Number of tags.
+		 */
+		private int size;
+
+		private Builder() {
+		}
+
+		/**
+		 * Set the value of a tag, replacing the previous value.
+		 *
+		 * @param tag The tag.
+		 * @param value The value.
+		 * @return Current builder.
+		 * @throws NullPointerException If tag or value is {@code null}.
+		 */
+		public Builder put(Tag tag, String value) {
+			requireNonNull(tag, "Tag should not be null");
+			requireNonNull(value, "Value should not be null");
+
+			if (tag instanceof StandardTag) {
+				int ordinal = ((StandardTag) tag).ordinal();
+				ensureCapacity(ordinal + 1);
+
+				if (standard[ordinal] == null) {
+					size++;
+				}
+
+				standard[ordinal] = value;
+				length = Math.max(length, ordinal + 1);
+			}
+			else {
+				if (others == null) {
+					others = new HashMap<>();
+				}
+
+				if (others.put(tag, value) == null) {
+					size++;
+				}
+			}
+
+			return this;
+		}
+
+		/**
+		 * Get the number of tags.
+		 *
+		 * @return Number of tags.
+		 */
+		public int size() {
+			return size;
+		}
+
+		private void ensureCapacity(int capacity) {
+			if (standard == null) {
+				standard = new String[Math.max(capacity, INITIAL_CAPACITY)];
+			}
+			else if (capacity > standard.length) {
+				int newCapacity = Math.min(Math.max(capacity, standard.length * 2), STANDARD_TAGS.length);
+				standard = Arrays.copyOf(standard, newCapacity);
+			}
+		}
+
+		/**
+		 * Create the tag values: the builder can be used again, without modifying created instances.
+		 *
+		 * @return The tag values.
+		 */
+		public TagValues build() {
+			if (size == 0) {
+				return EMPTY;
+			}
+
+			String[] values = standard == null ? EMPTY.standard : Arrays.copyOf(standard, length);
+			Map<Tag, String> copy = others == null ? null : new HashMap<>(others);
+			return new TagValues(values, copy, size);
+		}
+	}
+
+	/**
+	 * Unmodifiable {@link Map} view.
+	 */
+	private static final class MapView extends AbstractMap<Tag, String> {
+		private final TagValues values;
+
+		private MapView(TagValues values) {
+			this.values = values;
+		}
+
+		@Override
+		public int size() {
+			return values.size;
+		}
+
+		@Override
+		public boolean containsKey(Object key) {
+			return get(key) != null;
+		}
+
+		@Override
+		public String get(Object key) {
+			return key instanceof Tag ? values.getString((Tag) key) : null;
+		}
+
+		@Override
+		public Set<Entry<Tag, String>> entrySet() {
+			return new AbstractSet<Entry<Tag, String>>() {
+				@Override
+				public Iterator<Entry<Tag, String>> iterator() {
+					return new EntryIterator(values);
+				}
+
+				@Override
+				public int size() {
+					return values.size;
+				}
+			};
+		}
+	}
+
+	/**
+	 * Iterate over standard tags (by ordinal), then over other tags.
+	 */
+	private static final class EntryIterator implements Iterator<Map.Entry<Tag, String>> {
+		private final TagValues values;
+		private final Iterator<Map.Entry<Tag, String>> others;
+		private int ordinal;
+
+		private EntryIterator(TagValues values) {
+			this.values = values;
+			this.others = values.others == null ? Collections.<Map.Entry<Tag, String>>emptyIterator() : values.others.entrySet().iterator();
+			this.ordinal = nextOrdinal(values.standard, 0);
+		}
+
+		@Override
+		public boolean hasNext() {
+			return ordinal < values.standard.length || others.hasNext();
+		}
+
+		@Override
+		public Map.Entry<Tag, String> next() {
+			if (ordinal < values.standard.length) {
+				Map.Entry<Tag, String> entry = new AbstractMap.SimpleImmutableEntry<>(STANDARD_TAGS[ordinal], values.standard[ordinal]);
+				ordinal = nextOrdinal(values.standard, ordinal + 1);
+				return entry;
+			}
+
+			if (!others.hasNext()) {
+				throw new NoSuchElementException();
+			}
+
+			Map.Entry<Tag, String> entry = others.next();
+			return new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), entry.getValue());
+		}
+
+		private static int nextOrdinal(String[] standard, int from) {
+			int i = from;
+			while (i < standard.length && standard[i] == null) {
+				i++;
+			}
+
+			return i;
+		}
+	}
+}
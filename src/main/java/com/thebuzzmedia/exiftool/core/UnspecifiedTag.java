@@ -44,13 +44,24 @@ public final class UnspecifiedTag implements Tag {
 	 */
 	private final String name;
 
+	/**
+	 * Hash code, computed once: tags are used as keys of maps on each read.
+	 */
+	private final int hashCode;
+
 	/**
 	 * Create tag.
 	 *
+	 * <br>
+	 *
+	 * Note that {@link TagRegistry#intern(String)} returns a canonical instance, without
+	 * allocating a new tag each time.
+	 *
 	 * @param name Tag name.
 	 */
 	public UnspecifiedTag(String name) {
 		this.name = name;
+		this.hashCode = computeHashCode();
 	}
 
 	@Override
@@ -93,6 +104,10 @@ public final class UnspecifiedTag implements Tag {
 
 	@Override
 	public int hashCode() {
-		return Objects.hash(name);
+		return hashCode;
+	}
+
+	private int computeHashCode() {
+		return name == null ? 0 : name.hashCode();
 	}
 }
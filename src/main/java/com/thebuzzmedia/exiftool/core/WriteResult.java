@@ -0,0 +1,164 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core;
+
+import com.thebuzzmedia.exiftool.commons.lang.ToStringBuilder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Collections.unmodifiableList;
+import static java.util.Collections.unmodifiableMap;
+
+/**
+ * Result of a write operation on several images.
+ *
+ * <br>
+ *
+ * {@code exiftool} reports failures with an error line for each image that could not be written
+ * (such as {@code Error: File not found - /tmp/image.jpg}), and ends its output with summary lines (such
+ * as {@code 2 image files updated}): an image is considered written if no error has been reported for it.
+ *
+ * <br>
+ *
+ * This class is immutable and thread-safe.
+ */
+public final class WriteResult {
+
+	/**
+	 * Images given to {@code exiftool}.
+	 */
+	private final List<File> images;
+
+	/**
+	 * Error messages, indexed by image.
+	 */
+	private final Map<File, String> errors;
+
+	/**
+	 * Number of updated (or created) images, as reported by {@code exiftool}.
+	 */
+	private final int updated;
+
+	/**
+	 * Number of unchanged images, as reported by {@code exiftool}.
+	 */
+	private final int unchanged;
+
+	/**
+	 * Number of images that were not updated due to errors, as reported by {@code exiftool}.
+	 */
+	private final int failed;
+
+	/**
+	 * Create result.
+	 *
+	 * @param images Images given to {@code exiftool}.
+	 * @param errors Error messages, indexed by image.
+	 * @param updated Number of updated images.
+	 * @param unchanged Number of unchanged images.
+	 * @param failed Number of images not updated due to errors.
+	 */
+	public WriteResult(Collection<File> images, Map<File, String> errors, int updated, int unchanged, int failed) {
+		this.images = unmodifiableList(new ArrayList<>(images));
+		this.errors = unmodifiableMap(new LinkedHashMap<>(errors));
+		this.updated = updated;
+		this.unchanged = unchanged;
+		this.failed = failed;
+	}
+
+	/**
+	 * Get {@link #images}
+	 *
+	 * @return {@link #images}
+	 */
+	public List<File> getImages() {
+		return images;
+	}
+
+	/**
+	 * Get {@link #errors}
+	 *
+	 * @return {@link #errors}
+	 */
+	public Map<File, String> getErrors() {
+		return errors;
+	}
+
+	/**
+	 * Get {@link #updated}
+	 *
+	 * @return {@link #updated}
+	 */
+	public int getUpdatedCount() {
+		return updated;
+	}
+
+	/**
+	 * Get {@link #unchanged}
+	 *
+	 * @return {@link #unchanged}
+	 */
+	public int getUnchangedCount() {
+		return unchanged;
+	}
+
+	/**
+	 * Get {@link #failed}
+	 *
+	 * @return {@link #failed}
+	 */
+	public int getFailedCount() {
+		return failed;
+	}
+
+	/**
+	 * Check if given image has been written: the image must have been given to {@code exiftool}, and
+	 * no error must have been reported for this image.
+	 *
+	 * @param image Image.
+	 * @return {@code true} if image has been written, {@code false} otherwise.
+	 */
+	public boolean isSuccess(File image) {
+		return images.contains(image) && !errors.containsKey(image);
+	}
+
+	/**
+	 * Check if all images have been written.
+	 *
+	 * @return {@code true} if all images have been written, {@code false} otherwise.
+	 */
+	public boolean isSuccess() {
+		return errors.isEmpty() && failed == 0;
+	}
+
+	@Override
+	public String toString() {
+		return ToStringBuilder.create(getClass())
+				.append("images", images.size())
+				.append("updated", updated)
+				.append("unchanged", unchanged)
+				.append("failed", failed)
+				.append("errors", errors)
+				.build();
+	}
+}
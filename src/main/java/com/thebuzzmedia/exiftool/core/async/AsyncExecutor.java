@@ -0,0 +1,256 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core.async;
+
+import com.thebuzzmedia.exiftool.commons.lang.ToStringBuilder;
+import com.thebuzzmedia.exiftool.logs.Logger;
+import com.thebuzzmedia.exiftool.logs.LoggerFactory;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+import static com.thebuzzmedia.exiftool.commons.lang.PreConditions.isPositive;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Submit tasks to a user supplied {@link Executor} and expose the result
+ * as a {@link CompletableFuture}.
+ *
+ * <br>
+ *
+ * The number of pending tasks (i.e tasks submitted and not yet completed) is bounded: when
+ * this limit is reached, the given {@link RejectionPolicy} is applied.
+ *
+ * <br>
+ *
+ * This class is thread-safe.
+ */
+public class AsyncExecutor {
+
+	/**
+	 * Class Logger.
+	 */
+	private static final Logger log = LoggerFactory.getLogger(AsyncExecutor.class);
+
+	/**
+	 * Executor running submitted tasks.
+	 */
+	private final Executor executor;
+
+	/**
+	 * Maximum number of pending tasks.
+	 */
+	private final int maxPendingTasks;
+
+	/**
+	 * Permits, one for each task that can still be submitted.
+	 */
+	private final Semaphore permits;
+
+	/**
+	 * Policy applied when the maximum number of pending tasks has been reached.
+	 */
+	private final RejectionPolicy policy;
+
+	/**
+	 * Create executor.
+	 *
+	 * @param executor Executor running submitted tasks.
+	 * @param maxPendingTasks Maximum number of pending tasks.
+	 * @param policy Policy applied when the maximum number of pending tasks has been reached.
+	 * @throws NullPointerException If {@code executor} or {@code policy} is {@code null}.
+	 * @throws IllegalArgumentException If {@code maxPendingTasks} is not strictly positive.
+	 */
+	public AsyncExecutor(Executor executor, int maxPendingTasks, RejectionPolicy policy) {
+		this.executor = requireNonNull(executor, "Executor should not be null");
+		this.policy = requireNonNull(policy, "Rejection policy should not be null");
+		this.maxPendingTasks = isPositive(maxPendingTasks, "Maximum number of pending tasks should be strictly positive");
+		this.permits = new Semaphore(maxPendingTasks);
+	}
+
+	/**
+	 * Submit given task.
+	 *
+	 * Returned future is completed with the task result, or exceptionally with
+	 * the exception thrown by the task (or a {@link RejectedExecutionException} if task has been rejected).
+	 *
+	 * @param task The task.
+	 * @param <T> Type of result.
+	 * @return The future result.
+	 */
+	public <T> CompletableFuture<T> submit(Callable<T> task) {
+		requireNonNull(task, "Task should not be null");
+
+		CompletableFuture<T> future = new CompletableFuture<>();
+		if (!acquire(future)) {
+			if (policy == RejectionPolicy.CALLER_RUNS && !future.isDone()) {
+				log.debug("Maximum number of pending tasks reached, run task in caller thread");
+				run(task, future, null);
+			}
+
+			return future;
+		}
+
+		try {
+			executor.execute(() -> run(task, future, permits));
+		}
+		catch (RejectedExecutionException ex) {
+			log.warn("Task has been rejected by executor: {}", ex.getMessage());
+			permits.release();
+			future.completeExceptionally(ex);
+		}
+
+		return future;
+	}
+
+	/**
+	 * Submit given task only if the maximum number of pending tasks has not been reached: contrary to
+	 * {@link #submit(Callable)}, the rejection policy is never applied, so the caller thread is never
+	 * blocked and never runs the task.
+	 *
+	 * @param task The task.
+	 * @param <T> Type of result.
+	 * @return The future result, {@code null} if the task has not been submitted.
+	 */
+	public <T> CompletableFuture<T> trySubmit(Callable<T> task) {
+		requireNonNull(task, "Task should not be null");
+
+		if (!permits.tryAcquire()) {
+			return null;
+		}
+
+		CompletableFuture<T> future = new CompletableFuture<>();
+		try {
+			executor.execute(() -> run(task, future, permits));
+		}
+		catch (RejectedExecutionException ex) {
+			log.debug("Task has been rejected by executor: {}", ex.getMessage());
+			permits.release();
+			return null;
+		}
+
+		return future;
+	}
+
+	/**
+	 * Get the number of tasks that are currently pending.
+	 *
+	 * @return Number of pending tasks.
+	 */
+	public int getPendingTasks() {
+		return maxPendingTasks - permits.availablePermits();
+	}
+
+	/**
+	 * Get {@link #maxPendingTasks}
+	 *
+	 * @return {@link #maxPendingTasks}
+	 */
+	public int getMaxPendingTasks() {
+		return maxPendingTasks;
+	}
+
+	/**
+	 * Get {@link #policy}
+	 *
+	 * @return {@link #policy}
+	 */
+	public RejectionPolicy getPolicy() {
+		return policy;
+	}
+
+	/**
+	 * Acquire a permit to submit a task, according to the rejection policy.
+	 *
+	 * @param future Future, completed exceptionally if task is rejected.
+	 * @return {@code true} if a permit has been acquired, {@code false} otherwise.
+	 */
+	private boolean acquire(CompletableFuture<?> future) {
+		if (permits.tryAcquire()) {
+			return true;
+		}
+
+		if (policy == RejectionPolicy.BLOCK) {
+			try {
+				permits.acquire();
+				return true;
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				future.completeExceptionally(ex);
+				return false;
+			}
+		}
+
+		if (policy == RejectionPolicy.ABORT) {
+			log.warn("Maximum number of pending tasks reached ({}), task is rejected", maxPendingTasks);
+			future.completeExceptionally(new RejectedExecutionException("Maximum number of pending tasks reached: " + maxPendingTasks));
+		}
+
+		return false;
+	}
+
+	/**
+	 * Run given task and complete the future with its result.
+	 *
+	 * Permit (if any) is released before the future is completed: a dependent stage
+	 * of the future may then submit a new task without being rejected.
+	 *
+	 * @param task The task.
+	 * @param future The future.
+	 * @param permits Permits, {@code null} if no permit has been acquired to run the task.
+	 * @param <T> Type of result.
+	 */
+	private static <T> void run(Callable<T> task, CompletableFuture<T> future, Semaphore permits) {
+		T result;
+		try {
+			result = task.call();
+		}
+		catch (Exception ex) {
+			release(permits);
+			future.completeExceptionally(ex);
+			return;
+		}
+		catch (Error ex) {
+			release(permits);
+			future.completeExceptionally(ex);
+			throw ex;
+		}
+
+		release(permits);
+		future.complete(result);
+	}
+
+	private static void release(Semaphore permits) {
+		if (permits != null) {
+			permits.release();
+		}
+	}
+
+	@Override
+	public String toString() {
+		return ToStringBuilder.create(getClass())
+				.append("executor", executor)
+				.append("maxPendingTasks", maxPendingTasks)
+				.append("policy", policy)
+				.build();
+	}
+}
@@ -0,0 +1,324 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core.async;
+
+import com.thebuzzmedia.exiftool.commons.lang.ToStringBuilder;
+import com.thebuzzmedia.exiftool.core.FileMetadata;
+import com.thebuzzmedia.exiftool.logs.Logger;
+import com.thebuzzmedia.exiftool.logs.LoggerFactory;
+
+import java.io.File;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static com.thebuzzmedia.exiftool.commons.lang.PreConditions.isPositive;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Publish tags of several images, read concurrently.
+ *
+ * <br>
+ *
+ * Images are read only when the subscriber has signaled demand: at most {@code concurrency} images
+ * are read at the same time, and never more images than requested. A slow subscriber then throttles
+ * {@code exiftool} work, instead of accumulating results in memory.
+ *
+ * <br>
+ *
+ * Results are published in the order of completion (not necessarily the order of images). If one image
+ * cannot be read, subscriber is notified with {@link Subscriber#onError(Throwable)} and remaining images are
+ * not read.
+ *
+ * <br>
+ *
+ * This publisher supports a single subscriber: next subscribers are notified with an {@link IllegalStateException}.
+ *
+ * <br>
+ *
+ * This class is thread-safe.
+ */
+public final class MetadataPublisher implements Publisher<FileMetadata> {
+
+	/**
+	 * Class Logger.
+	 */
+	private static final Logger log = LoggerFactory.getLogger(MetadataPublisher.class);
+
+	/**
+	 * Images to read.
+	 */
+	private final Iterable<File> images;
+
+	/**
+	 * Function used to read an image, asynchronously.
+	 */
+	private final Function<? super File, ? extends CompletableFuture<FileMetadata>> reader;
+
+	/**
+	 * Maximum number of images read at the same time.
+	 */
+	private final int concurrency;
+
+	/**
+	 * Flag set once a subscriber has been added.
+	 */
+	private final AtomicBoolean subscribed;
+
+	/**
+	 * Create publisher.
+	 *
+	 * @param images Images to read.
+	 * @param reader Function used to read an image, asynchronously.
+	 * @param concurrency Maximum number of images read at the same time.
+	 * @throws NullPointerException If {@code images} or {@code reader} is {@code null}.
+	 * @throws IllegalArgumentException If {@code concurrency} is not strictly positive.
+	 */
+	public MetadataPublisher(Iterable<File> images, Function<? super File, ? extends CompletableFuture<FileMetadata>> reader, int concurrency) {
+		this.images = requireNonNull(images, "Images should not be null");
+		this.reader = requireNonNull(reader, "Reader should not be null");
+		this.concurrency = isPositive(concurrency, "Concurrency should be strictly positive");
+		this.subscribed = new AtomicBoolean(false);
+	}
+
+	@Override
+	public void subscribe(Subscriber<? super FileMetadata> subscriber) {
+		requireNonNull(subscriber, "Subscriber should not be null");
+
+		if (!subscribed.compareAndSet(false, true)) {
+			log.warn("Publisher already has a subscriber, new subscriber is rejected");
+			subscriber.onSubscribe(new RejectedSubscription());
+			subscriber.onError(new IllegalStateException("Publisher allows only one subscriber"));
+			return;
+		}
+
+		MetadataSubscription subscription = new MetadataSubscription(subscriber);
+		subscriber.onSubscribe(subscription);
+		subscription.drain();
+	}
+
+	/**
+	 * Get {@link #concurrency}
+	 *
+	 * @return {@link #concurrency}
+	 */
+	public int getConcurrency() {
+		return concurrency;
+	}
+
+	@Override
+	public String toString() {
+		return ToStringBuilder.create(getClass())
+				.append("concurrency", concurrency)
+				.build();
+	}
+
+	/**
+	 * Subscription given to a rejected subscriber.
+	 */
+	private static final class RejectedSubscription implements Subscription {
+		@Override
+		public void request(long n) {
+		}
+
+		@Override
+		public void cancel() {
+		}
+	}
+
+	/**
+	 * Subscription of the subscriber.
+	 *
+	 * <br>
+	 *
+	 * Subscriber is only called from {@link #drain()}, by a single thread at a time: a thread calling {@link #drain()}
+	 * while another thread is draining only signals that a new pass is needed.
+	 */
+	private final class MetadataSubscription implements Subscription {
+		private final Subscriber<? super FileMetadata> subscriber;
+		private final AtomicLong requested;
+		private final AtomicInteger inFlight;
+		private final AtomicInteger wip;
+		private final Queue<FileMetadata> results;
+
+		// Only accessed while draining.
+		private Iterator<File> iterator;
+		private long emitted;
+		private long launched;
+		private boolean exhausted;
+
+		private volatile Throwable error;
+		private volatile boolean cancelled;
+
+		private MetadataSubscription(Subscriber<? super FileMetadata> subscriber) {
+			this.subscriber = subscriber;
+			this.requested = new AtomicLong(0);
+			this.inFlight = new AtomicInteger(0);
+			this.wip = new AtomicInteger(0);
+			this.results = new ConcurrentLinkedQueue<>();
+		}
+
+		@Override
+		public void request(long n) {
+			if (n <= 0) {
+				fail(new IllegalArgumentException("Number of requested elements should be strictly positive: " + n));
+			}
+			else {
+				requested.accumulateAndGet(n, (current, added) -> {
+					long total = current + added;
+					return total < 0 ? Long.MAX_VALUE : total;
+				});
+			}
+
+			drain();
+		}
+
+		@Override
+		public void cancel() {
+			cancelled = true;
+			drain();
+		}
+
+		private void fail(Throwable throwable) {
+			if (error == null) {
+				error = throwable;
+			}
+		}
+
+		private void drain() {
+			if (wip.getAndIncrement() != 0) {
+				return;
+			}
+
+			int missed = 1;
+			while (true) {
+				if (!drainOnce()) {
+					// Terminated: wip is never decremented, so that subscriber is not called anymore.
+					results.clear();
+					return;
+				}
+
+				missed = wip.addAndGet(-missed);
+				if (missed == 0) {
+					return;
+				}
+			}
+		}
+
+		private boolean drainOnce() {
+			if (cancelled) {
+				return false;
+			}
+
+			// Publish results, according to demand.
+			long demand = requested.get();
+			while (emitted < demand) {
+				FileMetadata result = results.poll();
+				if (result == null) {
+					break;
+				}
+
+				emitted++;
+				try {
+					subscriber.onNext(result);
+				}
+				catch (RuntimeException ex) {
+					// Subscriber is broken: subscription is cancelled.
+					log.error("Subscriber failed, subscription is cancelled");
+					log.error(ex.getMessage(), ex);
+					return false;
+				}
+
+				if (cancelled) {
+					return false;
+				}
+			}
+
+			if (error != null) {
+				return terminate();
+			}
+
+			try {
+				launch(demand);
+			}
+			catch (RuntimeException ex) {
+				fail(ex);
+				return terminate();
+			}
+
+			if (exhausted && inFlight.get() == 0 && results.isEmpty()) {
+				return terminate();
+			}
+
+			return true;
+		}
+
+		/**
+		 * Start reading images, until the demand or the maximum concurrency is reached.
+		 *
+		 * @param demand The total demand.
+		 */
+		private void launch(long demand) {
+			if (iterator == null) {
+				iterator = images.iterator();
+			}
+
+			while (!exhausted && launched < demand && inFlight.get() < concurrency) {
+				if (!iterator.hasNext()) {
+					exhausted = true;
+					break;
+				}
+
+				File image = iterator.next();
+				launched++;
+				inFlight.incrementAndGet();
+				reader.apply(image).whenComplete((result, ex) -> {
+					if (ex != null) {
+						fail(ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex);
+					}
+					else {
+						results.offer(result);
+					}
+
+					inFlight.decrementAndGet();
+					drain();
+				});
+			}
+		}
+
+		private boolean terminate() {
+			cancelled = true;
+
+			Throwable throwable = error;
+			if (throwable != null) {
+				subscriber.onError(throwable);
+			}
+			else {
+				subscriber.onComplete();
+			}
+
+			return false;
+		}
+	}
+}
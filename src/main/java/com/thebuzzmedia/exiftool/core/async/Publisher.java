@@ -0,0 +1,43 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core.async;
+
+/**
+ * Provider of elements, published to a {@link Subscriber} according to
+ * the demand it has signaled with {@link Subscription#request(long)}.
+ *
+ * <br>
+ *
+ * This interface follows the contract of {@code java.util.concurrent.Flow.Publisher} (available
+ * since Java 9), but does not extend it since this library targets Java 8. Bridging to {@code Flow}
+ * (or to Reactive Streams) requires a small adapter: a {@link Subscriber} delegating each signal to the
+ * target subscriber, and a {@link Subscription} wrapped into the target subscription type.
+ *
+ * @param <T> Type of published elements.
+ */
+public interface Publisher<T> {
+
+	/**
+	 * Add given subscriber: {@link Subscriber#onSubscribe(Subscription)} is called first,
+	 * and no element is published before demand has been signaled.
+	 *
+	 * @param subscriber The subscriber.
+	 * @throws NullPointerException If {@code subscriber} is {@code null}.
+	 */
+	void subscribe(Subscriber<? super T> subscriber);
+}
@@ -0,0 +1,44 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core.async;
+
+/**
+ * Policy applied by {@link AsyncExecutor} when a task is submitted while
+ * the maximum number of pending tasks has already been reached.
+ */
+public enum RejectionPolicy {
+
+	/**
+	 * Task is not executed, the returned future is completed exceptionally
+	 * with a {@link java.util.concurrent.RejectedExecutionException}.
+	 *
+	 * The caller thread is never blocked.
+	 */
+	ABORT,
+
+	/**
+	 * Task is executed synchronously, in the caller thread: this provides a simple
+	 * feedback mechanism that will slow down the rate that new tasks are submitted.
+	 */
+	CALLER_RUNS,
+
+	/**
+	 * Caller thread is blocked until a pending task is completed.
+	 */
+	BLOCK
+}
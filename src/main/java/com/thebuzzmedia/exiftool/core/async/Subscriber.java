@@ -0,0 +1,59 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core.async;
+
+/**
+ * Receiver of elements published by a {@link Publisher}.
+ *
+ * <br>
+ *
+ * Methods of a subscriber are never called concurrently, and no method is called
+ * once {@link #onError(Throwable)} or {@link #onComplete()} has been called.
+ *
+ * @param <T> Type of published elements.
+ */
+public interface Subscriber<T> {
+
+	/**
+	 * Method called once, before any other method, with the subscription
+	 * used to signal demand.
+	 *
+	 * @param subscription The subscription.
+	 */
+	void onSubscribe(Subscription subscription);
+
+	/**
+	 * Method called with the next element: never called more than the demand
+	 * signaled with {@link Subscription#request(long)}.
+	 *
+	 * @param item The element.
+	 */
+	void onNext(T item);
+
+	/**
+	 * Method called if publisher failed: no other method will be called.
+	 *
+	 * @param throwable The failure.
+	 */
+	void onError(Throwable throwable);
+
+	/**
+	 * Method called once all elements have been published: no other method will be called.
+	 */
+	void onComplete();
+}
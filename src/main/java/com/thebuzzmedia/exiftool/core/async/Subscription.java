@@ -0,0 +1,42 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core.async;
+
+/**
+ * Link between a {@link Publisher} and a {@link Subscriber}, used by the
+ * subscriber to signal demand or to cancel the subscription.
+ */
+public interface Subscription {
+
+	/**
+	 * Add {@code n} elements to the demand: publisher will not publish more
+	 * elements than the total demand.
+	 *
+	 * <br>
+	 *
+	 * If {@code n} is not strictly positive, subscriber is notified with {@link Subscriber#onError(Throwable)}.
+	 *
+	 * @param n Number of elements, {@link Long#MAX_VALUE} for an unbounded demand.
+	 */
+	void request(long n);
+
+	/**
+	 * Stop publishing elements: subscriber may still receive elements that were already being published.
+	 */
+	void cancel();
+}
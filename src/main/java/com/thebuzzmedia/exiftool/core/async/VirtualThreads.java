@@ -0,0 +1,78 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core.async;
+
+import com.thebuzzmedia.exiftool.commons.reflection.ClassUtils;
+import com.thebuzzmedia.exiftool.commons.reflection.ClassUtils.ReflectionException;
+
+import java.lang.invoke.MethodHandle;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Static utilities to create executors running tasks on virtual threads.
+ *
+ * <br>
+ *
+ * Virtual threads are available since Java 21: as this library is compiled for older versions,
+ * the executor is created with reflection.
+ */
+public final class VirtualThreads {
+
+	/**
+	 * Factory method of the executor, {@code null} if virtual threads are not available.
+	 */
+	private static final MethodHandle FACTORY = findFactory();
+
+	// Ensure non instantiation.
+	private VirtualThreads() {
+	}
+
+	/**
+	 * Check if virtual threads are available on the running JVM.
+	 *
+	 * @return {@code true} if virtual threads are available, {@code false} otherwise.
+	 */
+	public static boolean isSupported() {
+		return FACTORY != null;
+	}
+
+	/**
+	 * Create an executor that starts a new virtual thread for each task.
+	 *
+	 * @return The executor.
+	 * @throws UnsupportedOperationException If virtual threads are not available on the running JVM.
+	 */
+	public static ExecutorService newExecutor() {
+		if (FACTORY == null) {
+			throw new UnsupportedOperationException("Virtual threads are not available, Java 21 or later is required");
+		}
+
+		return (ExecutorService) ClassUtils.invokeStatic(FACTORY);
+	}
+
+	private static MethodHandle findFactory() {
+		try {
+			return ClassUtils.findStaticMethod(Executors.class, "newVirtualThreadPerTaskExecutor", ExecutorService.class);
+		}
+		catch (ReflectionException ex) {
+			// Java 20 or older.
+			return null;
+		}
+	}
+}
@@ -0,0 +1,206 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core.cache;
+
+import com.thebuzzmedia.exiftool.MetadataCache;
+import com.thebuzzmedia.exiftool.core.TagValues;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Default implementation for {@link MetadataCache}.
+ * Internally, this implementation use a {@link LinkedHashMap} in access-order: the least
+ * recently used entries are evicted once the total weight of entries exceeds the maximum weight. Keys are
+ * also indexed by image path, so that invalidating an image does not scan all entries.
+ */
+class DefaultMetadataCache implements MetadataCache {
+
+	/**
+	 * Entries, in access-order.
+	 * This map is guarded by its own lock.
+	 */
+	private final LinkedHashMap<MetadataCacheKey, Entry> cache;
+
+	/**
+	 * Keys of entries, indexed by image path, guarded by {@link #cache} lock.
+	 */
+	private final Map<String, Set<MetadataCacheKey>> keys;
+
+	/**
+	 * Maximum total weight of entries.
+	 */
+	private final long maximumWeight;
+
+	/**
+	 * Total weight of entries, guarded by {@link #cache} lock.
+	 */
+	private long weight;
+
+	/**
+	 * Number of hits.
+	 */
+	private final AtomicLong hits;
+
+	/**
+	 * Number of misses.
+	 */
+	private final AtomicLong misses;
+
+	/**
+	 * Create default cache.
+	 *
+	 * @param maximumWeight Maximum total weight of entries.
+	 */
+	DefaultMetadataCache(long maximumWeight) {
+		this.cache = new LinkedHashMap<>(16, 0.75f, true);
+		this.keys = new HashMap<>();
+		this.maximumWeight = maximumWeight;
+		this.weight = 0;
+		this.hits = new AtomicLong(0);
+		this.misses = new AtomicLong(0);
+	}
+
+	@Override
+	public TagValues get(MetadataCacheKey key) {
+		Entry entry;
+		synchronized (cache) {
+			entry = cache.get(key);
+		}
+
+		if (entry == null) {
+			misses.incrementAndGet();
+			return null;
+		}
+
+		hits.incrementAndGet();
+		return entry.tags;
+	}
+
+	@Override
+	public void put(MetadataCacheKey key, TagValues tags) {
+		Entry entry = new Entry(tags, key.weigh(tags));
+
+		synchronized (cache) {
+			// An entry heavier than the cache itself is never stored.
+			if (entry.weight > maximumWeight) {
+				remove(key);
+				return;
+			}
+
+			Entry previous = cache.put(key, entry);
+			if (previous == null) {
+				keys.computeIfAbsent(key.getPath(), path -> new HashSet<>()).add(key);
+			}
+
+			weight += entry.weight - (previous == null ? 0 : previous.weight);
+
+			// Evict least recently used entries.
+			Iterator<Map.Entry<MetadataCacheKey, Entry>> it = cache.entrySet().iterator();
+			while (weight > maximumWeight && it.hasNext()) {
+				Map.Entry<MetadataCacheKey, Entry> eldest = it.next();
+				weight -= eldest.getValue().weight;
+				it.remove();
+				unindex(eldest.getKey());
+			}
+		}
+	}
+
+	@Override
+	public void invalidate(File image) {
+		String path = MetadataCacheKey.pathOf(image);
+
+		synchronized (cache) {
+			Set<MetadataCacheKey> removed = keys.remove(path);
+			if (removed == null) {
+				return;
+			}
+
+			for (MetadataCacheKey key : removed) {
+				weight -= cache.remove(key).weight;
+			}
+		}
+	}
+
+	@Override
+	public long size() {
+		synchronized (cache) {
+			return cache.size();
+		}
+	}
+
+	@Override
+	public long hitCount() {
+		return hits.get();
+	}
+
+	@Override
+	public long missCount() {
+		return misses.get();
+	}
+
+	@Override
+	public void clear() {
+		synchronized (cache) {
+			cache.clear();
+			keys.clear();
+			weight = 0;
+		}
+	}
+
+	private void remove(MetadataCacheKey key) {
+		Entry previous = cache.remove(key);
+		if (previous != null) {
+			weight -= previous.weight;
+			unindex(key);
+		}
+	}
+
+	private void unindex(MetadataCacheKey key) {
+		Set<MetadataCacheKey> pathKeys = keys.get(key.getPath());
+		if (pathKeys != null && pathKeys.remove(key) && pathKeys.isEmpty()) {
+			keys.remove(key.getPath());
+		}
+	}
+
+	/**
+	 * Cached metadata, with its weight.
+	 */
+	private static final class Entry {
+		/**
+		 * Metadata.
+		 */
+		private final TagValues tags;
+
+		/**
+		 * Weight of the entry.
+		 */
+		private final int weight;
+
+		private Entry(TagValues tags, int weight) {
+			this.tags = tags;
+			this.weight = weight;
+		}
+	}
+}
@@ -0,0 +1,129 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalNotification;
+import com.thebuzzmedia.exiftool.MetadataCache;
+import com.thebuzzmedia.exiftool.core.TagValues;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Implementation of {@link MetadataCache} using Guava as internal
+ * implementation.
+ *
+ * <br>
+ *
+ * Keys are also indexed by image path, so that invalidating an image does not scan all entries: the
+ * index of a path is only updated atomically (with {@link ConcurrentMap#compute}), and removed entries
+ * are dropped from the index by a removal listener.
+ */
+class GuavaMetadataCache implements MetadataCache {
+
+	/**
+	 * Guava cache implementation, bounded by the weight of entries.
+	 */
+	private final Cache<MetadataCacheKey, TagValues> cache;
+
+	/**
+	 * Cached entries, indexed by image path.
+	 */
+	private final ConcurrentMap<String, Map<MetadataCacheKey, TagValues>> keys;
+
+	/**
+	 * Create Guava Cache.
+	 *
+	 * @param maximumWeight Maximum total weight of entries.
+	 */
+	GuavaMetadataCache(long maximumWeight) {
+		this.keys = new ConcurrentHashMap<>();
+		this.cache = CacheBuilder.newBuilder()
+				.maximumWeight(maximumWeight)
+				.weigher(MetadataCacheKey::weigh)
+				.removalListener(this::unindex)
+				.recordStats()
+				.build();
+	}
+
+	@Override
+	public TagValues get(MetadataCacheKey key) {
+		return cache.getIfPresent(key);
+	}
+
+	@Override
+	public void put(MetadataCacheKey key, TagValues tags) {
+		// Index first: once the entry is in the cache, it may be evicted (and then removed from the index).
+		keys.compute(key.getPath(), (path, entries) -> {
+			Map<MetadataCacheKey, TagValues> pathEntries = entries == null ? new HashMap<>() : entries;
+			pathEntries.put(key, tags);
+			return pathEntries;
+		});
+
+		cache.put(key, tags);
+	}
+
+	@Override
+	public void invalidate(File image) {
+		Map<MetadataCacheKey, TagValues> entries = keys.remove(MetadataCacheKey.pathOf(image));
+		if (entries != null) {
+			cache.invalidateAll(entries.keySet());
+		}
+	}
+
+	@Override
+	public long size() {
+		return cache.size();
+	}
+
+	@Override
+	public long hitCount() {
+		return cache.stats().hitCount();
+	}
+
+	@Override
+	public long missCount() {
+		return cache.stats().missCount();
+	}
+
+	@Override
+	public void clear() {
+		cache.invalidateAll();
+		keys.clear();
+	}
+
+	private void unindex(RemovalNotification<MetadataCacheKey, TagValues> notification) {
+		MetadataCacheKey key = notification.getKey();
+		TagValues tags = notification.getValue();
+
+		// Notification of a replaced (or evicted and then put again) entry does not match the indexed value: values
+		// are compared by identity, since the value replacing an entry is often equal to the previous one.
+		keys.computeIfPresent(key.getPath(), (path, entries) -> {
+			if (entries.get(key) == tags) {
+				entries.remove(key);
+			}
+
+			return entries.isEmpty() ? null : entries;
+		});
+	}
+}
@@ -0,0 +1,236 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core.cache;
+
+import com.thebuzzmedia.exiftool.ExifToolOptions;
+import com.thebuzzmedia.exiftool.Tag;
+import com.thebuzzmedia.exiftool.commons.lang.ToStringBuilder;
+import com.thebuzzmedia.exiftool.core.TagValues;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+
+import static java.util.Collections.unmodifiableList;
+import static java.util.Collections.unmodifiableSet;
+
+/**
+ * Key of an entry in a {@link com.thebuzzmedia.exiftool.MetadataCache}.
+ *
+ * <br>
+ *
+ * A key identifies the image with its canonical path, its size and its last modification time,
+ * along with the options and the tags given to {@code exiftool}.
+ */
+public final class MetadataCacheKey {
+
+	/**
+	 * Canonical path of the image.
+	 */
+	private final String path;
+
+	/**
+	 * Size of the image, in bytes.
+	 */
+	private final long size;
+
+	/**
+	 * Last modification time of the image, in milliseconds.
+	 */
+	private final long lastModified;
+
+	/**
+	 * Serialized options.
+	 */
+	private final List<String> options;
+
+	/**
+	 * Name of requested tags, sorted so that the order of requested tags does not matter.
+	 */
+	private final Collection<String> tags;
+
+	/**
+	 * Hash code, computed once.
+	 */
+	private final int hashCode;
+
+	MetadataCacheKey(String path, long size, long lastModified, List<String> options, Collection<String> tags) {
+		this.path = path;
+		this.size = size;
+		this.lastModified = lastModified;
+		this.options = options;
+		this.tags = tags;
+		this.hashCode = Objects.hash(path, size, lastModified, options, tags);
+	}
+
+	/**
+	 * Create key, reading size and last modification time of given image.
+	 *
+	 * @param image The image.
+	 * @param options The options.
+	 * @param tags The requested tags.
+	 * @return The key.
+	 * @throws IOException If image attributes cannot be read.
+	 */
+	public static MetadataCacheKey of(File image, ExifToolOptions options, Collection<? extends Tag> tags) throws IOException {
+		BasicFileAttributes attributes = Files.readAttributes(image.toPath(), BasicFileAttributes.class);
+
+		List<String> args = new ArrayList<>();
+		for (String arg : options.serialize()) {
+			args.add(arg);
+		}
+
+		TreeSet<String> names = new TreeSet<>();
+		for (Tag tag : tags) {
+			names.add(tag.getName());
+		}
+
+		return new MetadataCacheKey(
+				pathOf(image),
+				attributes.size(),
+				attributes.lastModifiedTime().toMillis(),
+				unmodifiableList(args),
+				unmodifiableSet(names)
+		);
+	}
+
+	/**
+	 * Get the path identifying given image in a key.
+	 *
+	 * @param image The image.
+	 * @return The canonical path, or the absolute path if it cannot be computed.
+	 */
+	static String pathOf(File image) {
+		try {
+			return image.getCanonicalPath();
+		}
+		catch (IOException ex) {
+			return image.getAbsolutePath();
+		}
+	}
+
+	/**
+	 * Get {@link #path}
+	 *
+	 * @return {@link #path}
+	 */
+	public String getPath() {
+		return path;
+	}
+
+	/**
+	 * Get {@link #size}
+	 *
+	 * @return {@link #size}
+	 */
+	long getSize() {
+		return size;
+	}
+
+	/**
+	 * Get {@link #lastModified}
+	 *
+	 * @return {@link #lastModified}
+	 */
+	long getLastModified() {
+		return lastModified;
+	}
+
+	/**
+	 * Get {@link #options}
+	 *
+	 * @return {@link #options}
+	 */
+	List<String> getOptions() {
+		return options;
+	}
+
+	/**
+	 * Get {@link #tags}
+	 *
+	 * @return {@link #tags}
+	 */
+	Collection<String> getTags() {
+		return tags;
+	}
+
+	/**
+	 * Compute the approximate weight of an entry, i.e the number of characters of the key and of
+	 * the metadata.
+	 *
+	 * @param values Metadata.
+	 * @return The weight.
+	 */
+	int weigh(TagValues values) {
+		int weight = path.length();
+		for (String option : options) {
+			weight += option.length();
+		}
+
+		for (String tag : tags) {
+			weight += tag.length();
+		}
+
+		for (Map.Entry<Tag, String> entry : values.asMap().entrySet()) {
+			weight += entry.getKey().getName().length() + entry.getValue().length();
+		}
+
+		return weight;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (o == this) {
+			return true;
+		}
+
+		if (o instanceof MetadataCacheKey) {
+			MetadataCacheKey k = (MetadataCacheKey) o;
+			return size == k.size
+					&& lastModified == k.lastModified
+					&& path.equals(k.path)
+					&& options.equals(k.options)
+					&& tags.equals(k.tags);
+		}
+
+		return false;
+	}
+
+	@Override
+	public int hashCode() {
+		return hashCode;
+	}
+
+	@Override
+	public String toString() {
+		return ToStringBuilder.create(getClass())
+				.append("path", path)
+				.append("size", size)
+				.append("lastModified", lastModified)
+				.append("options", options)
+				.append("tags", tags)
+				.build();
+	}
+}
@@ -0,0 +1,433 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core.cache;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Hash index of a {@link MetadataLog}, stored in a memory-mapped file.
+ *
+ * <br>
+ *
+ * The index is an open-addressing hash table (with linear probing): each slot stores the hash of a key, the hash
+ * of the image path and the offset of the record in the log. Probing starts from the hash of the image path, so that
+ * entries of an image (read with different tags or options) are found without scanning the whole index. The header stores the generation of the log, the
+ * length of the log covered by the index, and a flag set once the index has been cleanly closed: an index that has
+ * not been cleanly closed, or that does not match the log, is rebuilt from the log.
+ *
+ * <br>
+ *
+ * This class is not thread-safe.
+ */
+final class MetadataIndex implements Closeable {
+
+	/**
+	 * Magic number, written at the beginning of the index: an index written with a previous layout
+	 * of slots has another magic number, and is rebuilt.
+	 */
+	private static final long MAGIC = 0x45584946544945L;
+
+	/**
+	 * Size of the header.
+	 */
+	private static final int HEADER_SIZE = 64;
+
+	/**
+	 * Size of a slot: key hash, path hash and offset.
+	 */
+	private static final int SLOT_SIZE = 24;
+
+	/**
+	 * Offset of an empty slot.
+	 */
+	private static final long EMPTY = 0;
+
+	/**
+	 * Offset of a removed slot.
+	 */
+	private static final long REMOVED = -1;
+
+	/**
+	 * Maximum ratio of used slots (live or removed), before the index must be resized.
+	 */
+	private static final double LOAD_FACTOR = 0.6;
+
+	// Header fields.
+	private static final int MAGIC_POSITION = 0;
+	private static final int GENERATION_POSITION = 8;
+	private static final int CAPACITY_POSITION = 16;
+	private static final int COUNT_POSITION = 20;
+	private static final int USED_POSITION = 24;
+	private static final int CLEAN_POSITION = 28;
+	private static final int LOG_LENGTH_POSITION = 32;
+
+	/**
+	 * Index file.
+	 */
+	private Path file;
+
+	/**
+	 * Channel of the index file.
+	 */
+	private final FileChannel channel;
+
+	/**
+	 * Mapped index file.
+	 */
+	private final MappedByteBuffer buffer;
+
+	/**
+	 * Number of slots, a power of two.
+	 */
+	private final int capacity;
+
+	/**
+	 * Number of live slots.
+	 */
+	private int count;
+
+	/**
+	 * Number of used slots (live or removed).
+	 */
+	private int used;
+
+	private MetadataIndex(Path file, FileChannel channel, MappedByteBuffer buffer, int capacity) {
+		this.file = file;
+		this.channel = channel;
+		this.buffer = buffer;
+		this.capacity = capacity;
+		this.count = buffer.getInt(COUNT_POSITION);
+		this.used = buffer.getInt(USED_POSITION);
+	}
+
+	/**
+	 * Open existing index.
+	 *
+	 * @param file Index file.
+	 * @return The index, {@code null} if file does not exist or is not a valid index.
+	 * @throws IOException If the index cannot be opened.
+	 */
+	static MetadataIndex open(Path file) throws IOException {
+		if (!Files.exists(file)) {
+			return null;
+		}
+
+		FileChannel channel = FileChannel.open(file, READ, WRITE);
+		try {
+			long size = channel.size();
+			if (size < HEADER_SIZE) {
+				channel.close();
+				return null;
+			}
+
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+			int capacity = buffer.getInt(CAPACITY_POSITION);
+			if (buffer.getLong(MAGIC_POSITION) != MAGIC || Integer.bitCount(capacity) != 1 || size != HEADER_SIZE + (long) capacity * SLOT_SIZE) {
+				channel.close();
+				return null;
+			}
+
+			return new MetadataIndex(file, channel, buffer, capacity);
+		}
+		catch (IOException | RuntimeException ex) {
+			channel.close();
+			throw ex;
+		}
+	}
+
+	/**
+	 * Create a new, empty, index: existing file is truncated.
+	 *
+	 * @param file Index file.
+	 * @param generation Generation of the indexed log.
+	 * @param capacity Number of slots, must be a power of two.
+	 * @return The index.
+	 * @throws IOException If the index cannot be created.
+	 */
+	static MetadataIndex create(Path file, long generation, int capacity) throws IOException {
+		FileChannel channel = FileChannel.open(file, CREATE, READ, WRITE, TRUNCATE_EXISTING);
+		try {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) capacity * SLOT_SIZE);
+			buffer.putLong(MAGIC_POSITION, MAGIC);
+			buffer.putLong(GENERATION_POSITION, generation);
+			buffer.putInt(CAPACITY_POSITION, capacity);
+			buffer.putLong(LOG_LENGTH_POSITION, MetadataLog.HEADER_SIZE);
+			return new MetadataIndex(file, channel, buffer, capacity);
+		}
+		catch (IOException | RuntimeException ex) {
+			channel.close();
+			throw ex;
+		}
+	}
+
+	/**
+	 * Get the smallest capacity (a power of two) able to store given number of entries.
+	 *
+	 * @param entries Number of entries.
+	 * @param min Minimum capacity.
+	 * @return The capacity.
+	 */
+	static int capacityFor(int entries, int min) {
+		int capacity = min;
+		while (capacity * LOAD_FACTOR < entries + 1) {
+			capacity <<= 1;
+		}
+
+		return capacity;
+	}
+
+	/**
+	 * Move the index file (the mapping remains valid).
+	 *
+	 * @param target New path of the index file.
+	 * @throws IOException If the file cannot be moved.
+	 */
+	void moveTo(Path target) throws IOException {
+		Files.move(file, target, ATOMIC_MOVE, REPLACE_EXISTING);
+		file = target;
+	}
+
+	Path getFile() {
+		return file;
+	}
+
+	long getGeneration() {
+		return buffer.getLong(GENERATION_POSITION);
+	}
+
+	long getLogLength() {
+		return buffer.getLong(LOG_LENGTH_POSITION);
+	}
+
+	void setLogLength(long length) {
+		buffer.putLong(LOG_LENGTH_POSITION, length);
+	}
+
+	boolean isClean() {
+		return buffer.getInt(CLEAN_POSITION) == 1;
+	}
+
+	void setClean(boolean clean) {
+		buffer.putInt(CLEAN_POSITION, clean ? 1 : 0);
+	}
+
+	int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Get the number of live entries.
+	 *
+	 * @return Number of entries.
+	 */
+	int size() {
+		return count;
+	}
+
+	/**
+	 * Check if a new entry can be inserted without exceeding the load factor.
+	 *
+	 * @return {@code true} if index must be resized before a new insertion, {@code false} otherwise.
+	 */
+	boolean isFull() {
+		return used + 1 > capacity * LOAD_FACTOR;
+	}
+
+	/**
+	 * Find the slot of an entry.
+	 *
+	 * @param keyHash Hash of the key.
+	 * @param pathHash Hash of the image path.
+	 * @param matcher Check if the record stored at a given offset is the searched entry.
+	 * @return The slot, {@code -1} if entry is not in the index.
+	 * @throws IOException If the matcher fails.
+	 */
+	int find(long keyHash, long pathHash, OffsetMatcher matcher) throws IOException {
+		for (int slot = first(pathHash); ; slot = next(slot)) {
+			long offset = offset(slot);
+			if (offset == EMPTY) {
+				return -1;
+			}
+
+			if (offset != REMOVED && keyHash(slot) == keyHash && matcher.matches(offset)) {
+				return slot;
+			}
+		}
+	}
+
+	/**
+	 * Get the offset of the record stored in a slot.
+	 *
+	 * @param slot The slot.
+	 * @return The record offset.
+	 */
+	long offset(int slot) {
+		return buffer.getLong(position(slot) + 16);
+	}
+
+	/**
+	 * Insert an entry, or update the offset of an existing entry.
+	 *
+	 * @param slot Slot of the existing entry, {@code -1} to insert a new entry.
+	 * @param keyHash Hash of the key.
+	 * @param pathHash Hash of the image path.
+	 * @param offset Offset of the record.
+	 */
+	void put(int slot, long keyHash, long pathHash, long offset) {
+		if (slot >= 0) {
+			buffer.putLong(position(slot) + 16, offset);
+			return;
+		}
+
+		int target = first(pathHash);
+		while (offset(target) > 0) {
+			target = next(target);
+		}
+
+		if (offset(target) == EMPTY) {
+			used++;
+			buffer.putInt(USED_POSITION, used);
+		}
+
+		int position = position(target);
+		buffer.putLong(position, keyHash);
+		buffer.putLong(position + 8, pathHash);
+		buffer.putLong(position + 16, offset);
+
+		count++;
+		buffer.putInt(COUNT_POSITION, count);
+	}
+
+	/**
+	 * Remove the entry stored in a slot.
+	 *
+	 * @param slot The slot.
+	 */
+	void remove(int slot) {
+		buffer.putLong(position(slot) + 16, REMOVED);
+		count--;
+		buffer.putInt(COUNT_POSITION, count);
+	}
+
+	/**
+	 * Visit live entries with given path hash: only the slots probed from this hash are read.
+	 *
+	 * @param pathHash Hash of the image path.
+	 * @param visitor The visitor.
+	 * @throws IOException If the visitor fails.
+	 */
+	void forEachOfPath(long pathHash, SlotVisitor visitor) throws IOException {
+		for (int slot = first(pathHash); ; slot = next(slot)) {
+			long offset = offset(slot);
+			if (offset == EMPTY) {
+				return;
+			}
+
+			int position = position(slot);
+			if (offset != REMOVED && buffer.getLong(position + 8) == pathHash) {
+				visitor.visit(slot, buffer.getLong(position), pathHash, offset);
+			}
+		}
+	}
+
+	/**
+	 * Visit all live entries.
+	 *
+	 * @param visitor The visitor.
+	 * @throws IOException If the visitor fails.
+	 */
+	void forEach(SlotVisitor visitor) throws IOException {
+		for (int slot = 0; slot < capacity; slot++) {
+			long offset = offset(slot);
+			if (offset > 0) {
+				int position = position(slot);
+				visitor.visit(slot, buffer.getLong(position), buffer.getLong(position + 8), offset);
+			}
+		}
+	}
+
+	/**
+	 * Flush the index to the storage device.
+	 */
+	void force() {
+		buffer.force();
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	private long keyHash(int slot) {
+		return buffer.getLong(position(slot));
+	}
+
+	private int first(long pathHash) {
+		return (int) (pathHash ^ (pathHash >>> 32)) & (capacity - 1);
+	}
+
+	private int next(int slot) {
+		return (slot + 1) & (capacity - 1);
+	}
+
+	private static int position(int slot) {
+		return HEADER_SIZE + slot * SLOT_SIZE;
+	}
+
+	/**
+	 * Check if a record is the searched entry.
+	 */
+	interface OffsetMatcher {
+		/**
+		 * Check record.
+		 *
+		 * @param offset Offset of the record.
+		 * @return {@code true} if the record is the searched entry.
+		 * @throws IOException If the record cannot be read.
+		 */
+		boolean matches(long offset) throws IOException;
+	}
+
+	/**
+	 * Visitor of index entries.
+	 */
+	interface SlotVisitor {
+		/**
+		 * Visit entry.
+		 *
+		 * @param slot The slot.
+		 * @param keyHash Hash of the key.
+		 * @param pathHash Hash of the image path.
+		 * @param offset Offset of the record.
+		 * @throws IOException If an I/O error occurs.
+		 */
+		void visit(int slot, long keyHash, long pathHash, long offset) throws IOException;
+	}
+}
@@ -0,0 +1,572 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core.cache;
+
+import com.thebuzzmedia.exiftool.Tag;
+import com.thebuzzmedia.exiftool.core.StandardTag;
+import com.thebuzzmedia.exiftool.core.TagRegistry;
+import com.thebuzzmedia.exiftool.core.TagValues;
+import com.thebuzzmedia.exiftool.core.UnspecifiedTag;
+import com.thebuzzmedia.exiftool.logs.Logger;
+import com.thebuzzmedia.exiftool.logs.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.zip.CRC32;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Collections.unmodifiableList;
+import static java.util.Collections.unmodifiableSet;
+
+/**
+ * Append-only log of metadata records, used by {@link PersistentMetadataCache}.
+ *
+ * <br>
+ *
+ * The log starts with a header (magic number and generation, a random number identifying this log), followed by
+ * records. Each record is made of its length, the CRC32 checksum of its payload, and the payload: a
+ * {@link #PUT} record stores the key and the metadata of an image, an {@link #INVALIDATE} record
+ * removes all the entries of an image. A record that has not been fully written (or is corrupted) is detected
+ * with its checksum, and the log is truncated when it is replayed.
+ *
+ * <br>
+ *
+ * This class is not thread-safe: records may be read by a thread while another thread appends records (reads
+ * and writes use absolute positions), but appending records must not be made concurrently.
+ */
+final class MetadataLog implements Closeable {
+
+	/**
+	 * Class Logger.
+	 */
+	private static final Logger log = LoggerFactory.getLogger(MetadataLog.class);
+
+	/**
+	 * Magic number, written at the beginning of the log.
+	 */
+	private static final long MAGIC = 0x45584946544c4f47L;
+
+	/**
+	 * Size of the log header: magic number and generation.
+	 */
+	static final int HEADER_SIZE = 16;
+
+	/**
+	 * Size of the header of a record: length and checksum.
+	 */
+	private static final int RECORD_HEADER_SIZE = 8;
+
+	/**
+	 * Type of a record storing metadata of an image.
+	 */
+	static final byte PUT = 1;
+
+	/**
+	 * Type of a record removing all the entries of an image.
+	 */
+	static final byte INVALIDATE = 2;
+
+	/**
+	 * Tag stored with the name of its {@link StandardTag} constant.
+	 */
+	private static final byte STANDARD_TAG = 0;
+
+	/**
+	 * Tag stored with its name, restored as an {@link UnspecifiedTag}.
+	 */
+	private static final byte UNSPECIFIED_TAG = 1;
+
+	/**
+	 * Channel used to read and write the log.
+	 */
+	private final FileChannel channel;
+
+	/**
+	 * Generation of the log, a new generation is created each time the log is rewritten.
+	 */
+	private final long generation;
+
+	/**
+	 * Size of the log, i.e offset of the next record.
+	 */
+	private volatile long size;
+
+	private MetadataLog(FileChannel channel, long generation, long size) {
+		this.channel = channel;
+		this.generation = generation;
+		this.size = size;
+	}
+
+	/**
+	 * Open existing log, or create it.
+	 *
+	 * @param file Log file.
+	 * @return The log.
+	 * @throws IOException If the log cannot be opened, or is not a valid log.
+	 */
+	static MetadataLog open(Path file) throws IOException {
+		FileChannel channel = FileChannel.open(file, CREATE, READ, WRITE);
+		try {
+			if (channel.size() < HEADER_SIZE) {
+				return create(channel);
+			}
+
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			readFully(channel, header, 0);
+			if (header.getLong(0) != MAGIC) {
+				throw new IOException("File is not a metadata log: " + file);
+			}
+
+			return new MetadataLog(channel, header.getLong(8), channel.size());
+		}
+		catch (IOException | RuntimeException ex) {
+			channel.close();
+			throw ex;
+		}
+	}
+
+	/**
+	 * Create a new, empty, log: existing file is truncated.
+	 *
+	 * @param file Log file.
+	 * @return The log.
+	 * @throws IOException If the log cannot be created.
+	 */
+	static MetadataLog create(Path file) throws IOException {
+		FileChannel channel = FileChannel.open(file, CREATE, READ, WRITE, TRUNCATE_EXISTING);
+		try {
+			return create(channel);
+		}
+		catch (IOException | RuntimeException ex) {
+			channel.close();
+			throw ex;
+		}
+	}
+
+	private static MetadataLog create(FileChannel channel) throws IOException {
+		long generation = ThreadLocalRandom.current().nextLong();
+
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		header.putLong(MAGIC);
+		header.putLong(generation);
+		header.flip();
+
+		channel.truncate(0);
+		writeFully(channel, header, 0);
+		channel.force(true);
+
+		return new MetadataLog(channel, generation, HEADER_SIZE);
+	}
+
+	/**
+	 * Get {@link #generation}
+	 *
+	 * @return {@link #generation}
+	 */
+	long getGeneration() {
+		return generation;
+	}
+
+	/**
+	 * Get {@link #size}
+	 *
+	 * @return {@link #size}
+	 */
+	long size() {
+		return size;
+	}
+
+	/**
+	 * Append a record.
+	 *
+	 * @param payload Record payload.
+	 * @return Offset of the record.
+	 * @throws IOException If the record cannot be written.
+	 */
+	long append(byte[] payload) throws IOException {
+		CRC32 crc = new CRC32();
+		crc.update(payload, 0, payload.length);
+
+		ByteBuffer buffer = ByteBuffer.allocate(RECORD_HEADER_SIZE + payload.length);
+		buffer.putInt(payload.length);
+		buffer.putInt((int) crc.getValue());
+		buffer.put(payload);
+		buffer.flip();
+
+		long offset = size;
+		writeFully(channel, buffer, offset);
+		size += buffer.capacity();
+		return offset;
+	}
+
+	/**
+	 * Read the record stored at given offset.
+	 *
+	 * @param offset Offset of the record.
+	 * @return The record.
+	 * @throws IOException If the record cannot be read, or is corrupted.
+	 */
+	Record read(long offset) throws IOException {
+		return decode(offset, readPayload(offset, true), false);
+	}
+
+	/**
+	 * Read the key (or the path of an {@link #INVALIDATE} record) of the record stored at given offset, without
+	 * decoding the metadata nor verifying the checksum.
+	 *
+	 * @param offset Offset of the record.
+	 * @return The record, without metadata.
+	 * @throws IOException If the record cannot be read.
+	 */
+	Record readKey(long offset) throws IOException {
+		return decode(offset, readPayload(offset, false), true);
+	}
+
+	/**
+	 * Copy the record stored at given offset to another log.
+	 *
+	 * @param offset Offset of the record.
+	 * @param target Target log.
+	 * @return The offset of the record in the target log.
+	 * @throws IOException If the record cannot be copied.
+	 */
+	long copyTo(long offset, MetadataLog target) throws IOException {
+		return target.append(readPayload(offset, true));
+	}
+
+	/**
+	 * Read all records, starting at given offset. The log is truncated at the first record that
+	 * cannot be read: such a record has not been fully written before a crash.
+	 *
+	 * @param from Offset of the first record.
+	 * @param visitor Visitor, called for each record.
+	 * @throws IOException If the log cannot be read.
+	 */
+	void replay(long from, RecordVisitor visitor) throws IOException {
+		long offset = from;
+		while (offset < size) {
+			Record record;
+			try {
+				record = read(offset);
+			}
+			catch (EOFException | CorruptedRecordException ex) {
+				log.warn("Metadata log is truncated at offset {}: {}", offset, ex.getMessage());
+				channel.truncate(offset);
+				size = offset;
+				return;
+			}
+
+			visitor.visit(record);
+			offset += record.getLength();
+		}
+	}
+
+	/**
+	 * Flush the log to the storage device.
+	 *
+	 * @throws IOException If an I/O error occurs.
+	 */
+	void force() throws IOException {
+		channel.force(true);
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	/**
+	 * Encode a {@link #PUT} record.
+	 *
+	 * @param key The key.
+	 * @param tags The metadata.
+	 * @return The record payload.
+	 */
+	static byte[] encodePut(MetadataCacheKey key, TagValues tags) {
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+			DataOutputStream out = new DataOutputStream(bytes);
+			out.writeByte(PUT);
+			writeString(out, key.getPath());
+			out.writeLong(key.getSize());
+			out.writeLong(key.getLastModified());
+			writeStrings(out, key.getOptions());
+			writeStrings(out, key.getTags());
+
+			out.writeInt(tags.size());
+			for (Map.Entry<Tag, String> entry : tags.asMap().entrySet()) {
+				Tag tag = entry.getKey();
+				if (tag instanceof StandardTag) {
+					out.writeByte(STANDARD_TAG);
+					writeString(out, ((StandardTag) tag).name());
+				}
+				else {
+					out.writeByte(UNSPECIFIED_TAG);
+					writeString(out, tag.getName());
+				}
+
+				writeString(out, entry.getValue());
+			}
+
+			out.flush();
+			return bytes.toByteArray();
+		}
+		catch (IOException ex) {
+			// Should not happen with an in-memory stream.
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	/**
+	 * Encode an {@link #INVALIDATE} record.
+	 *
+	 * @param path Path of the image.
+	 * @return The record payload.
+	 */
+	static byte[] encodeInvalidate(String path) {
+		byte[] bytes = path.getBytes(StandardCharsets.UTF_8);
+		ByteBuffer buffer = ByteBuffer.allocate(1 + 4 + bytes.length);
+		buffer.put(INVALIDATE);
+		buffer.putInt(bytes.length);
+		buffer.put(bytes);
+		return buffer.array();
+	}
+
+	private byte[] readPayload(long offset, boolean check) throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+		readFully(channel, header, offset);
+
+		int length = header.getInt(0);
+		if (length <= 0 || offset + RECORD_HEADER_SIZE + length > size) {
+			throw new CorruptedRecordException("Invalid record length " + length + " at offset " + offset);
+		}
+
+		ByteBuffer payload = ByteBuffer.allocate(length);
+		readFully(channel, payload, offset + RECORD_HEADER_SIZE);
+
+		if (check) {
+			CRC32 crc = new CRC32();
+			crc.update(payload.array(), 0, length);
+			if ((int) crc.getValue() != header.getInt(4)) {
+				throw new CorruptedRecordException("Invalid checksum of record at offset " + offset);
+			}
+		}
+
+		return payload.array();
+	}
+
+	private static Record decode(long offset, byte[] payload, boolean keyOnly) throws IOException {
+		ByteBuffer in = ByteBuffer.wrap(payload);
+		int length = RECORD_HEADER_SIZE + payload.length;
+
+		try {
+			byte type = in.get();
+			if (type == INVALIDATE) {
+				return new Record(type, offset, length, readString(in), null, null);
+			}
+
+			if (type != PUT) {
+				throw new CorruptedRecordException("Unknown record type " + type + " at offset " + offset);
+			}
+
+			String path = readString(in);
+			long size = in.getLong();
+			long lastModified = in.getLong();
+			List<String> options = unmodifiableList(readStrings(in, new ArrayList<>()));
+			TreeSet<String> names = readStrings(in, new TreeSet<>());
+			MetadataCacheKey key = new MetadataCacheKey(path, size, lastModified, options, unmodifiableSet(names));
+			if (keyOnly) {
+				return new Record(type, offset, length, path, key, null);
+			}
+
+			int nbTags = in.getInt();
+			TagValues.Builder tags = TagValues.builder();
+			for (int i = 0; i < nbTags; i++) {
+				byte kind = in.get();
+				String name = readString(in);
+				Tag tag = kind == STANDARD_TAG ? StandardTag.valueOf(name) : TagRegistry.intern(name);
+				tags.put(tag, readString(in));
+			}
+
+			return new Record(type, offset, length, path, key, tags.build());
+		}
+		catch (RuntimeException ex) {
+			// Buffer underflow, unknown standard tag, etc.
+			throw new CorruptedRecordException("Invalid record at offset " + offset + ": " + ex);
+		}
+	}
+
+	private static void writeStrings(DataOutputStream out, Iterable<String> values) throws IOException {
+		List<String> list = new ArrayList<>();
+		for (String value : values) {
+			list.add(value);
+		}
+
+		out.writeInt(list.size());
+		for (String value : list) {
+			writeString(out, value);
+		}
+	}
+
+	private static <T extends Collection<String>> T readStrings(ByteBuffer in, T values) {
+		int size = in.getInt();
+		for (int i = 0; i < size; i++) {
+			values.add(readString(in));
+		}
+
+		return values;
+	}
+
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static String readString(ByteBuffer in) {
+		int length = in.getInt();
+		String value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+		in.position(in.position() + length);
+		return value;
+	}
+
+	private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+		long offset = position;
+		while (buffer.hasRemaining()) {
+			int read = channel.read(buffer, offset);
+			if (read < 0) {
+				throw new EOFException("Unexpected end of metadata log at offset " + offset);
+			}
+
+			offset += read;
+		}
+	}
+
+	private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+		long offset = position;
+		while (buffer.hasRemaining()) {
+			offset += channel.write(buffer, offset);
+		}
+	}
+
+	/**
+	 * A record read from the log.
+	 */
+	static final class Record {
+		/**
+		 * Record type, {@link #PUT} or {@link #INVALIDATE}.
+		 */
+		private final byte type;
+
+		/**
+		 * Offset of the record in the log.
+		 */
+		private final long offset;
+
+		/**
+		 * Length of the record, including its header.
+		 */
+		private final int length;
+
+		/**
+		 * Path of the image.
+		 */
+		private final String path;
+
+		/**
+		 * Key of the entry, {@code null} for {@link #INVALIDATE} records.
+		 */
+		private final MetadataCacheKey key;
+
+		/**
+		 * Metadata, {@code null} for {@link #INVALIDATE} records, or if only the key has been read.
+		 */
+		private final TagValues tags;
+
+		private Record(byte type, long offset, int length, String path, MetadataCacheKey key, TagValues tags) {
+			this.type = type;
+			this.offset = offset;
+			this.length = length;
+			this.path = path;
+			this.key = key;
+			this.tags = tags;
+		}
+
+		byte getType() {
+			return type;
+		}
+
+		long getOffset() {
+			return offset;
+		}
+
+		int getLength() {
+			return length;
+		}
+
+		String getPath() {
+			return path;
+		}
+
+		MetadataCacheKey getKey() {
+			return key;
+		}
+
+		TagValues getTags() {
+			return tags == null ? TagValues.empty() : tags;
+		}
+	}
+
+	/**
+	 * Visitor of records, used to replay the log.
+	 */
+	interface RecordVisitor {
+		/**
+		 * Visit record.
+		 *
+		 * @param record The record.
+		 * @throws IOException If an I/O error occurs.
+		 */
+		void visit(Record record) throws IOException;
+	}
+
+	/**
+	 * Thrown when a record cannot be decoded.
+	 */
+	static final class CorruptedRecordException extends IOException {
+		CorruptedRecordException(String message) {
+			super(message);
+		}
+	}
+}
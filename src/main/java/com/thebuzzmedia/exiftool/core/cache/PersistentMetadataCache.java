@@ -0,0 +1,653 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core.cache;
+
+import com.thebuzzmedia.exiftool.MetadataCache;
+import com.thebuzzmedia.exiftool.core.TagValues;
+import com.thebuzzmedia.exiftool.core.cache.MetadataLog.Record;
+import com.thebuzzmedia.exiftool.logs.Logger;
+import com.thebuzzmedia.exiftool.logs.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/**
+ * Implementation of {@link MetadataCache} stored on disk, so that cached metadata survive
+ * a restart of the application.
+ *
+ * <br>
+ *
+ * Entries are appended to a log ({@code metadata.log}), and indexed by a hash table stored in a memory-mapped
+ * file ({@code metadata.idx}): reading an entry costs a lookup in the mapped index and a single read in the log. The
+ * log is the source of truth:
+ *
+ * <ul>
+ *   <li>Each record is protected by a checksum: a record that has not been fully written before a crash is discarded when the cache is opened.</li>
+ *   <li>If the cache has not been closed (or if the index is missing or does not match the log), the index is rebuilt from the log when the cache is opened.</li>
+ *   <li>Once the log exceeds the maximum size, it is compacted: live entries are copied to a new log (that replaces the previous one atomically), oldest entries being dropped to keep at most half of the maximum size. Entries are copied without holding the lock of the cache, so that concurrent reads and writes are not blocked: only the records appended during the copy are copied while holding the lock, before the new log replaces the previous one.</li>
+ * </ul>
+ *
+ * Records are not flushed to the storage device on each write: after a crash of the system, the most recent entries may be lost (they will be
+ * read again with {@code exiftool}). Metadata is restored with {@link com.thebuzzmedia.exiftool.core.StandardTag} keys for standard tags,
+ * and {@link com.thebuzzmedia.exiftool.core.UnspecifiedTag} keys for other tags.
+ *
+ * <br>
+ *
+ * A directory must not be used by more than one instance at a time, and the cache must be closed once it is no longer used.
+ *
+ * <strong>Usage:</strong>
+ *
+ * <pre><code>
+ *   PersistentMetadataCache cache = PersistentMetadataCache.open(Paths.get("/var/cache/exiftool"), 1024 * 1024 * 1024);
+ *   ExifTool exifTool = new ExifToolBuilder()
+ *     .withMetadataCache(cache)
+ *     .build();
+ * </code></pre>
+ *
+ * This implementation is thread-safe.
+ */
+public final class PersistentMetadataCache implements MetadataCache, Closeable {
+
+	/**
+	 * Class Logger.
+	 */
+	private static final Logger log = LoggerFactory.getLogger(PersistentMetadataCache.class);
+
+	/**
+	 * Name of the log file.
+	 */
+	private static final String LOG_FILE = "metadata.log";
+
+	/**
+	 * Name of the index file.
+	 */
+	private static final String INDEX_FILE = "metadata.idx";
+
+	/**
+	 * Suffix of temporary files, created during compaction.
+	 */
+	private static final String TMP_SUFFIX = ".tmp";
+
+	/**
+	 * Suffix of the temporary index file, created when the index is resized.
+	 */
+	private static final String RESIZE_SUFFIX = ".resize";
+
+	/**
+	 * Suffix of the temporary index file, created during compaction.
+	 */
+	private static final String COMPACT_SUFFIX = ".compact";
+
+	/**
+	 * Minimum number of slots in the index.
+	 */
+	private static final int MIN_CAPACITY = 1024;
+
+	/**
+	 * FNV-1a offset basis, used to hash keys.
+	 */
+	private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+
+	/**
+	 * FNV-1a prime, used to hash keys.
+	 */
+	private static final long FNV_PRIME = 0x100000001b3L;
+
+	/**
+	 * Directory containing the log and the index.
+	 */
+	private final Path directory;
+
+	/**
+	 * Maximum size of the log, in bytes.
+	 */
+	private final long maximumSize;
+
+	/**
+	 * Number of hits.
+	 */
+	private final AtomicLong hits;
+
+	/**
+	 * Number of misses.
+	 */
+	private final AtomicLong misses;
+
+	/**
+	 * The log, guarded by {@code this}.
+	 */
+	private MetadataLog metadataLog;
+
+	/**
+	 * The index, guarded by {@code this}.
+	 */
+	private MetadataIndex index;
+
+	/**
+	 * Flag set once the cache has been closed.
+	 */
+	private boolean closed;
+
+	/**
+	 * Flag set while the log is compacted, guarded by {@code this}.
+	 */
+	private boolean compacting;
+
+	/**
+	 * Size of the log triggering the next compaction, guarded by {@code this}: after a failed compaction, the
+	 * next attempt is delayed until the log has grown again.
+	 */
+	private long compactionThreshold;
+
+	private PersistentMetadataCache(Path directory, long maximumSize) {
+		this.directory = directory;
+		this.maximumSize = maximumSize;
+		this.hits = new AtomicLong(0);
+		this.misses = new AtomicLong(0);
+		this.closed = false;
+		this.compacting = false;
+		this.compactionThreshold = maximumSize;
+	}
+
+	/**
+	 * Open the cache stored in given directory, or create it.
+	 *
+	 * @param directory Directory containing the cache files, created if it does not exist.
+	 * @param maximumSize Maximum size of the log, in bytes.
+	 * @return The cache.
+	 * @throws IOException If the cache cannot be opened.
+	 * @throws IllegalArgumentException If the maximum size is not strictly positive.
+	 */
+	public static PersistentMetadataCache open(Path directory, long maximumSize) throws IOException {
+		if (maximumSize <= 0) {
+			throw new IllegalArgumentException("Maximum size of metadata cache must be strictly positive");
+		}
+
+		Files.createDirectories(directory);
+		Files.deleteIfExists(directory.resolve(LOG_FILE + TMP_SUFFIX));
+		Files.deleteIfExists(directory.resolve(INDEX_FILE + TMP_SUFFIX));
+		Files.deleteIfExists(directory.resolve(INDEX_FILE + RESIZE_SUFFIX));
+		Files.deleteIfExists(directory.resolve(INDEX_FILE + COMPACT_SUFFIX));
+
+		PersistentMetadataCache cache = new PersistentMetadataCache(directory, maximumSize);
+		cache.load();
+		return cache;
+	}
+
+	private synchronized void load() throws IOException {
+		metadataLog = MetadataLog.open(directory.resolve(LOG_FILE));
+
+		try {
+			index = MetadataIndex.open(directory.resolve(INDEX_FILE));
+			if (index != null && index.isClean() && index.getGeneration() == metadataLog.getGeneration() && index.getLogLength() <= metadataLog.size()) {
+				// Index may not cover the last records.
+				metadataLog.replay(index.getLogLength(), this::apply);
+			}
+			else {
+				log.info("Rebuild metadata cache index: {}", directory);
+				if (index != null) {
+					index.close();
+				}
+
+				rebuildIndex(MIN_CAPACITY);
+			}
+
+			index.setLogLength(metadataLog.size());
+			index.setClean(false);
+			index.force();
+		}
+		catch (IOException | RuntimeException ex) {
+			closeQuietly();
+			throw ex;
+		}
+	}
+
+	@Override
+	public TagValues get(MetadataCacheKey key) {
+		Record record = null;
+
+		synchronized (this) {
+			if (!closed) {
+				try {
+					int slot = find(key);
+					if (slot >= 0) {
+						record = metadataLog.read(index.offset(slot));
+					}
+				}
+				catch (IOException ex) {
+					log.warn("Failed to read metadata cache entry {}: {}", key, ex.getMessage());
+				}
+			}
+		}
+
+		if (record == null) {
+			misses.incrementAndGet();
+			return null;
+		}
+
+		hits.incrementAndGet();
+		return record.getTags();
+	}
+
+	@Override
+	public void put(MetadataCacheKey key, TagValues tags) {
+		byte[] payload = MetadataLog.encodePut(key, tags);
+
+		// An entry that would fill the cache is never stored.
+		if (payload.length > maximumSize / 4) {
+			log.debug("Metadata cache entry is too large: {}", key);
+			return;
+		}
+
+		boolean compact = false;
+
+		synchronized (this) {
+			if (closed) {
+				return;
+			}
+
+			try {
+				if (index.isFull()) {
+					resizeIndex();
+				}
+
+				long offset = metadataLog.append(payload);
+				index.put(find(key), hash(key), hash(key.getPath()), offset);
+				index.setLogLength(metadataLog.size());
+
+				if (!compacting && metadataLog.size() > compactionThreshold) {
+					compacting = true;
+					compact = true;
+				}
+			}
+			catch (IOException ex) {
+				log.warn("Failed to write metadata cache entry {}: {}", key, ex.getMessage());
+			}
+		}
+
+		if (compact) {
+			compact();
+		}
+	}
+
+	@Override
+	public synchronized void invalidate(File image) {
+		if (closed) {
+			return;
+		}
+
+		String path = MetadataCacheKey.pathOf(image);
+
+		try {
+			// Record the invalidation only if the image was in the cache.
+			if (removePath(path)) {
+				metadataLog.append(MetadataLog.encodeInvalidate(path));
+				index.setLogLength(metadataLog.size());
+			}
+		}
+		catch (IOException ex) {
+			log.warn("Failed to invalidate metadata cache entries of {}: {}", path, ex.getMessage());
+		}
+	}
+
+	@Override
+	public synchronized long size() {
+		return closed ? 0 : index.size();
+	}
+
+	@Override
+	public long hitCount() {
+		return hits.get();
+	}
+
+	@Override
+	public long missCount() {
+		return misses.get();
+	}
+
+	@Override
+	public synchronized void clear() {
+		if (closed) {
+			return;
+		}
+
+		try {
+			metadataLog.close();
+			index.close();
+			metadataLog = MetadataLog.create(directory.resolve(LOG_FILE));
+			rebuildIndex(MIN_CAPACITY);
+			index.force();
+		}
+		catch (IOException ex) {
+			closeQuietly();
+			throw new IllegalStateException("Failed to clear metadata cache: " + directory, ex);
+		}
+	}
+
+	/**
+	 * Get the size of the log, in bytes.
+	 *
+	 * @return Size of the log.
+	 */
+	public synchronized long getLogSize() {
+		return closed ? 0 : metadataLog.size();
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		if (closed) {
+			return;
+		}
+
+		closed = true;
+
+		try {
+			metadataLog.force();
+			index.setLogLength(metadataLog.size());
+			index.setClean(true);
+			index.force();
+		}
+		finally {
+			closeQuietly();
+		}
+	}
+
+	private int find(MetadataCacheKey key) throws IOException {
+		return index.find(hash(key), hash(key.getPath()), offset -> key.equals(metadataLog.readKey(offset).getKey()));
+	}
+
+	private boolean removePath(String path) throws IOException {
+		long pathHash = hash(path);
+		List<Integer> slots = new ArrayList<>();
+		index.forEachOfPath(pathHash, (slot, keyHash, hash, offset) -> {
+			if (path.equals(metadataLog.readKey(offset).getPath())) {
+				slots.add(slot);
+			}
+		});
+
+		for (int slot : slots) {
+			index.remove(slot);
+		}
+
+		return !slots.isEmpty();
+	}
+
+	private void apply(Record record) throws IOException {
+		if (record.getType() == MetadataLog.INVALIDATE) {
+			removePath(record.getPath());
+			return;
+		}
+
+		if (index.isFull()) {
+			resizeIndex();
+		}
+
+		MetadataCacheKey key = record.getKey();
+		index.put(find(key), hash(key), hash(key.getPath()), record.getOffset());
+	}
+
+	/**
+	 * Create a new index, and index all the records of the log.
+	 *
+	 * @param capacity Initial capacity.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	private void rebuildIndex(int capacity) throws IOException {
+		Path tmp = directory.resolve(INDEX_FILE + TMP_SUFFIX);
+		index = MetadataIndex.create(tmp, metadataLog.getGeneration(), capacity);
+		metadataLog.replay(MetadataLog.HEADER_SIZE, this::apply);
+		index.setLogLength(metadataLog.size());
+		index.force();
+		index.moveTo(directory.resolve(INDEX_FILE));
+	}
+
+	/**
+	 * Copy the live entries of the index to a new, larger, index.
+	 *
+	 * @throws IOException If an I/O error occurs.
+	 */
+	private void resizeIndex() throws IOException {
+		MetadataIndex previous = index;
+		int capacity = MetadataIndex.capacityFor(previous.size() * 2, MIN_CAPACITY);
+		log.debug("Resize metadata cache index to {} slots", capacity);
+
+		// Index may be resized while it is rebuilt: the resized index replaces the previous one, wherever it is.
+		MetadataIndex resized = MetadataIndex.create(directory.resolve(INDEX_FILE + RESIZE_SUFFIX), metadataLog.getGeneration(), capacity);
+		previous.forEach((slot, keyHash, pathHash, offset) -> resized.put(-1, keyHash, pathHash, offset));
+		resized.setLogLength(previous.getLogLength());
+		resized.force();
+		previous.close();
+		resized.moveTo(previous.getFile());
+
+		index = resized;
+	}
+
+	/**
+	 * Rewrite the log with the most recent live entries, up to half of the maximum size, and index them.
+	 *
+	 * <br>
+	 *
+	 * Live entries are listed while holding the lock, then copied without holding it: the log is append-only, so
+	 * these records cannot change. The lock is acquired again to copy the records appended in the meantime (they are
+	 * replayed, so that entries written or invalidated during the copy are not lost) and to replace the log. The
+	 * compaction is abandoned if the cache has been closed or cleared in the meantime.
+	 */
+	private void compact() {
+		long start = System.nanoTime();
+		Path tmpLog = directory.resolve(LOG_FILE + TMP_SUFFIX);
+		Path tmpIndex = directory.resolve(INDEX_FILE + COMPACT_SUFFIX);
+		MetadataLog compacted = null;
+		MetadataIndex compactedIndex = null;
+		boolean success = false;
+
+		try {
+			MetadataLog source;
+			long end;
+			List<LiveEntry> entries;
+
+			synchronized (this) {
+				if (closed) {
+					return;
+				}
+
+				source = metadataLog;
+				end = source.size();
+				entries = new ArrayList<>(index.size());
+				index.forEach((slot, keyHash, pathHash, offset) -> entries.add(new LiveEntry(keyHash, pathHash, offset)));
+			}
+
+			// Most recent entries first.
+			entries.sort((e1, e2) -> Long.compare(e2.offset, e1.offset));
+
+			long budget = maximumSize / 2;
+			int kept = 0;
+			for (LiveEntry entry : entries) {
+				int length = source.readKey(entry.offset).getLength();
+				if (budget < length) {
+					break;
+				}
+
+				budget -= length;
+				kept++;
+			}
+
+			compacted = MetadataLog.create(tmpLog);
+			compactedIndex = MetadataIndex.create(tmpIndex, compacted.getGeneration(), MetadataIndex.capacityFor(kept, MIN_CAPACITY));
+			for (int i = kept - 1; i >= 0; i--) {
+				LiveEntry entry = entries.get(i);
+				compactedIndex.put(-1, entry.keyHash, entry.pathHash, source.copyTo(entry.offset, compacted));
+			}
+
+			compacted.force();
+
+			synchronized (this) {
+				if (closed || metadataLog != source) {
+					log.debug("Metadata cache compaction abandoned: {}", directory);
+					return;
+				}
+
+				// Records appended during the copy, replayed once the new log replaces the previous one.
+				long tail = compacted.size();
+				for (long offset = end; offset < source.size(); ) {
+					int length = source.readKey(offset).getLength();
+					source.copyTo(offset, compacted);
+					offset += length;
+				}
+
+				compacted.force();
+				compactedIndex.setLogLength(tail);
+				compactedIndex.force();
+
+				// From now on, the previous index does not match the log anymore: it would be rebuilt after a crash.
+				Files.move(tmpLog, directory.resolve(LOG_FILE), ATOMIC_MOVE, REPLACE_EXISTING);
+
+				long previousSize = source.size();
+				close(source);
+				close(index);
+
+				metadataLog = compacted;
+				index = compactedIndex;
+				compacted = null;
+				compactedIndex = null;
+
+				index.moveTo(directory.resolve(INDEX_FILE));
+				metadataLog.replay(tail, this::apply);
+				index.setLogLength(metadataLog.size());
+				index.setClean(false);
+				compactionThreshold = maximumSize;
+				success = true;
+
+				log.info("Metadata cache compacted from {} to {} bytes", previousSize, metadataLog.size());
+				log.debug("Metadata cache compaction dropped {} entries in {} ms", entries.size() - kept, (System.nanoTime() - start) / 1000000);
+			}
+		}
+		catch (IOException | RuntimeException ex) {
+			log.warn("Failed to compact metadata cache {}: {}", directory, ex.getMessage());
+		}
+		finally {
+			// Temporary files are never left behind, whatever the step that failed.
+			if (compacted != null) {
+				close(compacted);
+				deleteQuietly(tmpLog);
+			}
+
+			if (compactedIndex != null) {
+				close(compactedIndex);
+				deleteQuietly(tmpIndex);
+			}
+
+			synchronized (this) {
+				compacting = false;
+				if (!success && !closed) {
+					compactionThreshold = metadataLog.size() + maximumSize / 4;
+				}
+			}
+		}
+	}
+
+	private void closeQuietly() {
+		closed = true;
+		close(metadataLog);
+		close(index);
+	}
+
+	private static void deleteQuietly(Path file) {
+		try {
+			Files.deleteIfExists(file);
+		}
+		catch (IOException ex) {
+			log.warn(ex.getMessage(), ex);
+		}
+	}
+
+	private static void close(Closeable closeable) {
+		if (closeable == null) {
+			return;
+		}
+
+		try {
+			closeable.close();
+		}
+		catch (IOException ex) {
+			log.warn(ex.getMessage(), ex);
+		}
+	}
+
+	private static long hash(MetadataCacheKey key) {
+		long h = hash(FNV_OFFSET_BASIS, key.getPath());
+		h = hash(h, key.getSize());
+		h = hash(h, key.getLastModified());
+		for (String option : key.getOptions()) {
+			h = hash(h, option);
+		}
+
+		for (String tag : key.getTags()) {
+			h = hash(h, tag);
+		}
+
+		return h;
+	}
+
+	private static long hash(String path) {
+		return hash(FNV_OFFSET_BASIS, path);
+	}
+
+	private static long hash(long h, String value) {
+		long result = h;
+		for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+			result = (result ^ (b & 0xff)) * FNV_PRIME;
+		}
+
+		// Separator, so that ("ab", "c") and ("a", "bc") do not collide.
+		return (result ^ 0xff) * FNV_PRIME;
+	}
+
+	private static long hash(long h, long value) {
+		long result = h;
+		for (int i = 0; i < 8; i++) {
+			result = (result ^ ((value >>> (i * 8)) & 0xff)) * FNV_PRIME;
+		}
+
+		return result;
+	}
+
+	/**
+	 * Live entry of the index, listed before a compaction.
+	 */
+	private static final class LiveEntry {
+		private final long keyHash;
+		private final long pathHash;
+		private final long offset;
+
+		private LiveEntry(long keyHash, long pathHash, long offset) {
+			this.keyHash = keyHash;
+			this.pathHash = pathHash;
+			this.offset = offset;
+		}
+	}
+}
@@ -0,0 +1,162 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core.cache;
+
+import com.thebuzzmedia.exiftool.core.ReadResult;
+import com.thebuzzmedia.exiftool.logs.Logger;
+import com.thebuzzmedia.exiftool.logs.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Coalesce identical concurrent reads: while the metadata of an image is read, other calls reading the same
+ * image (identified by a {@link MetadataCacheKey}, i.e with the same canonical path, size, last modification
+ * time, options and tags) wait for this read and receive the same result, instead of running their own
+ * {@code exiftool} command. If the read fails, all waiting calls fail with the same exception.
+ *
+ * <br>
+ *
+ * Writes to an image act as a barrier (see {@link #invalidate(File)}): calls made once a write has started
+ * do not wait for a read started before the write, they run their own command.
+ *
+ * <br>
+ *
+ * This class is thread-safe.
+ */
+public final class ReadCoalescer {
+
+	/**
+	 * Class Logger.
+	 */
+	private static final Logger log = LoggerFactory.getLogger(ReadCoalescer.class);
+
+	/**
+	 * Pending reads.
+	 */
+	private final ConcurrentMap<MetadataCacheKey, CompletableFuture<ReadResult>> reads;
+
+	/**
+	 * Create coalescer.
+	 */
+	public ReadCoalescer() {
+		this.reads = new ConcurrentHashMap<>();
+	}
+
+	/**
+	 * Read metadata identified by given key: if the same read is already pending, wait for its result, otherwise
+	 * run given read.
+	 *
+	 * @param key The key.
+	 * @param read The read operation.
+	 * @return Metadata.
+	 * @throws IOException If the read fails, or if current thread is interrupted while waiting for a pending read.
+	 * @throws NullPointerException If one parameter is {@code null}.
+	 */
+	public ReadResult read(MetadataCacheKey key, Read read) throws IOException {
+		requireNonNull(key, "Key should not be null");
+		requireNonNull(read, "Read should not be null");
+
+		CompletableFuture<ReadResult> future = new CompletableFuture<>();
+		CompletableFuture<ReadResult> pending = reads.putIfAbsent(key, future);
+		if (pending != null) {
+			log.debug("Wait for pending read of: {}", key.getPath());
+			return await(pending);
+		}
+
+		try {
+			ReadResult results = read.read();
+			future.complete(results);
+			return results;
+		}
+		catch (IOException | RuntimeException | Error ex) {
+			future.completeExceptionally(ex);
+			throw ex;
+		}
+		finally {
+			reads.remove(key, future);
+		}
+	}
+
+	/**
+	 * Detach pending reads of given image: next calls reading this image will not wait for them.
+	 * This method should be called before and after an image is written.
+	 *
+	 * @param image The image.
+	 */
+	public void invalidate(File image) {
+		String path = MetadataCacheKey.pathOf(image);
+		reads.keySet().removeIf(key -> key.getPath().equals(path));
+	}
+
+	/**
+	 * Get the number of pending reads.
+	 *
+	 * @return Number of pending reads.
+	 */
+	public int size() {
+		return reads.size();
+	}
+
+	private static ReadResult await(CompletableFuture<ReadResult> pending) throws IOException {
+		try {
+			return pending.get();
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for a pending read");
+		}
+		catch (ExecutionException ex) {
+			Throwable cause = ex.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+
+			throw new IOException(cause);
+		}
+	}
+
+	/**
+	 * A read operation.
+	 */
+	public interface Read {
+
+		/**
+		 * Read metadata.
+		 *
+		 * @return Metadata, with warnings.
+		 * @throws IOException If the read fails.
+		 */
+		ReadResult read() throws IOException;
+	}
+}
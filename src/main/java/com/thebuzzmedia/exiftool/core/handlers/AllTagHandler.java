@@ -18,7 +18,7 @@
 package com.thebuzzmedia.exiftool.core.handlers;
 
 import com.thebuzzmedia.exiftool.Tag;
-import com.thebuzzmedia.exiftool.core.UnspecifiedTag;
+import com.thebuzzmedia.exiftool.core.TagRegistry;
 
 /**
  * Read all tags line by line.
@@ -33,6 +33,6 @@ public class AllTagHandler extends BaseTagHandler {
 
 	@Override
 	Tag toTag(String name) {
-		return new UnspecifiedTag(name);
+		return TagRegistry.intern(name);
 	}
 }
@@ -18,26 +18,34 @@
 package com.thebuzzmedia.exiftool.core.handlers;
 
 import com.thebuzzmedia.exiftool.Tag;
+import com.thebuzzmedia.exiftool.commons.io.PairVisitor;
+import com.thebuzzmedia.exiftool.core.TagValues;
 import com.thebuzzmedia.exiftool.logs.Logger;
 import com.thebuzzmedia.exiftool.logs.LoggerFactory;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.regex.Pattern;
 
 import static com.thebuzzmedia.exiftool.core.handlers.StopHandler.stopHandler;
-import static java.util.Collections.unmodifiableMap;
+import static java.util.Collections.unmodifiableList;
 
 /**
  * Read tags line by line.
  *
  * <br>
  *
+ * This handler is also a {@link PairVisitor}: when output is read as raw bytes, values of
+ * tags that are not handled are not decoded.
+ *
+ * <br>
+ *
  * This class is not thread-safe and should be used to
  * read exiftool output from one thread (should not be shared across
  * several threads).
  */
-public abstract class BaseTagHandler implements TagHandler {
+public abstract class BaseTagHandler implements TagHandler, PairVisitor {
 
 	/**
 	 * Class logger.
@@ -51,10 +59,21 @@ public abstract class BaseTagHandler implements TagHandler {
 	private static final Pattern TAG_VALUE_PATTERN = Pattern.compile(": ");
 
 	/**
-	 * Map of tags found.
+	 * Tags found.
 	 * Each tags will be added one by one during line processing.
 	 */
-	private final Map<Tag, String> tags = new HashMap<>();
+	private final TagValues.Builder tags = TagValues.builder();
+
+	/**
+	 * Tags built from {@link #tags}, reset when a new tag is found.
+	 */
+	private TagValues values;
+
+	/**
+	 * Warnings and errors printed by {@code exiftool}: since error stream is redirected
+	 * to the output, these are read as {@code Warning: ...} or {@code Error: ...} lines.
+	 */
+	private final List<String> warnings = new ArrayList<>();
 
 	@Override
 	public boolean readLine(String line) {
@@ -68,18 +87,7 @@ public abstract class BaseTagHandler implements TagHandler {
 		// Now, we are sure we can process line.
 		String[] pair = TAG_VALUE_PATTERN.split(line, 2);
 		if (pair != null && pair.length == 2) {
-			// Determine the tag represented by this value.
-			String name = pair[0];
-			String value = pair[1];
-
-			final Tag tag = toTag(name);
-			if (tag != null) {
-				tags.put(tag, value);
-				log.debug("Read Tag [name={}, value={}]", tag, value);
-			}
-			else {
-				log.debug("Unable to read Tag: {}", line);
-			}
+			readPair(pair[0], pair[1]);
 		}
 		else {
 			log.warn("Skipped line: {}", line);
@@ -88,6 +96,35 @@ public abstract class BaseTagHandler implements TagHandler {
 		return true;
 	}
 
+	@Override
+	public boolean accept(String name) {
+		return isWarning(name) || toTag(name) != null;
+	}
+
+	@Override
+	public boolean readPair(String name, String value) {
+		if (isWarning(name)) {
+			warnings.add(name + ": " + value);
+		}
+
+		// Determine the tag represented by this value.
+		final Tag tag = toTag(name);
+		if (tag != null) {
+			tags.put(tag, value);
+			values = null;
+			log.debug("Read Tag [name={}, value={}]", tag, value);
+		}
+		else {
+			log.debug("Unable to read Tag: {}", name);
+		}
+
+		return true;
+	}
+
+	private static boolean isWarning(String name) {
+		return "Warning".equals(name) || "Error".equals(name);
+	}
+
 	/**
 	 * Get a {@link Tag} for the given exif name
 	 * @param name the name of the tag
@@ -96,11 +133,25 @@ public abstract class BaseTagHandler implements TagHandler {
 
 	@Override
 	public Map<Tag, String> getTags() {
-		return unmodifiableMap(tags);
+		return getTagValues().asMap();
+	}
+
+	@Override
+	public TagValues getTagValues() {
+		if (values == null) {
+			values = tags.build();
+		}
+
+		return values;
 	}
 
 	@Override
 	public int size() {
 		return tags.size();
 	}
+
+	@Override
+	public List<String> getWarnings() {
+		return unmodifiableList(warnings);
+	}
 }
@@ -0,0 +1,162 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core.handlers;
+
+import com.thebuzzmedia.exiftool.Tag;
+import com.thebuzzmedia.exiftool.logs.Logger;
+import com.thebuzzmedia.exiftool.logs.LoggerFactory;
+import com.thebuzzmedia.exiftool.process.OutputHandler;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static com.thebuzzmedia.exiftool.commons.lang.PreConditions.notEmpty;
+import static com.thebuzzmedia.exiftool.core.handlers.StopHandler.stopHandler;
+import static java.util.Collections.unmodifiableMap;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Read tags of several images, extracted with a single {@code exiftool} command.
+ *
+ * <br>
+ *
+ * When more than one file is given to {@code exiftool}, output of each file is
+ * prefixed by a {@code ======== <path>} header line and the whole output ends with
+ * summary lines (such as {@code 2 image files read}). This handler detects these lines and
+ * dispatch each tag line to a dedicated {@link TagHandler}, one per image.
+ *
+ * <br>
+ *
+ * This class is not thread-safe and should be used to
+ * read exiftool output from one thread (should not be shared across
+ * several threads).
+ */
+public class BatchTagHandler implements OutputHandler {
+
+	/**
+	 * Class logger.
+	 */
+	private static final Logger log = LoggerFactory.getLogger(BatchTagHandler.class);
+
+	/**
+	 * Prefix of the line printed by {@code exiftool} before the output of each file.
+	 */
+	private static final String FILE_HEADER = "======== ";
+
+	/**
+	 * Handlers, indexed by the path given to {@code exiftool}.
+	 */
+	private final Map<String, TagHandler> handlers;
+
+	/**
+	 * Images, indexed by the path given to {@code exiftool}.
+	 */
+	private final Map<String, File> images;
+
+	/**
+	 * Handler of the image being read, may be {@code null} if header
+	 * has not been read yet.
+	 */
+	private TagHandler current;
+
+	/**
+	 * Create handler.
+	 *
+	 * @param images Images given to {@code exiftool}, in the same order.
+	 * @param factory Factory used to create the tag handler of each image.
+	 * @throws NullPointerException If one parameter is {@code null}.
+	 * @throws IllegalArgumentException If {@code images} is empty.
+	 */
+	public BatchTagHandler(Collection<File> images, Supplier<? extends TagHandler> factory) {
+		notEmpty(images, "Images cannot be null and must contain 1 or more image");
+		requireNonNull(factory, "Tag handler factory cannot be null");
+
+		this.images = new LinkedHashMap<>();
+		this.handlers = new LinkedHashMap<>();
+		for (File image : images) {
+			String path = image.getAbsolutePath();
+			this.images.put(path, image);
+			this.handlers.put(path, factory.get());
+		}
+
+		// With a single image, exiftool does not print any header.
+		this.current = handlers.size() == 1 ? handlers.values().iterator().next() : null;
+	}
+
+	@Override
+	public boolean readLine(String line) {
+		// If line is null, then this is the end.
+		// If line is strictly equals to "{ready}", then it means that stay_open feature
+		// is enabled and this is the end of the output.
+		if (!stopHandler().readLine(line)) {
+			return false;
+		}
+
+		if (line.startsWith(FILE_HEADER)) {
+			String path = line.substring(FILE_HEADER.length());
+			current = handlers.get(path);
+			if (current == null) {
+				log.warn("Output of unexpected file will be skipped: {}", path);
+			}
+		}
+		else if (line.startsWith(" ")) {
+			// Summary lines, such as "    2 image files read".
+			log.debug("Skipped summary line: {}", line);
+		}
+		else if (current != null) {
+			current.readLine(line);
+		}
+		else {
+			log.warn("Skipped line: {}", line);
+		}
+
+		return true;
+	}
+
+	/**
+	 * Get tags extracted for each image, in the same order than the given images.
+	 * Images without any output are associated to an empty map.
+	 *
+	 * @return Tags, indexed by image.
+	 */
+	public Map<File, Map<Tag, String>> getTags() {
+		Map<File, Map<Tag, String>> results = new LinkedHashMap<>();
+		for (Map.Entry<String, TagHandler> entry : handlers.entrySet()) {
+			results.put(images.get(entry.getKey()), entry.getValue().getTags());
+		}
+
+		return unmodifiableMap(results);
+	}
+
+	/**
+	 * Get the total number of tags extracted, for all images.
+	 *
+	 * @return Number of tags.
+	 */
+	public int size() {
+		int size = 0;
+		for (TagHandler handler : handlers.values()) {
+			size += handler.size();
+		}
+
+		return size;
+	}
+}
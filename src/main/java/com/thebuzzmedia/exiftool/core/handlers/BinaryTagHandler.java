@@ -0,0 +1,100 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core.handlers;
+
+import com.thebuzzmedia.exiftool.process.BinaryOutputHandler;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Copy binary value of a tag (extracted with the {@code -b} option) to
+ * a given output stream.
+ *
+ * <br>
+ *
+ * This class is not thread-safe and should be used to
+ * read exiftool output from one thread (should not be shared across
+ * several threads).
+ */
+public class BinaryTagHandler implements BinaryOutputHandler {
+
+	/**
+	 * The output stream, counting the number of bytes written.
+	 */
+	private final CountingOutputStream out;
+
+	/**
+	 * Create handler.
+	 *
+	 * @param out The output stream, where binary value will be written.
+	 * @throws NullPointerException If {@code out} is {@code null}.
+	 */
+	public BinaryTagHandler(OutputStream out) {
+		this.out = new CountingOutputStream(requireNonNull(out, "Output stream cannot be null"));
+	}
+
+	@Override
+	public OutputStream getOutputStream() {
+		return out;
+	}
+
+	@Override
+	public boolean readLine(String line) {
+		// Binary output is read at once, this is always the end.
+		return false;
+	}
+
+	/**
+	 * Get the number of bytes written to the output stream.
+	 *
+	 * @return Number of bytes.
+	 */
+	public long size() {
+		return out.count;
+	}
+
+	private static final class CountingOutputStream extends FilterOutputStream {
+		private long count;
+
+		private CountingOutputStream(OutputStream out) {
+			super(out);
+			this.count = 0;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			out.write(b);
+			count++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			out.write(b, off, len);
+			count += len;
+		}
+
+		@Override
+		public void close() {
+			// Stream is owned by the caller, do not close it.
+		}
+	}
+}
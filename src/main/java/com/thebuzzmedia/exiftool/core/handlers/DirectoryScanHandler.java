@@ -0,0 +1,179 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core.handlers;
+
+import com.thebuzzmedia.exiftool.core.FileMetadata;
+import com.thebuzzmedia.exiftool.logs.Logger;
+import com.thebuzzmedia.exiftool.logs.LoggerFactory;
+import com.thebuzzmedia.exiftool.process.OutputHandler;
+
+import java.io.File;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import static com.thebuzzmedia.exiftool.core.handlers.StopHandler.stopHandler;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Read tags of files found by {@code exiftool} while scanning a directory.
+ *
+ * <br>
+ *
+ * When a directory is given to {@code exiftool}, output of each file is prefixed by
+ * a {@code ======== <path>} header line: contrary to {@link BatchTagHandler}, files are not known
+ * in advance and tags of each file are given to a consumer as soon as the next header (or the end
+ * of the output) is read, so that memory does not depend on the number of files.
+ *
+ * <br>
+ *
+ * If the consumer fails, next files are not given to the consumer, but the output is still read
+ * until the end (so that it does not remain in the {@code exiftool} process): the failure is then
+ * available with {@link #getFailure()}.
+ *
+ * <br>
+ *
+ * This class is not thread-safe and should be used to
+ * read exiftool output from one thread (should not be shared across
+ * several threads).
+ */
+public class DirectoryScanHandler implements OutputHandler {
+
+	/**
+	 * Class logger.
+	 */
+	private static final Logger log = LoggerFactory.getLogger(DirectoryScanHandler.class);
+
+	/**
+	 * Prefix of the line printed by {@code exiftool} before the output of each file.
+	 */
+	private static final String FILE_HEADER = "======== ";
+
+	/**
+	 * Factory used to create the tag handler of each file.
+	 */
+	private final Supplier<? extends TagHandler> factory;
+
+	/**
+	 * Consumer of the tags of each file.
+	 */
+	private final Consumer<? super FileMetadata> consumer;
+
+	/**
+	 * File being read, {@code null} if header has not been read yet.
+	 */
+	private File file;
+
+	/**
+	 * Handler of the file being read, {@code null} if header has not been read yet.
+	 */
+	private TagHandler current;
+
+	/**
+	 * Number of files given to the consumer.
+	 */
+	private long count;
+
+	/**
+	 * First failure of the consumer, {@code null} if consumer never failed.
+	 */
+	private RuntimeException failure;
+
+	/**
+	 * Create handler.
+	 *
+	 * @param factory Factory used to create the tag handler of each file.
+	 * @param consumer Consumer of the tags of each file.
+	 * @throws NullPointerException If one parameter is {@code null}.
+	 */
+	public DirectoryScanHandler(Supplier<? extends TagHandler> factory, Consumer<? super FileMetadata> consumer) {
+		this.factory = requireNonNull(factory, "Tag handler factory cannot be null");
+		this.consumer = requireNonNull(consumer, "Consumer cannot be null");
+	}
+
+	@Override
+	public boolean readLine(String line) {
+		// If line is null, then this is the end.
+		// If line is strictly equals to "{ready}", then it means that stay_open feature
+		// is enabled and this is the end of the output.
+		if (!stopHandler().readLine(line)) {
+			flush();
+			return false;
+		}
+
+		if (line.startsWith(FILE_HEADER)) {
+			flush();
+			file = new File(line.substring(FILE_HEADER.length()));
+			current = factory.get();
+		}
+		else if (line.startsWith(" ")) {
+			// Summary lines, such as "    2 image files read".
+			log.debug("Skipped summary line: {}", line);
+		}
+		else if (current != null) {
+			current.readLine(line);
+		}
+		else {
+			log.warn("Skipped line: {}", line);
+		}
+
+		return true;
+	}
+
+	private void flush() {
+		if (current == null) {
+			return;
+		}
+
+		TagHandler handler = current;
+		current = null;
+
+		if (failure != null) {
+			return;
+		}
+
+		for (String warning : handler.getWarnings()) {
+			log.warn("ExifTool reported for {}: {}", file, warning);
+		}
+
+		try {
+			consumer.accept(new FileMetadata(file, handler.getTagValues()));
+			count++;
+		}
+		catch (RuntimeException ex) {
+			failure = ex;
+		}
+	}
+
+	/**
+	 * Get the number of files given to the consumer.
+	 *
+	 * @return Number of files.
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * Get the first failure of the consumer.
+	 *
+	 * @return The failure, {@code null} if consumer never failed.
+	 */
+	public RuntimeException getFailure() {
+		return failure;
+	}
+}
@@ -0,0 +1,538 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core.handlers;
+
+import com.thebuzzmedia.exiftool.Tag;
+import com.thebuzzmedia.exiftool.core.TagRegistry;
+import com.thebuzzmedia.exiftool.core.TagValues;
+import com.thebuzzmedia.exiftool.logs.Logger;
+import com.thebuzzmedia.exiftool.logs.LoggerFactory;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static com.thebuzzmedia.exiftool.Constants.SEPARATOR;
+import static com.thebuzzmedia.exiftool.core.handlers.StopHandler.stopHandler;
+import static java.util.Collections.unmodifiableMap;
+
+/**
+ * Read tags from the {@code JSON} output of {@code exiftool} (i.e when the {@code -j} option is used).
+ *
+ * <br>
+ *
+ * Output is parsed as a stream of tokens, one character at a time, without any intermediate
+ * representation: tag values are directly added to the result. Since the parser state is kept
+ * between lines, values that cannot be represented with the {@code name: value} output (such as
+ * values containing line breaks) are read correctly.
+ *
+ * <br>
+ *
+ * Some notes about the conversion:
+ *
+ * <ul>
+ *   <li>Numbers and literals are returned as they are printed by {@code exiftool}.</li>
+ *   <li>Elements of an array are joined using {@link com.thebuzzmedia.exiftool.Constants#SEPARATOR}.</li>
+ *   <li>Members of nested objects (such as groups, with the {@code -g} option) are read as top level tags.</li>
+ *   <li>The {@code SourceFile} entry is not a tag: it is used to identify the image of each object.</li>
+ * </ul>
+ *
+ * This class is not thread-safe and should be used to
+ * read exiftool output from one thread (should not be shared across
+ * several threads).
+ */
+public class JsonTagHandler implements TagHandler {
+
+	/**
+	 * Class logger.
+	 */
+	private static final Logger log = LoggerFactory.getLogger(JsonTagHandler.class);
+
+	/**
+	 * Name of the entry containing the path of the image.
+	 */
+	private static final String SOURCE_FILE = "SourceFile";
+
+	/**
+	 * Container type: an object.
+	 */
+	private static final char OBJECT = '{';
+
+	/**
+	 * Container type: the root array (containing one object per image).
+	 */
+	private static final char ROOT = '[';
+
+	/**
+	 * Container type: an array value.
+	 */
+	private static final char ARRAY = 'a';
+
+	/**
+	 * Expected tags, indexed by name, {@code null} if all tags should be read.
+	 */
+	private final Map<String, Tag> inputs;
+
+	/**
+	 * Tags found, for all images.
+	 */
+	private final TagValues.Builder tags;
+
+	/**
+	 * Tags built from {@link #tags}, reset when a new tag is found.
+	 */
+	private TagValues values;
+
+	/**
+	 * Tags found, indexed by source file.
+	 */
+	private final Map<String, Map<Tag, String>> tagsBySourceFile;
+
+	/**
+	 * Stack of opened containers.
+	 */
+	private final StringBuilder containers;
+
+	/**
+	 * Buffer of the token being read (string or literal).
+	 */
+	private final StringBuilder token;
+
+	/**
+	 * Buffer of the array value being read.
+	 */
+	private final StringBuilder array;
+
+	/**
+	 * Tags of the object being read.
+	 */
+	private Map<Tag, String> current;
+
+	/**
+	 * Source file of the object being read.
+	 */
+	private String sourceFile;
+
+	/**
+	 * Name of the entry being read.
+	 */
+	private String key;
+
+	/**
+	 * Flag set if next string is an entry name.
+	 */
+	private boolean expectKey;
+
+	/**
+	 * Flag set if a string is being read.
+	 */
+	private boolean inString;
+
+	/**
+	 * Flag set if a literal (number, boolean, etc.) is being read.
+	 */
+	private boolean inLiteral;
+
+	/**
+	 * Flag set if previous character was an escape character.
+	 */
+	private boolean escape;
+
+	/**
+	 * Number of hexadecimal digits remaining to read an unicode escape sequence, if any.
+	 */
+	private int unicode;
+
+	/**
+	 * Value of the unicode escape sequence being read.
+	 */
+	private int unicodeValue;
+
+	/**
+	 * Number of elements read in current array value.
+	 */
+	private int arraySize;
+
+	/**
+	 * Create handler that read all tags.
+	 */
+	public JsonTagHandler() {
+		this(null);
+	}
+
+	/**
+	 * Create handler with expected list of tags to parse.
+	 *
+	 * @param tags Expected list of tags, {@code null} to read all tags.
+	 */
+	public JsonTagHandler(Collection<? extends Tag> tags) {
+		if (tags == null) {
+			this.inputs = null;
+		}
+		else {
+			Map<String, Tag> inputs = new HashMap<>();
+			for (Tag tag : tags) {
+				inputs.put(tag.getDisplayName(), tag);
+			}
+
+			this.inputs = unmodifiableMap(inputs);
+		}
+
+		this.tags = TagValues.builder();
+		this.tagsBySourceFile = new LinkedHashMap<>();
+		this.containers = new StringBuilder();
+		this.token = new StringBuilder();
+		this.array = new StringBuilder();
+	}
+
+	@Override
+	public boolean readLine(String line) {
+		// If line is null, then this is the end.
+		// If line is strictly equals to "{ready}", then it means that stay_open feature
+		// is enabled and this is the end of the output.
+		if (!stopHandler().readLine(line)) {
+			return false;
+		}
+
+		if (!inString && isSkipped(line)) {
+			log.debug("Skipped line: {}", line);
+			return true;
+		}
+
+		int length = line.length();
+		for (int i = 0; i < length; i++) {
+			read(line.charAt(i));
+		}
+
+		if (inString) {
+			// Should not happen, since exiftool escape line breaks.
+			token.append('\n');
+		}
+		else if (inLiteral) {
+			endLiteral();
+		}
+
+		return true;
+	}
+
+	/**
+	 * Check if given line is not part of the JSON output, such as summary lines or warnings
+	 * printed when output and error streams are merged.
+	 *
+	 * @param line The line.
+	 * @return {@code true} if line should be skipped, {@code false} otherwise.
+	 */
+	private boolean isSkipped(String line) {
+		char first = firstNonWhitespace(line);
+		if (containers.length() == 0) {
+			return first != '[' && first != '{';
+		}
+
+		return expectKey && top() == OBJECT && first != '"' && first != '}' && first != ',';
+	}
+
+	private void read(char c) {
+		if (inString) {
+			readString(c);
+			return;
+		}
+
+		if (inLiteral) {
+			if (isLiteral(c)) {
+				token.append(c);
+				return;
+			}
+
+			endLiteral();
+		}
+
+		switch (c) {
+			case '"':
+				inString = true;
+				token.setLength(0);
+				break;
+
+			case '{':
+				startObject();
+				break;
+
+			case '}':
+				endObject();
+				break;
+
+			case '[':
+				startArray();
+				break;
+
+			case ']':
+				endArray();
+				break;
+
+			case ':':
+				expectKey = false;
+				break;
+
+			case ',':
+				expectKey = top() == OBJECT;
+				break;
+
+			default:
+				if (isLiteral(c)) {
+					inLiteral = true;
+					token.setLength(0);
+					token.append(c);
+				}
+		}
+	}
+
+	private void readString(char c) {
+		if (unicode > 0) {
+			unicodeValue = (unicodeValue << 4) + Character.digit(c, 16);
+			unicode--;
+			if (unicode == 0) {
+				token.append((char) unicodeValue);
+			}
+		}
+		else if (escape) {
+			escape = false;
+			switch (c) {
+				case 'n':
+					token.append('\n');
+					break;
+				case 'r':
+					token.append('\r');
+					break;
+				case 't':
+					token.append('\t');
+					break;
+				case 'b':
+					token.append('\b');
+					break;
+				case 'f':
+					token.append('\f');
+					break;
+				case 'u':
+					unicode = 4;
+					unicodeValue = 0;
+					break;
+				default:
+					token.append(c);
+			}
+		}
+		else if (c == '\\') {
+			escape = true;
+		}
+		else if (c == '"') {
+			inString = false;
+			onToken(token.toString());
+		}
+		else {
+			token.append(c);
+		}
+	}
+
+	private void endLiteral() {
+		inLiteral = false;
+		onToken(token.toString());
+	}
+
+	private void startObject() {
+		if (isRecord()) {
+			current = new HashMap<>();
+			sourceFile = null;
+		}
+
+		containers.append(OBJECT);
+		expectKey = true;
+	}
+
+	private void endObject() {
+		pop();
+		if (isRecord() && current != null) {
+			String source = sourceFile == null ? "" : sourceFile;
+			Map<Tag, String> previous = tagsBySourceFile.get(source);
+			if (previous == null) {
+				tagsBySourceFile.put(source, current);
+			}
+			else {
+				previous.putAll(current);
+			}
+
+			current = null;
+		}
+
+		expectKey = top() == OBJECT;
+	}
+
+	private void startArray() {
+		if (containers.length() == 0) {
+			containers.append(ROOT);
+			return;
+		}
+
+		if (top() != ARRAY) {
+			array.setLength(0);
+			arraySize = 0;
+		}
+
+		containers.append(ARRAY);
+	}
+
+	private void endArray() {
+		char type = pop();
+		if (type == ARRAY && top() != ARRAY) {
+			onValue(key, array.toString());
+		}
+	}
+
+	private void onToken(String value) {
+		char type = top();
+		if (type == ARRAY) {
+			if (arraySize > 0) {
+				array.append(SEPARATOR);
+			}
+
+			array.append(value);
+			arraySize++;
+		}
+		else if (type == OBJECT) {
+			if (expectKey) {
+				key = value;
+			}
+			else {
+				onValue(key, value);
+			}
+		}
+		else {
+			log.debug("Skipped value: {}", value);
+		}
+	}
+
+	private void onValue(String name, String value) {
+		if (current == null) {
+			log.debug("Skipped value of {}: {}", name, value);
+			return;
+		}
+
+		if (SOURCE_FILE.equals(name) && containers.length() <= 2) {
+			sourceFile = value;
+			return;
+		}
+
+		Tag tag = toTag(name);
+		if (tag != null) {
+			current.put(tag, value);
+			tags.put(tag, value);
+			values = null;
+			log.debug("Read Tag [name={}, value={}]", tag, value);
+		}
+		else {
+			log.debug("Unable to read Tag: {}", name);
+		}
+	}
+
+	private Tag toTag(String name) {
+		return inputs == null ? TagRegistry.intern(name) : inputs.get(name);
+	}
+
+	/**
+	 * Check if an object opened (or closed) at current position is the object
+	 * of an image (i.e it is not a nested value).
+	 *
+	 * @return {@code true} if object is a top level object.
+	 */
+	private boolean isRecord() {
+		int depth = containers.length();
+		return depth == 0 || (depth == 1 && containers.charAt(0) == ROOT);
+	}
+
+	private char top() {
+		int depth = containers.length();
+		return depth == 0 ? 0 : containers.charAt(depth - 1);
+	}
+
+	private char pop() {
+		int depth = containers.length();
+		if (depth == 0) {
+			return 0;
+		}
+
+		char type = containers.charAt(depth - 1);
+		containers.setLength(depth - 1);
+		return type;
+	}
+
+	private static boolean isLiteral(char c) {
+		return Character.isLetterOrDigit(c) || c == '-' || c == '+' || c == '.';
+	}
+
+	private static char firstNonWhitespace(String line) {
+		int length = line.length();
+		for (int i = 0; i < length; i++) {
+			char c = line.charAt(i);
+			if (!Character.isWhitespace(c)) {
+				return c;
+			}
+		}
+
+		return 0;
+	}
+
+	/**
+	 * Get all tags that have been extracted.
+	 *
+	 * If output contains several images, tags of all images are merged: use
+	 * {@link #getTagsBySourceFile()} to get tags of each image.
+	 *
+	 * @return map of tags to their values
+	 */
+	@Override
+	public Map<Tag, String> getTags() {
+		return getTagValues().asMap();
+	}
+
+	@Override
+	public TagValues getTagValues() {
+		if (values == null) {
+			values = tags.build();
+		}
+
+		return values;
+	}
+
+	/**
+	 * Get tags that have been extracted, indexed by the {@code SourceFile} entry
+	 * of each image (an empty string if {@code SourceFile} entry is missing).
+	 *
+	 * @return Tags, indexed by source file.
+	 */
+	public Map<String, Map<Tag, String>> getTagsBySourceFile() {
+		Map<String, Map<Tag, String>> results = new LinkedHashMap<>();
+		for (Map.Entry<String, Map<Tag, String>> entry : tagsBySourceFile.entrySet()) {
+			results.put(entry.getKey(), unmodifiableMap(entry.getValue()));
+		}
+
+		return unmodifiableMap(results);
+	}
+
+	@Override
+	public int size() {
+		return tags.size();
+	}
+}
@@ -18,10 +18,14 @@
 package com.thebuzzmedia.exiftool.core.handlers;
 
 import com.thebuzzmedia.exiftool.Tag;
+import com.thebuzzmedia.exiftool.core.TagValues;
 import com.thebuzzmedia.exiftool.process.OutputHandler;
 
+import java.util.List;
 import java.util.Map;
 
+import static java.util.Collections.emptyList;
+
 /**
  * Handle tags line by line and store output.
  */
@@ -33,9 +37,25 @@ public interface TagHandler extends OutputHandler {
 	 */
 	Map<Tag, String> getTags();
 
+	/**
+	 * Get all tags that have been extracted, as compact {@link TagValues}.
+	 * @return tags with their values
+	 */
+	default TagValues getTagValues() {
+		return TagValues.copyOf(getTags());
+	}
+
 	/**
 	 * Get the number of tags extracted.
 	 * @return number of tags
 	 */
 	int size();
+
+	/**
+	 * Get warnings (and errors) printed by {@code exiftool} while extracting tags.
+	 * @return warnings, in the order they have been printed
+	 */
+	default List<String> getWarnings() {
+		return emptyList();
+	}
 }
@@ -0,0 +1,180 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core.handlers;
+
+import com.thebuzzmedia.exiftool.core.WriteResult;
+import com.thebuzzmedia.exiftool.logs.Logger;
+import com.thebuzzmedia.exiftool.logs.LoggerFactory;
+import com.thebuzzmedia.exiftool.process.OutputHandler;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static com.thebuzzmedia.exiftool.core.handlers.StopHandler.stopHandler;
+
+/**
+ * Read output of {@code exiftool} commands writing tags, to build a {@link WriteResult}.
+ *
+ * <br>
+ *
+ * Error lines are associated to the image whose path ends the line (such as {@code Error: File not found - /tmp/image.jpg}),
+ * and the number of updated, unchanged and failed images are read from summary lines. The same handler may
+ * read the output of several commands: results are accumulated.
+ *
+ * <br>
+ *
+ * This class is not thread-safe and should be used to
+ * read exiftool output from one thread (should not be shared across
+ * several threads).
+ */
+public class WriteResultHandler implements OutputHandler {
+
+	/**
+	 * Class logger.
+	 */
+	private static final Logger log = LoggerFactory.getLogger(WriteResultHandler.class);
+
+	/**
+	 * Prefix of error lines.
+	 */
+	private static final String ERROR = "Error: ";
+
+	/**
+	 * Prefix of warning lines.
+	 */
+	private static final String WARNING = "Warning: ";
+
+	/**
+	 * Separator between the message and the path of an image.
+	 */
+	private static final String PATH_SEPARATOR = " - ";
+
+	/**
+	 * Summary lines, such as {@code    2 image files updated}.
+	 */
+	private static final Pattern SUMMARY = Pattern.compile("^\\s*(\\d+) (image files updated|image files created|image files unchanged|files weren't (?:updated|created) due to errors)$");
+
+	/**
+	 * Images, indexed by the path given to {@code exiftool}.
+	 */
+	private final Map<String, File> images;
+
+	/**
+	 * Error messages, indexed by image.
+	 */
+	private final Map<File, String> errors;
+
+	/**
+	 * Number of updated images.
+	 */
+	private int updated;
+
+	/**
+	 * Number of unchanged images.
+	 */
+	private int unchanged;
+
+	/**
+	 * Number of images not updated due to errors.
+	 */
+	private int failed;
+
+	/**
+	 * Create handler.
+	 *
+	 * @param images Images given to {@code exiftool}.
+	 */
+	public WriteResultHandler(Collection<File> images) {
+		this.images = new LinkedHashMap<>();
+		this.errors = new LinkedHashMap<>();
+		for (File image : images) {
+			this.images.put(image.getAbsolutePath(), image);
+		}
+	}
+
+	@Override
+	public boolean readLine(String line) {
+		// If line is null, then this is the end.
+		// If line is strictly equals to "{ready}", then it means that stay_open feature
+		// is enabled and this is the end of the output.
+		if (!stopHandler().readLine(line)) {
+			return false;
+		}
+
+		if (line.startsWith(ERROR)) {
+			readError(line.substring(ERROR.length()));
+		}
+		else if (line.startsWith(WARNING)) {
+			log.warn("ExifTool reported: {}", line);
+		}
+		else {
+			readSummary(line);
+		}
+
+		return true;
+	}
+
+	private void readError(String error) {
+		// Path may contain the separator: try each candidate, starting with the shortest path.
+		int index = error.lastIndexOf(PATH_SEPARATOR);
+		while (index >= 0) {
+			File image = images.get(error.substring(index + PATH_SEPARATOR.length()));
+			if (image != null) {
+				errors.put(image, error.substring(0, index));
+				return;
+			}
+
+			index = error.lastIndexOf(PATH_SEPARATOR, index - 1);
+		}
+
+		log.warn("ExifTool reported an error: {}", error);
+	}
+
+	private void readSummary(String line) {
+		Matcher matcher = SUMMARY.matcher(line);
+		if (!matcher.matches()) {
+			log.debug("Skipped line: {}", line);
+			return;
+		}
+
+		int count = Integer.parseInt(matcher.group(1));
+		String type = matcher.group(2);
+		if (type.endsWith("unchanged")) {
+			unchanged += count;
+		}
+		else if (type.endsWith("errors")) {
+			failed += count;
+		}
+		else {
+			updated += count;
+		}
+	}
+
+	/**
+	 * Get the result of the write operations read so far.
+	 *
+	 * @return The result.
+	 */
+	public WriteResult getResult() {
+		return new WriteResult(images.values(), errors, updated, unchanged, failed);
+	}
+}
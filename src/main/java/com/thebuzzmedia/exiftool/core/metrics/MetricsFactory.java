@@ -0,0 +1,43 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core.metrics;
+
+import com.thebuzzmedia.exiftool.ExifToolMetrics;
+
+import static com.thebuzzmedia.exiftool.commons.reflection.DependencyUtils.isMicrometerAvailable;
+import static com.thebuzzmedia.exiftool.core.metrics.NoOpMetrics.noOpMetrics;
+
+/**
+ * {@link ExifToolMetrics} factory.
+ */
+public final class MetricsFactory {
+
+	// Ensure non instantiation.
+	private MetricsFactory() {
+	}
+
+	/**
+	 * Create default metrics: if Micrometer is available on the classpath, metrics are
+	 * recorded in its global registry, otherwise metrics are disabled.
+	 *
+	 * @return New instance of {@link ExifToolMetrics}.
+	 */
+	public static ExifToolMetrics newMetrics() {
+		return isMicrometerAvailable() ? MicrometerMetrics.create() : noOpMetrics();
+	}
+}
@@ -0,0 +1,273 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core.metrics;
+
+import com.thebuzzmedia.exiftool.ExifToolMetrics;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.concurrent.TimeUnit;
+
+import static com.thebuzzmedia.exiftool.commons.reflection.ClassUtils.findMethod;
+import static com.thebuzzmedia.exiftool.commons.reflection.ClassUtils.findStaticGetter;
+import static com.thebuzzmedia.exiftool.commons.reflection.ClassUtils.invoke;
+import static com.thebuzzmedia.exiftool.commons.reflection.ClassUtils.invokeStatic;
+import static com.thebuzzmedia.exiftool.commons.reflection.ClassUtils.lookupClass;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Implementation of {@link ExifToolMetrics} recording metrics in a Micrometer {@code MeterRegistry}.
+ *
+ * This implementation is created using reflection, so that Micrometer remains an optional
+ * dependency of this library.
+ */
+public final class MicrometerMetrics implements ExifToolMetrics {
+
+	private static final String METRICS_FQN = "io.micrometer.core.instrument.Metrics";
+	private static final String REGISTRY_FQN = "io.micrometer.core.instrument.MeterRegistry";
+	private static final String COMPOSITE_REGISTRY_FQN = "io.micrometer.core.instrument.composite.CompositeMeterRegistry";
+	private static final String TIMER_FQN = "io.micrometer.core.instrument.Timer";
+	private static final String COUNTER_FQN = "io.micrometer.core.instrument.Counter";
+	private static final String SUMMARY_FQN = "io.micrometer.core.instrument.DistributionSummary";
+
+	/**
+	 * Create metrics, recorded in Micrometer global registry.
+	 *
+	 * @return Metrics.
+	 */
+	static MicrometerMetrics create() {
+		Class<?> metricsClass = lookupClass(METRICS_FQN);
+		Class<?> registryClass = lookupClass(REGISTRY_FQN);
+		MethodHandle globalRegistry = findStaticGetter(metricsClass, "globalRegistry", lookupClass(COMPOSITE_REGISTRY_FQN));
+		return new MicrometerMetrics(registryClass, invokeStatic(globalRegistry));
+	}
+
+	/**
+	 * Create metrics, recorded in given registry.
+	 *
+	 * @param registry Registry, must be an instance of {@code io.micrometer.core.instrument.MeterRegistry}.
+	 * @return Metrics.
+	 * @throws IllegalArgumentException If {@code registry} is not a Micrometer registry.
+	 */
+	public static MicrometerMetrics create(Object registry) {
+		requireNonNull(registry, "Registry must not be null");
+
+		Class<?> registryClass = lookupClass(REGISTRY_FQN);
+		if (!registryClass.isInstance(registry)) {
+			throw new IllegalArgumentException("Registry must be an instance of " + REGISTRY_FQN);
+		}
+
+		return new MicrometerMetrics(registryClass, registry);
+	}
+
+	private final TimerMeter queueWait;
+	private final TimerMeter write;
+	private final TimerMeter read;
+	private final SummaryMeter bytes;
+	private final SummaryMeter lines;
+	private final SummaryMeter tags;
+	private final CounterMeter starts;
+	private final CounterMeter restarts;
+	private final CounterMeter closes;
+	private final CounterMeter failures;
+	private final CounterMeter crashes;
+	private final CounterMeter recycles;
+
+	private MicrometerMetrics(Class<?> registryClass, Object registry) {
+		Class<?> timerClass = lookupClass(TIMER_FQN);
+		Class<?> counterClass = lookupClass(COUNTER_FQN);
+		Class<?> summaryClass = lookupClass(SUMMARY_FQN);
+
+		MethodHandle timer = findMethod(registryClass, "timer", timerClass, String.class, String[].class).asFixedArity();
+		MethodHandle counter = findMethod(registryClass, "counter", counterClass, String.class, String[].class).asFixedArity();
+		MethodHandle summary = findMethod(registryClass, "summary", summaryClass, String.class, String[].class).asFixedArity();
+
+		MethodHandle recordTime = findMethod(timerClass, "record", void.class, long.class, TimeUnit.class);
+		MethodHandle increment = findMethod(counterClass, "increment", void.class);
+		MethodHandle recordAmount = findMethod(summaryClass, "record", void.class, double.class);
+
+		this.queueWait = new TimerMeter(invoke(timer, registry, "exiftool.pool.wait", new String[0]), recordTime);
+		this.write = new TimerMeter(invoke(timer, registry, "exiftool.process.write", new String[0]), recordTime);
+		this.read = new TimerMeter(invoke(timer, registry, "exiftool.process.read", new String[0]), recordTime);
+		this.bytes = new SummaryMeter(invoke(summary, registry, "exiftool.response.bytes", new String[0]), recordAmount);
+		this.lines = new SummaryMeter(invoke(summary, registry, "exiftool.response.lines", new String[0]), recordAmount);
+		this.tags = new SummaryMeter(invoke(summary, registry, "exiftool.response.tags", new String[0]), recordAmount);
+		this.starts = new CounterMeter(invoke(counter, registry, "exiftool.process.starts", new String[0]), increment);
+		this.restarts = new CounterMeter(invoke(counter, registry, "exiftool.process.restarts", new String[0]), increment);
+		this.closes = new CounterMeter(invoke(counter, registry, "exiftool.process.closes", new String[0]), increment);
+		this.failures = new CounterMeter(invoke(counter, registry, "exiftool.process.failures", new String[0]), increment);
+		this.crashes = new CounterMeter(invoke(counter, registry, "exiftool.process.crashes", new String[0]), increment);
+		this.recycles = new CounterMeter(invoke(counter, registry, "exiftool.process.recycles", new String[0]), increment);
+	}
+
+	@Override
+	public void recordQueueWait(long nanos) {
+		queueWait.record(nanos);
+	}
+
+	@Override
+	public void recordWrite(long nanos) {
+		write.record(nanos);
+	}
+
+	@Override
+	public void recordRead(long nanos) {
+		read.record(nanos);
+	}
+
+	@Override
+	public void recordOutput(long bytes, int lines) {
+		this.bytes.record((double) bytes);
+		this.lines.record((double) lines);
+	}
+
+	@Override
+	public void recordTags(int tags) {
+		this.tags.record((double) tags);
+	}
+
+	@Override
+	public void processStarted() {
+		starts.increment();
+	}
+
+	@Override
+	public void processRestarted() {
+		restarts.increment();
+	}
+
+	@Override
+	public void processClosed() {
+		closes.increment();
+	}
+
+	@Override
+	public void processFailed() {
+		failures.increment();
+	}
+
+	@Override
+	public void processCrashed() {
+		crashes.increment();
+	}
+
+	@Override
+	public void processRecycled() {
+		recycles.increment();
+	}
+
+	/**
+	 * Bind the method recording a value to a Micrometer meter, once: the returned method handle has an exact type,
+	 * and is called with {@link MethodHandle#invokeExact(Object...)}, so that recording a value does not allocate.
+	 *
+	 * @param meter Meter instance (timer, counter or distribution summary).
+	 * @param method Method used to record a value on the meter instance.
+	 * @param type Exact type of the bound method.
+	 * @return The bound method.
+	 */
+	private static MethodHandle bind(Object meter, MethodHandle method, MethodType type) {
+		return method.bindTo(requireNonNull(meter, "Meter must not be null")).asType(type);
+	}
+
+	private static RuntimeException rethrow(Throwable ex) {
+		if (ex instanceof RuntimeException) {
+			return (RuntimeException) ex;
+		}
+		if (ex instanceof Error) {
+			throw (Error) ex;
+		}
+
+		return new UndeclaredThrowableException(ex);
+	}
+
+	/**
+	 * A Micrometer {@code Timer}, recording durations in nanoseconds.
+	 */
+	private static final class TimerMeter {
+		private static final MethodType TYPE = MethodType.methodType(void.class, long.class, TimeUnit.class);
+
+		/**
+		 * Bound {@code Timer#record(long, TimeUnit)} method.
+		 */
+		private final MethodHandle record;
+
+		private TimerMeter(Object timer, MethodHandle record) {
+			this.record = bind(timer, record, TYPE);
+		}
+
+		private void record(long nanos) {
+			try {
+				record.invokeExact(nanos, TimeUnit.NANOSECONDS);
+			}
+			catch (Throwable ex) {
+				throw rethrow(ex);
+			}
+		}
+	}
+
+	/**
+	 * A Micrometer {@code DistributionSummary}.
+	 */
+	private static final class SummaryMeter {
+		private static final MethodType TYPE = MethodType.methodType(void.class, double.class);
+
+		/**
+		 * Bound {@code DistributionSummary#record(double)} method.
+		 */
+		private final MethodHandle record;
+
+		private SummaryMeter(Object summary, MethodHandle record) {
+			this.record = bind(summary, record, TYPE);
+		}
+
+		private void record(double amount) {
+			try {
+				record.invokeExact(amount);
+			}
+			catch (Throwable ex) {
+				throw rethrow(ex);
+			}
+		}
+	}
+
+	/**
+	 * A Micrometer {@code Counter}.
+	 */
+	private static final class CounterMeter {
+		private static final MethodType TYPE = MethodType.methodType(void.class);
+
+		/**
+		 * Bound {@code Counter#increment()} method.
+		 */
+		private final MethodHandle increment;
+
+		private CounterMeter(Object counter, MethodHandle increment) {
+			this.increment = bind(counter, increment, TYPE);
+		}
+
+		private void increment() {
+			try {
+				increment.invokeExact();
+			}
+			catch (Throwable ex) {
+				throw rethrow(ex);
+			}
+		}
+	}
+}
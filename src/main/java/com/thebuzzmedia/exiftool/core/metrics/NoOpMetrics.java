@@ -0,0 +1,99 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core.metrics;
+
+import com.thebuzzmedia.exiftool.ExifToolMetrics;
+
+/**
+ * These metrics do nothing (use it for disabling metrics).
+ */
+public final class NoOpMetrics implements ExifToolMetrics {
+
+	/**
+	 * Shared instance, since this implementation is stateless.
+	 */
+	private static final NoOpMetrics INSTANCE = new NoOpMetrics();
+
+	/**
+	 * Get metrics instance.
+	 *
+	 * @return Metrics.
+	 */
+	public static NoOpMetrics noOpMetrics() {
+		return INSTANCE;
+	}
+
+	// Ensure non instantiation.
+	private NoOpMetrics() {
+	}
+
+	@Override
+	public void recordQueueWait(long nanos) {
+		// No Op.
+	}
+
+	@Override
+	public void recordWrite(long nanos) {
+		// No Op.
+	}
+
+	@Override
+	public void recordRead(long nanos) {
+		// No Op.
+	}
+
+	@Override
+	public void recordOutput(long bytes, int lines) {
+		// No Op.
+	}
+
+	@Override
+	public void recordTags(int tags) {
+		// No Op.
+	}
+
+	@Override
+	public void processStarted() {
+		// No Op.
+	}
+
+	@Override
+	public void processRestarted() {
+		// No Op.
+	}
+
+	@Override
+	public void processClosed() {
+		// No Op.
+	}
+
+	@Override
+	public void processFailed() {
+		// No Op.
+	}
+
+	@Override
+	public void processCrashed() {
+		// No Op.
+	}
+
+	@Override
+	public void processRecycled() {
+		// No Op.
+	}
+}
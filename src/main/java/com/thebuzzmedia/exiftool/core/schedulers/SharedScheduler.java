@@ -0,0 +1,277 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core.schedulers;
+
+import com.thebuzzmedia.exiftool.Scheduler;
+import com.thebuzzmedia.exiftool.logs.Logger;
+import com.thebuzzmedia.exiftool.logs.LoggerFactory;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.thebuzzmedia.exiftool.core.schedulers.SchedulerDuration.millis;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Implementation of {@link Scheduler} sharing a single thread with all other instances of this class.
+ *
+ * <br>
+ *
+ * {@link DefaultScheduler} owns an executor (and its thread) and cancels the queued task each time
+ * {@link #stop()} is called, while a strategy stops and starts its cleanup task for each command. Instead, this
+ * scheduler only keeps the deadline of the pending task: {@link #start(Runnable)} and {@link #stop()} just replace
+ * it, and a single thread, shared by all instances, periodically looks for expired deadlines. Expired tasks are run
+ * on a separate (cached) thread pool, so that a task blocked by a busy process does not delay other tasks.
+ *
+ * <br>
+ *
+ * A task may run up to one tick (100 milliseconds) after its deadline.
+ *
+ * <br>
+ *
+ * This scheduler is thread-safe. Once shut down, it is removed from the shared thread, and may be
+ * started again.
+ */
+public class SharedScheduler implements Scheduler {
+
+	/**
+	 * Class Logger.
+	 */
+	private static final Logger log = LoggerFactory.getLogger(SharedScheduler.class);
+
+	/**
+	 * Delay before task execution.
+	 */
+	private final SchedulerDuration executionDelay;
+
+	/**
+	 * Delay before task execution, in nanoseconds.
+	 */
+	private final long delayNanos;
+
+	/**
+	 * Sweeper, looking for expired tasks.
+	 */
+	private final Sweeper sweeper;
+
+	/**
+	 * Pending task, with its deadline: {@code null} if no task is pending.
+	 */
+	private final AtomicReference<Task> task;
+
+	/**
+	 * Flag set while this scheduler is registered in {@link #sweeper}.
+	 */
+	private final AtomicBoolean registered;
+
+	/**
+	 * Create new scheduler, using the thread shared by all instances.
+	 *
+	 * @param executionDelay The delay before task execution.
+	 * @throws NullPointerException If {@code executionDelay} is {@code null}.
+	 */
+	public SharedScheduler(SchedulerDuration executionDelay) {
+		this(executionDelay, Sweeper.shared());
+	}
+
+	/**
+	 * Create new scheduler.
+	 *
+	 * @param executionDelay The delay before task execution.
+	 * @param sweeper The sweeper.
+	 * @throws NullPointerException If {@code executionDelay} is {@code null}.
+	 */
+	SharedScheduler(SchedulerDuration executionDelay, Sweeper sweeper) {
+		this.executionDelay = requireNonNull(executionDelay, "Execution delay must not be null");
+		this.delayNanos = executionDelay.getTimeUnit().toNanos(executionDelay.getDelay());
+		this.sweeper = requireNonNull(sweeper, "Sweeper must not be null");
+		this.task = new AtomicReference<>();
+		this.registered = new AtomicBoolean(false);
+	}
+
+	@Override
+	public void start(Runnable runnable) {
+		task.set(new Task(runnable, System.nanoTime() + delayNanos));
+
+		if (registered.compareAndSet(false, true)) {
+			sweeper.register(this);
+		}
+	}
+
+	@Override
+	public void stop() {
+		task.set(null);
+	}
+
+	@Override
+	public void shutdown() {
+		log.debug("Shutdown scheduler");
+		task.set(null);
+
+		if (registered.compareAndSet(true, false)) {
+			sweeper.unregister(this);
+		}
+	}
+
+	/**
+	 * Get {@link #executionDelay}
+	 *
+	 * @return {@link #executionDelay}
+	 */
+	public SchedulerDuration getExecutionDelay() {
+		return executionDelay;
+	}
+
+	/**
+	 * Run pending task if its deadline has been reached: the task is run once, unless
+	 * it is started again.
+	 *
+	 * @param now Current time, in nanoseconds (see {@link System#nanoTime()}).
+	 * @param runner Executor used to run the task.
+	 */
+	private void sweep(long now, ExecutorService runner) {
+		Task current = task.get();
+		if (current != null && now - current.deadline >= 0 && task.compareAndSet(current, null)) {
+			runner.execute(current.runnable);
+		}
+	}
+
+	/**
+	 * A pending task, with its deadline.
+	 */
+	private static final class Task {
+		/**
+		 * The task.
+		 */
+		private final Runnable runnable;
+
+		/**
+		 * Deadline, in nanoseconds (see {@link System#nanoTime()}).
+		 */
+		private final long deadline;
+
+		private Task(Runnable runnable, long deadline) {
+			this.runnable = runnable;
+			this.deadline = deadline;
+		}
+	}
+
+	/**
+	 * Thread looking for expired tasks of registered schedulers, at a fixed rate.
+	 */
+	static final class Sweeper {
+		/**
+		 * Default delay between two sweeps.
+		 */
+		private static final SchedulerDuration DEFAULT_TICK = millis(100);
+
+		/**
+		 * Counter, used to name the threads running tasks.
+		 */
+		private static final AtomicInteger THREAD_COUNTER = new AtomicInteger(0);
+
+		/**
+		 * Registered schedulers.
+		 */
+		private final Set<SharedScheduler> schedulers;
+
+		/**
+		 * Executor running the sweeps.
+		 */
+		private final ScheduledThreadPoolExecutor timer;
+
+		/**
+		 * Executor running expired tasks.
+		 */
+		private final ExecutorService runner;
+
+		/**
+		 * Create sweeper.
+		 *
+		 * @param tick Delay between two sweeps.
+		 */
+		Sweeper(SchedulerDuration tick) {
+			this.schedulers = ConcurrentHashMap.newKeySet();
+
+			this.timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+				Thread thread = new Thread(runnable, "exiftool-scheduler");
+				thread.setDaemon(true);
+				return thread;
+			});
+
+			this.runner = Executors.newCachedThreadPool(runnable -> {
+				Thread thread = new Thread(runnable, "exiftool-scheduler-task-" + THREAD_COUNTER.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+
+			this.timer.scheduleWithFixedDelay(this::sweep, tick.getDelay(), tick.getDelay(), tick.getTimeUnit());
+		}
+
+		/**
+		 * Get the sweeper shared by all schedulers, created when it is first used.
+		 *
+		 * @return The sweeper.
+		 */
+		static Sweeper shared() {
+			return Holder.INSTANCE;
+		}
+
+		void register(SharedScheduler scheduler) {
+			schedulers.add(scheduler);
+		}
+
+		void unregister(SharedScheduler scheduler) {
+			schedulers.remove(scheduler);
+		}
+
+		/**
+		 * Stop sweeps and pending tasks.
+		 */
+		void shutdown() {
+			timer.shutdownNow();
+			runner.shutdownNow();
+		}
+
+		private void sweep() {
+			long now = System.nanoTime();
+			for (SharedScheduler scheduler : schedulers) {
+				try {
+					scheduler.sweep(now, runner);
+				}
+				catch (RuntimeException ex) {
+					// Should not stop next sweeps.
+					log.warn(ex.getMessage(), ex);
+				}
+			}
+		}
+
+		/**
+		 * Lazy holder of the shared sweeper.
+		 */
+		private static final class Holder {
+			private static final Sweeper INSTANCE = new Sweeper(DEFAULT_TICK);
+		}
+	}
+}
@@ -21,6 +21,7 @@ import com.thebuzzmedia.exiftool.Scheduler;
 
 import java.util.Timer;
 import java.util.TimerTask;
+import java.util.concurrent.locks.ReentrantLock;
 
 import static com.thebuzzmedia.exiftool.commons.lang.Objects.firstNonNull;
 import static com.thebuzzmedia.exiftool.commons.lang.PreConditions.isPositive;
@@ -52,6 +53,12 @@ public class TimerScheduler implements Scheduler {
 	 */
 	private final Timer timer;
 
+	/**
+	 * Lock, used instead of {@code synchronized} methods so that virtual threads
+	 * calling the scheduler do not pin their carrier thread.
+	 */
+	private final ReentrantLock lock;
+
 	/**
 	 * Pending task.
 	 * This task should be cancel with {@link #stop()} method before any
@@ -69,27 +76,46 @@ public class TimerScheduler implements Scheduler {
 		this.name = firstNonNull(name, "ExifTool Cleanup Timer");
 		this.delay = isPositive(delay, "Delay must be strictly positive");
 		this.timer = new Timer(this.name, true);
+		this.lock = new ReentrantLock();
 	}
 
 	@Override
-	public synchronized void start(Runnable runnable) {
-		pendingTask = new CleanupTask(runnable);
-		timer.schedule(pendingTask, delay);
+	public void start(Runnable runnable) {
+		lock.lock();
+		try {
+			pendingTask = new CleanupTask(runnable);
+			timer.schedule(pendingTask, delay);
+		}
+		finally {
+			lock.unlock();
+		}
 	}
 
 	@Override
-	public synchronized void stop() {
-		if (pendingTask != null) {
-			pendingTask.cancel();
-			timer.purge();
-			pendingTask = null;
+	public void stop() {
+		lock.lock();
+		try {
+			if (pendingTask != null) {
+				pendingTask.cancel();
+				timer.purge();
+				pendingTask = null;
+			}
+		}
+		finally {
+			lock.unlock();
 		}
 	}
 
 	@Override
-	public synchronized void shutdown() {
-		stop();
-		timer.cancel();
+	public void shutdown() {
+		lock.lock();
+		try {
+			stop();
+			timer.cancel();
+		}
+		finally {
+			lock.unlock();
+		}
 	}
 
 	private static class CleanupTask extends TimerTask {
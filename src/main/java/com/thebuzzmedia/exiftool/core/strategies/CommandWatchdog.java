@@ -0,0 +1,137 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core.strategies;
+
+import com.thebuzzmedia.exiftool.logs.Logger;
+import com.thebuzzmedia.exiftool.logs.LoggerFactory;
+import com.thebuzzmedia.exiftool.process.CommandProcess;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Watchdog killing {@code exiftool} processes that do not complete a command before its deadline.
+ *
+ * <br>
+ *
+ * A single daemon thread is shared by all strategies: each command schedules a task, cancelled
+ * once the command completes.
+ */
+final class CommandWatchdog {
+
+	/**
+	 * Class Logger.
+	 */
+	private static final Logger log = LoggerFactory.getLogger(CommandWatchdog.class);
+
+	/**
+	 * Counter used to name watchdog threads.
+	 */
+	private static final AtomicInteger THREAD_COUNTER = new AtomicInteger(0);
+
+	/**
+	 * Executor running the watchdog tasks.
+	 */
+	private static final ScheduledThreadPoolExecutor executor = createExecutor();
+
+	// Ensure non instantiation.
+	private CommandWatchdog() {
+	}
+
+	/**
+	 * Watch given process: if {@link Watch#cancel()} is not called within {@code timeout} milliseconds,
+	 * the process is killed.
+	 *
+	 * @param process The process.
+	 * @param timeout The timeout, in milliseconds.
+	 * @return The watch, to cancel once the command completes.
+	 */
+	static Watch watch(CommandProcess process, long timeout) {
+		Watch watch = new Watch(process);
+		watch.future = executor.schedule(watch, timeout, TimeUnit.MILLISECONDS);
+		return watch;
+	}
+
+	private static ScheduledThreadPoolExecutor createExecutor() {
+		ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+			Thread thread = new Thread(runnable, "exiftool-watchdog-" + THREAD_COUNTER.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		executor.setRemoveOnCancelPolicy(true);
+		return executor;
+	}
+
+	/**
+	 * Deadline of a command.
+	 */
+	static final class Watch implements Runnable {
+		/**
+		 * The watched process.
+		 */
+		private final CommandProcess process;
+
+		/**
+		 * Flag set once the deadline expired, or once the command completed: the first one wins.
+		 */
+		private final AtomicBoolean done;
+
+		/**
+		 * The scheduled task.
+		 */
+		private volatile ScheduledFuture<?> future;
+
+		private Watch(CommandProcess process) {
+			this.process = process;
+			this.done = new AtomicBoolean(false);
+		}
+
+		@Override
+		public void run() {
+			if (!done.compareAndSet(false, true)) {
+				return;
+			}
+
+			try {
+				process.kill();
+			}
+			catch (Exception ex) {
+				log.warn("Failed to kill exiftool process");
+				log.warn(ex.getMessage(), ex);
+			}
+		}
+
+		/**
+		 * Cancel the deadline, once the command has completed.
+		 *
+		 * @return {@code true} if the deadline expired (i.e process has been killed), {@code false} otherwise.
+		 */
+		boolean cancel() {
+			if (done.compareAndSet(false, true)) {
+				future.cancel(false);
+				return false;
+			}
+
+			return true;
+		}
+	}
+}
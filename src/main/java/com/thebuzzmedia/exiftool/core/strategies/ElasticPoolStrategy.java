@@ -0,0 +1,348 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core.strategies;
+
+import com.thebuzzmedia.exiftool.ExecutionStrategy;
+import com.thebuzzmedia.exiftool.Scheduler;
+import com.thebuzzmedia.exiftool.Version;
+import com.thebuzzmedia.exiftool.exceptions.PoolIOException;
+import com.thebuzzmedia.exiftool.logs.Logger;
+import com.thebuzzmedia.exiftool.logs.LoggerFactory;
+import com.thebuzzmedia.exiftool.process.CommandExecutor;
+import com.thebuzzmedia.exiftool.process.OutputHandler;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static com.thebuzzmedia.exiftool.commons.lang.PreConditions.isPositive;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Implementation of {@link ExecutionStrategy} using a pool of strategies whose
+ * size vary between a minimum and a maximum size.
+ *
+ * <br>
+ *
+ * Each time {@link #execute(CommandExecutor, String, List, OutputHandler)} method is
+ * called, an idle strategy from the pool is picked and returned to the pool once work is finished:
+ *
+ * <ul>
+ *   <li>
+ *     If no strategy is available before the grow threshold, and if the maximum size has not been reached,
+ *     a new strategy is created (i.e a new {@code exiftool} process will be started).
+ *   </li>
+ *   <li>
+ *     Strategies that have not been used for the idle timeout are closed and removed from the pool
+ *     by a task run with the given {@link Scheduler}, until the pool reaches its minimum size.
+ *   </li>
+ * </ul>
+ *
+ * The most recently used strategies are always picked first, so that the least recently used ones
+ * become idle when the load decreases.
+ */
+public class ElasticPoolStrategy implements ExecutionStrategy {
+
+	/**
+	 * Class Logger.
+	 */
+	private static final Logger log = LoggerFactory.getLogger(ElasticPoolStrategy.class);
+
+	/**
+	 * Minimum number of strategies.
+	 */
+	private final int minSize;
+
+	/**
+	 * Maximum number of strategies.
+	 */
+	private final int maxSize;
+
+	/**
+	 * Time to wait for an idle strategy before creating a new one, in milliseconds.
+	 */
+	private final long growThreshold;
+
+	/**
+	 * Time after which an idle strategy is removed from the pool, in milliseconds.
+	 */
+	private final long idleTimeout;
+
+	/**
+	 * Scheduler used to remove idle strategies.
+	 */
+	private final Scheduler scheduler;
+
+	/**
+	 * Factory creating new strategies.
+	 */
+	private final Supplier<? extends ExecutionStrategy> factory;
+
+	/**
+	 * Idle members, the most recently used first.
+	 */
+	private final BlockingDeque<Member> idle;
+
+	/**
+	 * All members of the pool, idle or not.
+	 */
+	private final Set<Member> members;
+
+	/**
+	 * Number of members, including members being created.
+	 */
+	private final AtomicInteger size;
+
+	/**
+	 * Flag set when the task removing idle members has been scheduled.
+	 */
+	private final AtomicBoolean sweeping;
+
+	/**
+	 * Create the pool, with {@code minSize} strategies.
+	 *
+	 * @param minSize Minimum number of strategies.
+	 * @param maxSize Maximum number of strategies.
+	 * @param growThreshold Time to wait for an idle strategy before creating a new one, in milliseconds.
+	 * @param idleTimeout Time after which an idle strategy is removed from the pool, in milliseconds.
+	 * @param scheduler Scheduler used to remove idle strategies.
+	 * @param factory Factory creating new strategies.
+	 * @throws NullPointerException If {@code scheduler} or {@code factory} is {@code null}.
+	 * @throws IllegalArgumentException If a size or delay is not strictly positive, or if {@code maxSize} is less than {@code minSize}.
+	 */
+	public ElasticPoolStrategy(int minSize, int maxSize, long growThreshold, long idleTimeout, Scheduler scheduler, Supplier<? extends ExecutionStrategy> factory) {
+		this.minSize = isPositive(minSize, "Pool minimum size must be strictly positive");
+		this.maxSize = isPositive(maxSize, "Pool maximum size must be strictly positive");
+		this.growThreshold = isPositive(growThreshold, "Pool grow threshold must be strictly positive");
+		this.idleTimeout = isPositive(idleTimeout, "Pool idle timeout must be strictly positive");
+		this.scheduler = requireNonNull(scheduler, "Scheduler should not be null");
+		this.factory = requireNonNull(factory, "Strategy factory should not be null");
+
+		if (maxSize < minSize) {
+			throw new IllegalArgumentException("Pool maximum size must be greater than or equal to minimum size");
+		}
+
+		this.idle = new LinkedBlockingDeque<>();
+		this.members = ConcurrentHashMap.newKeySet();
+		this.size = new AtomicInteger(0);
+		this.sweeping = new AtomicBoolean(false);
+
+		for (int i = 0; i < minSize; i++) {
+			size.incrementAndGet();
+			idle.offerLast(newMember());
+		}
+	}
+
+	@Override
+	public void execute(CommandExecutor executor, String exifTool, List<String> arguments, OutputHandler handler) throws IOException {
+		Member member = null;
+		try {
+			member = acquire();
+			member.strategy.execute(executor, exifTool, arguments, handler);
+		}
+		catch (InterruptedException ex) {
+			log.warn(ex.getMessage());
+			Thread.currentThread().interrupt();
+		}
+		finally {
+			if (member != null) {
+				release(member);
+			}
+		}
+	}
+
+	/**
+	 * Get the current number of strategies in the pool.
+	 *
+	 * @return Pool size.
+	 */
+	public int getSize() {
+		return size.get();
+	}
+
+	/**
+	 * Get the number of idle strategies in the pool.
+	 *
+	 * @return Number of idle strategies.
+	 */
+	public int getIdleSize() {
+		return idle.size();
+	}
+
+	@Override
+	public boolean isRunning() {
+		return idle.size() < size.get();
+	}
+
+	@Override
+	public boolean isSupported(Version version) {
+		for (Member member : members) {
+			if (!member.strategy.isSupported(version)) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	@Override
+	public void close() throws Exception {
+		scheduler.stop();
+		sweeping.set(false);
+		processMembers(member -> member.strategy.close());
+	}
+
+	@Override
+	public void shutdown() throws Exception {
+		try {
+			processMembers(member -> member.strategy.shutdown());
+		}
+		finally {
+			scheduler.shutdown();
+		}
+	}
+
+	private Member acquire() throws InterruptedException {
+		Member member = idle.pollFirst(growThreshold, TimeUnit.MILLISECONDS);
+		if (member != null) {
+			return member;
+		}
+
+		// Try to grow the pool.
+		int current = size.get();
+		while (current < maxSize) {
+			if (size.compareAndSet(current, current + 1)) {
+				log.debug("No idle strategy available after {} ms, growing pool to {} strategies", growThreshold, current + 1);
+				return newMember();
+			}
+
+			current = size.get();
+		}
+
+		return idle.takeFirst();
+	}
+
+	private void release(Member member) {
+		member.lastUsed = System.currentTimeMillis();
+		idle.offerFirst(member);
+
+		if (size.get() > minSize && sweeping.compareAndSet(false, true)) {
+			scheduler.start(this::removeIdleMembers);
+		}
+	}
+
+	private Member newMember() {
+		Member member;
+		try {
+			member = new Member(factory.get());
+		}
+		catch (RuntimeException ex) {
+			size.decrementAndGet();
+			throw ex;
+		}
+
+		members.add(member);
+		return member;
+	}
+
+	/**
+	 * Remove members that have been idle for the idle timeout, and reschedule
+	 * this task if the pool is still larger than its minimum size.
+	 */
+	private void removeIdleMembers() {
+		long now = System.currentTimeMillis();
+
+		while (size.get() > minSize) {
+			Member member = idle.peekLast();
+			if (member == null || now - member.lastUsed < idleTimeout || !idle.removeLastOccurrence(member)) {
+				break;
+			}
+
+			size.decrementAndGet();
+			members.remove(member);
+			log.debug("Removing idle strategy, shrinking pool to {} strategies", size.get());
+
+			try {
+				member.strategy.shutdown();
+			}
+			catch (Exception ex) {
+				log.warn("Failed to shutdown idle strategy");
+				log.warn(ex.getMessage(), ex);
+			}
+		}
+
+		sweeping.set(false);
+		if (size.get() > minSize && sweeping.compareAndSet(false, true)) {
+			scheduler.start(this::removeIdleMembers);
+		}
+	}
+
+	private void processMembers(MemberFunction function) throws Exception {
+		List<Exception> thrownEx = new ArrayList<>();
+		int i = 0;
+		for (Member member : members) {
+			try {
+				log.debug("Closing strategy #{}", i);
+				function.apply(member);
+			}
+			catch (Exception ex) {
+				log.error("Failed to process strategy #{}", i);
+				thrownEx.add(ex);
+			}
+			finally {
+				i++;
+			}
+		}
+
+		if (thrownEx.size() > 0) {
+			throw new PoolIOException("Some strategies in the pool failed to close properly", thrownEx);
+		}
+	}
+
+	private interface MemberFunction {
+		void apply(Member member) throws Exception;
+	}
+
+	/**
+	 * A strategy of the pool.
+	 */
+	private static final class Member {
+		/**
+		 * The strategy.
+		 */
+		private final ExecutionStrategy strategy;
+
+		/**
+		 * Time at which the strategy has been released for the last time.
+		 */
+		private volatile long lastUsed;
+
+		private Member(ExecutionStrategy strategy) {
+			this.strategy = requireNonNull(strategy, "Strategy should not be null");
+			this.lastUsed = System.currentTimeMillis();
+		}
+	}
+}
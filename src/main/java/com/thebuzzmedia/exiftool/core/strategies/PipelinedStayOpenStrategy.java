@@ -0,0 +1,576 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core.strategies;
+
+import com.thebuzzmedia.exiftool.Constants;
+import com.thebuzzmedia.exiftool.ExecutionStrategy;
+import com.thebuzzmedia.exiftool.Scheduler;
+import com.thebuzzmedia.exiftool.Version;
+import com.thebuzzmedia.exiftool.exceptions.ProcessCrashedException;
+import com.thebuzzmedia.exiftool.logs.Logger;
+import com.thebuzzmedia.exiftool.logs.LoggerFactory;
+import com.thebuzzmedia.exiftool.process.BinaryOutputHandler;
+import com.thebuzzmedia.exiftool.process.CommandExecutor;
+import com.thebuzzmedia.exiftool.process.CommandProcess;
+import com.thebuzzmedia.exiftool.process.OutputHandler;
+import com.thebuzzmedia.exiftool.process.command.CommandBuilder;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Execution strategy that use {@code exiftool} with the {@code stay_open} feature, and
+ * that may send several commands to the {@code exiftool} process without waiting for the
+ * previous ones to be fully read.
+ *
+ * <br>
+ *
+ * Each command is terminated by a numbered {@code -executeNNN} argument, so that {@code exiftool}
+ * ends its output with the {@code {readyNNN}} marker: a dedicated thread reads the process output
+ * and dispatch each line to the handler of the pending command. This way, the {@code exiftool}
+ * process does not wait (idle) while the output of the previous command is being parsed.
+ *
+ * <br>
+ *
+ * Since {@code exiftool} execute commands in the order they have been received, pending commands are
+ * stored in a FIFO queue. Output of each command is read separately, so that binary output (see
+ * {@link BinaryOutputHandler}) is never read as text.
+ */
+public class PipelinedStayOpenStrategy implements ExecutionStrategy {
+
+	/**
+	 * Class Logger.
+	 */
+	private static final Logger log = LoggerFactory.getLogger(PipelinedStayOpenStrategy.class);
+
+	/**
+	 * Minimum version of {@code exiftool} supporting numbered {@code -execute} arguments.
+	 */
+	private static final Version V8_64 = new Version("8.64");
+
+	/**
+	 * The last argument, given by {@link com.thebuzzmedia.exiftool.ExifTool}, to execute a command.
+	 */
+	private static final String EXECUTE = "-execute";
+
+	/**
+	 * Pattern of the marker printed by {@code exiftool} at the end of a command: the marker
+	 * is not numbered when it is printed with {@code -echo3} (i.e with quiet binary output).
+	 */
+	private static final Pattern READY_PATTERN = Pattern.compile("\\{ready(\\d*)}");
+
+	/**
+	 * Delay to wait for the reader thread to read remaining output once process has been asked to stop.
+	 */
+	private static final long CLOSE_DELAY_MS = 5000;
+
+	/**
+	 * Counter used to name reader threads.
+	 */
+	private static final AtomicInteger THREAD_COUNTER = new AtomicInteger(0);
+
+	/**
+	 * Scheduler: will be used to perform automatic cleanup.
+	 */
+	private final Scheduler scheduler;
+
+	/**
+	 * Lock, used instead of {@code synchronized} blocks: a virtual thread blocked (on I/O or on this lock)
+	 * while holding a monitor would pin its carrier thread.
+	 */
+	private final ReentrantLock lock;
+
+	/**
+	 * Pipeline opened when the first execution is called.
+	 * This pipeline will remain open until a call to {@link #close} is made.
+	 */
+	private Pipeline pipeline;
+
+	/**
+	 * Identifier of the next command.
+	 */
+	private int nextId;
+
+	/**
+	 * Create strategy.
+	 * Scheduler provided in parameter will be used to clean resources (exiftool process).
+	 *
+	 * @param scheduler Delay between automatic cleanup.
+	 */
+	public PipelinedStayOpenStrategy(Scheduler scheduler) {
+		this.scheduler = requireNonNull(scheduler, "Scheduler should not be null");
+		this.nextId = 1;
+		this.lock = new ReentrantLock();
+	}
+
+	@Override
+	public void execute(CommandExecutor executor, String exifTool, List<String> arguments, OutputHandler handler) throws IOException {
+		log.debug("Using ExifTool in pipelined daemon mode (-stay_open True)...");
+
+		final PendingCommand command;
+
+		// Only writing the command is made while holding the lock, reading the output will be made
+		// by the pipeline thread.
+		lock.lock();
+		try {
+			if (pipeline == null || pipeline.isClosed()) {
+				log.debug("Start exiftool process");
+				CommandProcess process = executor.start(CommandBuilder.builder(exifTool, 6)
+						.addArgument("-stay_open", "True")
+						.addArgument("-sep", Constants.SEPARATOR)
+						.addArgument("-@")
+						.addArgument("-")
+						.build());
+
+				pipeline = new Pipeline(process);
+				pipeline.start();
+			}
+
+			// Always reset the cleanup task.
+			scheduler.stop();
+			scheduler.start(this::safeClose);
+
+			command = new PendingCommand(nextId(), handler);
+			pipeline.write(command, toCommand(arguments, command.id));
+		}
+		finally {
+			lock.unlock();
+		}
+
+		command.await();
+	}
+
+	@Override
+	public boolean isRunning() {
+		lock.lock();
+		try {
+			return pipeline != null && !pipeline.isClosed();
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public boolean isSupported(Version version) {
+		return V8_64.compareTo(version) <= 0;
+	}
+
+	@Override
+	public void close() throws Exception {
+		lock.lock();
+		try {
+			if (pipeline != null) {
+				closePipeline();
+			}
+
+			try {
+				scheduler.stop();
+			}
+			catch (Exception ex) {
+				// Should not fail everything.
+				log.warn("Cleanup task failed to stop");
+				log.warn(ex.getMessage(), ex);
+			}
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public void shutdown() throws Exception {
+		lock.lock();
+		try {
+			close();
+
+			try {
+				scheduler.shutdown();
+			}
+			catch (Exception ex) {
+				// Should not fail everything.
+				log.warn("Cleanup task failed to shutdown");
+				log.warn(ex.getMessage(), ex);
+			}
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	private int nextId() {
+		int id = nextId;
+		nextId = id == Integer.MAX_VALUE ? 1 : id + 1;
+		return id;
+	}
+
+	/**
+	 * Close the pipeline: pending commands are still read before
+	 * the process is effectively closed.
+	 * Must be called while holding {@link #lock}.
+	 *
+	 * @throws Exception If an error occurs during the close operation.
+	 */
+	private void closePipeline() throws Exception {
+		try {
+			log.debug("Attempting to close ExifTool daemon process, issuing '-stay_open\\nFalse\\n' command...");
+			pipeline.close();
+			log.debug("ExifTool daemon process successfully closed");
+		}
+		catch (Exception ex) {
+			log.warn("ExifTool daemon failed to stop");
+			log.warn(ex.getMessage(), ex);
+			throw ex;
+		}
+		finally {
+			pipeline = null;
+		}
+	}
+
+	/**
+	 * Close the pipeline, used by the cleanup task: if some commands are still
+	 * pending, the cleanup task is re-scheduled.
+	 */
+	private void safeClose() {
+		lock.lock();
+		try {
+			if (pipeline != null && pipeline.hasPendingCommands()) {
+				log.debug("Some commands are still pending, re-schedule cleanup task");
+				scheduler.start(this::safeClose);
+				return;
+			}
+
+			try {
+				close();
+			}
+			catch (Exception ex) {
+				log.error(ex.getMessage(), ex);
+			}
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	private static List<String> toCommand(List<String> arguments, int id) {
+		List<String> newArgs = StayOpenArguments.toInputs(arguments, 1);
+
+		// Replace last "-execute" argument with a numbered one.
+		int last = arguments.size() - 1;
+		if (last >= 0 && EXECUTE.equals(arguments.get(last))) {
+			newArgs.set(newArgs.size() - 1, EXECUTE + id + Constants.BR);
+		}
+		else {
+			newArgs.add(EXECUTE + id + Constants.BR);
+		}
+
+		return newArgs;
+	}
+
+	/**
+	 * A command written to {@code exiftool} process, that is waiting for its
+	 * output to be read.
+	 */
+	private static final class PendingCommand {
+		/**
+		 * Command identifier, given with the {@code -execute} argument.
+		 */
+		private final int id;
+
+		/**
+		 * The command output handler.
+		 */
+		private final OutputHandler handler;
+
+		/**
+		 * Latch released once command has been fully read (or has failed).
+		 */
+		private final CountDownLatch done;
+
+		/**
+		 * Flag set once handler returned {@code false}: next lines are skipped.
+		 */
+		private boolean stopped;
+
+		/**
+		 * Error that occurred while reading the command output, if any.
+		 */
+		private volatile Exception error;
+
+		private PendingCommand(int id, OutputHandler handler) {
+			this.id = id;
+			this.handler = requireNonNull(handler, "Handler should not be null");
+			this.done = new CountDownLatch(1);
+			this.stopped = false;
+		}
+
+		private void readLine(String line) {
+			if (stopped) {
+				return;
+			}
+
+			try {
+				stopped = !handler.readLine(line);
+			}
+			catch (RuntimeException ex) {
+				log.error(ex.getMessage(), ex);
+				stopped = true;
+				error = ex;
+			}
+		}
+
+		private void complete() {
+			// Keep the same protocol as with the non-pipelined strategy.
+			readLine("{ready}");
+			done.countDown();
+		}
+
+		private void fail(IOException ex) {
+			if (error == null) {
+				error = ex;
+			}
+
+			done.countDown();
+		}
+
+		private void await() throws IOException {
+			try {
+				done.await();
+			}
+			catch (InterruptedException ex) {
+				log.warn(ex.getMessage());
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Interrupted while waiting for exiftool output");
+			}
+
+			Exception ex = error;
+			if (ex instanceof IOException) {
+				throw (IOException) ex;
+			}
+
+			if (ex instanceof RuntimeException) {
+				throw (RuntimeException) ex;
+			}
+		}
+	}
+
+	/**
+	 * An {@code exiftool} process, with the thread reading its output.
+	 */
+	private static final class Pipeline implements Runnable, OutputHandler {
+		/**
+		 * The process.
+		 */
+		private final CommandProcess process;
+
+		/**
+		 * Commands written to the process, in the same order.
+		 */
+		private final Queue<PendingCommand> pending;
+
+		/**
+		 * Number of commands (or stop request) written to the process, and whose
+		 * output has not been read yet.
+		 */
+		private final Semaphore written;
+
+		/**
+		 * The thread reading process output.
+		 */
+		private final Thread thread;
+
+		/**
+		 * Flag set once the end of the output has been reached.
+		 */
+		private volatile boolean eof;
+
+		private Pipeline(CommandProcess process) {
+			this.process = process;
+			this.pending = new ConcurrentLinkedQueue<>();
+			this.written = new Semaphore(0);
+			this.thread = new Thread(this, "exiftool-pipeline-" + THREAD_COUNTER.incrementAndGet());
+			this.thread.setDaemon(true);
+			this.eof = false;
+		}
+
+		private void start() {
+			thread.start();
+		}
+
+		private boolean isClosed() {
+			return eof || process.isClosed();
+		}
+
+		private boolean hasPendingCommands() {
+			return !pending.isEmpty();
+		}
+
+		private void write(PendingCommand command, List<String> args) throws IOException {
+			// Command must be registered before it is written: output may be read immediately.
+			pending.add(command);
+
+			try {
+				process.write(args);
+				process.flush();
+			}
+			catch (IOException ex) {
+				log.error(ex.getMessage(), ex);
+				pending.remove(command);
+				throw ex;
+			}
+
+			written.release();
+		}
+
+		private void close() throws Exception {
+			try {
+				process.write("-stay_open\nFalse\n");
+				process.flush();
+				written.release();
+
+				// Let the reader thread read output of remaining commands.
+				thread.join(CLOSE_DELAY_MS);
+			}
+			catch (InterruptedException ex) {
+				log.warn(ex.getMessage());
+				Thread.currentThread().interrupt();
+			}
+			finally {
+				try {
+					process.close();
+				}
+				finally {
+					failPendingCommands(new IOException("ExifTool process has been closed"));
+				}
+			}
+		}
+
+		@Override
+		public void run() {
+			try {
+				while (!eof && !process.isClosed()) {
+					// Wait for a command to be written, to know how its output must be read.
+					written.acquire();
+
+					PendingCommand command = pending.peek();
+					if (command != null && command.handler instanceof BinaryOutputHandler) {
+						process.read(new BinaryReader((BinaryOutputHandler) command.handler));
+					}
+					else {
+						process.read(this);
+					}
+				}
+			}
+			catch (InterruptedException ex) {
+				log.warn(ex.getMessage());
+				Thread.currentThread().interrupt();
+			}
+			catch (IOException ex) {
+				failPendingCommands(ex);
+			}
+			catch (RuntimeException ex) {
+				failPendingCommands(new IOException(ex));
+			}
+			finally {
+				eof = true;
+				failPendingCommands(new ProcessCrashedException("End of exiftool output has been reached"));
+			}
+		}
+
+		@Override
+		public boolean readLine(String line) {
+			if (line == null) {
+				eof = true;
+				return false;
+			}
+
+			Matcher matcher = READY_PATTERN.matcher(line);
+			if (matcher.matches()) {
+				PendingCommand command = pending.poll();
+				if (command == null) {
+					log.warn("Unexpected exiftool marker: {}", line);
+				}
+				else {
+					String id = matcher.group(1);
+					if (!id.isEmpty() && command.id != Integer.parseInt(id)) {
+						log.warn("Unexpected exiftool marker {} for command #{}", line, command.id);
+					}
+
+					command.complete();
+				}
+
+				// Returns false, so that output of each command is read separately.
+				return false;
+			}
+
+			PendingCommand command = pending.peek();
+			if (command == null) {
+				log.warn("Skipped line: {}", line);
+			}
+			else {
+				command.readLine(line);
+			}
+
+			return true;
+		}
+
+		private void failPendingCommands(IOException ex) {
+			PendingCommand command;
+			while ((command = pending.poll()) != null) {
+				command.fail(ex);
+			}
+		}
+
+		/**
+		 * Read binary output of the head command: raw bytes are copied to the command
+		 * stream, and the marker is then dispatched as any other line.
+		 */
+		private final class BinaryReader implements BinaryOutputHandler {
+			/**
+			 * The command output handler.
+			 */
+			private final BinaryOutputHandler handler;
+
+			private BinaryReader(BinaryOutputHandler handler) {
+				this.handler = handler;
+			}
+
+			@Override
+			public OutputStream getOutputStream() {
+				return handler.getOutputStream();
+			}
+
+			@Override
+			public boolean readLine(String line) {
+				return Pipeline.this.readLine(line);
+			}
+		}
+	}
+}
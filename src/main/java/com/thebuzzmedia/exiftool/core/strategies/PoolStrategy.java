@@ -18,6 +18,7 @@
 package com.thebuzzmedia.exiftool.core.strategies;
 
 import com.thebuzzmedia.exiftool.ExecutionStrategy;
+import com.thebuzzmedia.exiftool.ExifToolMetrics;
 import com.thebuzzmedia.exiftool.Version;
 import com.thebuzzmedia.exiftool.exceptions.PoolIOException;
 import com.thebuzzmedia.exiftool.logs.Logger;
@@ -33,6 +34,8 @@ import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingDeque;
 
 import static com.thebuzzmedia.exiftool.commons.lang.PreConditions.notEmpty;
+import static com.thebuzzmedia.exiftool.core.metrics.NoOpMetrics.noOpMetrics;
+import static java.util.Objects.requireNonNull;
 
 /**
  * Implementation of {@link ExecutionStrategy} using a pool of
@@ -62,6 +65,11 @@ public class PoolStrategy implements ExecutionStrategy {
 	 */
 	private final BlockingQueue<ExecutionStrategy> pool;
 
+	/**
+	 * Metrics, notified of the time spent waiting for an available strategy.
+	 */
+	private final ExifToolMetrics metrics;
+
 	/**
 	 * Create the pool.
 	 *
@@ -70,17 +78,33 @@ public class PoolStrategy implements ExecutionStrategy {
 	 * @throws IllegalArgumentException If {@code strategies} is empty.
 	 */
 	public PoolStrategy(Collection<ExecutionStrategy> strategies) {
+		this(strategies, noOpMetrics());
+	}
+
+	/**
+	 * Create the pool.
+	 *
+	 * @param strategies Internal strategies.
+	 * @param metrics Metrics.
+	 * @throws NullPointerException If {@code strategies} or {@code metrics} is {@code null}.
+	 * @throws IllegalArgumentException If {@code strategies} is empty.
+	 */
+	public PoolStrategy(Collection<ExecutionStrategy> strategies, ExifToolMetrics metrics) {
 		notEmpty(strategies, "Pool must not be empty");
 
 		this.poolSize = strategies.size();
 		this.pool = new LinkedBlockingDeque<>(strategies);
+		this.metrics = requireNonNull(metrics, "Metrics must not be null");
 	}
 
 	@Override
 	public void execute(CommandExecutor executor, String exifTool, List<String> arguments, OutputHandler handler) throws IOException {
 		ExecutionStrategy strategy = null;
 		try {
+			long start = System.nanoTime();
 			strategy = this.pool.take();
+			metrics.recordQueueWait(System.nanoTime() - start);
+
 			strategy.execute(executor, exifTool, arguments, handler);
 		}
 		catch (InterruptedException ex) {
@@ -89,11 +113,59 @@ public class PoolStrategy implements ExecutionStrategy {
 		}
 		finally {
 			if (strategy != null) {
-				this.pool.offer(strategy);
+				release(strategy);
 			}
 		}
 	}
 
+	/**
+	 * Get an idle strategy, without waiting: strategy must be given back to the pool
+	 * with {@link #release(ExecutionStrategy)}.
+	 *
+	 * @return Idle strategy, {@code null} if all strategies are busy.
+	 */
+	ExecutionStrategy poll() {
+		return pool.poll();
+	}
+
+	/**
+	 * Get an idle strategy, waiting for one if all strategies are busy: strategy must be
+	 * given back to the pool with {@link #release(ExecutionStrategy)}.
+	 *
+	 * @return Idle strategy.
+	 * @throws InterruptedException If current thread is interrupted while waiting.
+	 */
+	ExecutionStrategy take() throws InterruptedException {
+		return pool.take();
+	}
+
+	/**
+	 * Give back a strategy returned by {@link #poll()} or {@link #take()}.
+	 *
+	 * @param strategy Strategy.
+	 */
+	void release(ExecutionStrategy strategy) {
+		pool.offer(strategy);
+	}
+
+	/**
+	 * Get the number of idle strategies.
+	 *
+	 * @return Number of idle strategies.
+	 */
+	int idle() {
+		return pool.size();
+	}
+
+	/**
+	 * Get {@link #poolSize}
+	 *
+	 * @return {@link #poolSize}
+	 */
+	int size() {
+		return poolSize;
+	}
+
 	@Override
 	public boolean isRunning() {
 		return pool.size() < poolSize;
@@ -0,0 +1,188 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core.strategies;
+
+import com.thebuzzmedia.exiftool.commons.lang.ToStringBuilder;
+import com.thebuzzmedia.exiftool.process.CommandProcess;
+
+/**
+ * Policy used to recycle a {@code stay_open} process, i.e to replace it by a fresh process: long-lived
+ * {@code exiftool} processes grow in memory, since modules and data are cached across commands, and the
+ * cleanup task never closes a process that is always busy.
+ *
+ * <br>
+ *
+ * A process is recycled once any of these limits is reached:
+ * <ul>
+ *   <li>Maximum number of commands executed by the process.</li>
+ *   <li>Maximum age of the process, in milliseconds.</li>
+ *   <li>Maximum resident set size of the process, in bytes (see {@link CommandProcess#getResidentMemory()}).</li>
+ * </ul>
+ *
+ * A limit equal to zero (or negative) is disabled. Reading the resident set size of a process is not free (it reads
+ * {@code /proc/<pid>/status}), so it is only sampled every {@link #getMemoryCheckInterval()} commands.
+ *
+ * <br>
+ *
+ * This class is immutable and thread-safe.
+ */
+public final class RecyclePolicy {
+
+	/**
+	 * Policy that never recycles processes.
+	 */
+	private static final RecyclePolicy NO_RECYCLE = new RecyclePolicy(0, 0, 0);
+
+	/**
+	 * Default number of commands between two samples of the resident set size.
+	 */
+	private static final long DEFAULT_MEMORY_CHECK_INTERVAL = 32;
+
+	/**
+	 * Maximum number of commands executed by a process.
+	 */
+	private final long maxRequests;
+
+	/**
+	 * Maximum age of a process, in milliseconds.
+	 */
+	private final long maxAge;
+
+	/**
+	 * Maximum resident set size of a process, in bytes.
+	 */
+	private final long maxResidentMemory;
+
+	/**
+	 * Number of commands between two samples of the resident set size.
+	 */
+	private final long memoryCheckInterval;
+
+	/**
+	 * Create policy, resident set size being sampled every 32 commands.
+	 *
+	 * @param maxRequests Maximum number of commands executed by a process (zero to disable).
+	 * @param maxAge Maximum age of a process, in milliseconds (zero to disable).
+	 * @param maxResidentMemory Maximum resident set size of a process, in bytes (zero to disable).
+	 */
+	public RecyclePolicy(long maxRequests, long maxAge, long maxResidentMemory) {
+		this(maxRequests, maxAge, maxResidentMemory, DEFAULT_MEMORY_CHECK_INTERVAL);
+	}
+
+	/**
+	 * Create policy.
+	 *
+	 * @param maxRequests Maximum number of commands executed by a process (zero to disable).
+	 * @param maxAge Maximum age of a process, in milliseconds (zero to disable).
+	 * @param maxResidentMemory Maximum resident set size of a process, in bytes (zero to disable).
+	 * @param memoryCheckInterval Number of commands between two samples of the resident set size (at least one).
+	 */
+	public RecyclePolicy(long maxRequests, long maxAge, long maxResidentMemory, long memoryCheckInterval) {
+		this.maxRequests = Math.max(maxRequests, 0);
+		this.maxAge = Math.max(maxAge, 0);
+		this.maxResidentMemory = Math.max(maxResidentMemory, 0);
+		this.memoryCheckInterval = Math.max(memoryCheckInterval, 1);
+	}
+
+	/**
+	 * Get policy that never recycles processes.
+	 *
+	 * @return The policy.
+	 */
+	public static RecyclePolicy noRecycle() {
+		return NO_RECYCLE;
+	}
+
+	/**
+	 * Get {@link #maxRequests}
+	 *
+	 * @return {@link #maxRequests}
+	 */
+	public long getMaxRequests() {
+		return maxRequests;
+	}
+
+	/**
+	 * Get {@link #maxAge}
+	 *
+	 * @return {@link #maxAge}
+	 */
+	public long getMaxAge() {
+		return maxAge;
+	}
+
+	/**
+	 * Get {@link #maxResidentMemory}
+	 *
+	 * @return {@link #maxResidentMemory}
+	 */
+	public long getMaxResidentMemory() {
+		return maxResidentMemory;
+	}
+
+	/**
+	 * Get {@link #memoryCheckInterval}
+	 *
+	 * @return {@link #memoryCheckInterval}
+	 */
+	public long getMemoryCheckInterval() {
+		return memoryCheckInterval;
+	}
+
+	/**
+	 * Check if at least one limit is enabled.
+	 *
+	 * @return {@code true} if processes may be recycled, {@code false} otherwise.
+	 */
+	public boolean isEnabled() {
+		return maxRequests > 0 || maxAge > 0 || maxResidentMemory > 0;
+	}
+
+	/**
+	 * Check if given process should be recycled.
+	 * Resident set size is only read if this limit is enabled, once every {@link #memoryCheckInterval} commands.
+	 *
+	 * @param process The process.
+	 * @param requests Number of commands executed by the process.
+	 * @param age Age of the process, in milliseconds.
+	 * @return {@code true} if process reached one of the limits, {@code false} otherwise.
+	 */
+	public boolean shouldRecycle(CommandProcess process, long requests, long age) {
+		if (maxRequests > 0 && requests >= maxRequests) {
+			return true;
+		}
+
+		if (maxAge > 0 && age >= maxAge) {
+			return true;
+		}
+
+		return maxResidentMemory > 0
+				&& requests % memoryCheckInterval == 0
+				&& process.getResidentMemory() >= maxResidentMemory;
+	}
+
+	@Override
+	public String toString() {
+		return ToStringBuilder.create(getClass())
+				.append("maxRequests", maxRequests)
+				.append("maxAge", maxAge)
+				.append("maxResidentMemory", maxResidentMemory)
+				.append("memoryCheckInterval", memoryCheckInterval)
+				.build();
+	}
+}
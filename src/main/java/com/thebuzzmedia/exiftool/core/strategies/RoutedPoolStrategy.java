@@ -0,0 +1,200 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core.strategies;
+
+import com.thebuzzmedia.exiftool.ExecutionStrategy;
+import com.thebuzzmedia.exiftool.ExifToolMetrics;
+import com.thebuzzmedia.exiftool.Version;
+import com.thebuzzmedia.exiftool.exceptions.PoolIOException;
+import com.thebuzzmedia.exiftool.logs.Logger;
+import com.thebuzzmedia.exiftool.logs.LoggerFactory;
+import com.thebuzzmedia.exiftool.process.CommandExecutor;
+import com.thebuzzmedia.exiftool.process.OutputHandler;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static com.thebuzzmedia.exiftool.core.metrics.NoOpMetrics.noOpMetrics;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Implementation of {@link ExecutionStrategy} using two pools of strategies: one for commands reading
+ * large files (such as videos), and one for all other commands. Commands are classified with a {@link RoutingPolicy},
+ * so that commands reading small images do not wait behind processes kept busy by large files.
+ *
+ * <br>
+ *
+ * Idle capacity spills over between pools: if all strategies of its pool are busy, a command uses an idle strategy
+ * of the other pool. To keep small images flowing, a command reading a large file never takes the last idle strategy
+ * of the other pool. If no strategy can be used, the command waits for a strategy of its own pool.
+ *
+ * This strategy should be used in a multithreaded environment, when application need to
+ * extract exif data from images and videos in parallel.
+ */
+public class RoutedPoolStrategy implements ExecutionStrategy {
+
+	/**
+	 * Class Logger.
+	 */
+	private static final Logger log = LoggerFactory.getLogger(RoutedPoolStrategy.class);
+
+	/**
+	 * Pool used by commands reading small files.
+	 */
+	private final PoolStrategy pool;
+
+	/**
+	 * Pool used by commands reading large files.
+	 */
+	private final PoolStrategy largePool;
+
+	/**
+	 * Policy used to classify commands.
+	 */
+	private final RoutingPolicy policy;
+
+	/**
+	 * Metrics, notified of the time spent waiting for an available strategy.
+	 */
+	private final ExifToolMetrics metrics;
+
+	/**
+	 * Create the pool.
+	 *
+	 * @param strategies Strategies used by commands reading small files.
+	 * @param largeStrategies Strategies used by commands reading large files.
+	 * @param policy Policy used to classify commands.
+	 * @throws NullPointerException If one parameter is {@code null}.
+	 * @throws IllegalArgumentException If {@code strategies} or {@code largeStrategies} is empty.
+	 */
+	public RoutedPoolStrategy(Collection<ExecutionStrategy> strategies, Collection<ExecutionStrategy> largeStrategies, RoutingPolicy policy) {
+		this(strategies, largeStrategies, policy, noOpMetrics());
+	}
+
+	/**
+	 * Create the pool.
+	 *
+	 * @param strategies Strategies used by commands reading small files.
+	 * @param largeStrategies Strategies used by commands reading large files.
+	 * @param policy Policy used to classify commands.
+	 * @param metrics Metrics.
+	 * @throws NullPointerException If one parameter is {@code null}.
+	 * @throws IllegalArgumentException If {@code strategies} or {@code largeStrategies} is empty.
+	 */
+	public RoutedPoolStrategy(Collection<ExecutionStrategy> strategies, Collection<ExecutionStrategy> largeStrategies, RoutingPolicy policy, ExifToolMetrics metrics) {
+		this.pool = new PoolStrategy(strategies, metrics);
+		this.largePool = new PoolStrategy(largeStrategies, metrics);
+		this.policy = requireNonNull(policy, "Routing policy must not be null");
+		this.metrics = requireNonNull(metrics, "Metrics must not be null");
+	}
+
+	@Override
+	public void execute(CommandExecutor executor, String exifTool, List<String> arguments, OutputHandler handler) throws IOException {
+		boolean large = policy.isLarge(arguments);
+		PoolStrategy own = large ? largePool : pool;
+		PoolStrategy other = large ? pool : largePool;
+
+		PoolStrategy from = own;
+		ExecutionStrategy strategy = null;
+		try {
+			long start = System.nanoTime();
+
+			strategy = own.poll();
+			if (strategy == null && (!large || other.idle() > 1)) {
+				strategy = other.poll();
+				from = other;
+			}
+
+			if (strategy == null) {
+				log.debug("All strategies are busy, wait for an available strategy");
+				from = own;
+				strategy = own.take();
+			}
+
+			metrics.recordQueueWait(System.nanoTime() - start);
+
+			strategy.execute(executor, exifTool, arguments, handler);
+		}
+		catch (InterruptedException ex) {
+			log.warn(ex.getMessage());
+			Thread.currentThread().interrupt();
+		}
+		finally {
+			if (strategy != null) {
+				from.release(strategy);
+			}
+		}
+	}
+
+	@Override
+	public boolean isRunning() {
+		return pool.isRunning() || largePool.isRunning();
+	}
+
+	@Override
+	public boolean isSupported(Version version) {
+		return pool.isSupported(version) && largePool.isSupported(version);
+	}
+
+	@Override
+	public void close() throws Exception {
+		List<Exception> thrownEx = new ArrayList<>(2);
+
+		for (PoolStrategy p : asPools()) {
+			try {
+				p.close();
+			}
+			catch (Exception ex) {
+				thrownEx.add(ex);
+			}
+		}
+
+		checkFailures(thrownEx);
+	}
+
+	@Override
+	public void shutdown() throws Exception {
+		List<Exception> thrownEx = new ArrayList<>(2);
+
+		for (PoolStrategy p : asPools()) {
+			try {
+				p.shutdown();
+			}
+			catch (Exception ex) {
+				thrownEx.add(ex);
+			}
+		}
+
+		checkFailures(thrownEx);
+	}
+
+	private List<PoolStrategy> asPools() {
+		List<PoolStrategy> pools = new ArrayList<>(2);
+		pools.add(pool);
+		pools.add(largePool);
+		return pools;
+	}
+
+	private static void checkFailures(List<Exception> thrownEx) throws PoolIOException {
+		if (thrownEx.size() > 0) {
+			throw new PoolIOException("Some strategies in the pool failed to close properly", thrownEx);
+		}
+	}
+}
@@ -0,0 +1,144 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core.strategies;
+
+import com.thebuzzmedia.exiftool.commons.lang.ToStringBuilder;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import static java.util.Collections.unmodifiableSet;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Policy used by {@link RoutedPoolStrategy} to classify commands: a command reading a large
+ * file (such as a video) may keep an {@code exiftool} process busy for seconds, and should not delay
+ * commands reading small images.
+ *
+ * <br>
+ *
+ * A command is considered "large" if one of the files given to {@code exiftool} is:
+ * <ul>
+ *   <li>At least as large as the size threshold (a threshold equal to zero, or negative, is disabled).</li>
+ *   <li>Or has one of the given extensions (case insensitive).</li>
+ * </ul>
+ *
+ * Files are detected among arguments that are not options (i.e that do not start with {@code -}): an
+ * argument that is not an existing file has a size of zero.
+ *
+ * <br>
+ *
+ * This class is immutable and thread-safe.
+ */
+public final class RoutingPolicy {
+
+	/**
+	 * Size threshold, in bytes.
+	 */
+	private final long sizeThreshold;
+
+	/**
+	 * Extensions, lower case and without leading dot.
+	 */
+	private final Set<String> extensions;
+
+	/**
+	 * Create policy.
+	 *
+	 * @param sizeThreshold Size threshold, in bytes (zero to disable).
+	 * @param extensions Extensions of large files, with or without leading dot (such as {@code mp4} or {@code .mov}).
+	 * @throws NullPointerException If {@code extensions} is {@code null}.
+	 */
+	public RoutingPolicy(long sizeThreshold, Collection<String> extensions) {
+		requireNonNull(extensions, "Extensions should not be null");
+
+		Set<String> normalized = new HashSet<>();
+		for (String extension : extensions) {
+			String ext = extension.startsWith(".") ? extension.substring(1) : extension;
+			normalized.add(ext.toLowerCase(Locale.ROOT));
+		}
+
+		this.sizeThreshold = Math.max(sizeThreshold, 0);
+		this.extensions = unmodifiableSet(normalized);
+	}
+
+	/**
+	 * Get {@link #sizeThreshold}
+	 *
+	 * @return {@link #sizeThreshold}
+	 */
+	public long getSizeThreshold() {
+		return sizeThreshold;
+	}
+
+	/**
+	 * Get {@link #extensions}
+	 *
+	 * @return {@link #extensions}
+	 */
+	public Set<String> getExtensions() {
+		return extensions;
+	}
+
+	/**
+	 * Check if given command reads a large file.
+	 *
+	 * @param arguments Command arguments.
+	 * @return {@code true} if command should be routed to the pool of large files, {@code false} otherwise.
+	 */
+	public boolean isLarge(List<String> arguments) {
+		for (String argument : arguments) {
+			if (argument.isEmpty() || argument.charAt(0) == '-') {
+				continue;
+			}
+
+			if (hasExtension(argument)) {
+				return true;
+			}
+
+			// Size is checked last, since it needs to read file attributes.
+			if (sizeThreshold > 0 && new File(argument).length() >= sizeThreshold) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	private boolean hasExtension(String path) {
+		if (extensions.isEmpty()) {
+			return false;
+		}
+
+		int dot = path.lastIndexOf('.');
+		int separator = Math.max(path.lastIndexOf('/'), path.lastIndexOf(File.separatorChar));
+		return dot > separator && extensions.contains(path.substring(dot + 1).toLowerCase(Locale.ROOT));
+	}
+
+	@Override
+	public String toString() {
+		return ToStringBuilder.create(getClass())
+				.append("sizeThreshold", sizeThreshold)
+				.append("extensions", extensions)
+				.build();
+	}
+}
@@ -0,0 +1,56 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core.strategies;
+
+import com.thebuzzmedia.exiftool.Constants;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Arguments of commands sent to an {@code exiftool} process started with the {@code stay_open} feature.
+ *
+ * <br>
+ *
+ * Arguments are read by {@code exiftool} from its standard input, one argument per line: these arguments are
+ * always written as {@code UTF-8} (see {@link com.thebuzzmedia.exiftool.process.executor.DefaultCommandProcess}). Since
+ * {@code exiftool} 9.79, {@link com.thebuzzmedia.exiftool.ExifTool} starts each command with {@code -charset filename=UTF8}
+ * to let {@code exiftool} decode file names accordingly.
+ */
+final class StayOpenArguments {
+
+	// Ensure non instantiation.
+	private StayOpenArguments() {
+	}
+
+	/**
+	 * Get the inputs to write to {@code exiftool} process to execute a command.
+	 *
+	 * @param arguments Command arguments.
+	 * @param extraCapacity Number of inputs that may be added to the returned list.
+	 * @return The inputs, each one terminated by a line break.
+	 */
+	static List<String> toInputs(List<String> arguments, int extraCapacity) {
+		List<String> inputs = new ArrayList<>(arguments.size() + extraCapacity);
+		for (String arg : arguments) {
+			inputs.add(arg + Constants.BR);
+		}
+
+		return inputs;
+	}
+}
@@ -19,8 +19,13 @@ package com.thebuzzmedia.exiftool.core.strategies;
 
 import com.thebuzzmedia.exiftool.Constants;
 import com.thebuzzmedia.exiftool.ExecutionStrategy;
+import com.thebuzzmedia.exiftool.ExifToolMetrics;
 import com.thebuzzmedia.exiftool.Scheduler;
 import com.thebuzzmedia.exiftool.Version;
+import com.thebuzzmedia.exiftool.core.handlers.StopHandler;
+import com.thebuzzmedia.exiftool.core.strategies.CommandWatchdog.Watch;
+import com.thebuzzmedia.exiftool.exceptions.CommandTimeoutException;
+import com.thebuzzmedia.exiftool.exceptions.ProcessCrashedException;
 import com.thebuzzmedia.exiftool.logs.Logger;
 import com.thebuzzmedia.exiftool.logs.LoggerFactory;
 import com.thebuzzmedia.exiftool.process.CommandExecutor;
@@ -30,10 +35,39 @@ import com.thebuzzmedia.exiftool.process.command.CommandBuilder;
 
 import java.io.IOException;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static com.thebuzzmedia.exiftool.core.metrics.NoOpMetrics.noOpMetrics;
+import static java.util.Objects.requireNonNull;
 
 /**
  * Execution strategy that use {@code exiftool} with the {@code stay_open} feature.
+ *
+ * <br>
+ *
+ * If re-warm is enabled, the process closed by the cleanup task is started again, in the background,
+ * and warmed up with the {@link WarmUpCommand}: next caller does not have to wait for {@code exiftool}
+ * to start. To let an unused process close for good, this is done only if the process has been used by
+ * other commands than the warm-up command.
+ *
+ * <br>
+ *
+ * If a command timeout is set, a command that does not complete in time fails with a {@link CommandTimeoutException}:
+ * the process is killed, and a fresh process is started for the next command.
+ *
+ * <br>
+ *
+ * If the process terminates unexpectedly (for example, if {@code exiftool} crashed while reading a file), this is detected
+ * when its output ends or, between two commands, before the next command is sent: the process is discarded and a fresh
+ * process is started for the next command. A command whose output is incomplete fails with a {@link ProcessCrashedException}.
+ *
+ * <br>
+ *
+ * If a {@link RecyclePolicy} is set, a process reaching one of its limits is recycled: a fresh process is started and
+ * warmed up in the background, while the current process keeps executing commands, and is then swapped with the
+ * current process (that is closed).
  */
 public class StayOpenStrategy implements ExecutionStrategy {
 
@@ -47,6 +81,11 @@ public class StayOpenStrategy implements ExecutionStrategy {
 	 */
 	private static final Version V8_36 = new Version("8.36");
 
+	/**
+	 * Counter, used to name the threads starting fresh processes.
+	 */
+	private static final AtomicInteger THREAD_COUNTER = new AtomicInteger(0);
+
 	/**
 	 * Scheduler: will be used to perform automatic cleanup.
 	 * If automatic cleanup is disabled (if delay is equal or less than zero),
@@ -54,12 +93,69 @@ public class StayOpenStrategy implements ExecutionStrategy {
 	 */
 	private final Scheduler scheduler;
 
+	/**
+	 * Flag to start and warm up process again once it has been closed by the cleanup task.
+	 */
+	private final boolean rewarm;
+
+	/**
+	 * Metrics, notified of process lifecycle and of time spent writing and reading commands.
+	 */
+	private final ExifToolMetrics metrics;
+
+	/**
+	 * Maximum time to wait for the output of a command, in milliseconds: zero (or a negative value)
+	 * means no timeout.
+	 */
+	private final long commandTimeout;
+
+	/**
+	 * Policy used to recycle the process.
+	 */
+	private final RecyclePolicy recyclePolicy;
+
+	/**
+	 * Lock, used instead of {@code synchronized} blocks: a virtual thread blocked (reading the output of a command, or waiting for this lock)
+	 * while holding a monitor would pin its carrier thread.
+	 */
+	private final ReentrantLock lock;
+
+	/**
+	 * Executor given to the last execution, used to warm up process again.
+	 */
+	private CommandExecutor executor;
+
+	/**
+	 * Path given to the last execution, used to warm up process again.
+	 */
+	private String exifTool;
+
+	/**
+	 * Flag set once the process has been used by a command that is not the warm-up command.
+	 */
+	private boolean used;
+
 	/**
 	 * Process opened when the first execution is called.
 	 * This process will remain open until a call to {@link #close} is made.
 	 */
 	private CommandProcess process;
 
+	/**
+	 * Number of commands executed by {@link #process}.
+	 */
+	private long requests;
+
+	/**
+	 * Time when {@link #process} has been started, in nanoseconds (see {@link System#nanoTime()}).
+	 */
+	private long startedAt;
+
+	/**
+	 * Flag set while a fresh process is started to replace {@link #process}.
+	 */
+	private boolean recycling;
+
 	/**
 	 * Create strategy.
 	 * Scheduler provided in parameter will be used to clean resources (exiftool process).
@@ -67,27 +163,99 @@ public class StayOpenStrategy implements ExecutionStrategy {
 	 * @param scheduler Delay between automatic cleanup.
 	 */
 	public StayOpenStrategy(Scheduler scheduler) {
+		this(scheduler, false);
+	}
+
+	/**
+	 * Create strategy.
+	 * Scheduler provided in parameter will be used to clean resources (exiftool process).
+	 *
+	 * @param scheduler Delay between automatic cleanup.
+	 * @param rewarm Start and warm up process again once it has been closed by the cleanup task.
+	 */
+	public StayOpenStrategy(Scheduler scheduler, boolean rewarm) {
+		this(scheduler, rewarm, noOpMetrics());
+	}
+
+	/**
+	 * Create strategy.
+	 * Scheduler provided in parameter will be used to clean resources (exiftool process).
+	 *
+	 * @param scheduler Delay between automatic cleanup.
+	 * @param rewarm Start and warm up process again once it has been closed by the cleanup task.
+	 * @param metrics Metrics.
+	 */
+	public StayOpenStrategy(Scheduler scheduler, boolean rewarm, ExifToolMetrics metrics) {
+		this(scheduler, rewarm, metrics, 0);
+	}
+
+	/**
+	 * Create strategy.
+	 * Scheduler provided in parameter will be used to clean resources (exiftool process).
+	 *
+	 * @param scheduler Delay between automatic cleanup.
+	 * @param rewarm Start and warm up process again once it has been closed by the cleanup task.
+	 * @param metrics Metrics.
+	 * @param commandTimeout Maximum time to wait for the output of a command, in milliseconds (zero means no timeout).
+	 */
+	public StayOpenStrategy(Scheduler scheduler, boolean rewarm, ExifToolMetrics metrics, long commandTimeout) {
+		this(scheduler, rewarm, metrics, commandTimeout, RecyclePolicy.noRecycle());
+	}
+
+	/**
+	 * Create strategy.
+	 * Scheduler provided in parameter will be used to clean resources (exiftool process).
+	 *
+	 * @param scheduler Delay between automatic cleanup.
+	 * @param rewarm Start and warm up process again once it has been closed by the cleanup task.
+	 * @param metrics Metrics.
+	 * @param commandTimeout Maximum time to wait for the output of a command, in milliseconds (zero means no timeout).
+	 * @param recyclePolicy Policy used to recycle the process.
+	 */
+	public StayOpenStrategy(Scheduler scheduler, boolean rewarm, ExifToolMetrics metrics, long commandTimeout, RecyclePolicy recyclePolicy) {
 		this.scheduler = scheduler;
+		this.rewarm = rewarm;
+		this.metrics = requireNonNull(metrics, "Metrics should not be null");
+		this.commandTimeout = commandTimeout;
+		this.recyclePolicy = requireNonNull(recyclePolicy, "Recycle policy should not be null");
+		this.lock = new ReentrantLock();
 	}
 
 	@Override
 	public void execute(CommandExecutor executor, String exifTool, List<String> arguments, OutputHandler handler) throws IOException {
 		log.debug("Using ExifTool in daemon mode (-stay_open True)...");
-		List<String> newArgs = arguments.stream().map(input -> input + Constants.BR).collect(Collectors.toList());
+		List<String> newArgs = StayOpenArguments.toInputs(arguments, 0);
+
+		lock.lock();
+		try {
+			this.executor = executor;
+			this.exifTool = exifTool;
+			this.used = used || !WarmUpCommand.isWarmUp(arguments);
 
-		synchronized (this) {
 			// Start daemon process if it is not already started.
 			// If this is our first time calling getImageMeta with a "stayOpen"
 			// connection, set up the persistent process and run it so it is
 			// ready to receive commands from us.
-			if (process == null || process.isClosed()) {
+			boolean restart = process != null;
+			boolean stopped = process == null || process.isClosed();
+			if (!stopped && !process.isRunning()) {
+				// Process terminated since the previous command: do not send the command to a dead process.
+				crashed();
+				stopped = true;
+			}
+
+			if (stopped) {
 				log.debug("Start exiftool process");
-				process = executor.start(CommandBuilder.builder(exifTool, 6)
-						.addArgument("-stay_open", "True")
-						.addArgument("-sep", Constants.SEPARATOR)
-						.addArgument("-@")
-						.addArgument("-")
-						.build());
+				process = start(executor, exifTool);
+				requests = 0;
+				startedAt = System.nanoTime();
+
+				if (restart) {
+					metrics.processRestarted();
+				}
+				else {
+					metrics.processStarted();
+				}
 			}
 
 			// Always reset the cleanup task.
@@ -95,20 +263,202 @@ public class StayOpenStrategy implements ExecutionStrategy {
 			scheduler.start(this::safeClose);
 
 			try {
+				long start = System.nanoTime();
 				process.write(newArgs);
 				process.flush();
-				process.read(handler);
+
+				long written = System.nanoTime();
+				metrics.recordWrite(written - start);
+
+				read(handler);
+				metrics.recordRead(System.nanoTime() - written);
 			}
 			catch (IOException ex) {
 				log.error(ex.getMessage(), ex);
+				metrics.processFailed();
+
+				if (process != null && !process.isRunning()) {
+					crashed();
+					throw new ProcessCrashedException("ExifTool process terminated while executing command", ex);
+				}
+
 				throw ex;
 			}
+
+			// Output ended before the end of the command: it is incomplete.
+			if (!process.isRunning()) {
+				metrics.processFailed();
+				crashed();
+				throw new ProcessCrashedException("ExifTool process terminated while executing command");
+			}
+
+			requests++;
+			if (recyclePolicy.isEnabled() && !recycling && recyclePolicy.shouldRecycle(process, requests, age())) {
+				recycle(executor, exifTool);
+			}
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	private long age() {
+		return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+	}
+
+	/**
+	 * Start a fresh process in the background, to replace current process.
+	 * Must be called while holding {@link #lock}.
+	 */
+	private void recycle(CommandExecutor executor, String exifTool) {
+		log.debug("Recycle exiftool process after {} commands", requests);
+		recycling = true;
+
+		CommandProcess current = process;
+		Thread thread = new Thread(() -> replace(current, executor, exifTool), "exiftool-recycle-" + THREAD_COUNTER.incrementAndGet());
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Start and warm up a fresh process, then swap it with given process: the fresh process is discarded
+	 * if given process has been closed (or replaced) meanwhile.
+	 *
+	 * @param current Process to replace.
+	 */
+	private void replace(CommandProcess current, CommandExecutor executor, String exifTool) {
+		CommandProcess fresh = null;
+
+		try {
+			fresh = start(executor, exifTool);
+			metrics.processStarted();
+
+			fresh.write(StayOpenArguments.toInputs(WarmUpCommand.arguments(), 0));
+			fresh.flush();
+			fresh.consume(StopHandler.stopHandler());
+		}
+		catch (Exception ex) {
+			log.warn("Failed to start a fresh exiftool process, current process is kept");
+			log.warn(ex.getMessage(), ex);
+			safeStop(fresh);
+			fresh = null;
+		}
+
+		lock.lock();
+		try {
+			recycling = false;
+
+			if (fresh == null) {
+				return;
+			}
+
+			if (process != current) {
+				log.debug("ExifTool process has been closed while a fresh process was started, discard it");
+				safeStop(fresh);
+				return;
+			}
+
+			process = fresh;
+			requests = 0;
+			startedAt = System.nanoTime();
+			metrics.processRecycled();
+			safeStop(current);
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	private void safeStop(CommandProcess process) {
+		if (process == null) {
+			return;
+		}
+
+		try {
+			stop(process);
+		}
+		catch (Exception ex) {
+			log.debug("ExifTool process failed to close: {}", ex.getMessage());
+		}
+	}
+
+	private void read(OutputHandler handler) throws IOException {
+		if (commandTimeout <= 0) {
+			process.consume(handler);
+			return;
+		}
+
+		Watch watch = CommandWatchdog.watch(process, commandTimeout);
+
+		try {
+			process.consume(handler);
+		}
+		catch (IOException ex) {
+			throw watch.cancel() ? timeout() : ex;
+		}
+		catch (RuntimeException ex) {
+			if (watch.cancel()) {
+				discardProcess();
+			}
+
+			throw ex;
+		}
+
+		if (watch.cancel()) {
+			throw timeout();
+		}
+	}
+
+	private CommandTimeoutException timeout() {
+		// Process has been killed: release its resources, next command will start a fresh process.
+		log.warn("ExifTool command did not complete within {} ms", commandTimeout);
+		discardProcess();
+		return new CommandTimeoutException(commandTimeout);
+	}
+
+	private void crashed() {
+		log.warn("ExifTool process terminated unexpectedly, a new process will be started for the next command");
+		metrics.processCrashed();
+		discardProcess();
+	}
+
+	private void discardProcess() {
+		try {
+			process.close();
+		}
+		catch (Exception ex) {
+			log.debug("Killed process failed to close: {}", ex.getMessage());
+		}
+		finally {
+			process = null;
+			metrics.processClosed();
+		}
+	}
+
+	private CommandProcess start(CommandExecutor executor, String exifTool) throws IOException {
+		try {
+			return executor.start(CommandBuilder.builder(exifTool, 6)
+					.addArgument("-stay_open", "True")
+					.addArgument("-sep", Constants.SEPARATOR)
+					.addArgument("-@")
+					.addArgument("-")
+					.build());
+		}
+		catch (IOException ex) {
+			metrics.processFailed();
+			throw ex;
 		}
 	}
 
 	@Override
-	public synchronized boolean isRunning() {
-		return process != null && process.isRunning();
+	public boolean isRunning() {
+		lock.lock();
+		try {
+			return process != null && process.isRunning();
+		}
+		finally {
+			lock.unlock();
+		}
 	}
 
 	@Override
@@ -117,25 +467,38 @@ public class StayOpenStrategy implements ExecutionStrategy {
 	}
 
 	@Override
-	public synchronized void close() throws Exception {
-		if (process != null) {
-			closeProcess();
-		}
+	public void close() throws Exception {
+		lock.lock();
+		try {
+			if (process != null) {
+				closeProcess();
+			}
 
-		closeScheduler();
+			closeScheduler();
+		}
+		finally {
+			lock.unlock();
+		}
 	}
 
 	@Override
-	public synchronized void shutdown() throws Exception {
-		close();
-		shutdownScheduler();
+	public void shutdown() throws Exception {
+		lock.lock();
+		try {
+			close();
+			shutdownScheduler();
+		}
+		finally {
+			lock.unlock();
+		}
 	}
 
 	/**
 	 * Close pending cleanup task and stop scheduler.
 	 * This scheduler may be re-used if necessary.
+	 * Must be called while holding {@link #lock}.
 	 */
-	private synchronized void closeScheduler() {
+	private void closeScheduler() {
 		// Try to stop cleanup task
 		// Note: If task is not stopped, it may be executed later
 
@@ -155,8 +518,9 @@ public class StayOpenStrategy implements ExecutionStrategy {
 	/**
 	 * Close pending cleanup task and stop scheduler.
 	 * This scheduler may be re-used if necessary.
+	 * Must be called while holding {@link #lock}.
 	 */
-	private synchronized void shutdownScheduler() {
+	private void shutdownScheduler() {
 		// Try to stop cleanup task
 		// Note: If task is not stopped, it may be executed later
 
@@ -176,20 +540,17 @@ public class StayOpenStrategy implements ExecutionStrategy {
 	/**
 	 * Close ExifTool process.
 	 * Process may be re-used if necessary.
+	 * Must be called while holding {@link #lock}.
 	 *
 	 * @throws Exception If an error occurs during the close operation.
 	 */
-	private synchronized void closeProcess() throws Exception {
+	private void closeProcess() throws Exception {
 		try {
 			// If ExifTool was used in stayOpen mode but getImageMeta was never
 			// called then the streams were never initialized and there is nothing
 			// to shut down or destroy, otherwise we need to close down all the
 			// resources in use.
-			log.debug("Attempting to close ExifTool daemon process, issuing '-stay_open\\nFalse\\n' command...");
-			process.write("-stay_open\nFalse\n");
-			process.flush();
-			process.close();
-			log.debug("ExifTool daemon process successfully closed");
+			stop(process);
 		}
 		catch (Exception ex) {
 			// Log some warnings.
@@ -205,18 +566,67 @@ public class StayOpenStrategy implements ExecutionStrategy {
 		}
 	}
 
+	/**
+	 * Stop given process: {@code exiftool} is asked to terminate, and process is closed.
+	 *
+	 * @param process The process.
+	 * @throws Exception If an error occurs during the close operation.
+	 */
+	private void stop(CommandProcess process) throws Exception {
+		log.debug("Attempting to close ExifTool daemon process, issuing '-stay_open\\nFalse\\n' command...");
+		process.write("-stay_open\nFalse\n");
+		process.flush();
+		process.close();
+		metrics.processClosed();
+		log.debug("ExifTool daemon process successfully closed");
+	}
+
 	/**
 	 * This is exactly the same operation as {@link #close} but catch
 	 * all exceptions and log stacktrace.
 	 * This method should be used internally to perform a close operation
 	 * without catching or propagate exceptions.
 	 */
-	private synchronized void safeClose() {
+	private void safeClose() {
+		lock.lock();
 		try {
-			close();
+			boolean restart = rewarm && used;
+
+			try {
+				close();
+			}
+			catch (Exception ex) {
+				log.error(ex.getMessage(), ex);
+			}
+
+			if (restart) {
+				rewarm();
+			}
 		}
-		catch (Exception ex) {
-			log.error(ex.getMessage(), ex);
+		finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Start process again, and run the warm-up command.
+	 */
+	private void rewarm() {
+		lock.lock();
+		try {
+			log.debug("Warm up exiftool process again");
+			used = false;
+
+			try {
+				execute(executor, exifTool, WarmUpCommand.arguments(), StopHandler.stopHandler());
+			}
+			catch (Exception ex) {
+				log.warn("Failed to warm up exiftool process");
+				log.warn(ex.getMessage(), ex);
+			}
+		}
+		finally {
+			lock.unlock();
 		}
 	}
 }
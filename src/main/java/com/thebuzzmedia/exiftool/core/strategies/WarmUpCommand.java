@@ -0,0 +1,115 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core.strategies;
+
+import com.thebuzzmedia.exiftool.logs.Logger;
+import com.thebuzzmedia.exiftool.logs.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.unmodifiableList;
+
+/**
+ * Command used to warm up an {@code exiftool} process: the command reads a tiny image, bundled
+ * with this library, so that {@code exiftool} starts and loads the modules needed to read
+ * common images before the first real command is received.
+ *
+ * <br>
+ *
+ * Since {@code exiftool} needs a file, the bundled image is copied, once, to a temporary file
+ * deleted when the JVM exits.
+ */
+public final class WarmUpCommand {
+
+	/**
+	 * Class Logger.
+	 */
+	private static final Logger log = LoggerFactory.getLogger(WarmUpCommand.class);
+
+	/**
+	 * The bundled image.
+	 */
+	private static final String IMAGE = "/com/thebuzzmedia/exiftool/warmup.jpg";
+
+	/**
+	 * Arguments of the warm-up command, created once.
+	 */
+	private static volatile List<String> arguments;
+
+	// Ensure non instantiation.
+	private WarmUpCommand() {
+	}
+
+	/**
+	 * Get arguments of the warm-up command.
+	 *
+	 * <br>
+	 *
+	 * The same instance is always returned, so that strategies may detect
+	 * warm-up commands (see {@link #isWarmUp(List)}).
+	 *
+	 * @return Arguments.
+	 * @throws IOException If the bundled image cannot be copied to a temporary file.
+	 */
+	public static List<String> arguments() throws IOException {
+		List<String> args = arguments;
+		if (args == null) {
+			synchronized (WarmUpCommand.class) {
+				args = arguments;
+				if (args == null) {
+					args = unmodifiableList(asList("-S", "-n", copyImage().getAbsolutePath(), "-execute"));
+					arguments = args;
+				}
+			}
+		}
+
+		return args;
+	}
+
+	/**
+	 * Check if given arguments are arguments of the warm-up command.
+	 *
+	 * @param args Arguments.
+	 * @return {@code true} if {@code args} has been returned by {@link #arguments()}, {@code false} otherwise.
+	 */
+	public static boolean isWarmUp(List<String> args) {
+		return args != null && args == arguments;
+	}
+
+	private static File copyImage() throws IOException {
+		File file = File.createTempFile("exiftool-warmup", ".jpg");
+		file.deleteOnExit();
+
+		try (InputStream is = WarmUpCommand.class.getResourceAsStream(IMAGE)) {
+			if (is == null) {
+				throw new IOException("Warm-up image " + IMAGE + " cannot be found");
+			}
+
+			Files.copy(is, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+
+		log.debug("Warm-up image copied to: {}", file);
+		return file;
+	}
+}
@@ -0,0 +1,51 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.exceptions;
+
+import java.io.IOException;
+
+/**
+ * Exception thrown when an {@code exiftool} command did not complete before its deadline: the
+ * {@code exiftool} process executing the command has been killed.
+ */
+public class CommandTimeoutException extends IOException {
+
+	/**
+	 * The timeout, in milliseconds.
+	 */
+	private final long timeout;
+
+	/**
+	 * Create exception.
+	 *
+	 * @param timeout The timeout, in milliseconds.
+	 */
+	public CommandTimeoutException(long timeout) {
+		super(String.format("ExifTool command did not complete within %s ms, process has been killed", timeout));
+		this.timeout = timeout;
+	}
+
+	/**
+	 * Get {@link #timeout}
+	 *
+	 * @return {@link #timeout}
+	 */
+	public long getTimeout() {
+		return timeout;
+	}
+}
@@ -0,0 +1,51 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.exceptions;
+
+import java.io.IOException;
+
+/**
+ * Exception thrown when an {@code exiftool} process terminated while executing a command (for
+ * example, when {@code exiftool} crashed while reading a file): output of the command is incomplete.
+ *
+ * <br>
+ *
+ * The process has been discarded, a fresh process is started for the next command: reading
+ * commands may be safely executed again.
+ */
+public class ProcessCrashedException extends IOException {
+
+	/**
+	 * Create exception.
+	 *
+	 * @param message Error message.
+	 */
+	public ProcessCrashedException(String message) {
+		super(message);
+	}
+
+	/**
+	 * Create exception.
+	 *
+	 * @param message Error message.
+	 * @param cause Original error.
+	 */
+	public ProcessCrashedException(String message, Throwable cause) {
+		super(message, cause);
+	}
+}
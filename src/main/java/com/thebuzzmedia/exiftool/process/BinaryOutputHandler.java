@@ -0,0 +1,41 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.process;
+
+import java.io.OutputStream;
+
+/**
+ * Handler that should be used to handle binary command output (such as
+ * images extracted with the {@code -b} option).
+ *
+ * <br>
+ *
+ * Output is not read line by line: raw bytes are copied to the stream returned
+ * by {@link #getOutputStream()}, until the end of the output. Then, {@link #readLine(String)}
+ * is called with the {@code {ready}} marker printed by {@code exiftool} (or {@code null} if the
+ * end of the stream has been reached).
+ */
+public interface BinaryOutputHandler extends OutputHandler {
+
+	/**
+	 * Get the stream where raw output should be copied.
+	 *
+	 * @return The output stream.
+	 */
+	OutputStream getOutputStream();
+}
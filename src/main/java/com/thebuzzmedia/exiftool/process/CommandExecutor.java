@@ -18,6 +18,7 @@
 package com.thebuzzmedia.exiftool.process;
 
 import java.io.IOException;
+import java.io.InputStream;
 
 /**
  * Command Executor.
@@ -46,6 +47,26 @@ public interface CommandExecutor {
 	 */
 	CommandResult execute(Command command, OutputHandler handler) throws IOException;
 
+	/**
+	 * Execute command, with given stream written to the process standard input, and build the result.
+	 * **NOTE:** Execution is synchronous.
+	 *
+	 * <br>
+	 *
+	 * The default implementation throws {@link UnsupportedOperationException}, so that existing
+	 * custom executors remain valid.
+	 *
+	 * @param command Command.
+	 * @param input Stream written to the process standard input, closed once fully written.
+	 * @param handler Custom output handler.
+	 * @return Result of execution.
+	 * @throws java.io.IOException If an error occurred during operation.
+	 * @throws UnsupportedOperationException If executor does not support standard input.
+	 */
+	default CommandResult execute(Command command, InputStream input, OutputHandler handler) throws IOException {
+		throw new UnsupportedOperationException("Executor " + getClass().getName() + " does not support standard input");
+	}
+
 	/**
 	 * Start command line and return associated process.
 	 * This process will be used to:
@@ -56,12 +56,32 @@ public interface CommandProcess extends AutoCloseable {
 	 * Since command process will not be closed, a simple string
 	 * is returned (an exit status cannot be computed).
 	 *
+	 * If handler is an instance of {@link BinaryOutputHandler}, output is not read line by line but
+	 * copied as raw bytes, and an empty string is returned.
+	 *
 	 * @param handler Output handler.
 	 * @return Full output.
 	 * @throws java.io.IOException If an error occurred during operation.
 	 */
 	String read(OutputHandler handler) throws IOException;
 
+	/**
+	 * Read output, as {@link #read(OutputHandler)} does, without keeping the full output: lines
+	 * are only given to the handler.
+	 *
+	 * <br>
+	 *
+	 * Implementations may read {@code name: value} lines of an handler implementing
+	 * {@link com.thebuzzmedia.exiftool.commons.io.PairVisitor} without decoding values it does not accept.
+	 * Default implementation just calls {@link #read(OutputHandler)}.
+	 *
+	 * @param handler Output handler.
+	 * @throws java.io.IOException If an error occurred during operation.
+	 */
+	default void consume(OutputHandler handler) throws IOException {
+		read(handler);
+	}
+
 	/**
 	 * Write input string to the current process.
 	 *
@@ -87,7 +107,8 @@ public interface CommandProcess extends AutoCloseable {
 	void flush() throws IOException;
 
 	/**
-	 * Check if current process is still opened.
+	 * Check if current process is still opened: a process that has not been closed but that
+	 * terminated (or whose output reached the end) is not running.
 	 * If this method returns {@code true}, then {@link #isClosed()} should return {@code false}.
 	 *
 	 * @return {@code true} if process is open, {@code false} otherwise.
@@ -101,4 +122,29 @@ public interface CommandProcess extends AutoCloseable {
 	 * @return {@code true} if process is closed, {@code false} otherwise.
 	 */
 	boolean isClosed();
+
+	/**
+	 * Get the resident set size (i.e the physical memory used) of current process.
+	 * Default implementation returns {@code -1}.
+	 *
+	 * @return Resident set size, in bytes, or {@code -1} if it is not known.
+	 */
+	default long getResidentMemory() {
+		return -1;
+	}
+
+	/**
+	 * Kill current process, without waiting for pending commands: this method may be called
+	 * from another thread, while a read operation is blocked, to interrupt it (blocked read operation
+	 * will fail or will return as if output ended).
+	 *
+	 * <br>
+	 *
+	 * Once killed, process is closed. Default implementation just closes the process.
+	 *
+	 * @throws Exception If an error occurred while killing process.
+	 */
+	default void kill() throws Exception {
+		close();
+	}
 }
@@ -17,6 +17,7 @@
 
 package com.thebuzzmedia.exiftool.process.executor;
 
+import com.thebuzzmedia.exiftool.ExifToolMetrics;
 import com.thebuzzmedia.exiftool.logs.Logger;
 import com.thebuzzmedia.exiftool.logs.LoggerFactory;
 import com.thebuzzmedia.exiftool.process.CommandExecutor;
@@ -44,4 +45,15 @@ public final class CommandExecutors {
 		log.debug("Create new default command withExecutor");
 		return new DefaultCommandExecutor();
 	}
+
+	/**
+	 * Create a fresh new withExecutor, notifying given metrics.
+	 *
+	 * @param metrics Metrics.
+	 * @return Executor.
+	 */
+	public static CommandExecutor newExecutor(ExifToolMetrics metrics) {
+		log.debug("Create new default command withExecutor");
+		return new DefaultCommandExecutor(metrics);
+	}
 }
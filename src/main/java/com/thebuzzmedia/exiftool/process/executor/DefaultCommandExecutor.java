@@ -17,8 +17,11 @@
 
 package com.thebuzzmedia.exiftool.process.executor;
 
+import com.thebuzzmedia.exiftool.ExifToolMetrics;
+import com.thebuzzmedia.exiftool.commons.io.ByteLineReader;
 import com.thebuzzmedia.exiftool.logs.Logger;
 import com.thebuzzmedia.exiftool.logs.LoggerFactory;
+import com.thebuzzmedia.exiftool.process.BinaryOutputHandler;
 import com.thebuzzmedia.exiftool.process.Command;
 import com.thebuzzmedia.exiftool.process.CommandExecutor;
 import com.thebuzzmedia.exiftool.process.CommandProcess;
@@ -26,10 +29,14 @@ import com.thebuzzmedia.exiftool.process.CommandResult;
 import com.thebuzzmedia.exiftool.process.OutputHandler;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.thebuzzmedia.exiftool.commons.io.IOs.closeQuietly;
-import static com.thebuzzmedia.exiftool.commons.io.IOs.readInputStream;
+import static com.thebuzzmedia.exiftool.commons.io.IOs.readLines;
+import static com.thebuzzmedia.exiftool.core.metrics.NoOpMetrics.noOpMetrics;
 import static java.util.Objects.requireNonNull;
 
 /**
@@ -42,34 +49,80 @@ public class DefaultCommandExecutor implements CommandExecutor {
 	 */
 	private static final Logger log = LoggerFactory.getLogger(DefaultCommandExecutor.class);
 
+	/**
+	 * Size of the buffer used to write standard input of a process.
+	 */
+	private static final int COPY_BUFFER_SIZE = 8192;
+
+	/**
+	 * Counter used to name threads writing standard input.
+	 */
+	private static final AtomicInteger THREAD_COUNTER = new AtomicInteger(0);
+
+	/**
+	 * Metrics, given to started processes.
+	 */
+	private final ExifToolMetrics metrics;
+
 	/**
 	 * Create default executor.
 	 */
 	public DefaultCommandExecutor() {
+		this(noOpMetrics());
+	}
+
+	/**
+	 * Create default executor.
+	 *
+	 * @param metrics Metrics, notified of the output read from processes started with {@link #start(Command)}.
+	 */
+	public DefaultCommandExecutor(ExifToolMetrics metrics) {
+		this.metrics = requireNonNull(metrics, "Metrics should not be null");
 	}
 
 	@Override
 	public CommandResult execute(Command command) throws IOException {
-		return readProcessOutput(command, null);
+		return readProcessOutput(command, null, null);
 	}
 
 	@Override
 	public CommandResult execute(Command command, OutputHandler handler) throws IOException {
-		return readProcessOutput(command, requireNonNull(handler, "Handler should not be null"));
+		return readProcessOutput(command, null, requireNonNull(handler, "Handler should not be null"));
+	}
+
+	@Override
+	public CommandResult execute(Command command, InputStream input, OutputHandler handler) throws IOException {
+		requireNonNull(input, "Input should not be null");
+		requireNonNull(handler, "Handler should not be null");
+		return readProcessOutput(command, input, handler);
 	}
 
 	@Override
 	public CommandProcess start(Command command) throws IOException {
 		final Process proc = createProcess(command);
-		return new DefaultCommandProcess(proc.getInputStream(), proc.getOutputStream(), proc.getErrorStream());
+		return new DefaultCommandProcess(proc, metrics);
 	}
 
-	private CommandResult readProcessOutput(Command cmd, OutputHandler h) throws IOException {
+	private CommandResult readProcessOutput(Command cmd, InputStream input, OutputHandler h) throws IOException {
 		final Process proc = createProcess(cmd);
 		final ResultHandler h1 = new ResultHandler();
 		final OutputHandler handler = h == null ? h1 : new CompositeHandler(h, h1);
 
-		readInputStream(proc.getInputStream(), handler);
+		// Standard input is written by another thread: process may write its
+		// output before its input has been fully read.
+		final Thread writer = input == null ? null : startWriter(input, proc.getOutputStream());
+
+		ByteLineReader reader = new ByteLineReader(proc.getInputStream());
+		if (h instanceof BinaryOutputHandler) {
+			// Binary output is not read line by line.
+			BinaryOutputHandler binaryHandler = (BinaryOutputHandler) h;
+			binaryHandler.readLine(reader.copyUntilReady(binaryHandler.getOutputStream()));
+		}
+		else {
+			readLines(reader, handler);
+		}
+
+		metrics.recordOutput(reader.getBytesRead(), (int) reader.getLinesRead());
 
 		// Wait for end of process
 		try {
@@ -85,6 +138,28 @@ public class DefaultCommandExecutor implements CommandExecutor {
 			closeQuietly(proc.getInputStream());
 			closeQuietly(proc.getOutputStream());
 			closeQuietly(proc.getErrorStream());
+			joinWriter(writer);
+		}
+	}
+
+	private static Thread startWriter(InputStream input, OutputStream os) {
+		Thread writer = new Thread(new StdinWriter(input, os), "exiftool-stdin-" + THREAD_COUNTER.incrementAndGet());
+		writer.setDaemon(true);
+		writer.start();
+		return writer;
+	}
+
+	private static void joinWriter(Thread writer) {
+		if (writer == null) {
+			return;
+		}
+
+		try {
+			writer.join();
+		}
+		catch (InterruptedException ex) {
+			log.warn(ex.getMessage());
+			Thread.currentThread().interrupt();
 		}
 	}
 
@@ -99,4 +174,46 @@ public class DefaultCommandExecutor implements CommandExecutor {
 			throw ex;
 		}
 	}
+
+	/**
+	 * Copy stream to the standard input of a process, and close it once
+	 * the whole stream has been written.
+	 */
+	private static final class StdinWriter implements Runnable {
+		/**
+		 * Stream to write.
+		 */
+		private final InputStream input;
+
+		/**
+		 * Standard input of the process.
+		 */
+		private final OutputStream os;
+
+		private StdinWriter(InputStream input, OutputStream os) {
+			this.input = input;
+			this.os = os;
+		}
+
+		@Override
+		public void run() {
+			byte[] buffer = new byte[COPY_BUFFER_SIZE];
+
+			try {
+				int n;
+				while ((n = input.read(buffer)) >= 0) {
+					os.write(buffer, 0, n);
+				}
+
+				os.flush();
+			}
+			catch (IOException ex) {
+				// Process may stop reading its input once it has read what it needs.
+				log.debug("Standard input has not been fully written: {}", ex.getMessage());
+			}
+			finally {
+				closeQuietly(os);
+			}
+		}
+	}
 }
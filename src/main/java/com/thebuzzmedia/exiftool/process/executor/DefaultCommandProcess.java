@@ -17,8 +17,13 @@
 
 package com.thebuzzmedia.exiftool.process.executor;
 
+import com.thebuzzmedia.exiftool.ExifToolMetrics;
+import com.thebuzzmedia.exiftool.commons.io.ByteLineReader;
+import com.thebuzzmedia.exiftool.commons.io.PairVisitor;
+import com.thebuzzmedia.exiftool.commons.reflection.ClassUtils.ReflectionException;
 import com.thebuzzmedia.exiftool.logs.Logger;
 import com.thebuzzmedia.exiftool.logs.LoggerFactory;
+import com.thebuzzmedia.exiftool.process.BinaryOutputHandler;
 import com.thebuzzmedia.exiftool.process.CommandProcess;
 import com.thebuzzmedia.exiftool.process.OutputHandler;
 
@@ -26,10 +31,21 @@ import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-
-import static com.thebuzzmedia.exiftool.commons.io.IOs.readInputStream;
+import java.lang.invoke.MethodHandle;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.thebuzzmedia.exiftool.commons.io.IOs.readLines;
+import static com.thebuzzmedia.exiftool.commons.io.IOs.readPairs;
 import static com.thebuzzmedia.exiftool.commons.lang.Objects.firstNonNull;
+import static com.thebuzzmedia.exiftool.commons.reflection.ClassUtils.findMethod;
+import static com.thebuzzmedia.exiftool.commons.reflection.ClassUtils.invoke;
 import static com.thebuzzmedia.exiftool.commons.lang.PreConditions.notEmpty;
+import static com.thebuzzmedia.exiftool.core.metrics.NoOpMetrics.noOpMetrics;
 import static java.util.Objects.requireNonNull;
 
 /**
@@ -43,6 +59,11 @@ import static java.util.Objects.requireNonNull;
  *
  * <br>
  *
+ * Inputs are encoded as {@code UTF-8} (whatever the default charset of the JVM), and the inputs of
+ * a write operation are written at once, using a buffer re-used for each write operation.
+ *
+ * <br>
+ *
  * <strong>Note:</strong> This implementation is not thread safe.
  */
 public class DefaultCommandProcess implements CommandProcess {
@@ -52,12 +73,33 @@ public class DefaultCommandProcess implements CommandProcess {
 	 */
 	private static final Logger log = LoggerFactory.getLogger(DefaultCommandProcess.class);
 
+	/**
+	 * Initial size of the write buffer.
+	 */
+	private static final int DEFAULT_WRITE_BUFFER_SIZE = 1024;
+
+	/**
+	 * The {@code Process#pid()} method, available since Java 9: {@code null} if it is not available.
+	 */
+	private static final MethodHandle PID = findPid();
+
+	/**
+	 * Prefix of the line giving the resident set size in {@code /proc/<pid>/status}.
+	 */
+	private static final String VM_RSS = "VmRSS:";
+
 	/**
 	 * Instance of {@link InputStream}.
 	 * This stream will be used to handle read operation.
 	 */
 	private final InputStream is;
 
+	/**
+	 * Reader of {@link #is}, created once and re-used for each read operation: output
+	 * that has already been buffered (i.e output of a next command) must not be lost.
+	 */
+	private final ByteLineReader reader;
+
 	/**
 	 * Output stream.
 	 * This stream will be used to handle write operation.
@@ -69,10 +111,27 @@ public class DefaultCommandProcess implements CommandProcess {
 	 */
 	private final InputStream err;
 
+	/**
+	 * Buffer used to encode inputs, re-used for each write operation: all inputs given to
+	 * a write operation are written at once.
+	 */
+	private byte[] writeBuffer;
+
+	/**
+	 * Metrics, notified of the output read for each command.
+	 */
+	private final ExifToolMetrics metrics;
+
+	/**
+	 * The underlying process, may be {@code null} if this instance only wraps streams.
+	 */
+	private final Process process;
+
 	/**
 	 * Flag to know if a given process has been closed.
+	 * This flag may be updated by another thread (see {@link #kill()}).
 	 */
-	private boolean close;
+	private volatile boolean close;
 
 	/**
 	 * Create process.
@@ -81,38 +140,80 @@ public class DefaultCommandProcess implements CommandProcess {
 	 * @param err Error stream.
 	 */
 	public DefaultCommandProcess(InputStream is, OutputStream os, InputStream err) {
+		this(is, os, err, noOpMetrics());
+	}
+
+	/**
+	 * Create process.
+	 * @param is Input stream.
+	 * @param os Output stream.
+	 * @param err Error stream.
+	 * @param metrics Metrics.
+	 */
+	public DefaultCommandProcess(InputStream is, OutputStream os, InputStream err, ExifToolMetrics metrics) {
+		this(is, os, err, metrics, null);
+	}
+
+	/**
+	 * Create process, reading and writing the streams of given process.
+	 * @param process Process.
+	 * @param metrics Metrics.
+	 */
+	public DefaultCommandProcess(Process process, ExifToolMetrics metrics) {
+		this(process.getInputStream(), process.getOutputStream(), process.getErrorStream(), metrics, process);
+	}
+
+	private DefaultCommandProcess(InputStream is, OutputStream os, InputStream err, ExifToolMetrics metrics, Process process) {
+		this.process = process;
 		this.is = requireNonNull(is, "Input stream should not be null");
 		this.os = requireNonNull(os, "Output stream should not be null");
 		this.err = requireNonNull(err, "Error stream should not be null");
+		this.metrics = requireNonNull(metrics, "Metrics should not be null");
+		this.reader = new ByteLineReader(is);
+		this.writeBuffer = new byte[DEFAULT_WRITE_BUFFER_SIZE];
 		this.close = false;
 	}
 
 	@Override
 	public String read() throws IOException {
-		return doRead(null);
+		return doRead(null, true);
 	}
 
 	@Override
 	public String read(OutputHandler handler) throws IOException {
-		return doRead(requireNonNull(handler, "Handler should not be null"));
+		return doRead(requireNonNull(handler, "Handler should not be null"), true);
+	}
+
+	@Override
+	public void consume(OutputHandler handler) throws IOException {
+		doRead(requireNonNull(handler, "Handler should not be null"), false);
 	}
 
 	@Override
 	public void write(String input, String... others) throws IOException {
-		doWrite(input);
+		checkWritable();
+
+		int length = encode(input, 0);
 
 		// Write other inputs.
 		for (String o : others) {
-			doWrite(o);
+			length = encode(o, length);
 		}
+
+		doWrite(length);
 	}
 
 	@Override
 	public void write(Iterable<String> inputs) throws IOException {
 		notEmpty(inputs, "Write inputs should not be empty");
+		checkWritable();
+
+		int length = 0;
 		for (String input : inputs) {
-			doWrite(input);
+			length = encode(input, length);
 		}
+
+		doWrite(length);
 	}
 
 	@Override
@@ -120,9 +221,15 @@ public class DefaultCommandProcess implements CommandProcess {
 		os.flush();
 	}
 
+	/**
+	 * Check if the process is still running: process must not have been closed, its output must
+	 * not have reached the end, and the underlying process (if any) must be alive.
+	 *
+	 * @return {@code true} if process is still running, {@code false} otherwise.
+	 */
 	@Override
 	public boolean isRunning() {
-		return !isClosed();
+		return !isClosed() && !reader.isEof() && (process == null || process.isAlive());
 	}
 
 	@Override
@@ -130,6 +237,28 @@ public class DefaultCommandProcess implements CommandProcess {
 		return close;
 	}
 
+	/**
+	 * Get the resident set size of the underlying process, read from {@code /proc/<pid>/status}: this is only
+	 * available on Linux (with Java 9 or later, to get the process identifier).
+	 *
+	 * @return Resident set size, in bytes, or {@code -1} if it is not known.
+	 */
+	@Override
+	public long getResidentMemory() {
+		if (process == null || PID == null || isClosed()) {
+			return -1;
+		}
+
+		try {
+			long pid = (long) invoke(PID, process);
+			return readResidentMemory(Paths.get("/proc", Long.toString(pid), "status"));
+		}
+		catch (ReflectionException | UnsupportedOperationException ex) {
+			log.debug("Failed to get exiftool process identifier: {}", ex.getMessage());
+			return -1;
+		}
+	}
+
 	@Override
 	public void close() throws Exception {
 		IOException ex1 = close(os);
@@ -144,6 +273,19 @@ public class DefaultCommandProcess implements CommandProcess {
 		}
 	}
 
+	@Override
+	public void kill() throws Exception {
+		if (process == null) {
+			close();
+			return;
+		}
+
+		// Killing the process closes its output: a blocked read will end.
+		log.warn("Kill exiftool process");
+		close = true;
+		process.destroyForcibly();
+	}
+
 	private IOException close(Closeable closeable) {
 		try {
 			closeable.close();
@@ -155,38 +297,153 @@ public class DefaultCommandProcess implements CommandProcess {
 		}
 	}
 
-	private String doRead(OutputHandler h) throws IOException {
+	private String doRead(OutputHandler h, boolean keepOutput) throws IOException {
 		if (isClosed()) {
 			throw new IllegalStateException("Cannot read from closed process");
 		}
 
 		log.debug("Read command output");
 
+		long bytes = reader.getBytesRead();
+		long lines = reader.getLinesRead();
+
+		try {
+			return keepOutput ? doRead(h, reader) : doConsume(h, reader);
+		}
+		finally {
+			metrics.recordOutput(reader.getBytesRead() - bytes, (int) (reader.getLinesRead() - lines));
+		}
+	}
+
+	private static String doRead(OutputHandler h, ByteLineReader reader) throws IOException {
+		// Binary output is not read line by line.
+		if (h instanceof BinaryOutputHandler) {
+			BinaryOutputHandler binaryHandler = (BinaryOutputHandler) h;
+			binaryHandler.readLine(reader.copyUntilReady(binaryHandler.getOutputStream()));
+			return "";
+		}
+
 		// Create result handler, and wrap it in a composite
 		// handler if one is specified in parameter.
 		final ResultHandler out = new ResultHandler();
 		final OutputHandler handler = h == null ? out : new CompositeHandler(out, h);
 
 		// Read output stream until the end
-		readInputStream(is, handler);
+		readLines(reader, handler);
 
 		// We can return the output
 		return out.getOutput();
 	}
 
-	private void doWrite(String input) throws IOException {
+	private static String doConsume(OutputHandler h, ByteLineReader reader) throws IOException {
+		if (h instanceof BinaryOutputHandler) {
+			return doRead(h, reader);
+		}
+
+		// Output is not kept: lines are only given to the handler.
+		if (h instanceof PairVisitor) {
+			readPairs(reader, (PairVisitor) h);
+		}
+		else {
+			readLines(reader, h);
+		}
+
+		return null;
+	}
+
+	/**
+	 * Read the resident set size from given status file.
+	 *
+	 * @param status Status file, such as {@code /proc/<pid>/status}.
+	 * @return Resident set size, in bytes, or {@code -1} if it cannot be read.
+	 */
+	static long readResidentMemory(Path status) {
+		List<String> lines;
+		try {
+			lines = Files.readAllLines(status, StandardCharsets.UTF_8);
+		}
+		catch (IOException ex) {
+			log.debug("Failed to read {}: {}", status, ex.getMessage());
+			return -1;
+		}
+
+		// Line looks like: "VmRSS:	   12345 kB".
+		for (String line : lines) {
+			if (line.startsWith(VM_RSS)) {
+				String value = line.substring(VM_RSS.length()).trim();
+				int space = value.indexOf(' ');
+				try {
+					long kb = Long.parseLong(space < 0 ? value : value.substring(0, space));
+					return kb * 1024;
+				}
+				catch (NumberFormatException ex) {
+					log.debug("Unexpected resident set size: {}", line);
+					return -1;
+				}
+			}
+		}
+
+		return -1;
+	}
+
+	private static MethodHandle findPid() {
+		try {
+			return findMethod(Process.class, "pid", long.class);
+		}
+		catch (ReflectionException ex) {
+			return null;
+		}
+	}
+
+	private void checkWritable() {
 		if (isClosed()) {
 			throw new IllegalStateException("Cannot write from closed process");
 		}
+	}
 
+	/**
+	 * Encode input, as {@code UTF-8}, in {@link #writeBuffer}.
+	 *
+	 * @param input Input.
+	 * @param offset Offset in {@link #writeBuffer}.
+	 * @return Offset following the encoded input.
+	 */
+	private int encode(String input, int offset) {
 		// Check valid input.
 		requireNonNull(input, "Write input should not be null");
 
 		// Just log some debug information
 		log.debug("Send command input: {}", input);
 
+		int length = input.length();
+		ensureCapacity(offset + length);
+
+		// Fast path: most inputs are ASCII only.
+		int pos = offset;
+		for (int i = 0; i < length; i++) {
+			char c = input.charAt(i);
+			if (c >= 0x80) {
+				byte[] bytes = input.substring(i).getBytes(StandardCharsets.UTF_8);
+				ensureCapacity(pos + bytes.length);
+				System.arraycopy(bytes, 0, writeBuffer, pos, bytes.length);
+				return pos + bytes.length;
+			}
+
+			writeBuffer[pos++] = (byte) c;
+		}
+
+		return pos;
+	}
+
+	private void ensureCapacity(int size) {
+		if (writeBuffer.length < size) {
+			writeBuffer = Arrays.copyOf(writeBuffer, Math.max(size, writeBuffer.length * 2));
+		}
+	}
+
+	private void doWrite(int length) throws IOException {
 		try {
-			os.write(input.getBytes());
+			os.write(writeBuffer, 0, length);
 		}
 		catch (IOException ex) {
 			log.error(ex.getMessage(), ex);
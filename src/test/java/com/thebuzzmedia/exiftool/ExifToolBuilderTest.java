@@ -17,13 +17,23 @@
 
 package com.thebuzzmedia.exiftool;
 
-import com.thebuzzmedia.exiftool.core.schedulers.DefaultScheduler;
+import com.thebuzzmedia.exiftool.core.cache.ReadCoalescer;
+import com.thebuzzmedia.exiftool.core.metrics.MicrometerMetrics;
+import com.thebuzzmedia.exiftool.core.schedulers.SharedScheduler;
 import com.thebuzzmedia.exiftool.core.schedulers.NoOpScheduler;
+import com.thebuzzmedia.exiftool.core.async.RejectionPolicy;
+import com.thebuzzmedia.exiftool.core.async.VirtualThreads;
 import com.thebuzzmedia.exiftool.core.strategies.DefaultStrategy;
+import com.thebuzzmedia.exiftool.core.strategies.PipelinedStayOpenStrategy;
+import com.thebuzzmedia.exiftool.core.strategies.ElasticPoolStrategy;
 import com.thebuzzmedia.exiftool.core.strategies.PoolStrategy;
+import com.thebuzzmedia.exiftool.core.strategies.RecyclePolicy;
+import com.thebuzzmedia.exiftool.core.strategies.RoutedPoolStrategy;
+import com.thebuzzmedia.exiftool.core.strategies.RoutingPolicy;
 import com.thebuzzmedia.exiftool.core.strategies.StayOpenStrategy;
 import com.thebuzzmedia.exiftool.process.Command;
 import com.thebuzzmedia.exiftool.process.CommandExecutor;
+import com.thebuzzmedia.exiftool.process.CommandProcess;
 import com.thebuzzmedia.exiftool.process.CommandResult;
 import com.thebuzzmedia.exiftool.process.executor.DefaultCommandExecutor;
 import com.thebuzzmedia.exiftool.tests.builders.CommandResultBuilder;
@@ -35,14 +45,23 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
 
 import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 
 import static com.thebuzzmedia.exiftool.core.schedulers.SchedulerDuration.duration;
+import static com.thebuzzmedia.exiftool.tests.MockitoTestUtils.anyListOf;
 import static com.thebuzzmedia.exiftool.tests.ReflectionTestUtils.readPrivateField;
+import static com.thebuzzmedia.exiftool.tests.TestConstants.EXIF_TOOL;
+import static java.util.Collections.singletonList;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.assertj.core.api.InstanceOfAssertFactories.collection;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class ExifToolBuilderTest {
@@ -135,6 +154,18 @@ public class ExifToolBuilderTest {
 		assertThat(builder).extracting("scheduler").isSameAs(scheduler);
 	}
 
+	@Test
+	void it_should_enable_pipelining() {
+		assertThat(builder).extracting("stayOpen").isNull();
+		assertThat(builder).extracting("pipelining").isEqualTo(false);
+
+		ExifToolBuilder r1 = builder.enablePipelining();
+
+		assertThat(r1).isSameAs(builder);
+		assertThat(builder).extracting("stayOpen").isEqualTo(true);
+		assertThat(builder).extracting("pipelining").isEqualTo(true);
+	}
+
 	@Test
 	void it_should_override_strategy() {
 		assertThat(builder).extracting("strategy").isNull();
@@ -207,6 +238,65 @@ public class ExifToolBuilderTest {
 		assertThat(exifTool).extracting("strategy.scheduler").isSameAs(scheduler);
 	}
 
+	@Test
+	void it_should_create_exiftool_with_pipelining() {
+		ExifTool exifTool = builder
+				.withExecutor(executor)
+				.enableStayOpen(scheduler)
+				.enablePipelining()
+				.build();
+
+		assertThat(exifTool).extracting("strategy").isExactlyInstanceOf(PipelinedStayOpenStrategy.class);
+		assertThat(exifTool).extracting("strategy.scheduler").isSameAs(scheduler);
+	}
+
+	@Test
+	void it_should_create_exiftool_with_async_executor() {
+		Executor asyncExecutor = mock(Executor.class);
+		ExifTool exifTool = builder
+				.withExecutor(executor)
+				.withAsyncExecutor(asyncExecutor, 10, RejectionPolicy.CALLER_RUNS)
+				.build();
+
+		assertThat(exifTool).extracting("asyncExecutor.executor").isSameAs(asyncExecutor);
+		assertThat(exifTool).extracting("asyncExecutor.maxPendingTasks").isEqualTo(10);
+		assertThat(exifTool).extracting("asyncExecutor.policy").isEqualTo(RejectionPolicy.CALLER_RUNS);
+	}
+
+	@Test
+	void it_should_create_exiftool_with_async_executor_and_abort_policy_by_default() {
+		ExifTool exifTool = builder
+				.withExecutor(executor)
+				.withAsyncExecutor(mock(Executor.class), 10)
+				.build();
+
+		assertThat(exifTool).extracting("asyncExecutor.policy").isEqualTo(RejectionPolicy.ABORT);
+	}
+
+	@Test
+	void it_should_create_exiftool_with_virtual_threads() {
+		if (VirtualThreads.isSupported()) {
+			ExifTool exifTool = builder
+					.withExecutor(executor)
+					.withVirtualThreads(10, RejectionPolicy.BLOCK)
+					.build();
+
+			assertThat(exifTool).extracting("asyncExecutor.maxPendingTasks").isEqualTo(10);
+			assertThat(exifTool).extracting("asyncExecutor.policy").isEqualTo(RejectionPolicy.BLOCK);
+		}
+		else {
+			assertThatThrownBy(() -> builder.withVirtualThreads(10, RejectionPolicy.BLOCK))
+					.isInstanceOf(UnsupportedOperationException.class)
+					.hasMessage("Virtual threads are not available, Java 21 or later is required");
+		}
+	}
+
+	@Test
+	void it_should_not_enable_async_operations_by_default() {
+		ExifTool exifTool = builder.withExecutor(executor).build();
+		assertThat(exifTool).extracting("asyncExecutor").isNull();
+	}
+
 	@Test
 	void it_should_not_enable_stay_open_by_default() {
 		ExifTool exifTool = builder.withExecutor(executor).build();
@@ -247,11 +337,28 @@ public class ExifToolBuilderTest {
 					public boolean matches(ExecutionStrategy value) {
 						StayOpenStrategy stayOpenStrategy = (StayOpenStrategy) value;
 						Scheduler scheduler = readPrivateField(stayOpenStrategy, "scheduler");
-						return scheduler instanceof DefaultScheduler;
+						return scheduler instanceof SharedScheduler;
 					}
 				});
 	}
 
+	@Test
+	void it_should_create_routed_pool_strategy() {
+		RoutingPolicy policy = new RoutingPolicy(100000000, singletonList("mp4"));
+		ExifTool exifTool = builder.withExecutor(executor).withRoutedPoolSize(4, 2, policy).build();
+
+		assertThat(exifTool).extracting("strategy").isExactlyInstanceOf(RoutedPoolStrategy.class);
+		assertThat(exifTool).extracting("strategy.policy").isSameAs(policy);
+		assertThat(exifTool).extracting("strategy.pool.poolSize").isEqualTo(4);
+		assertThat(exifTool).extracting("strategy.largePool.poolSize").isEqualTo(2);
+	}
+
+	@Test
+	void it_should_ignore_invalid_routed_pool() {
+		ExifTool exifTool = builder.withExecutor(executor).withRoutedPoolSize(4, 0, new RoutingPolicy(0, singletonList("mp4"))).build();
+		assertThat(exifTool).extracting("strategy").isExactlyInstanceOf(DefaultStrategy.class);
+	}
+
 	@Test
 	void it_should_not_create_pool_strategy_with_negative_pool() {
 		ExifTool exifTool = builder.withExecutor(executor).withPoolSize(0, 0).build();
@@ -286,4 +393,161 @@ public class ExifToolBuilderTest {
 					}
 				});
 	}
+
+	@Test
+	void it_should_create_with_elastic_pool_strategy() {
+		ExifTool exifTool = builder.withExecutor(executor).withElasticPoolSize(2, 10, 100, 5000).build();
+
+		assertThat(exifTool).extracting("strategy").isExactlyInstanceOf(ElasticPoolStrategy.class);
+		assertThat(exifTool).extracting("strategy.minSize").isEqualTo(2);
+		assertThat(exifTool).extracting("strategy.maxSize").isEqualTo(10);
+		assertThat(exifTool).extracting("strategy.growThreshold").isEqualTo(100L);
+		assertThat(exifTool).extracting("strategy.idleTimeout").isEqualTo(5000L);
+		assertThat(exifTool).extracting("strategy.scheduler").isExactlyInstanceOf(SharedScheduler.class);
+	}
+
+	@Test
+	void it_should_create_with_elastic_pool_strategy_and_default_delays() {
+		ExifTool exifTool = builder.withExecutor(executor).withElasticPoolSize(1, 4).build();
+
+		assertThat(exifTool).extracting("strategy").isExactlyInstanceOf(ElasticPoolStrategy.class);
+		assertThat(exifTool).extracting("strategy.growThreshold").isEqualTo(50L);
+		assertThat(exifTool).extracting("strategy.idleTimeout").isEqualTo(60000L);
+	}
+
+	@Test
+	void it_should_not_create_elastic_pool_strategy_with_invalid_settings() {
+		ExifTool exifTool = builder.withExecutor(executor).withElasticPoolSize(4, 2).build();
+		assertThat(exifTool).extracting("strategy").isExactlyInstanceOf(DefaultStrategy.class);
+	}
+
+	@Test
+	void it_should_create_fixed_pool_strategy_after_elastic_pool() {
+		ExifTool exifTool = builder.withExecutor(executor).withElasticPoolSize(1, 4).withPoolSize(2).build();
+		assertThat(exifTool).extracting("strategy").isExactlyInstanceOf(PoolStrategy.class);
+	}
+
+	@Test
+	void it_should_warm_up_pool_members_and_wait_for_readiness() throws Exception {
+		CommandProcess process = mock(CommandProcess.class);
+		when(executor.start(any(Command.class))).thenReturn(process);
+		when(process.isRunning()).thenReturn(true);
+
+		ExifTool exifTool = builder.withExecutor(executor).withPoolSize(2).enableWarmUp(true).build();
+
+		try {
+			assertThat(exifTool).extracting("strategy").isExactlyInstanceOf(PoolStrategy.class);
+			assertThat(exifTool).extracting("strategy.pool").asInstanceOf(collection(ExecutionStrategy.class))
+					.hasSize(2)
+					.are(new Condition<ExecutionStrategy>() {
+						@Override
+						public boolean matches(ExecutionStrategy value) {
+							return readPrivateField(value, "rewarm");
+						}
+					});
+
+			verify(executor, times(2)).start(any(Command.class));
+			verify(process, times(2)).write(anyListOf(String.class));
+		}
+		finally {
+			exifTool.close();
+		}
+	}
+
+	@Test
+	void it_should_fail_if_processes_cannot_be_warmed_up() throws Exception {
+		IOException ex = new IOException("fail");
+		when(executor.start(any(Command.class))).thenThrow(ex);
+
+		builder.withExecutor(executor).enableStayOpen().enableWarmUp(true);
+
+		assertThatThrownBy(() -> builder.build())
+				.isInstanceOf(IllegalStateException.class)
+				.hasMessage("ExifTool processes failed to start")
+				.hasCause(ex);
+	}
+
+	@Test
+	void it_should_not_warm_up_without_stay_open() throws Exception {
+		ExifTool exifTool = builder.withExecutor(executor).enableWarmUp(true).build();
+
+		assertThat(exifTool).extracting("strategy").isExactlyInstanceOf(DefaultStrategy.class);
+		verify(executor, never()).start(any(Command.class));
+	}
+
+	@Test
+	void it_should_create_with_command_timeout() {
+		ExifTool exifTool = builder.withExecutor(executor).withPoolSize(2).withCommandTimeout(5000).build();
+
+		assertThat(exifTool).extracting("strategy").isExactlyInstanceOf(PoolStrategy.class);
+		assertThat(exifTool).extracting("strategy.pool").asInstanceOf(collection(ExecutionStrategy.class)).hasSize(2).allSatisfy(strategy ->
+				assertThat(strategy).extracting("commandTimeout").isEqualTo(5000L)
+		);
+	}
+
+	@Test
+	void it_should_create_with_recycle_policy() {
+		RecyclePolicy policy = new RecyclePolicy(1000, 3600000, 0);
+		ExifTool exifTool = builder.withExecutor(executor).withPoolSize(2).withRecyclePolicy(policy).build();
+
+		assertThat(exifTool).extracting("strategy").isExactlyInstanceOf(PoolStrategy.class);
+		assertThat(exifTool).extracting("strategy.pool").asInstanceOf(collection(ExecutionStrategy.class)).hasSize(2).allSatisfy(strategy ->
+				assertThat(strategy).extracting("recyclePolicy").isSameAs(policy)
+		);
+	}
+
+	@Test
+	void it_should_create_with_read_coalescing() {
+		ExifTool exifTool = builder.withExecutor(executor).enableReadCoalescing().build();
+		assertThat(exifTool).extracting("readCoalescer").isExactlyInstanceOf(ReadCoalescer.class);
+	}
+
+	@Test
+	void it_should_create_without_read_coalescing_by_default() {
+		ExifTool exifTool = builder.withExecutor(executor).build();
+		assertThat(exifTool).extracting("readCoalescer").isNull();
+	}
+
+	@Test
+	void it_should_ignore_invalid_command_timeout() {
+		assertThat(builder.withCommandTimeout(0)).extracting("commandTimeout").isEqualTo(0L);
+		assertThat(builder.withCommandTimeout(-1)).extracting("commandTimeout").isEqualTo(0L);
+	}
+
+	@Test
+	void it_should_create_with_metadata_cache() {
+		ExifTool exifTool = builder.withExecutor(executor).withMetadataCache(1000).build();
+		assertThat(exifTool.getMetadataCache()).isNotNull();
+		assertThat(exifTool.getMetadataCache().size()).isZero();
+	}
+
+	@Test
+	void it_should_create_with_custom_metadata_cache() {
+		MetadataCache cache = mock(MetadataCache.class);
+		ExifTool exifTool = builder.withExecutor(executor).withMetadataCache(cache).build();
+		assertThat(exifTool.getMetadataCache()).isSameAs(cache);
+	}
+
+	@Test
+	void it_should_create_without_metadata_cache_by_default() {
+		ExifTool exifTool = builder.withExecutor(executor).withMetadataCache(0).build();
+		assertThat(exifTool.getMetadataCache()).isNull();
+	}
+
+	@Test
+	void it_should_create_with_custom_metrics() {
+		ExifToolMetrics metrics = mock(ExifToolMetrics.class);
+		ExifTool exifTool = builder.withPath(EXIF_TOOL).withMetrics(metrics).withPoolSize(2).build();
+
+		assertThat(exifTool).extracting("metrics").isSameAs(metrics);
+		assertThat(exifTool).extracting("executor").isExactlyInstanceOf(DefaultCommandExecutor.class);
+		assertThat(exifTool).extracting("executor.metrics").isSameAs(metrics);
+		assertThat(exifTool).extracting("strategy.metrics").isSameAs(metrics);
+	}
+
+	@Test
+	void it_should_create_with_micrometer_metrics_if_micrometer_is_available() {
+		ExifTool exifTool = builder.withExecutor(executor).build();
+		assertThat(exifTool).extracting("metrics").isExactlyInstanceOf(MicrometerMetrics.class);
+	}
 }
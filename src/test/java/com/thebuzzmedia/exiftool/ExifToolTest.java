@@ -17,26 +17,36 @@
 
 package com.thebuzzmedia.exiftool;
 
+import com.thebuzzmedia.exiftool.core.StandardOptions;
+import com.thebuzzmedia.exiftool.core.StandardTag;
+import com.thebuzzmedia.exiftool.core.strategies.DefaultStrategy;
 import com.thebuzzmedia.exiftool.exceptions.UnsupportedFeatureException;
 import com.thebuzzmedia.exiftool.process.Command;
 import com.thebuzzmedia.exiftool.process.CommandExecutor;
 import com.thebuzzmedia.exiftool.process.CommandResult;
+import com.thebuzzmedia.exiftool.process.OutputHandler;
 import com.thebuzzmedia.exiftool.tests.builders.CommandResultBuilder;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 
+import java.io.File;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 import static com.thebuzzmedia.exiftool.tests.ReflectionTestUtils.readStaticPrivateField;
 import static java.lang.System.gc;
+import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.awaitility.Awaitility.await;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.same;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -210,4 +220,57 @@ class ExifToolTest {
 				verify(strategy).shutdown()
 		);
 	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void it_should_give_file_name_charset_to_recent_exiftool() throws Exception {
+		// Versions are cached by path (for all tests): use a dedicated path.
+		String path = "/opt/exiftool-9.79/exiftool";
+		CommandResult v9_79 = new CommandResultBuilder().output("9.79").build();
+		when(executor.execute(any(Command.class))).thenReturn(v9_79);
+		when(strategy.isSupported(any(Version.class))).thenReturn(true);
+		ExifTool exifTool = new ExifTool(path, executor, strategy);
+
+		exifTool.setImageMeta(singletonList(new File("/tmp/foo.png")), StandardOptions.builder().build(), singletonMap(StandardTag.ARTIST, "foo"));
+
+		ArgumentCaptor<List<String>> argsCaptor = ArgumentCaptor.forClass(List.class);
+		verify(strategy).execute(same(executor), same(path), argsCaptor.capture(), any(OutputHandler.class));
+		assertThat(argsCaptor.getValue()).containsExactly(
+				"-charset", "filename=UTF8", "-S", "-Artist=foo", "/tmp/foo.png", "-execute"
+		);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void it_should_not_give_file_name_charset_to_old_exiftool() throws Exception {
+		String path = "/opt/exiftool-9.78/exiftool";
+		CommandResult v9_78 = new CommandResultBuilder().output("9.78").build();
+		when(executor.execute(any(Command.class))).thenReturn(v9_78);
+		when(strategy.isSupported(any(Version.class))).thenReturn(true);
+		ExifTool exifTool = new ExifTool(path, executor, strategy);
+
+		exifTool.setImageMeta(singletonList(new File("/tmp/foo.png")), StandardOptions.builder().build(), singletonMap(StandardTag.ARTIST, "foo"));
+
+		ArgumentCaptor<List<String>> argsCaptor = ArgumentCaptor.forClass(List.class);
+		verify(strategy).execute(same(executor), same(path), argsCaptor.capture(), any(OutputHandler.class));
+		assertThat(argsCaptor.getValue()).containsExactly(
+				"-S", "-Artist=foo", "/tmp/foo.png", "-execute"
+		);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void it_should_not_give_file_name_charset_on_command_line() throws Exception {
+		String path = "/opt/exiftool-10.16/exiftool";
+		CommandResult v10_16 = new CommandResultBuilder().output("10.16").build();
+		when(executor.execute(any(Command.class))).thenReturn(v10_16);
+		ExecutionStrategy strategy = spy(new DefaultStrategy());
+		ExifTool exifTool = new ExifTool(path, executor, strategy);
+
+		exifTool.setImageMeta(singletonList(new File("/tmp/foo.png")), StandardOptions.builder().build(), singletonMap(StandardTag.ARTIST, "foo"));
+
+		ArgumentCaptor<List<String>> argsCaptor = ArgumentCaptor.forClass(List.class);
+		verify(strategy).execute(same(executor), same(path), argsCaptor.capture(), any(OutputHandler.class));
+		assertThat(argsCaptor.getValue()).doesNotContain("-charset", "filename=UTF8");
+	}
 }
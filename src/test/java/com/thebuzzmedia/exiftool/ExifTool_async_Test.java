@@ -0,0 +1,196 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool;
+
+import com.thebuzzmedia.exiftool.core.FileMetadata;
+import com.thebuzzmedia.exiftool.core.StandardOptions;
+import com.thebuzzmedia.exiftool.core.StandardTag;
+import com.thebuzzmedia.exiftool.core.async.AsyncExecutor;
+import com.thebuzzmedia.exiftool.core.async.MetadataPublisher;
+import com.thebuzzmedia.exiftool.core.async.RejectionPolicy;
+import com.thebuzzmedia.exiftool.core.async.Subscriber;
+import com.thebuzzmedia.exiftool.core.async.Subscription;
+import com.thebuzzmedia.exiftool.process.Command;
+import com.thebuzzmedia.exiftool.process.CommandExecutor;
+import com.thebuzzmedia.exiftool.process.CommandResult;
+import com.thebuzzmedia.exiftool.process.OutputHandler;
+import com.thebuzzmedia.exiftool.tests.builders.CommandResultBuilder;
+import com.thebuzzmedia.exiftool.tests.builders.FileBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.thebuzzmedia.exiftool.tests.MockitoTestUtils.anyListOf;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ExifTool_async_Test {
+
+	private String path;
+	private CommandExecutor executor;
+	private ExecutionStrategy strategy;
+
+	private ExifTool exifTool;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		executor = mock(CommandExecutor.class);
+		strategy = mock(ExecutionStrategy.class);
+		path = "exiftool";
+
+		CommandResult cmd = new CommandResultBuilder().output("9.36").build();
+		when(executor.execute(any(Command.class))).thenReturn(cmd);
+		when(strategy.isSupported(any(Version.class))).thenReturn(true);
+
+		AsyncExecutor asyncExecutor = new AsyncExecutor(Runnable::run, 1, RejectionPolicy.ABORT);
+		exifTool = new ExifTool(path, executor, strategy, asyncExecutor);
+
+		reset(executor);
+	}
+
+	@Test
+	void it_should_fail_if_async_operations_are_not_enabled() {
+		ExifTool exifTool = new ExifTool(path, executor, strategy);
+		File image = new FileBuilder("foo.png").build();
+
+		assertThatThrownBy(() -> exifTool.getImageMetaAsync(image))
+				.isInstanceOf(IllegalStateException.class)
+				.hasMessage("Asynchronous operations are not enabled, use ExifToolBuilder#withAsyncExecutor to enable them");
+	}
+
+	@Test
+	void it_should_get_image_metadata_asynchronously() throws Exception {
+		File image = new FileBuilder("foo.png").build();
+
+		doAnswer(invocation -> {
+			OutputHandler handler = invocation.getArgument(3);
+			handler.readLine("Artist: bar");
+			handler.readLine("{ready}");
+			return null;
+		}).when(strategy).execute(same(executor), same(path), anyListOf(String.class), any(OutputHandler.class));
+
+		CompletableFuture<Map<Tag, String>> future = exifTool.getImageMetaAsync(image, StandardOptions.builder().build(), singletonList(StandardTag.ARTIST));
+
+		assertThat(future.get()).hasSize(1).containsEntry(StandardTag.ARTIST, "bar");
+	}
+
+	@Test
+	void it_should_complete_exceptionally_if_read_fails() throws Exception {
+		File image = new FileBuilder("foo.png").build();
+		IOException ex = new IOException("fail");
+
+		doThrow(ex).when(strategy).execute(same(executor), same(path), anyListOf(String.class), any(OutputHandler.class));
+
+		CompletableFuture<Map<Tag, String>> future = exifTool.getImageMetaAsync(image);
+
+		assertThat(future).isCompletedExceptionally();
+		assertThatThrownBy(future::get).isInstanceOf(ExecutionException.class).hasCause(ex);
+	}
+
+	@Test
+	void it_should_complete_exceptionally_if_image_is_null() {
+		CompletableFuture<Map<Tag, String>> future = exifTool.getImageMetaAsync(null, StandardOptions.builder().build());
+
+		assertThat(future).isCompletedExceptionally();
+		assertThatThrownBy(future::get).hasCauseInstanceOf(NullPointerException.class);
+	}
+
+	@Test
+	void it_should_set_image_metadata_asynchronously() throws Exception {
+		File image = new FileBuilder("foo.png").build();
+		Map<StandardTag, String> tags = singletonMap(StandardTag.ARTIST, "bar");
+
+		CompletableFuture<Void> future = exifTool.setImageMetaAsync(image, tags);
+
+		assertThat(future.get()).isNull();
+		verify(strategy).execute(same(executor), same(path), anyListOf(String.class), any(OutputHandler.class));
+	}
+
+	@Test
+	void it_should_fail_to_publish_if_async_operations_are_not_enabled() {
+		ExifTool exifTool = new ExifTool(path, executor, strategy);
+		List<File> images = singletonList(new FileBuilder("foo.png").build());
+		StandardOptions options = StandardOptions.builder().build();
+		List<StandardTag> tags = singletonList(StandardTag.ARTIST);
+
+		assertThatThrownBy(() -> exifTool.publishImageMeta(images, options, tags, 1))
+				.isInstanceOf(IllegalStateException.class)
+				.hasMessage("Asynchronous operations are not enabled, use ExifToolBuilder#withAsyncExecutor to enable them");
+	}
+
+	@Test
+	void it_should_publish_image_metadata() throws Exception {
+		File image1 = new FileBuilder("foo.png").build();
+		File image2 = new FileBuilder("bar.png").build();
+
+		doAnswer(invocation -> {
+			OutputHandler handler = invocation.getArgument(3);
+			handler.readLine("Artist: bar");
+			handler.readLine("{ready}");
+			return null;
+		}).when(strategy).execute(same(executor), same(path), anyListOf(String.class), any(OutputHandler.class));
+
+		MetadataPublisher publisher = exifTool.publishImageMeta(asList(image1, image2), StandardOptions.builder().build(), singletonList(StandardTag.ARTIST), 1);
+
+		List<FileMetadata> results = new ArrayList<>();
+		AtomicBoolean completed = new AtomicBoolean(false);
+		publisher.subscribe(new Subscriber<FileMetadata>() {
+			@Override
+			public void onSubscribe(Subscription subscription) {
+				subscription.request(Long.MAX_VALUE);
+			}
+
+			@Override
+			public void onNext(FileMetadata item) {
+				results.add(item);
+			}
+
+			@Override
+			public void onError(Throwable throwable) {
+			}
+
+			@Override
+			public void onComplete() {
+				completed.set(true);
+			}
+		});
+
+		assertThat(results).extracting(FileMetadata::getFile).containsExactly(image1, image2);
+		assertThat(results.get(0).getTags()).hasSize(1).containsEntry(StandardTag.ARTIST, "bar");
+		assertThat(completed).isTrue();
+	}
+}
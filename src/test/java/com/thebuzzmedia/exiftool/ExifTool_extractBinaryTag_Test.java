@@ -0,0 +1,154 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool;
+
+import com.thebuzzmedia.exiftool.core.UnspecifiedTag;
+import com.thebuzzmedia.exiftool.core.handlers.BinaryTagHandler;
+import com.thebuzzmedia.exiftool.exceptions.UnreadableFileException;
+import com.thebuzzmedia.exiftool.exceptions.UnsupportedFeatureException;
+import com.thebuzzmedia.exiftool.process.Command;
+import com.thebuzzmedia.exiftool.process.CommandExecutor;
+import com.thebuzzmedia.exiftool.process.CommandResult;
+import com.thebuzzmedia.exiftool.process.OutputHandler;
+import com.thebuzzmedia.exiftool.tests.builders.CommandResultBuilder;
+import com.thebuzzmedia.exiftool.tests.builders.FileBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.OutputStream;
+import java.util.List;
+
+import static com.thebuzzmedia.exiftool.tests.MockitoTestUtils.anyListOf;
+import static com.thebuzzmedia.exiftool.tests.ReflectionTestUtils.readStaticPrivateField;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ExifTool_extractBinaryTag_Test {
+
+	private static final Tag THUMBNAIL_IMAGE = new UnspecifiedTag("ThumbnailImage");
+
+	private String path;
+	private CommandExecutor executor;
+	private ExecutionStrategy strategy;
+	private ByteArrayOutputStream out;
+
+	@BeforeEach
+	void setUp() {
+		executor = mock(CommandExecutor.class);
+		strategy = mock(ExecutionStrategy.class);
+		path = "exiftool";
+		out = new ByteArrayOutputStream();
+		when(strategy.isSupported(any(Version.class))).thenReturn(true);
+	}
+
+	@AfterEach
+	void tearDown() {
+		// Do not leak the cached version to other tests.
+		VersionCache cache = readStaticPrivateField(ExifTool.class, "cache");
+		cache.clear();
+	}
+
+	@Test
+	void it_should_fail_if_image_is_null() throws Exception {
+		ExifTool exifTool = createExifTool("10.16");
+		assertThatThrownBy(() -> exifTool.extractBinaryTag(null, THUMBNAIL_IMAGE, out))
+				.isInstanceOf(NullPointerException.class)
+				.hasMessage("Image cannot be null and must be a valid stream of image data.");
+	}
+
+	@Test
+	void it_should_fail_if_tag_is_null() throws Exception {
+		ExifTool exifTool = createExifTool("10.16");
+		assertThatThrownBy(() -> exifTool.extractBinaryTag(mock(File.class), null, out))
+				.isInstanceOf(NullPointerException.class)
+				.hasMessage("Tag cannot be null.");
+	}
+
+	@Test
+	void it_should_fail_if_output_stream_is_null() throws Exception {
+		ExifTool exifTool = createExifTool("10.16");
+		OutputStream out = null;
+		assertThatThrownBy(() -> exifTool.extractBinaryTag(mock(File.class), THUMBNAIL_IMAGE, out))
+				.isInstanceOf(NullPointerException.class)
+				.hasMessage("Output stream cannot be null.");
+	}
+
+	@Test
+	void it_should_fail_with_unknown_file() throws Exception {
+		ExifTool exifTool = createExifTool("10.16");
+		File image = new FileBuilder("foo.png").exists(false).build();
+		assertThatThrownBy(() -> exifTool.extractBinaryTag(image, THUMBNAIL_IMAGE, out))
+				.isInstanceOf(UnreadableFileException.class);
+	}
+
+	@Test
+	void it_should_fail_with_old_version() throws Exception {
+		ExifTool exifTool = createExifTool("9.14");
+		File image = new FileBuilder("foo.png").build();
+		assertThatThrownBy(() -> exifTool.extractBinaryTag(image, THUMBNAIL_IMAGE, out))
+				.isInstanceOf(UnsupportedFeatureException.class);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	void it_should_extract_binary_tag() throws Exception {
+		ExifTool exifTool = createExifTool("10.16");
+		File image = new FileBuilder("foo.png").build();
+
+		doAnswer(invocation -> {
+			BinaryTagHandler handler = invocation.getArgument(3);
+			handler.getOutputStream().write(new byte[] {1, 2, 3});
+			handler.readLine("{ready}");
+			return null;
+		}).when(strategy).execute(eq(executor), eq(path), anyListOf(String.class), any(OutputHandler.class));
+
+		long size = exifTool.extractBinaryTag(image, THUMBNAIL_IMAGE, out);
+
+		assertThat(size).isEqualTo(3);
+		assertThat(out.toByteArray()).containsExactly(1, 2, 3);
+
+		ArgumentCaptor<List<String>> argsCaptor = ArgumentCaptor.forClass(List.class);
+		verify(strategy).execute(eq(executor), eq(path), argsCaptor.capture(), any(BinaryTagHandler.class));
+		assertThat(argsCaptor.getValue()).containsExactly(
+				"-b", "-q", "-q", "-echo3", "{ready}", "-charset", "filename=UTF8", "-n", "-S", "-ThumbnailImage", "/tmp/foo.png", "-execute"
+		);
+	}
+
+	private ExifTool createExifTool(String version) throws Exception {
+		// Version is cached by path.
+		VersionCache cache = readStaticPrivateField(ExifTool.class, "cache");
+		cache.clear();
+
+		CommandResult result = new CommandResultBuilder().output(version).build();
+		when(executor.execute(any(Command.class))).thenReturn(result);
+		ExifTool exifTool = new ExifTool(path, executor, strategy);
+		reset(executor);
+		return exifTool;
+	}
+}
@@ -17,10 +17,16 @@
 
 package com.thebuzzmedia.exiftool;
 
+import com.thebuzzmedia.exiftool.core.ReadResult;
 import com.thebuzzmedia.exiftool.core.StandardFormat;
 import com.thebuzzmedia.exiftool.core.StandardOptions;
 import com.thebuzzmedia.exiftool.core.StandardTag;
+import com.thebuzzmedia.exiftool.core.TagValues;
 import com.thebuzzmedia.exiftool.core.UnspecifiedTag;
+import com.thebuzzmedia.exiftool.core.cache.MetadataCacheFactory;
+import com.thebuzzmedia.exiftool.core.cache.MetadataCacheKey;
+import com.thebuzzmedia.exiftool.core.cache.ReadCoalescer;
+import com.thebuzzmedia.exiftool.exceptions.ProcessCrashedException;
 import com.thebuzzmedia.exiftool.exceptions.UnreadableFileException;
 import com.thebuzzmedia.exiftool.process.Command;
 import com.thebuzzmedia.exiftool.process.CommandExecutor;
@@ -30,27 +36,41 @@ import com.thebuzzmedia.exiftool.tests.builders.CommandResultBuilder;
 import com.thebuzzmedia.exiftool.tests.builders.FileBuilder;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.ArgumentCaptor;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
+import static com.thebuzzmedia.exiftool.core.metrics.NoOpMetrics.noOpMetrics;
 import static com.thebuzzmedia.exiftool.tests.MockitoTestUtils.anyListOf;
 import static com.thebuzzmedia.exiftool.tests.TagTestUtils.parseTags;
 import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.same;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -175,6 +195,346 @@ class ExifTool_getImageMeta_Test {
 		);
 	}
 
+	@Test
+	void it_should_record_number_of_tags() throws Exception {
+		ExifToolMetrics metrics = mock(ExifToolMetrics.class);
+		exifTool = new ExifTool(path, executor, strategy, null, metrics);
+		File image = new FileBuilder("foo.png").build();
+
+		Map<Tag, String> tags = new LinkedHashMap<>();
+		tags.put(StandardTag.ARTIST, "bar");
+		tags.put(StandardTag.COMMENT, "foo");
+
+		doAnswer(new ReadTagsAnswer(tags, "{ready}")).when(strategy).execute(
+				same(executor), same(path), anyListOf(String.class), any(OutputHandler.class)
+		);
+
+		exifTool.getImageMeta(image, StandardFormat.HUMAN_READABLE, tags.keySet());
+
+		verify(metrics).recordTags(2);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void it_should_get_tag_values() throws Exception {
+		File image = new FileBuilder("foo.png").build();
+
+		Map<Tag, String> tags = new LinkedHashMap<>();
+		tags.put(StandardTag.ISO, "200");
+		tags.put(StandardTag.FOCAL_LENGTH, "35.5");
+
+		doAnswer(new ReadTagsAnswer(tags, "{ready}")).when(strategy).execute(
+				same(executor), same(path), anyListOf(String.class), any(OutputHandler.class)
+		);
+
+		TagValues values = exifTool.getTagValues(image, tags.keySet());
+
+		assertThat(values.getInt(StandardTag.ISO, 0)).isEqualTo(200);
+		assertThat(values.getDouble(StandardTag.FOCAL_LENGTH, 0)).isEqualTo(35.5);
+		assertThat(values.asMap()).isEqualTo(tags);
+
+		ArgumentCaptor<List<String>> argsCaptor = ArgumentCaptor.forClass(List.class);
+		verify(strategy).execute(same(executor), same(path), argsCaptor.capture(), any(OutputHandler.class));
+		assertThat(argsCaptor.getValue()).containsExactly(
+				"-n",
+				"-S",
+				"-ISO",
+				"-FocalLength",
+				"/tmp/foo.png",
+				"-execute"
+		);
+	}
+
+	@Test
+	void it_should_get_image_metadata_from_cache(@TempDir File tmp) throws Exception {
+		MetadataCache cache = MetadataCacheFactory.newCache(100_000);
+		exifTool = new ExifTool(path, executor, strategy, null, noOpMetrics(), cache);
+		File image = createImage(tmp);
+
+		Map<Tag, String> tags = new LinkedHashMap<>();
+		tags.put(StandardTag.ARTIST, "bar");
+		tags.put(StandardTag.COMMENT, "foo");
+
+		doAnswer(new ReadTagsAnswer(tags, "{ready}")).when(strategy).execute(
+				same(executor), same(path), anyListOf(String.class), any(OutputHandler.class)
+		);
+
+		Map<Tag, String> r1 = exifTool.getImageMeta(image, StandardFormat.HUMAN_READABLE, tags.keySet());
+		Map<Tag, String> r2 = exifTool.getImageMeta(image, StandardFormat.HUMAN_READABLE, asList(StandardTag.COMMENT, StandardTag.ARTIST));
+		Map<Tag, String> r3 = exifTool.getImageMeta(image, StandardFormat.NUMERIC, tags.keySet());
+
+		assertThat(r1).isEqualTo(tags);
+		assertThat(r2).isSameAs(r1);
+		assertThat(r3).isEqualTo(tags).isNotSameAs(r1);
+		assertThat(exifTool.getMetadataCache()).isSameAs(cache);
+		assertThat(cache.size()).isEqualTo(2);
+		assertThat(cache.hitCount()).isEqualTo(1);
+		assertThat(cache.missCount()).isEqualTo(2);
+		verify(strategy, times(2)).execute(same(executor), same(path), anyListOf(String.class), any(OutputHandler.class));
+	}
+
+	@Test
+	void it_should_get_tag_values_from_cache(@TempDir File tmp) throws Exception {
+		MetadataCache cache = MetadataCacheFactory.newCache(100_000);
+		exifTool = new ExifTool(path, executor, strategy, null, noOpMetrics(), cache);
+		File image = createImage(tmp);
+
+		Map<Tag, String> tags = new LinkedHashMap<>();
+		tags.put(StandardTag.ISO, "200");
+
+		doAnswer(new ReadTagsAnswer(tags, "{ready}")).when(strategy).execute(
+				same(executor), same(path), anyListOf(String.class), any(OutputHandler.class)
+		);
+
+		TagValues v1 = exifTool.getTagValues(image, tags.keySet());
+		TagValues v2 = exifTool.getTagValues(image, tags.keySet());
+
+		assertThat(v1.getInt(StandardTag.ISO, 0)).isEqualTo(200);
+		assertThat(v2).isSameAs(v1);
+		assertThat(cache.get(MetadataCacheKey.of(image, StandardOptions.builder().withFormat(StandardFormat.NUMERIC).build(), tags.keySet()))).isSameAs(v1);
+		verify(strategy).execute(same(executor), same(path), anyListOf(String.class), any(OutputHandler.class));
+	}
+
+	@Test
+	void it_should_get_image_metadata_from_cache_with_other_tag_instances(@TempDir File tmp) throws Exception {
+		MetadataCache cache = MetadataCacheFactory.newCache(100_000);
+		exifTool = new ExifTool(path, executor, strategy, null, noOpMetrics(), cache);
+		File image = createImage(tmp);
+
+		Map<Tag, String> tags = new LinkedHashMap<>();
+		tags.put(StandardTag.ISO, "200");
+
+		doAnswer(new ReadTagsAnswer(tags, "{ready}")).when(strategy).execute(
+				same(executor), same(path), anyListOf(String.class), any(OutputHandler.class)
+		);
+
+		UnspecifiedTag iso = new UnspecifiedTag("ISO");
+		Map<Tag, String> r1 = exifTool.getImageMeta(image, tags.keySet());
+		Map<Tag, String> r2 = exifTool.getImageMeta(image, singletonList(iso));
+
+		assertThat(r1).isEqualTo(tags);
+		assertThat(r2).hasSize(1).containsEntry(iso, "200");
+		assertThat(cache.hitCount()).isEqualTo(1);
+		verify(strategy).execute(same(executor), same(path), anyListOf(String.class), any(OutputHandler.class));
+	}
+
+	@Test
+	void it_should_invalidate_cache_when_image_is_updated(@TempDir File tmp) throws Exception {
+		MetadataCache cache = MetadataCacheFactory.newCache(100_000);
+		exifTool = new ExifTool(path, executor, strategy, null, noOpMetrics(), cache);
+		File image = createImage(tmp);
+
+		Map<Tag, String> tags = new LinkedHashMap<>();
+		tags.put(StandardTag.ARTIST, "bar");
+
+		doAnswer(new ReadTagsAnswer(tags, "{ready}")).when(strategy).execute(
+				same(executor), same(path), anyListOf(String.class), any(OutputHandler.class)
+		);
+
+		exifTool.getImageMeta(image, tags.keySet());
+		assertThat(cache.size()).isEqualTo(1);
+
+		exifTool.setImageMeta(image, tags);
+		assertThat(cache.size()).isZero();
+
+		exifTool.getImageMeta(image, tags.keySet());
+		assertThat(cache.hitCount()).isZero();
+		verify(strategy, times(3)).execute(same(executor), same(path), anyListOf(String.class), any(OutputHandler.class));
+	}
+
+	@Test
+	void it_should_get_image_metadata_with_warnings(@TempDir File tmp) throws Exception {
+		exifTool = new ExifTool(path, executor, strategy);
+		File image = createImage(tmp);
+
+		doAnswer(new ReadLinesAnswer("Artist: bar", "Warning: [minor] Unrecognized MakerNotes", "{ready}")).when(strategy).execute(
+				same(executor), same(path), anyListOf(String.class), any(OutputHandler.class)
+		);
+
+		ReadResult result = exifTool.getImageMetaResult(image, StandardOptions.builder().build(), singletonList(StandardTag.ARTIST));
+
+		assertThat(result.getTags()).hasSize(1).containsEntry(StandardTag.ARTIST, "bar");
+		assertThat(result.getTagValues().getString(StandardTag.ARTIST)).isEqualTo("bar");
+		assertThat(result.hasWarnings()).isTrue();
+		assertThat(result.getWarnings()).containsExactly("Warning: [minor] Unrecognized MakerNotes");
+	}
+
+	@Test
+	void it_should_get_image_metadata_without_warnings(@TempDir File tmp) throws Exception {
+		exifTool = new ExifTool(path, executor, strategy);
+		File image = createImage(tmp);
+
+		doAnswer(new ReadLinesAnswer("Artist: bar", "{ready}")).when(strategy).execute(
+				same(executor), same(path), anyListOf(String.class), any(OutputHandler.class)
+		);
+
+		ReadResult result = exifTool.getImageMetaResult(image, StandardOptions.builder().build(), singletonList(StandardTag.ARTIST));
+
+		assertThat(result.getTags()).hasSize(1).containsEntry(StandardTag.ARTIST, "bar");
+		assertThat(result.hasWarnings()).isFalse();
+		assertThat(result.getWarnings()).isEmpty();
+	}
+
+	@Test
+	void it_should_not_cache_image_metadata_with_warnings(@TempDir File tmp) throws Exception {
+		MetadataCache cache = MetadataCacheFactory.newCache(100_000);
+		exifTool = new ExifTool(path, executor, strategy, null, noOpMetrics(), cache);
+		File image = createImage(tmp);
+
+		doAnswer(new ReadLinesAnswer("Artist: bar", "Warning: Truncated file", "{ready}")).when(strategy).execute(
+				same(executor), same(path), anyListOf(String.class), any(OutputHandler.class)
+		);
+
+		ExifToolOptions options = StandardOptions.builder().build();
+		ReadResult r1 = exifTool.getImageMetaResult(image, options, singletonList(StandardTag.ARTIST));
+		ReadResult r2 = exifTool.getImageMetaResult(image, options, singletonList(StandardTag.ARTIST));
+
+		assertThat(r1.getWarnings()).containsExactly("Warning: Truncated file");
+		assertThat(r2.getWarnings()).containsExactly("Warning: Truncated file");
+		assertThat(cache.size()).isZero();
+		verify(strategy, times(2)).execute(same(executor), same(path), anyListOf(String.class), any(OutputHandler.class));
+	}
+
+	@Test
+	void it_should_get_stream_metadata_with_warnings() throws Exception {
+		exifTool = new ExifTool(path, executor, strategy);
+
+		doAnswer(invocation -> {
+			OutputHandler handler = invocation.getArgument(2);
+			handler.readLine("Artist: bar");
+			handler.readLine("Warning: Invalid EXIF text encoding");
+			handler.readLine(null);
+			return null;
+		}).when(executor).execute(any(Command.class), any(InputStream.class), any(OutputHandler.class));
+
+		InputStream stream = new ByteArrayInputStream(new byte[]{1, 2, 3});
+		ReadResult result = exifTool.getImageMetaResult(stream, StandardOptions.builder().build(), singletonList(StandardTag.ARTIST));
+
+		assertThat(result.getTags()).hasSize(1).containsEntry(StandardTag.ARTIST, "bar");
+		assertThat(result.getWarnings()).containsExactly("Warning: Invalid EXIF text encoding");
+	}
+
+	@Test
+	void it_should_share_pending_read_of_same_image(@TempDir File tmp) throws Exception {
+		exifTool = new ExifTool(path, executor, strategy, null, noOpMetrics(), null, new ReadCoalescer());
+		File image = createImage(tmp);
+
+		Map<Tag, String> tags = new LinkedHashMap<>();
+		tags.put(StandardTag.ARTIST, "bar");
+
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		Answer<Void> read = new ReadTagsAnswer(tags, "{ready}");
+		doAnswer(invocation -> {
+			started.countDown();
+			release.await(5, TimeUnit.SECONDS);
+			return read.answer(invocation);
+		}).when(strategy).execute(same(executor), same(path), anyListOf(String.class), any(OutputHandler.class));
+
+		CompletableFuture<Map<Tag, String>> r1 = CompletableFuture.supplyAsync(() -> getImageMeta(image, tags.keySet()));
+		assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+		// Follower waits for the pending read, it does not run its own command.
+		CompletableFuture<Map<Tag, String>> r2 = new CompletableFuture<>();
+		Thread follower = new Thread(() -> r2.complete(getImageMeta(image, tags.keySet())));
+		follower.setDaemon(true);
+		follower.start();
+
+		long deadline = System.currentTimeMillis() + 5000;
+		while (follower.getState() != Thread.State.WAITING && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+
+		assertThat(follower.getState()).isEqualTo(Thread.State.WAITING);
+		release.countDown();
+
+		assertThat(r1.get(5, TimeUnit.SECONDS)).isEqualTo(tags);
+		assertThat(r2.get(5, TimeUnit.SECONDS)).isEqualTo(tags);
+		verify(strategy).execute(same(executor), same(path), anyListOf(String.class), any(OutputHandler.class));
+	}
+
+	@Test
+	void it_should_share_pending_read_with_other_tag_instances(@TempDir File tmp) throws Exception {
+		exifTool = new ExifTool(path, executor, strategy, null, noOpMetrics(), null, new ReadCoalescer());
+		File image = createImage(tmp);
+
+		Map<Tag, String> tags = new LinkedHashMap<>();
+		tags.put(StandardTag.ISO, "200");
+
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		Answer<Void> read = new ReadTagsAnswer(tags, "{ready}");
+		doAnswer(invocation -> {
+			started.countDown();
+			release.await(5, TimeUnit.SECONDS);
+			return read.answer(invocation);
+		}).when(strategy).execute(same(executor), same(path), anyListOf(String.class), any(OutputHandler.class));
+
+		CompletableFuture<Map<Tag, String>> r1 = CompletableFuture.supplyAsync(() -> getImageMeta(image, tags.keySet()));
+		assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+		UnspecifiedTag iso = new UnspecifiedTag("ISO");
+		CompletableFuture<Map<Tag, String>> r2 = new CompletableFuture<>();
+		Thread follower = new Thread(() -> r2.complete(getImageMeta(image, singletonList(iso))));
+		follower.setDaemon(true);
+		follower.start();
+
+		long deadline = System.currentTimeMillis() + 5000;
+		while (follower.getState() != Thread.State.WAITING && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+
+		assertThat(follower.getState()).isEqualTo(Thread.State.WAITING);
+		release.countDown();
+
+		assertThat(r1.get(5, TimeUnit.SECONDS)).isEqualTo(tags);
+		assertThat(r2.get(5, TimeUnit.SECONDS)).hasSize(1).containsEntry(iso, "200");
+		verify(strategy).execute(same(executor), same(path), anyListOf(String.class), any(OutputHandler.class));
+	}
+
+	@Test
+	void it_should_not_share_pending_read_once_image_is_updated(@TempDir File tmp) throws Exception {
+		ReadCoalescer readCoalescer = new ReadCoalescer();
+		exifTool = new ExifTool(path, executor, strategy, null, noOpMetrics(), null, readCoalescer);
+		File image = createImage(tmp);
+
+		Map<Tag, String> tags = new LinkedHashMap<>();
+		tags.put(StandardTag.ARTIST, "bar");
+
+		// Only the first read is blocked.
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		Answer<Void> read = new ReadTagsAnswer(tags, "{ready}");
+		doAnswer(invocation -> {
+			if (started.getCount() > 0) {
+				started.countDown();
+				release.await(5, TimeUnit.SECONDS);
+			}
+
+			return read.answer(invocation);
+		}).when(strategy).execute(same(executor), same(path), anyListOf(String.class), any(OutputHandler.class));
+
+		try {
+			CompletableFuture<Map<Tag, String>> r1 = CompletableFuture.supplyAsync(() -> getImageMeta(image, tags.keySet()));
+			assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+			assertThat(readCoalescer.size()).isEqualTo(1);
+
+			exifTool.setImageMeta(image, tags);
+			assertThat(readCoalescer.size()).isZero();
+
+			// Does not wait for the first read.
+			assertThat(exifTool.getImageMeta(image, tags.keySet())).isEqualTo(tags);
+			assertThat(r1.isDone()).isFalse();
+
+			release.countDown();
+			assertThat(r1.get(5, TimeUnit.SECONDS)).isEqualTo(tags);
+			verify(strategy, times(3)).execute(same(executor), same(path), anyListOf(String.class), any(OutputHandler.class));
+		}
+		finally {
+			release.countDown();
+		}
+	}
+
 	@Test
 	@SuppressWarnings("unchecked")
 	void it_should_get_image_metadata_in_numeric_format() throws Exception {
@@ -383,6 +743,249 @@ class ExifTool_getImageMeta_Test {
 		);
 	}
 
+	@Test
+	void it_should_fail_if_images_is_empty() {
+		ExifToolOptions options = StandardOptions.builder().build();
+		List<Tag> tags = asList(StandardTag.values());
+		assertThatThrownBy(() -> exifTool.getImageMeta(Collections.<File>emptyList(), options, tags))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("Images cannot be null and must contain 1 or more image to query.");
+	}
+
+	@Test
+	void it_should_fail_if_one_of_images_is_not_readable() {
+		ExifToolOptions options = StandardOptions.builder().build();
+		List<Tag> tags = asList(StandardTag.values());
+		File image1 = new FileBuilder("foo.png").build();
+		File image2 = new FileBuilder("bar.png").canRead(false).build();
+		assertThatThrownBy(() -> exifTool.getImageMeta(asList(image1, image2), options, tags))
+				.isInstanceOf(UnreadableFileException.class)
+				.hasMessage(
+						"Unable to read the given image [/tmp/bar.png], " +
+								"ensure that the image exists at the given withPath and that the " +
+								"executing Java process has permissions to read it."
+				);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void it_should_get_metadata_of_several_images() throws Exception {
+		// Given
+		ExifToolOptions options = StandardOptions.builder().withFormat(StandardFormat.NUMERIC).build();
+		File image1 = new FileBuilder("foo.png").build();
+		File image2 = new FileBuilder("bar.png").build();
+
+		doAnswer(invocation -> {
+			OutputHandler handler = (OutputHandler) invocation.getArguments()[3];
+			handler.readLine("======== /tmp/foo.png");
+			handler.readLine("Artist: foo");
+			handler.readLine("======== /tmp/bar.png");
+			handler.readLine("Artist: bar");
+			handler.readLine("XPComment: baz");
+			handler.readLine("    2 image files read");
+			handler.readLine("{ready}");
+			return null;
+		}).when(strategy).execute(
+				same(executor), same(path), anyListOf(String.class), any(OutputHandler.class)
+		);
+
+		// When
+		Map<File, Map<Tag, String>> results = exifTool.getImageMeta(asList(image1, image2), options, asList(StandardTag.ARTIST, StandardTag.COMMENT));
+
+		// Then
+		ArgumentCaptor<List<String>> argsCaptor = ArgumentCaptor.forClass(List.class);
+		verify(strategy).execute(same(executor), same(path), argsCaptor.capture(), any(OutputHandler.class));
+
+		assertThat(results).hasSize(2);
+		assertThat(results.get(image1)).hasSize(1).containsEntry(StandardTag.ARTIST, "foo");
+		assertThat(results.get(image2)).hasSize(2).containsEntry(StandardTag.ARTIST, "bar").containsEntry(StandardTag.COMMENT, "baz");
+
+		List<String> args = argsCaptor.getValue();
+		assertThat(args).isNotEmpty().containsExactly(
+				"-n",
+				"-S",
+				"-Artist",
+				"-XPComment",
+				"/tmp/foo.png",
+				"/tmp/bar.png",
+				"-execute"
+		);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void it_should_get_image_metadata_in_json_format() throws Exception {
+		File image = new FileBuilder("foo.png").build();
+		StandardOptions options = StandardOptions.builder().withUseJsonFormat(true).build();
+
+		doAnswer(invocation -> {
+			OutputHandler handler = invocation.getArgument(3);
+			handler.readLine("[{");
+			handler.readLine("  \"SourceFile\": \"/tmp/foo.png\",");
+			handler.readLine("  \"Artist\": \"bar\"");
+			handler.readLine("}]");
+			handler.readLine("{ready}");
+			return null;
+		}).when(strategy).execute(same(executor), same(path), anyListOf(String.class), any(OutputHandler.class));
+
+		Map<Tag, String> results = exifTool.getImageMeta(image, options, Collections.singletonList(StandardTag.ARTIST));
+
+		ArgumentCaptor<List<String>> argsCaptor = ArgumentCaptor.forClass(List.class);
+		verify(strategy).execute(same(executor), same(path), argsCaptor.capture(), any(OutputHandler.class));
+		assertThat(argsCaptor.getValue()).containsExactly("-j", "-S", "-Artist", "/tmp/foo.png", "-execute");
+		assertThat(results).hasSize(1).containsEntry(StandardTag.ARTIST, "bar");
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void it_should_get_all_metadata_of_several_images() throws Exception {
+		// Given
+		ExifToolOptions options = StandardOptions.builder().build();
+		File image1 = new FileBuilder("foo.png").build();
+		File image2 = new FileBuilder("bar.png").build();
+
+		doAnswer(invocation -> {
+			OutputHandler handler = (OutputHandler) invocation.getArguments()[3];
+			handler.readLine("======== /tmp/foo.png");
+			handler.readLine("CustomTag: foo");
+			handler.readLine("======== /tmp/bar.png");
+			handler.readLine("CustomTag: bar");
+			handler.readLine("{ready}");
+			return null;
+		}).when(strategy).execute(
+				same(executor), same(path), anyListOf(String.class), any(OutputHandler.class)
+		);
+
+		// When
+		Map<File, Map<Tag, String>> results = exifTool.getImageMeta(asList(image1, image2), options);
+
+		// Then
+		ArgumentCaptor<List<String>> argsCaptor = ArgumentCaptor.forClass(List.class);
+		verify(strategy).execute(same(executor), same(path), argsCaptor.capture(), any(OutputHandler.class));
+
+		assertThat(results).hasSize(2);
+		assertThat(results.get(image1)).hasSize(1).containsEntry(new UnspecifiedTag("CustomTag"), "foo");
+		assertThat(results.get(image2)).hasSize(1).containsEntry(new UnspecifiedTag("CustomTag"), "bar");
+
+		List<String> args = argsCaptor.getValue();
+		assertThat(args).isNotEmpty().containsExactly(
+				"-S",
+				"-All",
+				"/tmp/foo.png",
+				"/tmp/bar.png",
+				"-execute"
+		);
+	}
+
+	@Test
+	void it_should_get_metadata_from_stream() throws Exception {
+		ExifToolOptions options = StandardOptions.builder().build();
+		InputStream stream = new ByteArrayInputStream(new byte[] {1, 2, 3});
+
+		doAnswer(invocation -> {
+			OutputHandler handler = invocation.getArgument(2);
+			handler.readLine("Artist: bar");
+			handler.readLine(null);
+			return null;
+		}).when(executor).execute(any(Command.class), same(stream), any(OutputHandler.class));
+
+		Map<Tag, String> results = exifTool.getImageMeta(stream, options, Collections.singletonList(StandardTag.ARTIST));
+
+		ArgumentCaptor<Command> cmdCaptor = ArgumentCaptor.forClass(Command.class);
+		verify(executor).execute(cmdCaptor.capture(), same(stream), any(OutputHandler.class));
+		verify(strategy, never()).execute(any(CommandExecutor.class), any(String.class), anyListOf(String.class), any(OutputHandler.class));
+		assertThat(cmdCaptor.getValue().getArguments()).containsExactly(
+				path, "-sep", "|>☃", "-S", "-Artist", "-", "-execute"
+		);
+		assertThat(results).hasSize(1).containsEntry(StandardTag.ARTIST, "bar");
+	}
+
+	@Test
+	void it_should_get_metadata_from_stream_prefix() throws Exception {
+		ExifToolOptions options = StandardOptions.builder().build();
+		InputStream stream = new ByteArrayInputStream(new byte[] {1, 2, 3, 4});
+
+		doAnswer(invocation -> {
+			InputStream input = invocation.getArgument(1);
+			byte[] buffer = new byte[8];
+			assertThat(input.read(buffer)).isEqualTo(2);
+			assertThat(input.read(buffer)).isEqualTo(-1);
+
+			OutputHandler handler = invocation.getArgument(2);
+			handler.readLine("Artist: bar");
+			handler.readLine(null);
+			return null;
+		}).when(executor).execute(any(Command.class), any(InputStream.class), any(OutputHandler.class));
+
+		Map<Tag, String> results = exifTool.getImageMeta(stream, 2, options, Collections.singletonList(StandardTag.ARTIST));
+
+		assertThat(results).hasSize(1).containsEntry(StandardTag.ARTIST, "bar");
+	}
+
+	@Test
+	void it_should_fail_to_get_metadata_from_null_stream() {
+		ExifToolOptions options = StandardOptions.builder().build();
+		InputStream stream = null;
+		assertThatThrownBy(() -> exifTool.getImageMeta(stream, options, Collections.singletonList(StandardTag.ARTIST)))
+				.isInstanceOf(NullPointerException.class)
+				.hasMessage("Stream cannot be null.");
+	}
+
+	@Test
+	void it_should_get_metadata_from_byte_array() throws Exception {
+		ExifToolOptions options = StandardOptions.builder().build();
+
+		doAnswer(invocation -> {
+			OutputHandler handler = invocation.getArgument(2);
+			handler.readLine("Artist: bar");
+			handler.readLine(null);
+			return null;
+		}).when(executor).execute(any(Command.class), any(InputStream.class), any(OutputHandler.class));
+
+		Map<Tag, String> results = exifTool.getImageMeta(new byte[] {1, 2, 3}, options, Collections.singletonList(StandardTag.ARTIST));
+
+		verify(executor).execute(any(Command.class), any(ByteArrayInputStream.class), any(OutputHandler.class));
+		assertThat(results).hasSize(1).containsEntry(StandardTag.ARTIST, "bar");
+	}
+
+	@Test
+	void it_should_execute_command_again_if_process_crashed() throws Exception {
+		File image = new FileBuilder("foo.png").build();
+
+		doAnswer(invocation -> {
+			// Incomplete output, from the crashed process.
+			OutputHandler handler = invocation.getArgument(3);
+			handler.readLine("Artist: foo");
+			throw new ProcessCrashedException("crash");
+		}).doAnswer(invocation -> {
+			OutputHandler handler = invocation.getArgument(3);
+			handler.readLine("Artist: bar");
+			handler.readLine("ISO: 100");
+			handler.readLine("{ready}");
+			return null;
+		}).when(strategy).execute(same(executor), same(path), anyListOf(String.class), any(OutputHandler.class));
+
+		Map<Tag, String> results = exifTool.getImageMeta(image, StandardOptions.builder().build(), asList(StandardTag.ARTIST, StandardTag.ISO));
+
+		assertThat(results).hasSize(2).containsEntry(StandardTag.ARTIST, "bar").containsEntry(StandardTag.ISO, "100");
+		verify(strategy, times(2)).execute(same(executor), same(path), anyListOf(String.class), any(OutputHandler.class));
+	}
+
+	@Test
+	void it_should_not_execute_command_more_than_twice_if_process_crashed() throws Exception {
+		File image = new FileBuilder("foo.png").build();
+		ProcessCrashedException ex = new ProcessCrashedException("crash");
+
+		doThrow(new ProcessCrashedException("crash"))
+				.doThrow(ex)
+				.when(strategy).execute(same(executor), same(path), anyListOf(String.class), any(OutputHandler.class));
+
+		assertThatThrownBy(() -> exifTool.getImageMeta(image, StandardOptions.builder().build(), singletonList(StandardTag.ARTIST)))
+				.isSameAs(ex);
+
+		verify(strategy, times(2)).execute(same(executor), same(path), anyListOf(String.class), any(OutputHandler.class));
+	}
+
 	private static final class ReadTagsAnswer implements Answer<Void> {
 		private final Map<Tag, String> tags;
 
@@ -408,4 +1011,37 @@ class ExifTool_getImageMeta_Test {
 			return null;
 		}
 	}
+
+	private static final class ReadLinesAnswer implements Answer<Void> {
+		private final String[] lines;
+
+		private ReadLinesAnswer(String... lines) {
+			this.lines = lines;
+		}
+
+		@Override
+		public Void answer(InvocationOnMock invocation) {
+			OutputHandler handler = (OutputHandler) invocation.getArguments()[3];
+			for (String line : lines) {
+				handler.readLine(line);
+			}
+
+			return null;
+		}
+	}
+
+	private Map<Tag, String> getImageMeta(File image, Collection<? extends Tag> tags) {
+		try {
+			return exifTool.getImageMeta(image, tags);
+		}
+		catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	private static File createImage(File folder) throws IOException {
+		File image = new File(folder, "foo.png");
+		Files.write(image.toPath(), new byte[]{1, 2, 3});
+		return image;
+	}
 }
@@ -0,0 +1,254 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool;
+
+import com.thebuzzmedia.exiftool.core.FileMetadata;
+import com.thebuzzmedia.exiftool.core.StandardOptions;
+import com.thebuzzmedia.exiftool.core.StandardTag;
+import com.thebuzzmedia.exiftool.core.async.AsyncExecutor;
+import com.thebuzzmedia.exiftool.core.async.RejectionPolicy;
+import com.thebuzzmedia.exiftool.process.Command;
+import com.thebuzzmedia.exiftool.process.CommandExecutor;
+import com.thebuzzmedia.exiftool.process.CommandResult;
+import com.thebuzzmedia.exiftool.process.OutputHandler;
+import com.thebuzzmedia.exiftool.tests.builders.CommandResultBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+import static com.thebuzzmedia.exiftool.tests.MockitoTestUtils.anyListOf;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ExifTool_scanDirectory_Test {
+
+	@TempDir
+	Path directory;
+
+	private String path;
+	private CommandExecutor executor;
+	private ExecutionStrategy strategy;
+	private List<StandardTag> tags;
+	private List<FileMetadata> results;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		executor = mock(CommandExecutor.class);
+		strategy = mock(ExecutionStrategy.class);
+		path = "exiftool";
+		tags = asList(StandardTag.ARTIST, StandardTag.ISO);
+		results = new ArrayList<>();
+
+		CommandResult result = new CommandResultBuilder().output("9.36").build();
+		when(executor.execute(any(Command.class))).thenReturn(result);
+		when(strategy.isSupported(any(Version.class))).thenReturn(true);
+	}
+
+	@Test
+	void it_should_fail_if_directory_is_null() {
+		ExifTool exifTool = new ExifTool(path, executor, strategy);
+		assertThatThrownBy(() -> exifTool.scanDirectory(null, StandardOptions.builder().build(), tags, results::add))
+				.isInstanceOf(NullPointerException.class)
+				.hasMessage("Directory cannot be null.");
+	}
+
+	@Test
+	void it_should_fail_if_path_is_not_a_directory() throws Exception {
+		ExifTool exifTool = new ExifTool(path, executor, strategy);
+		Path file = Files.createFile(directory.resolve("foo.jpg"));
+		assertThatThrownBy(() -> exifTool.scanDirectory(file, StandardOptions.builder().build(), tags, results::add))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("Path [" + file + "] is not a directory");
+	}
+
+	@Test
+	void it_should_fail_with_json_format() {
+		ExifTool exifTool = new ExifTool(path, executor, strategy);
+		StandardOptions options = StandardOptions.builder().withUseJsonFormat(true).build();
+		assertThatThrownBy(() -> exifTool.scanDirectory(directory, options, tags, results::add))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("JSON format is not supported to scan a directory");
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	void it_should_scan_directory_with_a_single_command() throws Exception {
+		ExifTool exifTool = new ExifTool(path, executor, strategy);
+		Files.createDirectory(directory.resolve("sub"));
+
+		doAnswer(new ReadScanOutput(directory.resolve("foo.jpg"), directory.resolve("sub").resolve("bar.jpg")))
+				.when(strategy).execute(same(executor), same(path), anyListOf(String.class), any(OutputHandler.class));
+
+		StandardOptions options = StandardOptions.builder().build();
+		long count = exifTool.scanDirectory(directory, options, tags, asList("jpg", "png"), results::add);
+
+		assertThat(count).isEqualTo(2);
+		assertThat(results).hasSize(2);
+		assertThat(results.get(0).getFile()).isEqualTo(directory.resolve("foo.jpg").toFile());
+		assertThat(results.get(0).getTags()).hasSize(2).containsEntry(StandardTag.ARTIST, "foo").containsEntry(StandardTag.ISO, "100");
+		assertThat(results.get(1).getFile()).isEqualTo(directory.resolve("sub").resolve("bar.jpg").toFile());
+
+		ArgumentCaptor<List<String>> argsCaptor = ArgumentCaptor.forClass(List.class);
+		verify(strategy).execute(same(executor), same(path), argsCaptor.capture(), any(OutputHandler.class));
+		assertThat(argsCaptor.getValue()).containsExactly(
+				"-S", "-Artist", "-ISO", "-r", "-ext", "jpg", "-ext", "png", directory.toString(), "-execute"
+		);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	void it_should_scan_sub_directories_concurrently() throws Exception {
+		AsyncExecutor asyncExecutor = new AsyncExecutor(Runnable::run, 1, RejectionPolicy.ABORT);
+		ExifTool exifTool = new ExifTool(path, executor, strategy, asyncExecutor);
+		Files.createDirectory(directory.resolve("sub"));
+		Files.createDirectory(directory.resolve(".hidden"));
+		Files.createFile(directory.resolve("foo.jpg"));
+
+		doAnswer(new ReadScanOutput(directory.resolve("foo.jpg")))
+				.when(strategy).execute(same(executor), same(path), anyListOf(String.class), any(OutputHandler.class));
+
+		StandardOptions options = StandardOptions.builder().build();
+		long count = exifTool.scanDirectory(directory, options, singletonList(StandardTag.ARTIST), results::add);
+
+		assertThat(count).isEqualTo(2);
+		assertThat(results).hasSize(2);
+
+		ArgumentCaptor<List<String>> argsCaptor = ArgumentCaptor.forClass(List.class);
+		verify(strategy, times(2)).execute(same(executor), same(path), argsCaptor.capture(), any(OutputHandler.class));
+		assertThat(argsCaptor.getAllValues()).containsExactly(
+				asList("-S", "-Artist", directory.toString(), "-execute"),
+				asList("-S", "-Artist", "-r", directory.resolve("sub").toString(), "-execute")
+		);
+	}
+
+	@Test
+	void it_should_scan_all_sub_directories_when_executor_is_full() throws Exception {
+		// Tasks are never run: every directory must be scanned by the caller thread.
+		List<Runnable> queued = new ArrayList<>();
+		AsyncExecutor asyncExecutor = new AsyncExecutor(queued::add, 2, RejectionPolicy.ABORT);
+		ExifTool exifTool = new ExifTool(path, executor, strategy, asyncExecutor);
+		for (int i = 0; i < 5; i++) {
+			Files.createDirectory(directory.resolve("sub" + i));
+		}
+
+		doAnswer(new ReadScanOutput(directory.resolve("foo.jpg")))
+				.when(strategy).execute(same(executor), same(path), anyListOf(String.class), any(OutputHandler.class));
+
+		StandardOptions options = StandardOptions.builder().build();
+		long count = exifTool.scanDirectory(directory, options, singletonList(StandardTag.ARTIST), results::add);
+
+		assertThat(count).isEqualTo(6);
+		assertThat(results).hasSize(6);
+		assertThat(queued).hasSize(2);
+		verify(strategy, times(6)).execute(same(executor), same(path), anyListOf(String.class), any(OutputHandler.class));
+
+		// Tasks started late do not scan anything.
+		for (Runnable task : queued) {
+			task.run();
+		}
+
+		assertThat(asyncExecutor.getPendingTasks()).isZero();
+		verify(strategy, times(6)).execute(same(executor), same(path), anyListOf(String.class), any(OutputHandler.class));
+	}
+
+	@Test
+	void it_should_scan_sub_directories_in_parallel() throws Exception {
+		ExecutorService threads = Executors.newFixedThreadPool(4);
+		try {
+			AsyncExecutor asyncExecutor = new AsyncExecutor(threads, 2, RejectionPolicy.ABORT);
+			ExifTool exifTool = new ExifTool(path, executor, strategy, asyncExecutor);
+			for (int i = 0; i < 10; i++) {
+				Files.createDirectory(directory.resolve("sub" + i));
+			}
+
+			doAnswer(new ReadScanOutput(directory.resolve("foo.jpg")))
+					.when(strategy).execute(same(executor), same(path), anyListOf(String.class), any(OutputHandler.class));
+
+			StandardOptions options = StandardOptions.builder().build();
+			long count = exifTool.scanDirectory(directory, options, singletonList(StandardTag.ARTIST), results::add);
+
+			assertThat(count).isEqualTo(11);
+			assertThat(results).hasSize(11);
+		}
+		finally {
+			threads.shutdownNow();
+		}
+	}
+
+	@Test
+	void it_should_rethrow_consumer_failure_once_output_has_been_read() throws Exception {
+		ExifTool exifTool = new ExifTool(path, executor, strategy);
+		ReadScanOutput answer = new ReadScanOutput(directory.resolve("foo.jpg"), directory.resolve("bar.jpg"));
+		doAnswer(answer)
+				.when(strategy).execute(same(executor), same(path), anyListOf(String.class), any(OutputHandler.class));
+
+		IllegalStateException ex = new IllegalStateException("fail");
+		Consumer<FileMetadata> consumer = metadata -> {
+			throw ex;
+		};
+
+		StandardOptions options = StandardOptions.builder().build();
+		assertThatThrownBy(() -> exifTool.scanDirectory(directory, options, tags, consumer)).isSameAs(ex);
+		assertThat(answer.stopped).isTrue();
+	}
+
+	private static final class ReadScanOutput implements Answer<Void> {
+		private final List<Path> files;
+		private boolean stopped;
+
+		private ReadScanOutput(Path... files) {
+			this.files = asList(files);
+		}
+
+		@Override
+		public Void answer(InvocationOnMock invocation) throws IOException {
+			OutputHandler handler = (OutputHandler) invocation.getArguments()[3];
+			for (Path file : files) {
+				String name = file.getFileName().toString();
+				handler.readLine("======== " + file);
+				handler.readLine("Artist: " + name.substring(0, name.indexOf('.')));
+				handler.readLine("ISO: 100");
+			}
+
+			handler.readLine("    " + files.size() + " image files read");
+			stopped = !handler.readLine("{ready}");
+			return null;
+		}
+	}
+}
@@ -20,6 +20,9 @@ package com.thebuzzmedia.exiftool;
 import com.thebuzzmedia.exiftool.core.StandardFormat;
 import com.thebuzzmedia.exiftool.core.StandardOptions;
 import com.thebuzzmedia.exiftool.core.StandardTag;
+import com.thebuzzmedia.exiftool.core.WriteResult;
+import com.thebuzzmedia.exiftool.core.async.AsyncExecutor;
+import com.thebuzzmedia.exiftool.core.async.RejectionPolicy;
 import com.thebuzzmedia.exiftool.exceptions.UnwritableFileException;
 import com.thebuzzmedia.exiftool.process.Command;
 import com.thebuzzmedia.exiftool.process.CommandExecutor;
@@ -34,19 +37,27 @@ import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import static com.thebuzzmedia.exiftool.tests.MockitoTestUtils.anyListOf;
+import static java.util.Arrays.asList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.same;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -246,6 +257,186 @@ class ExifTool_setImageMeta_Test {
 		);
 	}
 
+	@Test
+	@SuppressWarnings("unchecked")
+	void it_should_set_image_meta_data_of_several_images() throws Exception {
+		File image1 = new FileBuilder("foo.png").build();
+		File image2 = new FileBuilder("bar.png").build();
+		ExifToolOptions options = StandardOptions.builder().withFormat(StandardFormat.NUMERIC).build();
+
+		doAnswer(invocation -> {
+			OutputHandler handler = invocation.getArgument(3);
+			handler.readLine("Error: File not found - /tmp/bar.png");
+			handler.readLine("    1 image files updated");
+			handler.readLine("    1 files weren't updated due to errors");
+			handler.readLine("{ready}");
+			return null;
+		}).when(strategy).execute(same(executor), same(path), anyListOf(String.class), any(OutputHandler.class));
+
+		WriteResult result = exifTool.setImageMeta(asList(image1, image2), options, tags);
+
+		ArgumentCaptor<List<String>> argsCaptor = ArgumentCaptor.forClass(List.class);
+		verify(strategy).execute(same(executor), same(path), argsCaptor.capture(), any(OutputHandler.class));
+		assertThat(argsCaptor.getValue()).containsExactly(
+				"-n",
+				"-S",
+				"-ApertureValue=foo",
+				"-Artist=bar",
+				"/tmp/foo.png",
+				"/tmp/bar.png",
+				"-execute"
+		);
+
+		assertThat(result.isSuccess()).isFalse();
+		assertThat(result.isSuccess(image1)).isTrue();
+		assertThat(result.isSuccess(image2)).isFalse();
+		assertThat(result.getErrors()).hasSize(1).containsEntry(image2, "File not found");
+		assertThat(result.getUpdatedCount()).isEqualTo(1);
+		assertThat(result.getFailedCount()).isEqualTo(1);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void it_should_group_images_with_same_tags() throws Exception {
+		File image1 = new FileBuilder("foo.png").build();
+		File image2 = new FileBuilder("bar.png").build();
+		File image3 = new FileBuilder("baz.png").build();
+		ExifToolOptions options = StandardOptions.builder().build();
+
+		Map<StandardTag, String> otherTags = Collections.singletonMap(StandardTag.ARTIST, "baz");
+		Map<File, Map<StandardTag, String>> tagsByImage = new LinkedHashMap<>();
+		tagsByImage.put(image1, tags);
+		tagsByImage.put(image2, otherTags);
+		tagsByImage.put(image3, new LinkedHashMap<>(tags));
+
+		doAnswer(invocation -> {
+			OutputHandler handler = invocation.getArgument(3);
+			List<String> args = invocation.getArgument(2);
+			long images = args.stream().filter(arg -> arg.endsWith(".png")).count();
+			handler.readLine("    " + images + " image files updated");
+			handler.readLine("{ready}");
+			return null;
+		}).when(strategy).execute(same(executor), same(path), anyListOf(String.class), any(OutputHandler.class));
+
+		WriteResult result = exifTool.setImageMeta(tagsByImage, options);
+
+		ArgumentCaptor<List<String>> argsCaptor = ArgumentCaptor.forClass(List.class);
+		verify(strategy, times(2)).execute(same(executor), same(path), argsCaptor.capture(), any(OutputHandler.class));
+		assertThat(argsCaptor.getAllValues().get(0)).containsExactly(
+				"-S",
+				"-ApertureValue=foo",
+				"-Artist=bar",
+				"/tmp/foo.png",
+				"/tmp/baz.png",
+				"-execute"
+		);
+		assertThat(argsCaptor.getAllValues().get(1)).containsExactly(
+				"-S",
+				"-Artist=baz",
+				"/tmp/bar.png",
+				"-execute"
+		);
+
+		assertThat(result.isSuccess()).isTrue();
+		assertThat(result.getImages()).containsExactly(image1, image2, image3);
+		assertThat(result.getUpdatedCount()).isEqualTo(3);
+	}
+
+	@Test
+	void it_should_write_other_groups_if_one_group_fails() throws Exception {
+		File image1 = new FileBuilder("foo.png").build();
+		File image2 = new FileBuilder("bar.png").build();
+		File image3 = new FileBuilder("baz.png").build();
+		ExifToolOptions options = StandardOptions.builder().build();
+
+		Map<File, Map<StandardTag, String>> tagsByImage = new LinkedHashMap<>();
+		tagsByImage.put(image1, Collections.singletonMap(StandardTag.ARTIST, "foo"));
+		tagsByImage.put(image2, Collections.singletonMap(StandardTag.ARTIST, "bar"));
+		tagsByImage.put(image3, Collections.singletonMap(StandardTag.ARTIST, "baz"));
+
+		doAnswer(invocation -> {
+			List<String> args = invocation.getArgument(2);
+			if (args.contains("/tmp/foo.png")) {
+				throw new IOException("Process crashed");
+			}
+
+			OutputHandler handler = invocation.getArgument(3);
+			handler.readLine("    1 image files updated");
+			handler.readLine("{ready}");
+			return null;
+		}).when(strategy).execute(same(executor), same(path), anyListOf(String.class), any(OutputHandler.class));
+
+		WriteResult result = exifTool.setImageMeta(tagsByImage, options);
+
+		verify(strategy, times(3)).execute(same(executor), same(path), anyListOf(String.class), any(OutputHandler.class));
+		assertThat(result.isSuccess()).isFalse();
+		assertThat(result.getImages()).containsExactly(image1, image2, image3);
+		assertThat(result.isSuccess(image1)).isFalse();
+		assertThat(result.isSuccess(image2)).isTrue();
+		assertThat(result.isSuccess(image3)).isTrue();
+		assertThat(result.getErrors()).hasSize(1).containsEntry(image1, "java.io.IOException: Process crashed");
+		assertThat(result.getUpdatedCount()).isEqualTo(2);
+		assertThat(result.getFailedCount()).isEqualTo(1);
+	}
+
+	@Test
+	void it_should_fail_if_all_groups_fail() throws Exception {
+		File image1 = new FileBuilder("foo.png").build();
+		File image2 = new FileBuilder("bar.png").build();
+		ExifToolOptions options = StandardOptions.builder().build();
+
+		Map<File, Map<StandardTag, String>> tagsByImage = new LinkedHashMap<>();
+		tagsByImage.put(image1, Collections.singletonMap(StandardTag.ARTIST, "foo"));
+		tagsByImage.put(image2, Collections.singletonMap(StandardTag.ARTIST, "bar"));
+
+		IOException ex1 = new IOException("fail 1");
+		IOException ex2 = new IOException("fail 2");
+		doThrow(ex1).doThrow(ex2)
+				.when(strategy).execute(same(executor), same(path), anyListOf(String.class), any(OutputHandler.class));
+
+		assertThatThrownBy(() -> exifTool.setImageMeta(tagsByImage, options))
+				.isSameAs(ex1)
+				.hasSuppressedException(ex2);
+
+		verify(strategy, times(2)).execute(same(executor), same(path), anyListOf(String.class), any(OutputHandler.class));
+	}
+
+	@Test
+	void it_should_write_groups_in_parallel() throws Exception {
+		ExecutorService threads = Executors.newFixedThreadPool(2);
+		try {
+			AsyncExecutor asyncExecutor = new AsyncExecutor(threads, 2, RejectionPolicy.ABORT);
+			ExifTool exifTool = new ExifTool(path, executor, strategy, asyncExecutor);
+
+			File image1 = new FileBuilder("foo.png").build();
+			File image2 = new FileBuilder("bar.png").build();
+			ExifToolOptions options = StandardOptions.builder().build();
+
+			Map<File, Map<StandardTag, String>> tagsByImage = new LinkedHashMap<>();
+			tagsByImage.put(image1, Collections.singletonMap(StandardTag.ARTIST, "foo"));
+			tagsByImage.put(image2, Collections.singletonMap(StandardTag.ARTIST, "bar"));
+
+			// Each command waits for the other one: both must be running at the same time.
+			CyclicBarrier barrier = new CyclicBarrier(2);
+			doAnswer(invocation -> {
+				barrier.await(5, TimeUnit.SECONDS);
+				OutputHandler handler = invocation.getArgument(3);
+				handler.readLine("    1 image files updated");
+				handler.readLine("{ready}");
+				return null;
+			}).when(strategy).execute(same(executor), same(path), anyListOf(String.class), any(OutputHandler.class));
+
+			WriteResult result = exifTool.setImageMeta(tagsByImage, options);
+
+			assertThat(result.isSuccess()).isTrue();
+			assertThat(result.getImages()).containsExactly(image1, image2);
+			assertThat(result.getUpdatedCount()).isEqualTo(2);
+		}
+		finally {
+			threads.shutdownNow();
+		}
+	}
+
 	private static final class WriteTagsAnswer implements Answer<String> {
 		@Override
 		public String answer(InvocationOnMock invocation) {
@@ -0,0 +1,83 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.commons.io;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BoundedInputStreamTest {
+
+	@Test
+	void it_should_fail_with_null_stream() {
+		assertThatThrownBy(() -> new BoundedInputStream(null, 10))
+				.isInstanceOf(NullPointerException.class)
+				.hasMessage("Input stream should not be null");
+	}
+
+	@Test
+	void it_should_fail_with_negative_limit() {
+		assertThatThrownBy(() -> new BoundedInputStream(stream(10), 0))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("Maximum number of bytes should be strictly positive");
+	}
+
+	@Test
+	void it_should_read_bytes_until_limit() throws Exception {
+		BoundedInputStream is = new BoundedInputStream(stream(10), 4);
+
+		byte[] buffer = new byte[8];
+		assertThat(is.read()).isEqualTo(0);
+		assertThat(is.read(buffer, 0, buffer.length)).isEqualTo(3);
+		assertThat(buffer).startsWith(1, 2, 3);
+		assertThat(is.read()).isEqualTo(-1);
+		assertThat(is.read(buffer, 0, buffer.length)).isEqualTo(-1);
+	}
+
+	@Test
+	void it_should_read_shorter_stream() throws Exception {
+		BoundedInputStream is = new BoundedInputStream(stream(2), 4);
+
+		byte[] buffer = new byte[8];
+		assertThat(is.read(buffer, 0, buffer.length)).isEqualTo(2);
+		assertThat(is.read(buffer, 0, buffer.length)).isEqualTo(-1);
+	}
+
+	@Test
+	void it_should_skip_bytes_until_limit() throws Exception {
+		BoundedInputStream is = new BoundedInputStream(stream(10), 4);
+
+		assertThat(is.available()).isEqualTo(4);
+		assertThat(is.skip(6)).isEqualTo(4);
+		assertThat(is.available()).isZero();
+		assertThat(is.read()).isEqualTo(-1);
+	}
+
+	private static InputStream stream(int size) {
+		byte[] bytes = new byte[size];
+		for (int i = 0; i < size; i++) {
+			bytes[i] = (byte) i;
+		}
+
+		return new ByteArrayInputStream(bytes);
+	}
+}
@@ -0,0 +1,64 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.commons.io;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ByteBufferInputStreamTest {
+
+	@Test
+	void it_should_fail_with_null_buffer() {
+		assertThatThrownBy(() -> new ByteBufferInputStream(null))
+				.isInstanceOf(NullPointerException.class)
+				.hasMessage("Buffer should not be null");
+	}
+
+	@Test
+	void it_should_read_remaining_bytes() {
+		ByteBuffer buffer = ByteBuffer.allocateDirect(5);
+		buffer.put(new byte[] {1, 2, 3, 4, (byte) 0xFF});
+		buffer.flip();
+		buffer.position(1);
+
+		ByteBufferInputStream is = new ByteBufferInputStream(buffer);
+
+		byte[] bytes = new byte[3];
+		assertThat(is.available()).isEqualTo(4);
+		assertThat(is.read(bytes, 0, bytes.length)).isEqualTo(3);
+		assertThat(bytes).containsExactly(2, 3, 4);
+		assertThat(is.read()).isEqualTo(0xFF);
+		assertThat(is.read()).isEqualTo(-1);
+		assertThat(is.read(bytes, 0, bytes.length)).isEqualTo(-1);
+
+		// Buffer is not modified.
+		assertThat(buffer.position()).isEqualTo(1);
+	}
+
+	@Test
+	void it_should_skip_bytes() {
+		ByteBufferInputStream is = new ByteBufferInputStream(ByteBuffer.wrap(new byte[] {1, 2, 3}));
+		assertThat(is.skip(2)).isEqualTo(2);
+		assertThat(is.skip(2)).isEqualTo(1);
+		assertThat(is.read()).isEqualTo(-1);
+	}
+}
@@ -0,0 +1,199 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.commons.io;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ByteLineReaderTest {
+
+	@Test
+	void it_should_fail_with_null_input_stream() {
+		assertThatThrownBy(() -> new ByteLineReader(null))
+				.isInstanceOf(NullPointerException.class);
+	}
+
+	@Test
+	void it_should_read_lines() throws Exception {
+		ByteLineReader reader = new ByteLineReader(stream("first-line\nsecond-line\r\nthird-line"));
+
+		assertThat(reader.readLine()).isEqualTo("first-line");
+		assertThat(reader.readLine()).isEqualTo("second-line");
+		assertThat(reader.readLine()).isEqualTo("third-line");
+		assertThat(reader.readLine()).isNull();
+	}
+
+	@Test
+	void it_should_count_bytes_and_lines_read() throws Exception {
+		ByteLineReader reader = new ByteLineReader(stream("first-line\nsecond-line\r\nthird-line"), 4);
+
+		assertThat(reader.readLine()).isEqualTo("first-line");
+		assertThat(reader.getBytesRead()).isEqualTo(11);
+		assertThat(reader.getLinesRead()).isEqualTo(1);
+
+		assertThat(reader.readLine()).isEqualTo("second-line");
+		assertThat(reader.readLine()).isEqualTo("third-line");
+		assertThat(reader.readLine()).isNull();
+		assertThat(reader.getBytesRead()).isEqualTo(34);
+		assertThat(reader.getLinesRead()).isEqualTo(3);
+	}
+
+	@Test
+	void it_should_read_empty_lines() throws Exception {
+		ByteLineReader reader = new ByteLineReader(stream("\n\nfoo\n"));
+
+		assertThat(reader.readLine()).isEmpty();
+		assertThat(reader.readLine()).isEmpty();
+		assertThat(reader.readLine()).isEqualTo("foo");
+		assertThat(reader.readLine()).isNull();
+	}
+
+	@Test
+	void it_should_read_lines_longer_than_buffer() throws Exception {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 100; i++) {
+			sb.append("àéê");
+		}
+
+		String line = sb.toString();
+		ByteLineReader reader = new ByteLineReader(stream(line + "\n" + line), 32);
+
+		assertThat(reader.readLine()).isEqualTo(line);
+		assertThat(reader.readLine()).isEqualTo(line);
+		assertThat(reader.readLine()).isNull();
+	}
+
+	@Test
+	void it_should_copy_bytes_until_ready_marker() throws Exception {
+		byte[] bytes = new byte[100];
+		for (int i = 0; i < bytes.length; i++) {
+			bytes[i] = (byte) (i * 7);
+		}
+
+		ByteArrayOutputStream input = new ByteArrayOutputStream();
+		input.write(bytes);
+		input.write("{ready}\nnext-line\n".getBytes(StandardCharsets.UTF_8));
+
+		ByteLineReader reader = new ByteLineReader(new ByteArrayInputStream(input.toByteArray()), 32);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		assertThat(reader.copyUntilReady(out)).isEqualTo("{ready}");
+		assertThat(out.toByteArray()).isEqualTo(bytes);
+		assertThat(reader.readLine()).isEqualTo("next-line");
+	}
+
+	@Test
+	void it_should_copy_bytes_until_numbered_ready_marker() throws Exception {
+		ByteLineReader reader = new ByteLineReader(stream("foo{ready}bar{ready12}\r\n"));
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		assertThat(reader.copyUntilReady(out)).isEqualTo("{ready12}");
+		assertThat(new String(out.toByteArray(), StandardCharsets.UTF_8)).isEqualTo("foo{ready}bar");
+		assertThat(reader.readLine()).isNull();
+	}
+
+	@Test
+	void it_should_copy_bytes_until_end_of_stream() throws Exception {
+		ByteLineReader reader = new ByteLineReader(stream("foo{ready"));
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		assertThat(reader.copyUntilReady(out)).isNull();
+		assertThat(new String(out.toByteArray(), StandardCharsets.UTF_8)).isEqualTo("foo{ready");
+	}
+
+	@Test
+	void it_should_copy_marker_at_end_of_stream() throws Exception {
+		ByteLineReader reader = new ByteLineReader(stream("foo{ready}"));
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		assertThat(reader.copyUntilReady(out)).isEqualTo("{ready}");
+		assertThat(new String(out.toByteArray(), StandardCharsets.UTF_8)).isEqualTo("foo");
+	}
+
+	@Test
+	void it_should_close_input_stream() throws Exception {
+		ClosableInputStream is = new ClosableInputStream();
+		new ByteLineReader(is).close();
+		assertThat(is.closed).isTrue();
+	}
+
+	@Test
+	void it_should_read_pairs() throws Exception {
+		ByteLineReader reader = new ByteLineReader(stream("Artist: foo: bar\r\nSkipped: baz\nno separator\nArtist: é\n"), 16);
+		List<String> lines = new ArrayList<>();
+		List<String> names = new ArrayList<>();
+		PairVisitor visitor = new PairVisitor() {
+			@Override
+			public boolean accept(String name) {
+				return name.equals("Artist");
+			}
+
+			@Override
+			public boolean readPair(String name, String value) {
+				names.add(name);
+				lines.add(name + "=" + value);
+				return true;
+			}
+
+			@Override
+			public boolean readLine(String line) {
+				lines.add(line);
+				return line != null;
+			}
+		};
+
+		assertThat(reader.readPair(visitor)).isTrue();
+		assertThat(reader.readPair(visitor)).isTrue();
+		assertThat(reader.readPair(visitor)).isTrue();
+		assertThat(reader.readPair(visitor)).isTrue();
+		assertThat(reader.isEof()).isFalse();
+		assertThat(reader.readPair(visitor)).isFalse();
+		assertThat(reader.isEof()).isTrue();
+
+		assertThat(lines).containsExactly("Artist=foo: bar", "no separator", "Artist=é", null);
+		assertThat(names.get(0)).isSameAs(names.get(1));
+	}
+
+	private static InputStream stream(String value) {
+		return new ByteArrayInputStream(value.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static final class ClosableInputStream extends InputStream {
+		private boolean closed;
+
+		@Override
+		public int read() {
+			return -1;
+		}
+
+		@Override
+		public void close() throws IOException {
+			closed = true;
+		}
+	}
+}
@@ -50,6 +50,7 @@ class StandardOptionsTest {
 		assertThat(opts.isOverwriteOriginal()).isFalse();
 		assertThat(opts.isOverwriteOriginalInPlace()).isFalse();
 		assertThat(opts.isUseArgsFormat()).isFalse();
+		assertThat(opts.isUseJsonFormat()).isFalse();
 		assertThat(opts.serialize()).isNotNull().isEmpty();
 	}
 
@@ -322,6 +323,18 @@ class StandardOptionsTest {
 		assertThat(opts.toBuilder().isUseArgsFormat()).isTrue();
 	}
 
+	@Test
+	void it_should_use_json_format() {
+		StandardOptions opts = StandardOptions.builder()
+				.withUseJsonFormat(true)
+				.build();
+
+		assertThat(opts).isNotNull();
+		assertThat(opts.isUseJsonFormat()).isTrue();
+		assertThat(opts.serialize()).hasSize(1).containsExactly("-j");
+		assertThat(opts.toBuilder().isUseJsonFormat()).isTrue();
+	}
+
 	@Test
 	void it_should_implement_equals_hash_code() {
 		EqualsVerifier.forClass(StandardOptions.class)
@@ -350,7 +363,8 @@ class StandardOptionsTest {
 						"extractEmbedded: false, " +
 						"extractUnknown: false, " +
 						"overwriteOriginal: NONE, " +
-						"useArgsFormat: false" +
+						"useArgsFormat: false, " +
+						"useJsonFormat: false" +
 				"}"
 		);
 		// @formatter:on
@@ -376,7 +390,8 @@ class StandardOptionsTest {
 						"duplicates: false, " +
 						"extractEmbedded: false, " +
 						"overwriteOriginal: NONE, " +
-						"useArgsFormat: false" +
+						"useArgsFormat: false, " +
+						"useJsonFormat: false" +
 				"}"
 		);
 		// @formatter:on
@@ -0,0 +1,68 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TagRegistryTest {
+
+	@AfterEach
+	void tearDown() {
+		TagRegistry.clear();
+	}
+
+	@Test
+	void it_should_intern_tag() {
+		UnspecifiedTag tag = TagRegistry.intern("FooBarTag");
+		assertThat(tag).isEqualTo(new UnspecifiedTag("FooBarTag"));
+		assertThat(TagRegistry.intern("FooBarTag")).isSameAs(tag);
+		assertThat(TagRegistry.intern(new String("FooBarTag"))).isSameAs(tag);
+	}
+
+	@Test
+	void it_should_resolve_standard_tag() {
+		assertThat(TagRegistry.resolve("Artist")).isSameAs(StandardTag.ARTIST);
+		assertThat(TagRegistry.resolve("ImageWidth")).isSameAs(StandardTag.IMAGE_WIDTH);
+	}
+
+	@Test
+	void it_should_resolve_unknown_tag() {
+		assertThat(TagRegistry.resolve("FooBarBaz")).isSameAs(TagRegistry.intern("FooBarBaz"));
+	}
+
+	@Test
+	void it_should_not_intern_null_name() {
+		assertThatThrownBy(() -> TagRegistry.intern(null))
+				.isInstanceOf(NullPointerException.class)
+				.hasMessage("Tag name should not be null");
+	}
+
+	@Test
+	void it_should_bound_number_of_interned_tags() {
+		for (int i = 0; i < 10000; i++) {
+			assertThat(TagRegistry.intern("Tag" + i).getName()).isEqualTo("Tag" + i);
+		}
+
+		assertThat(TagRegistry.size()).isEqualTo(8192);
+		assertThat(TagRegistry.intern("Tag9999")).isNotSameAs(TagRegistry.intern("Tag9999"));
+	}
+}
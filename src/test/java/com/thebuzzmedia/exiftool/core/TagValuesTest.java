@@ -0,0 +1,187 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core;
+
+import com.thebuzzmedia.exiftool.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static com.thebuzzmedia.exiftool.tests.ReflectionTestUtils.readPrivateField;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+
+class TagValuesTest {
+
+	@Test
+	void it_should_get_values() {
+		UnspecifiedTag custom = new UnspecifiedTag("Custom");
+		TagValues values = TagValues.builder()
+				.put(StandardTag.ISO, "200")
+				.put(StandardTag.FILE_SIZE, "5000000000")
+				.put(StandardTag.FOCAL_LENGTH, "35.5")
+				.put(StandardTag.ARTIST, "foo")
+				.put(custom, "42")
+				.build();
+
+		assertThat(values.size()).isEqualTo(5);
+		assertThat(values.isEmpty()).isFalse();
+		assertThat(values.getInt(StandardTag.ISO, -1)).isEqualTo(200);
+		assertThat(values.getLong(StandardTag.FILE_SIZE, -1)).isEqualTo(5000000000L);
+		assertThat(values.getDouble(StandardTag.FOCAL_LENGTH, -1)).isEqualTo(35.5);
+		assertThat(values.getString(StandardTag.ARTIST)).isEqualTo("foo");
+		assertThat(values.getInt(custom, -1)).isEqualTo(42);
+		assertThat(values.getInt(new UnspecifiedTag("Custom"), -1)).isEqualTo(42);
+		assertThat(values.contains(StandardTag.ISO)).isTrue();
+		assertThat(values.contains(StandardTag.COMMENT)).isFalse();
+	}
+
+	@Test
+	void it_should_get_values_of_tags_with_same_name() {
+		UnspecifiedTag iso = new UnspecifiedTag("ISO");
+		UnspecifiedTag custom = new UnspecifiedTag("Custom");
+		TagValues values = TagValues.builder()
+				.put(StandardTag.ISO, "200")
+				.put(StandardTag.ARTIST, "foo")
+				.put(custom, "42")
+				.build();
+
+		TagValues renamed = values.forTags(Arrays.<Tag>asList(iso, StandardTag.ARTIST, StandardTag.COMMENT));
+
+		assertThat(renamed.size()).isEqualTo(2);
+		assertThat(renamed.getInt(iso, -1)).isEqualTo(200);
+		assertThat(renamed.getString(StandardTag.ARTIST)).isEqualTo("foo");
+		assertThat(renamed.contains(StandardTag.ISO)).isFalse();
+		assertThat(renamed.contains(custom)).isFalse();
+		assertThat(values.forTags(Arrays.<Tag>asList(custom, StandardTag.ARTIST, StandardTag.ISO))).isSameAs(values);
+	}
+
+	@Test
+	void it_should_return_default_values_of_missing_tags() {
+		TagValues values = TagValues.builder().put(StandardTag.ARTIST, "foo").build();
+
+		assertThat(values.getString(StandardTag.CREATION_DATE)).isNull();
+		assertThat(values.getString(new UnspecifiedTag("Custom"))).isNull();
+		assertThat(values.getInt(StandardTag.ISO, -1)).isEqualTo(-1);
+		assertThat(values.getLong(StandardTag.FILE_SIZE, -2)).isEqualTo(-2);
+		assertThat(values.getDouble(StandardTag.FOCAL_LENGTH, -3)).isEqualTo(-3);
+	}
+
+	@Test
+	void it_should_parse_special_double_values() {
+		TagValues values = TagValues.builder()
+				.put(StandardTag.FOCAL_LENGTH, "inf")
+				.put(StandardTag.APERTURE, "undef")
+				.build();
+
+		assertThat(values.getDouble(StandardTag.FOCAL_LENGTH, 0)).isEqualTo(Double.POSITIVE_INFINITY);
+		assertThat(values.getDouble(StandardTag.APERTURE, 0)).isNaN();
+	}
+
+	@Test
+	void it_should_fail_to_parse_invalid_number() {
+		TagValues values = TagValues.builder().put(StandardTag.ISO, "foo").build();
+		assertThatThrownBy(() -> values.getInt(StandardTag.ISO, 0)).isInstanceOf(NumberFormatException.class);
+	}
+
+	@Test
+	void it_should_get_map_view() {
+		UnspecifiedTag custom = new UnspecifiedTag("Custom");
+		TagValues values = TagValues.builder()
+				.put(StandardTag.ISO, "200")
+				.put(custom, "42")
+				.put(StandardTag.ARTIST, "foo")
+				.put(StandardTag.ARTIST, "bar")
+				.build();
+
+		Map<Tag, String> expected = new HashMap<>();
+		expected.put(StandardTag.ISO, "200");
+		expected.put(StandardTag.ARTIST, "bar");
+		expected.put(custom, "42");
+
+		Map<Tag, String> map = values.asMap();
+		assertThat(map).hasSize(3).isEqualTo(expected).containsOnly(
+				entry(StandardTag.ISO, "200"),
+				entry(StandardTag.ARTIST, "bar"),
+				entry(custom, "42")
+		);
+
+		assertThat(map.get(StandardTag.ISO)).isEqualTo("200");
+		assertThat(map.get("ISO")).isNull();
+		assertThat(map.hashCode()).isEqualTo(expected.hashCode());
+		assertThat(values.asMap()).isSameAs(map);
+		assertThatThrownBy(() -> map.put(StandardTag.COMMENT, "foo")).isInstanceOf(UnsupportedOperationException.class);
+		assertThatThrownBy(() -> map.entrySet().iterator().remove()).isInstanceOf(UnsupportedOperationException.class);
+	}
+
+	@Test
+	void it_should_copy_map() {
+		Map<Tag, String> tags = new LinkedHashMap<>();
+		tags.put(StandardTag.ISO, "200");
+		tags.put(new UnspecifiedTag("Custom"), "42");
+
+		TagValues values = TagValues.copyOf(tags);
+
+		assertThat(values.asMap()).isEqualTo(tags);
+		assertThat(TagValues.copyOf(values.asMap())).isSameAs(values);
+		assertThat(values).isEqualTo(TagValues.copyOf(tags)).hasSameHashCodeAs(TagValues.copyOf(tags));
+	}
+
+	@Test
+	void it_should_not_update_built_values() {
+		TagValues.Builder builder = TagValues.builder().put(StandardTag.ISO, "200");
+		TagValues values = builder.build();
+
+		builder.put(StandardTag.ISO, "400").put(StandardTag.ARTIST, "foo");
+
+		assertThat(values.getInt(StandardTag.ISO, 0)).isEqualTo(200);
+		assertThat(values.size()).isEqualTo(1);
+		assertThat(builder.build().getInt(StandardTag.ISO, 0)).isEqualTo(400);
+	}
+
+	@Test
+	void it_should_allocate_standard_values_lazily() {
+		StandardTag[] standardTags = StandardTag.values();
+		StandardTag last = standardTags[standardTags.length - 1];
+
+		TagValues.Builder builder = TagValues.builder();
+		assertThat((String[]) readPrivateField(builder, "standard")).isNull();
+
+		builder.put(StandardTag.values()[1], "foo");
+		assertThat((String[]) readPrivateField(builder, "standard")).hasSize(8);
+
+		builder.put(last, "bar");
+		assertThat((String[]) readPrivateField(builder, "standard")).hasSize(standardTags.length);
+
+		TagValues values = builder.build();
+		assertThat(values.size()).isEqualTo(2);
+		assertThat(values.getString(StandardTag.values()[1])).isEqualTo("foo");
+		assertThat(values.getString(last)).isEqualTo("bar");
+	}
+
+	@Test
+	void it_should_create_empty_values() {
+		assertThat(TagValues.builder().build()).isSameAs(TagValues.empty());
+		assertThat(TagValues.empty().isEmpty()).isTrue();
+		assertThat(TagValues.empty().asMap()).isEmpty();
+	}
+}
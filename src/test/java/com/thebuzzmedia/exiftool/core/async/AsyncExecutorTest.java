@@ -0,0 +1,185 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core.async;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AsyncExecutorTest {
+
+	private ExecutorService executor;
+	private CountDownLatch latch;
+
+	@BeforeEach
+	void setUp() {
+		executor = Executors.newFixedThreadPool(2);
+		latch = new CountDownLatch(1);
+	}
+
+	@AfterEach
+	void tearDown() {
+		latch.countDown();
+		executor.shutdownNow();
+	}
+
+	@Test
+	void it_should_create_executor() {
+		AsyncExecutor asyncExecutor = new AsyncExecutor(executor, 10, RejectionPolicy.BLOCK);
+		assertThat(asyncExecutor.getMaxPendingTasks()).isEqualTo(10);
+		assertThat(asyncExecutor.getPolicy()).isEqualTo(RejectionPolicy.BLOCK);
+		assertThat(asyncExecutor.getPendingTasks()).isZero();
+	}
+
+	@Test
+	void it_should_fail_with_invalid_max_pending_tasks() {
+		assertThatThrownBy(() -> new AsyncExecutor(executor, 0, RejectionPolicy.ABORT))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("Maximum number of pending tasks should be strictly positive");
+	}
+
+	@Test
+	void it_should_complete_future_with_result() throws Exception {
+		AsyncExecutor asyncExecutor = new AsyncExecutor(executor, 10, RejectionPolicy.ABORT);
+		CompletableFuture<String> future = asyncExecutor.submit(() -> "foo");
+		assertThat(future.get(5, TimeUnit.SECONDS)).isEqualTo("foo");
+	}
+
+	@Test
+	void it_should_complete_future_with_exception() {
+		AsyncExecutor asyncExecutor = new AsyncExecutor(executor, 10, RejectionPolicy.ABORT);
+		IOException ex = new IOException("fail");
+		CompletableFuture<String> future = asyncExecutor.submit(() -> {
+			throw ex;
+		});
+
+		assertThatThrownBy(() -> future.get(5, TimeUnit.SECONDS))
+				.isInstanceOf(ExecutionException.class)
+				.hasCause(ex);
+	}
+
+	@Test
+	void it_should_reject_task_with_abort_policy() throws Exception {
+		AsyncExecutor asyncExecutor = new AsyncExecutor(executor, 1, RejectionPolicy.ABORT);
+		CompletableFuture<String> f1 = asyncExecutor.submit(this::await);
+		CompletableFuture<String> f2 = asyncExecutor.submit(() -> "bar");
+
+		assertThat(asyncExecutor.getPendingTasks()).isEqualTo(1);
+		assertThat(f2).isCompletedExceptionally();
+		assertThatThrownBy(f2::get).hasCauseInstanceOf(RejectedExecutionException.class);
+
+		latch.countDown();
+		assertThat(f1.get(5, TimeUnit.SECONDS)).isEqualTo("foo");
+	}
+
+	@Test
+	void it_should_release_pending_task_before_completing_future() throws Exception {
+		AsyncExecutor asyncExecutor = new AsyncExecutor(executor, 1, RejectionPolicy.ABORT);
+		CompletableFuture<String> future = asyncExecutor.submit(() -> "foo")
+				.thenCompose(result -> asyncExecutor.submit(() -> result + "bar"));
+
+		assertThat(future.get(5, TimeUnit.SECONDS)).isEqualTo("foobar");
+	}
+
+	@Test
+	void it_should_run_task_in_caller_thread_with_caller_runs_policy() throws Exception {
+		AsyncExecutor asyncExecutor = new AsyncExecutor(executor, 1, RejectionPolicy.CALLER_RUNS);
+		CompletableFuture<String> f1 = asyncExecutor.submit(this::await);
+		CompletableFuture<String> f2 = asyncExecutor.submit(() -> Thread.currentThread().getName());
+
+		assertThat(f2).isCompleted();
+		assertThat(f2.get()).isEqualTo(Thread.currentThread().getName());
+
+		latch.countDown();
+		assertThat(f1.get(5, TimeUnit.SECONDS)).isEqualTo("foo");
+	}
+
+	@Test
+	void it_should_block_caller_with_block_policy() throws Exception {
+		AsyncExecutor asyncExecutor = new AsyncExecutor(executor, 1, RejectionPolicy.BLOCK);
+		CompletableFuture<String> f1 = asyncExecutor.submit(this::await);
+
+		AtomicReference<CompletableFuture<String>> f2 = new AtomicReference<>();
+		Thread thread = new Thread(() -> f2.set(asyncExecutor.submit(() -> "bar")));
+		thread.start();
+
+		thread.join(200);
+		assertThat(thread.isAlive()).isTrue();
+		assertThat(f2.get()).isNull();
+
+		latch.countDown();
+		thread.join(5000);
+
+		assertThat(f1.get(5, TimeUnit.SECONDS)).isEqualTo("foo");
+		assertThat(f2.get().get(5, TimeUnit.SECONDS)).isEqualTo("bar");
+	}
+
+	@Test
+	void it_should_complete_future_if_executor_rejects_task() {
+		executor.shutdown();
+
+		AsyncExecutor asyncExecutor = new AsyncExecutor(executor, 1, RejectionPolicy.ABORT);
+		CompletableFuture<String> future = asyncExecutor.submit(() -> "foo");
+
+		assertThat(future).isCompletedExceptionally();
+		assertThat(asyncExecutor.getPendingTasks()).isZero();
+	}
+
+	@Test
+	void it_should_not_submit_task_if_max_pending_tasks_is_reached() throws Exception {
+		AsyncExecutor asyncExecutor = new AsyncExecutor(executor, 1, RejectionPolicy.BLOCK);
+		CompletableFuture<String> f1 = asyncExecutor.trySubmit(this::await);
+		CompletableFuture<String> f2 = asyncExecutor.trySubmit(() -> "bar");
+
+		assertThat(f1).isNotNull();
+		assertThat(f2).isNull();
+		assertThat(asyncExecutor.getPendingTasks()).isEqualTo(1);
+
+		latch.countDown();
+		assertThat(f1.get(5, TimeUnit.SECONDS)).isEqualTo("foo");
+		assertThat(asyncExecutor.trySubmit(() -> "bar").get(5, TimeUnit.SECONDS)).isEqualTo("bar");
+	}
+
+	@Test
+	void it_should_not_submit_task_if_executor_rejects_task() {
+		executor.shutdown();
+
+		AsyncExecutor asyncExecutor = new AsyncExecutor(executor, 1, RejectionPolicy.ABORT);
+
+		assertThat(asyncExecutor.trySubmit(() -> "foo")).isNull();
+		assertThat(asyncExecutor.getPendingTasks()).isZero();
+	}
+
+	private String await() throws InterruptedException {
+		latch.await();
+		return "foo";
+	}
+}
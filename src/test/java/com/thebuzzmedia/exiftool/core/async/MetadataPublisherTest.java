@@ -0,0 +1,200 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core.async;
+
+import com.thebuzzmedia.exiftool.core.FileMetadata;
+import com.thebuzzmedia.exiftool.core.StandardTag;
+import com.thebuzzmedia.exiftool.core.TagValues;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonMap;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MetadataPublisherTest {
+
+	private List<File> images;
+	private Map<File, CompletableFuture<FileMetadata>> reads;
+	private RecordingSubscriber subscriber;
+
+	@BeforeEach
+	void setUp() {
+		images = asList(new File("/tmp/foo.png"), new File("/tmp/bar.png"), new File("/tmp/baz.png"));
+		reads = new LinkedHashMap<>();
+		subscriber = new RecordingSubscriber();
+	}
+
+	@Test
+	void it_should_fail_with_invalid_concurrency() {
+		assertThatThrownBy(() -> new MetadataPublisher(images, this::read, 0))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("Concurrency should be strictly positive");
+	}
+
+	@Test
+	void it_should_not_read_images_without_demand() {
+		new MetadataPublisher(images, this::read, 2).subscribe(subscriber);
+
+		assertThat(subscriber.subscription).isNotNull();
+		assertThat(reads).isEmpty();
+	}
+
+	@Test
+	void it_should_read_images_according_to_demand_and_concurrency() {
+		new MetadataPublisher(images, this::read, 1).subscribe(subscriber);
+
+		subscriber.subscription.request(2);
+		assertThat(reads).containsOnlyKeys(images.get(0));
+
+		complete(images.get(0));
+		assertThat(subscriber.items).extracting(FileMetadata::getFile).containsExactly(images.get(0));
+		assertThat(reads).containsOnlyKeys(images.get(0), images.get(1));
+
+		complete(images.get(1));
+		assertThat(subscriber.items).extracting(FileMetadata::getFile).containsExactly(images.get(0), images.get(1));
+		assertThat(reads).hasSize(2);
+		assertThat(subscriber.completed).isFalse();
+
+		subscriber.subscription.request(10);
+		complete(images.get(2));
+		assertThat(subscriber.items).hasSize(3);
+		assertThat(subscriber.completed).isTrue();
+		assertThat(subscriber.error).isNull();
+	}
+
+	@Test
+	void it_should_read_images_concurrently() {
+		new MetadataPublisher(images, this::read, 2).subscribe(subscriber);
+
+		subscriber.subscription.request(Long.MAX_VALUE);
+		assertThat(reads).containsOnlyKeys(images.get(0), images.get(1));
+
+		complete(images.get(1));
+		assertThat(subscriber.items).extracting(FileMetadata::getFile).containsExactly(images.get(1));
+		assertThat(reads).hasSize(3);
+
+		complete(images.get(2));
+		complete(images.get(0));
+		assertThat(subscriber.items).extracting(FileMetadata::getFile).containsExactly(images.get(1), images.get(2), images.get(0));
+		assertThat(subscriber.completed).isTrue();
+	}
+
+	@Test
+	void it_should_complete_without_images() {
+		new MetadataPublisher(new ArrayList<>(), this::read, 2).subscribe(subscriber);
+		subscriber.subscription.request(1);
+		assertThat(subscriber.completed).isTrue();
+	}
+
+	@Test
+	void it_should_notify_read_failure() {
+		new MetadataPublisher(images, this::read, 1).subscribe(subscriber);
+
+		subscriber.subscription.request(3);
+		IOException ex = new IOException("fail");
+		reads.get(images.get(0)).completeExceptionally(ex);
+
+		assertThat(subscriber.error).isSameAs(ex);
+		assertThat(subscriber.completed).isFalse();
+		assertThat(reads).hasSize(1);
+	}
+
+	@Test
+	void it_should_notify_invalid_demand() {
+		new MetadataPublisher(images, this::read, 1).subscribe(subscriber);
+
+		subscriber.subscription.request(0);
+
+		assertThat(subscriber.error).isInstanceOf(IllegalArgumentException.class);
+		assertThat(reads).isEmpty();
+	}
+
+	@Test
+	void it_should_stop_reading_images_once_cancelled() {
+		new MetadataPublisher(images, this::read, 1).subscribe(subscriber);
+
+		subscriber.subscription.request(3);
+		subscriber.subscription.cancel();
+		complete(images.get(0));
+
+		assertThat(subscriber.items).isEmpty();
+		assertThat(reads).hasSize(1);
+		assertThat(subscriber.completed).isFalse();
+	}
+
+	@Test
+	void it_should_reject_second_subscriber() {
+		MetadataPublisher publisher = new MetadataPublisher(images, this::read, 1);
+		publisher.subscribe(subscriber);
+
+		RecordingSubscriber other = new RecordingSubscriber();
+		publisher.subscribe(other);
+
+		assertThat(other.subscription).isNotNull();
+		assertThat(other.error).isInstanceOf(IllegalStateException.class).hasMessage("Publisher allows only one subscriber");
+		assertThat(subscriber.error).isNull();
+	}
+
+	private CompletableFuture<FileMetadata> read(File image) {
+		CompletableFuture<FileMetadata> future = new CompletableFuture<>();
+		reads.put(image, future);
+		return future;
+	}
+
+	private void complete(File image) {
+		TagValues tags = TagValues.copyOf(singletonMap(StandardTag.ARTIST, image.getName()));
+		reads.get(image).complete(new FileMetadata(image, tags));
+	}
+
+	private static final class RecordingSubscriber implements Subscriber<FileMetadata> {
+		private final List<FileMetadata> items = new ArrayList<>();
+		private Subscription subscription;
+		private Throwable error;
+		private boolean completed;
+
+		@Override
+		public void onSubscribe(Subscription subscription) {
+			this.subscription = subscription;
+		}
+
+		@Override
+		public void onNext(FileMetadata item) {
+			items.add(item);
+		}
+
+		@Override
+		public void onError(Throwable throwable) {
+			error = throwable;
+		}
+
+		@Override
+		public void onComplete() {
+			completed = true;
+		}
+	}
+}
@@ -0,0 +1,121 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core.cache;
+
+import com.thebuzzmedia.exiftool.MetadataCache;
+import com.thebuzzmedia.exiftool.Tag;
+import com.thebuzzmedia.exiftool.core.StandardOptions;
+import com.thebuzzmedia.exiftool.core.StandardTag;
+import com.thebuzzmedia.exiftool.core.TagValues;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import static java.util.Collections.singleton;
+import static org.assertj.core.api.Assertions.assertThat;
+
+abstract class AbstractMetadataCacheTest<T extends MetadataCache> {
+
+	@TempDir
+	File tmp;
+
+	File image1;
+	File image2;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		image1 = new File(tmp, "image1.jpg");
+		image2 = new File(tmp, "image2.jpg");
+		Files.write(image1.toPath(), new byte[]{1});
+		Files.write(image2.toPath(), new byte[]{2});
+	}
+
+	@Test
+	void it_should_get_cached_metadata() throws Exception {
+		MetadataCache cache = create(10_000);
+		MetadataCacheKey key = key(image1, StandardTag.ARTIST);
+		TagValues tags = tags(StandardTag.ARTIST, "foo");
+
+		assertThat(cache.get(key)).isNull();
+
+		cache.put(key, tags);
+
+		assertThat(cache.get(key)).isEqualTo(tags);
+		assertThat(cache.get(key(image1, StandardTag.ARTIST))).isEqualTo(tags);
+		assertThat(cache.get(key(image1, StandardTag.COMMENT))).isNull();
+		assertThat(cache.size()).isEqualTo(1);
+		assertThat(cache.hitCount()).isEqualTo(2);
+		assertThat(cache.missCount()).isEqualTo(2);
+	}
+
+	@Test
+	void it_should_invalidate_entries_of_image() throws Exception {
+		MetadataCache cache = create(10_000);
+		cache.put(key(image1, StandardTag.ARTIST), tags(StandardTag.ARTIST, "foo"));
+		cache.put(key(image1, StandardTag.COMMENT), tags(StandardTag.COMMENT, "bar"));
+		cache.put(key(image2, StandardTag.ARTIST), tags(StandardTag.ARTIST, "foo"));
+
+		cache.invalidate(new File(tmp, "./image1.jpg"));
+
+		assertThat(cache.size()).isEqualTo(1);
+		assertThat(cache.get(key(image2, StandardTag.ARTIST))).isNotNull();
+	}
+
+	@Test
+	void it_should_evict_entries_once_maximum_weight_is_exceeded() throws Exception {
+		MetadataCacheKey key1 = key(image1, StandardTag.ARTIST);
+		MetadataCacheKey key2 = key(image2, StandardTag.ARTIST);
+		TagValues tags = tags(StandardTag.ARTIST, "foo");
+
+		MetadataCache cache = create(key1.weigh(tags) + key2.weigh(tags) - 1);
+		cache.put(key1, tags);
+		cache.put(key2, tags);
+
+		// Eviction may be approximate, depending on the implementation.
+		assertThat(cache.size()).isLessThan(2);
+	}
+
+	@Test
+	void it_should_clear_cache() throws Exception {
+		MetadataCache cache = create(10_000);
+		cache.put(key(image1, StandardTag.ARTIST), tags(StandardTag.ARTIST, "foo"));
+		assertThat(cache.size()).isEqualTo(1);
+
+		cache.clear();
+		assertThat(cache.size()).isZero();
+	}
+
+	static TagValues tags(Tag tag, String value) {
+		return TagValues.builder().put(tag, value).build();
+	}
+
+	static MetadataCacheKey key(File image, Tag tag) throws Exception {
+		return MetadataCacheKey.of(image, StandardOptions.builder().build(), singleton(tag));
+	}
+
+	/**
+	 * Create the cache implementation.
+	 *
+	 * @param maximumWeight Maximum weight.
+	 * @return Cache implementation.
+	 */
+	abstract T create(long maximumWeight);
+}
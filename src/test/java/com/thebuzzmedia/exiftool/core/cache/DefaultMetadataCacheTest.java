@@ -0,0 +1,90 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core.cache;
+
+import com.thebuzzmedia.exiftool.core.StandardTag;
+import com.thebuzzmedia.exiftool.core.TagValues;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Set;
+
+import static com.thebuzzmedia.exiftool.tests.ReflectionTestUtils.readPrivateField;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DefaultMetadataCacheTest extends AbstractMetadataCacheTest<DefaultMetadataCache> {
+
+	@Override
+	DefaultMetadataCache create(long maximumWeight) {
+		return new DefaultMetadataCache(maximumWeight);
+	}
+
+	@Test
+	void it_should_evict_least_recently_used_entry() throws Exception {
+		MetadataCacheKey k1 = key(image1, StandardTag.ARTIST);
+		MetadataCacheKey k2 = key(image1, StandardTag.COMMENT);
+		MetadataCacheKey k3 = key(image2, StandardTag.ARTIST);
+		TagValues tags = tags(StandardTag.ARTIST, "foo");
+
+		DefaultMetadataCache cache = create(k1.weigh(tags) + k2.weigh(tags) + k3.weigh(tags) - 1);
+		cache.put(k1, tags);
+		cache.put(k2, tags);
+		cache.get(k1);
+		cache.put(k3, tags);
+
+		assertThat(cache.size()).isEqualTo(2);
+		assertThat(cache.get(k1)).isSameAs(tags);
+		assertThat(cache.get(k2)).isNull();
+		assertThat(cache.get(k3)).isSameAs(tags);
+	}
+
+	@Test
+	void it_should_not_store_entry_heavier_than_cache() throws Exception {
+		MetadataCacheKey key = key(image1, StandardTag.ARTIST);
+		TagValues tags = tags(StandardTag.ARTIST, "foo");
+
+		DefaultMetadataCache cache = create(key.weigh(tags) - 1);
+		cache.put(key, tags);
+
+		assertThat(cache.size()).isZero();
+	}
+
+	@Test
+	void it_should_index_keys_by_path() throws Exception {
+		MetadataCacheKey k1 = key(image1, StandardTag.ARTIST);
+		MetadataCacheKey k2 = key(image1, StandardTag.COMMENT);
+		MetadataCacheKey k3 = key(image2, StandardTag.ARTIST);
+		TagValues tags = tags(StandardTag.ARTIST, "foo");
+
+		DefaultMetadataCache cache = create(k1.weigh(tags) + k2.weigh(tags) + k3.weigh(tags) - 1);
+		cache.put(k1, tags);
+		cache.put(k2, tags);
+		cache.put(k3, tags);
+
+		Map<String, Set<MetadataCacheKey>> keys = readPrivateField(cache, "keys");
+		assertThat(keys).hasSize(2);
+		assertThat(keys.get(k1.getPath())).containsExactly(k2);
+
+		cache.invalidate(image1);
+		assertThat(cache.size()).isEqualTo(1);
+		assertThat(keys).containsOnlyKeys(k3.getPath());
+
+		cache.clear();
+		assertThat(keys).isEmpty();
+	}
+}
@@ -0,0 +1,80 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core.cache;
+
+import com.thebuzzmedia.exiftool.core.StandardTag;
+import com.thebuzzmedia.exiftool.core.TagValues;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static com.thebuzzmedia.exiftool.tests.ReflectionTestUtils.readPrivateField;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GuavaMetadataCacheTest extends AbstractMetadataCacheTest<GuavaMetadataCache> {
+
+	@Override
+	GuavaMetadataCache create(long maximumWeight) {
+		return new GuavaMetadataCache(maximumWeight);
+	}
+
+	@Test
+	void it_should_index_keys_by_path() throws Exception {
+		MetadataCacheKey k1 = key(image1, StandardTag.ARTIST);
+		MetadataCacheKey k2 = key(image1, StandardTag.COMMENT);
+		MetadataCacheKey k3 = key(image2, StandardTag.ARTIST);
+		TagValues v1 = tags(StandardTag.ARTIST, "foo");
+		TagValues v2 = tags(StandardTag.ARTIST, "bar");
+
+		GuavaMetadataCache cache = create(10_000);
+		cache.put(k1, v1);
+		cache.put(k1, v2);
+		cache.put(k2, v1);
+		cache.put(k3, v1);
+
+		// Replaced value is not removed from the index.
+		Map<String, Map<MetadataCacheKey, TagValues>> keys = readPrivateField(cache, "keys");
+		assertThat(keys).hasSize(2);
+		assertThat(keys.get(k1.getPath())).hasSize(2).containsEntry(k1, v2);
+
+		cache.invalidate(image1);
+		assertThat(cache.size()).isEqualTo(1);
+		assertThat(cache.get(k1)).isNull();
+		assertThat(keys).containsOnlyKeys(k3.getPath());
+
+		cache.clear();
+		assertThat(keys).isEmpty();
+	}
+
+	@Test
+	void it_should_keep_index_of_entry_replaced_by_equal_value() throws Exception {
+		MetadataCacheKey key = key(image1, StandardTag.ARTIST);
+
+		// Two concurrent misses put equal values.
+		GuavaMetadataCache cache = create(10_000);
+		cache.put(key, tags(StandardTag.ARTIST, "foo"));
+		cache.put(key, tags(StandardTag.ARTIST, "foo"));
+
+		Map<String, Map<MetadataCacheKey, TagValues>> keys = readPrivateField(cache, "keys");
+		assertThat(keys.get(key.getPath())).containsOnlyKeys(key);
+
+		cache.invalidate(image1);
+		assertThat(cache.size()).isZero();
+		assertThat(cache.get(key)).isNull();
+	}
+}
@@ -0,0 +1,87 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core.cache;
+
+import com.thebuzzmedia.exiftool.ExifToolOptions;
+import com.thebuzzmedia.exiftool.core.StandardFormat;
+import com.thebuzzmedia.exiftool.core.StandardOptions;
+import com.thebuzzmedia.exiftool.core.StandardTag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.InstanceOfAssertFactories.ITERABLE;
+
+class MetadataCacheKeyTest {
+
+	@TempDir
+	File tmp;
+
+	@Test
+	void it_should_create_key() throws Exception {
+		File image = new File(tmp, "image.jpg");
+		Files.write(image.toPath(), new byte[]{1, 2, 3});
+
+		ExifToolOptions options = StandardOptions.builder().withFormat(StandardFormat.NUMERIC).build();
+		MetadataCacheKey key = MetadataCacheKey.of(image, options, asList(StandardTag.ARTIST, StandardTag.COMMENT));
+
+		assertThat(key.getPath()).isEqualTo(image.getCanonicalPath());
+		assertThat(key).hasFieldOrPropertyWithValue("size", 3L);
+		assertThat(key).extracting("options").asList().containsExactly("-n");
+		assertThat(key).extracting("tags").asInstanceOf(ITERABLE).containsExactly("Artist", "XPComment");
+	}
+
+	@Test
+	void it_should_implement_equals_hash_code() throws Exception {
+		File image = new File(tmp, "image.jpg");
+		Files.write(image.toPath(), new byte[]{1, 2, 3});
+
+		ExifToolOptions options = StandardOptions.builder().build();
+		MetadataCacheKey k1 = MetadataCacheKey.of(image, options, asList(StandardTag.ARTIST, StandardTag.COMMENT));
+		MetadataCacheKey k2 = MetadataCacheKey.of(image, options, asList(StandardTag.COMMENT, StandardTag.ARTIST));
+		MetadataCacheKey k3 = MetadataCacheKey.of(image, options, asList(StandardTag.ARTIST));
+		MetadataCacheKey k4 = MetadataCacheKey.of(image, StandardOptions.builder().withFormat(StandardFormat.NUMERIC).build(), asList(StandardTag.ARTIST, StandardTag.COMMENT));
+
+		assertThat(k1).isEqualTo(k2).hasSameHashCodeAs(k2);
+		assertThat(k1).isNotEqualTo(k3);
+		assertThat(k1).isNotEqualTo(k4);
+	}
+
+	@Test
+	void it_should_change_when_image_is_modified() throws Exception {
+		File image = new File(tmp, "image.jpg");
+		Files.write(image.toPath(), new byte[]{1, 2, 3});
+
+		ExifToolOptions options = StandardOptions.builder().build();
+		MetadataCacheKey k1 = MetadataCacheKey.of(image, options, asList(StandardTag.ARTIST));
+
+		Files.setLastModifiedTime(image.toPath(), FileTime.fromMillis(0));
+		MetadataCacheKey k2 = MetadataCacheKey.of(image, options, asList(StandardTag.ARTIST));
+
+		Files.write(image.toPath(), new byte[]{1, 2, 3, 4});
+		MetadataCacheKey k3 = MetadataCacheKey.of(image, options, asList(StandardTag.ARTIST));
+
+		assertThat(k1).isNotEqualTo(k2);
+		assertThat(k2).isNotEqualTo(k3);
+	}
+}
@@ -0,0 +1,305 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core.cache;
+
+import com.thebuzzmedia.exiftool.core.StandardTag;
+import com.thebuzzmedia.exiftool.core.TagValues;
+import com.thebuzzmedia.exiftool.core.UnspecifiedTag;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.thebuzzmedia.exiftool.tests.ReflectionTestUtils.readPrivateField;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singleton;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PersistentMetadataCacheTest extends AbstractMetadataCacheTest<PersistentMetadataCache> {
+
+	private final List<PersistentMetadataCache> caches = new ArrayList<>();
+
+	@AfterEach
+	void tearDown() throws Exception {
+		for (PersistentMetadataCache cache : caches) {
+			cache.close();
+		}
+	}
+
+	@Override
+	PersistentMetadataCache create(long maximumWeight) {
+		return open(maximumWeight);
+	}
+
+	@Test
+	void it_should_fail_with_invalid_maximum_size() {
+		assertThatThrownBy(() -> PersistentMetadataCache.open(directory(), 0))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("Maximum size of metadata cache must be strictly positive");
+	}
+
+	@Test
+	void it_should_read_entries_after_restart() throws Exception {
+		TagValues tags = TagValues.builder()
+				.put(StandardTag.ARTIST, "foo")
+				.put(new UnspecifiedTag("Custom"), "bar")
+				.build();
+
+		PersistentMetadataCache cache = open(1_000_000);
+		cache.put(key(1), tags);
+		cache.close();
+
+		PersistentMetadataCache reopened = open(1_000_000);
+		assertThat(reopened.size()).isEqualTo(1);
+		assertThat(reopened.get(key(1))).isEqualTo(tags);
+		assertThat(reopened.get(key(2))).isNull();
+	}
+
+	@Test
+	void it_should_discard_partially_written_record() throws Exception {
+		PersistentMetadataCache cache = open(1_000_000);
+		cache.put(key(1), tags(StandardTag.ARTIST, "foo"));
+		long size = cache.getLogSize();
+		cache.close();
+
+		// Record interrupted by a crash.
+		Files.write(directory().resolve("metadata.log"), new byte[]{0, 0, 0, 42, 1, 2}, StandardOpenOption.APPEND);
+
+		PersistentMetadataCache reopened = open(1_000_000);
+		assertThat(reopened.getLogSize()).isEqualTo(size);
+		assertThat(reopened.get(key(1))).isEqualTo(tags(StandardTag.ARTIST, "foo"));
+
+		reopened.put(key(2), tags(StandardTag.ARTIST, "bar"));
+		assertThat(reopened.get(key(2))).isEqualTo(tags(StandardTag.ARTIST, "bar"));
+	}
+
+	@Test
+	void it_should_rebuild_index_if_cache_has_not_been_closed() throws Exception {
+		PersistentMetadataCache cache = open(1_000_000);
+		cache.put(key(1), tags(StandardTag.ARTIST, "foo"));
+		crash(cache);
+
+		PersistentMetadataCache reopened = open(1_000_000);
+		assertThat(reopened.size()).isEqualTo(1);
+		assertThat(reopened.get(key(1))).isEqualTo(tags(StandardTag.ARTIST, "foo"));
+	}
+
+	@Test
+	void it_should_rebuild_missing_index() throws Exception {
+		PersistentMetadataCache cache = open(1_000_000);
+		for (int i = 0; i < 2000; i++) {
+			cache.put(key(i), tags(StandardTag.ARTIST, "artist " + i));
+		}
+
+		cache.close();
+		Files.delete(directory().resolve("metadata.idx"));
+
+		PersistentMetadataCache reopened = open(1_000_000);
+		assertThat(reopened.size()).isEqualTo(2000);
+		for (int i = 0; i < 2000; i++) {
+			assertThat(reopened.get(key(i))).isEqualTo(tags(StandardTag.ARTIST, "artist " + i));
+		}
+	}
+
+	@Test
+	void it_should_compact_log_to_keep_size_bounded() throws Exception {
+		PersistentMetadataCache cache = open(10_000);
+		for (int i = 0; i < 500; i++) {
+			cache.put(key(i), tags(StandardTag.ARTIST, "artist " + i));
+			assertThat(cache.getLogSize()).isLessThanOrEqualTo(10_000);
+		}
+
+		assertThat(cache.size()).isPositive().isLessThan(500);
+		assertThat(cache.get(key(499))).isEqualTo(tags(StandardTag.ARTIST, "artist 499"));
+		assertThat(cache.get(key(0))).isNull();
+
+		cache.close();
+		PersistentMetadataCache reopened = open(10_000);
+		assertThat(reopened.get(key(499))).isEqualTo(tags(StandardTag.ARTIST, "artist 499"));
+	}
+
+	@Test
+	void it_should_compact_overwritten_entries() throws Exception {
+		PersistentMetadataCache cache = open(10_000);
+		for (int i = 0; i < 500; i++) {
+			cache.put(key(1), tags(StandardTag.ARTIST, "artist " + i));
+		}
+
+		assertThat(cache.size()).isEqualTo(1);
+		assertThat(cache.getLogSize()).isLessThanOrEqualTo(10_000);
+		assertThat(cache.get(key(1))).isEqualTo(tags(StandardTag.ARTIST, "artist 499"));
+	}
+
+	@Test
+	void it_should_not_leave_temporary_files_if_compaction_fails() throws Exception {
+		PersistentMetadataCache cache = open(10_000);
+
+		// The compacted log cannot replace a (non empty) directory.
+		Path logFile = directory().resolve("metadata.log");
+		Files.delete(logFile);
+		Files.createDirectory(logFile);
+		Files.createFile(logFile.resolve("foo"));
+
+		for (int i = 0; i < 500; i++) {
+			cache.put(key(i), tags(StandardTag.ARTIST, "artist " + i));
+		}
+
+		assertThat(cache.getLogSize()).isGreaterThan(10_000);
+		assertThat(cache.size()).isEqualTo(500);
+		assertThat(cache.get(key(0))).isEqualTo(tags(StandardTag.ARTIST, "artist 0"));
+		assertThat(cache.get(key(499))).isEqualTo(tags(StandardTag.ARTIST, "artist 499"));
+		assertThat(directory().resolve("metadata.log.tmp")).doesNotExist();
+		assertThat(directory().resolve("metadata.idx.compact")).doesNotExist();
+	}
+
+	@Test
+	void it_should_read_and_write_entries_while_log_is_compacted() throws Exception {
+		PersistentMetadataCache cache = open(20_000);
+		ExecutorService threads = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < 4; t++) {
+				int first = t * 1000;
+				futures.add(threads.submit(() -> {
+					for (int i = first; i < first + 1000; i++) {
+						cache.put(key(i), tags(StandardTag.ARTIST, "artist " + i));
+						TagValues tags = cache.get(key(i - 1));
+						assertThat(tags).isIn(null, tags(StandardTag.ARTIST, "artist " + (i - 1)));
+					}
+
+					return null;
+				}));
+			}
+
+			for (Future<?> future : futures) {
+				future.get(30, TimeUnit.SECONDS);
+			}
+		}
+		finally {
+			threads.shutdownNow();
+		}
+
+		// Oldest entries have been dropped, but each indexed entry must be readable.
+		long size = cache.size();
+		long found = 0;
+		for (int i = 0; i < 4000; i++) {
+			TagValues tags = cache.get(key(i));
+			if (tags != null) {
+				assertThat(tags).isEqualTo(tags(StandardTag.ARTIST, "artist " + i));
+				found++;
+			}
+		}
+
+		assertThat(size).isPositive();
+		assertThat(found).isEqualTo(size);
+
+		cache.close();
+		PersistentMetadataCache reopened = open(20_000);
+		assertThat(reopened.size()).isEqualTo(size);
+	}
+
+	@Test
+	void it_should_keep_invalidation_after_restart() throws Exception {
+		File image = new File("/tmp/image.jpg");
+		MetadataCacheKey key = new MetadataCacheKey(MetadataCacheKey.pathOf(image), 1, 1, emptyList(), singleton("Artist"));
+
+		PersistentMetadataCache cache = open(1_000_000);
+		cache.put(key, tags(StandardTag.ARTIST, "foo"));
+		cache.invalidate(image);
+		assertThat(cache.get(key)).isNull();
+		crash(cache);
+
+		PersistentMetadataCache reopened = open(1_000_000);
+		assertThat(reopened.size()).isZero();
+		assertThat(reopened.get(key)).isNull();
+	}
+
+	@Test
+	void it_should_invalidate_all_entries_of_image_among_many_entries() throws Exception {
+		PersistentMetadataCache cache = open(100_000_000);
+		for (int i = 0; i < 2000; i++) {
+			cache.put(key(i), tags(StandardTag.ARTIST, "foo"));
+			cache.put(new MetadataCacheKey("/images/" + i + ".jpg", i, 1000L + i, emptyList(), singleton("ISO")), tags(StandardTag.ISO, "100"));
+		}
+
+		for (int i = 0; i < 2000; i += 2) {
+			cache.invalidate(new File("/images/" + i + ".jpg"));
+		}
+
+		assertThat(cache.size()).isEqualTo(2000);
+		assertThat(cache.get(key(10))).isNull();
+		assertThat(cache.get(key(11))).isNotNull();
+		cache.close();
+
+		PersistentMetadataCache reopened = open(100_000_000);
+		assertThat(reopened.size()).isEqualTo(2000);
+		assertThat(reopened.get(key(1998))).isNull();
+		assertThat(reopened.get(key(1999))).isNotNull();
+	}
+
+	@Test
+	void it_should_clear_persistent_cache() throws Exception {
+		PersistentMetadataCache cache = open(1_000_000);
+		cache.put(key(1), tags(StandardTag.ARTIST, "foo"));
+		cache.clear();
+		cache.close();
+
+		PersistentMetadataCache reopened = open(1_000_000);
+		assertThat(reopened.size()).isZero();
+		assertThat(reopened.getLogSize()).isEqualTo(MetadataLog.HEADER_SIZE);
+	}
+
+	private PersistentMetadataCache open(long maximumSize) {
+		try {
+			PersistentMetadataCache cache = PersistentMetadataCache.open(directory(), maximumSize);
+			caches.add(cache);
+			return cache;
+		}
+		catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	private Path directory() {
+		return tmp.toPath().resolve("cache");
+	}
+
+	private static MetadataCacheKey key(int i) {
+		return new MetadataCacheKey("/images/" + i + ".jpg", i, 1000L + i, emptyList(), singleton("Artist"));
+	}
+
+	// Release files without closing the cache cleanly.
+	private void crash(PersistentMetadataCache cache) throws IOException {
+		caches.remove(cache);
+		((Closeable) readPrivateField(cache, "metadataLog")).close();
+		((Closeable) readPrivateField(cache, "index")).close();
+	}
+}
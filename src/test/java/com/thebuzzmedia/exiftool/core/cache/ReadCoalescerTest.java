@@ -0,0 +1,193 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.thebuzzmedia.exiftool.core.cache;
+
+import com.thebuzzmedia.exiftool.core.ReadResult;
+import com.thebuzzmedia.exiftool.core.StandardOptions;
+import com.thebuzzmedia.exiftool.core.StandardTag;
+import com.thebuzzmedia.exiftool.core.TagValues;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ReadCoalescerTest {
+
+	@TempDir
+	File tmp;
+
+	private File image;
+	private MetadataCacheKey key;
+	private ReadCoalescer readCoalescer;
+	private Thread thread;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		image = new File(tmp, "image.jpg");
+		Files.write(image.toPath(), new byte[]{1, 2, 3});
+		key = MetadataCacheKey.of(image, StandardOptions.builder().build(), singletonList(StandardTag.ARTIST));
+		readCoalescer = new ReadCoalescer();
+	}
+
+	@Test
+	void it_should_run_read() throws Exception {
+		ReadResult tags = result("foo");
+
+		assertThat(readCoalescer.read(key, () -> tags)).isSameAs(tags);
+		assertThat(readCoalescer.size()).isZero();
+	}
+
+	@Test
+	void it_should_share_pending_read() throws Exception {
+		ReadResult tags = result("foo");
+		AtomicInteger count = new AtomicInteger(0);
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+
+		CompletableFuture<ReadResult> r1 = read(() -> {
+			count.incrementAndGet();
+			started.countDown();
+			release.await(5, TimeUnit.SECONDS);
+			return tags;
+		});
+
+		assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+		CompletableFuture<ReadResult> r2 = read(() -> {
+			count.incrementAndGet();
+			return tags;
+		});
+
+		awaitWaiting(thread);
+		release.countDown();
+
+		assertThat(r1.get(5, TimeUnit.SECONDS)).isSameAs(tags);
+		assertThat(r2.get(5, TimeUnit.SECONDS)).isSameAs(tags);
+		assertThat(count.get()).isEqualTo(1);
+		assertThat(readCoalescer.size()).isZero();
+	}
+
+	@Test
+	void it_should_fail_pending_reads_with_same_exception() throws Exception {
+		IOException ex = new IOException("fail");
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+
+		CompletableFuture<ReadResult> r1 = read(() -> {
+			started.countDown();
+			release.await(5, TimeUnit.SECONDS);
+			throw ex;
+		});
+
+		assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+		CompletableFuture<ReadResult> r2 = read(() -> {
+			throw new IOException("should not be called");
+		});
+
+		awaitWaiting(thread);
+		release.countDown();
+
+		assertThatThrownBy(() -> r1.get(5, TimeUnit.SECONDS)).hasCauseReference(ex);
+		assertThatThrownBy(() -> r2.get(5, TimeUnit.SECONDS)).hasCauseReference(ex);
+		assertThat(readCoalescer.size()).isZero();
+	}
+
+	@Test
+	void it_should_not_share_invalidated_read() throws Exception {
+		ReadResult t1 = result("foo");
+		ReadResult t2 = result("bar");
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+
+		try {
+			CompletableFuture<ReadResult> r1 = read(() -> {
+				started.countDown();
+				release.await(5, TimeUnit.SECONDS);
+				return t1;
+			});
+
+			assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+			assertThat(readCoalescer.size()).isEqualTo(1);
+
+			readCoalescer.invalidate(image);
+			assertThat(readCoalescer.size()).isZero();
+			assertThat(readCoalescer.read(key, () -> t2)).isSameAs(t2);
+
+			release.countDown();
+			assertThat(r1.get(5, TimeUnit.SECONDS)).isSameAs(t1);
+			assertThat(readCoalescer.size()).isZero();
+		}
+		finally {
+			release.countDown();
+		}
+	}
+
+	private CompletableFuture<ReadResult> read(BlockingRead read) {
+		CompletableFuture<ReadResult> future = new CompletableFuture<>();
+		thread = new Thread(() -> {
+			try {
+				future.complete(readCoalescer.read(key, () -> {
+					try {
+						return read.read();
+					}
+					catch (InterruptedException ex) {
+						throw new IOException(ex);
+					}
+				}));
+			}
+			catch (Throwable ex) {
+				future.completeExceptionally(ex);
+			}
+		});
+
+		thread.setDaemon(true);
+		thread.start();
+		return future;
+	}
+
+	private static ReadResult result(String artist) {
+		return new ReadResult(TagValues.builder().put(StandardTag.ARTIST, artist).build(), emptyList());
+	}
+
+	private static void awaitWaiting(Thread thread) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5000;
+		while (thread.getState() != Thread.State.WAITING && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+
+		assertThat(thread.getState()).isEqualTo(Thread.State.WAITING);
+	}
+
+	private interface BlockingRead {
+		ReadResult read() throws IOException, InterruptedException;
+	}
+}
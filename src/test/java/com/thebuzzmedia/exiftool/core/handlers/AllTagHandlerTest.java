@@ -90,4 +90,16 @@ class AllTagHandlerTest {
 		String[] values = tag.parse(results.get(tag));
 		assertThat(values).isEqualTo(new String[]{"foo", "bar"});
 	}
+
+	@Test
+	void it_should_share_tags_between_handlers() {
+		AllTagHandler h1 = new AllTagHandler();
+		AllTagHandler h2 = new AllTagHandler();
+		h1.readLine("baz: foo");
+		h2.readLine("baz: bar");
+
+		Tag t1 = h1.getTags().keySet().iterator().next();
+		Tag t2 = h2.getTags().keySet().iterator().next();
+		assertThat(t1).isEqualTo(new UnspecifiedTag("baz")).isSameAs(t2);
+	}
 }
@@ -0,0 +1,93 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core.handlers;
+
+import com.thebuzzmedia.exiftool.Tag;
+import com.thebuzzmedia.exiftool.core.StandardTag;
+import com.thebuzzmedia.exiftool.core.UnspecifiedTag;
+import com.thebuzzmedia.exiftool.tests.builders.FileBuilder;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.Map;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BatchTagHandlerTest {
+
+	@Test
+	void it_should_fail_with_empty_images() {
+		assertThatThrownBy(() -> new BatchTagHandler(Collections.emptyList(), AllTagHandler::new))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("Images cannot be null and must contain 1 or more image");
+	}
+
+	@Test
+	void it_should_read_single_image_without_header() {
+		File image = new FileBuilder("foo.png").build();
+		BatchTagHandler handler = new BatchTagHandler(singletonList(image), AllTagHandler::new);
+
+		assertThat(handler.readLine("Artist: foo")).isTrue();
+		assertThat(handler.readLine("{ready}")).isFalse();
+
+		Map<File, Map<Tag, String>> results = handler.getTags();
+		assertThat(results).hasSize(1).containsKey(image);
+		assertThat(results.get(image)).hasSize(1).containsEntry(new UnspecifiedTag("Artist"), "foo");
+		assertThat(handler.size()).isEqualTo(1);
+	}
+
+	@Test
+	void it_should_split_output_per_image() {
+		File image1 = new FileBuilder("foo.png").build();
+		File image2 = new FileBuilder("bar.png").build();
+		File image3 = new FileBuilder("baz.png").build();
+		BatchTagHandler handler = new BatchTagHandler(asList(image1, image2, image3), () -> new StandardTagHandler(asList(StandardTag.ARTIST, StandardTag.ISO)));
+
+		assertThat(handler.readLine("======== /tmp/foo.png")).isTrue();
+		assertThat(handler.readLine("Artist: foo")).isTrue();
+		assertThat(handler.readLine("ISO: 100")).isTrue();
+		assertThat(handler.readLine("======== /tmp/bar.png")).isTrue();
+		assertThat(handler.readLine("Artist: bar")).isTrue();
+		assertThat(handler.readLine("======== /tmp/unknown.png")).isTrue();
+		assertThat(handler.readLine("Artist: unknown")).isTrue();
+		assertThat(handler.readLine("    3 image files read")).isTrue();
+		assertThat(handler.readLine("{ready}")).isFalse();
+
+		Map<File, Map<Tag, String>> results = handler.getTags();
+		assertThat(results.keySet()).containsExactly(image1, image2, image3);
+		assertThat(results.get(image1)).hasSize(2).containsEntry(StandardTag.ARTIST, "foo").containsEntry(StandardTag.ISO, "100");
+		assertThat(results.get(image2)).hasSize(1).containsEntry(StandardTag.ARTIST, "bar");
+		assertThat(results.get(image3)).isEmpty();
+		assertThat(handler.size()).isEqualTo(3);
+	}
+
+	@Test
+	void it_should_stop_on_null_line() {
+		File image1 = new FileBuilder("foo.png").build();
+		File image2 = new FileBuilder("bar.png").build();
+		BatchTagHandler handler = new BatchTagHandler(asList(image1, image2), AllTagHandler::new);
+
+		assertThat(handler.readLine("Artist: foo")).isTrue();
+		assertThat(handler.readLine(null)).isFalse();
+		assertThat(handler.size()).isZero();
+	}
+}
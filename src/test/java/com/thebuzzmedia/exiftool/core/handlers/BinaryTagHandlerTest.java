@@ -0,0 +1,68 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core.handlers;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class BinaryTagHandlerTest {
+
+	@Test
+	void it_should_fail_with_null_output_stream() {
+		assertThatThrownBy(() -> new BinaryTagHandler(null))
+				.isInstanceOf(NullPointerException.class)
+				.hasMessage("Output stream cannot be null");
+	}
+
+	@Test
+	void it_should_count_bytes_written() throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		BinaryTagHandler handler = new BinaryTagHandler(out);
+
+		handler.getOutputStream().write(new byte[] {1, 2, 3, 4}, 1, 2);
+		handler.getOutputStream().write(5);
+
+		assertThat(handler.size()).isEqualTo(3);
+		assertThat(out.toByteArray()).containsExactly(2, 3, 5);
+	}
+
+	@Test
+	void it_should_stop_on_marker() {
+		BinaryTagHandler handler = new BinaryTagHandler(new ByteArrayOutputStream());
+		assertThat(handler.readLine("{ready}")).isFalse();
+		assertThat(handler.readLine(null)).isFalse();
+	}
+
+	@Test
+	void it_should_not_close_output_stream() throws Exception {
+		OutputStream out = mock(OutputStream.class);
+		BinaryTagHandler handler = new BinaryTagHandler(out);
+
+		handler.getOutputStream().close();
+
+		verify(out, never()).close();
+	}
+}
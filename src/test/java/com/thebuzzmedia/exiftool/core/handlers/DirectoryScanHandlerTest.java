@@ -0,0 +1,94 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core.handlers;
+
+import com.thebuzzmedia.exiftool.core.FileMetadata;
+import com.thebuzzmedia.exiftool.core.StandardTag;
+import com.thebuzzmedia.exiftool.core.UnspecifiedTag;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DirectoryScanHandlerTest {
+
+	@Test
+	void it_should_give_each_file_to_consumer() {
+		List<FileMetadata> results = new ArrayList<>();
+		DirectoryScanHandler handler = new DirectoryScanHandler(() -> new StandardTagHandler(asList(StandardTag.ARTIST, StandardTag.ISO)), results::add);
+
+		assertThat(handler.readLine("======== /tmp/foo.png")).isTrue();
+		assertThat(handler.readLine("Artist: foo")).isTrue();
+		assertThat(handler.readLine("ISO: 100")).isTrue();
+		assertThat(results).isEmpty();
+
+		assertThat(handler.readLine("======== /tmp/sub/bar.png")).isTrue();
+		assertThat(results).hasSize(1);
+
+		assertThat(handler.readLine("Artist: bar")).isTrue();
+		assertThat(handler.readLine("    2 directories scanned")).isTrue();
+		assertThat(handler.readLine("    2 image files read")).isTrue();
+		assertThat(handler.readLine("{ready}")).isFalse();
+
+		assertThat(results).hasSize(2);
+		assertThat(results.get(0).getFile()).isEqualTo(new File("/tmp/foo.png"));
+		assertThat(results.get(0).getTags()).hasSize(2).containsEntry(StandardTag.ARTIST, "foo").containsEntry(StandardTag.ISO, "100");
+		assertThat(results.get(1).getFile()).isEqualTo(new File("/tmp/sub/bar.png"));
+		assertThat(results.get(1).getTags()).hasSize(1).containsEntry(StandardTag.ARTIST, "bar");
+		assertThat(handler.getCount()).isEqualTo(2);
+		assertThat(handler.getFailure()).isNull();
+	}
+
+	@Test
+	void it_should_read_empty_directory() {
+		List<FileMetadata> results = new ArrayList<>();
+		DirectoryScanHandler handler = new DirectoryScanHandler(AllTagHandler::new, results::add);
+
+		assertThat(handler.readLine("    1 directories scanned")).isTrue();
+		assertThat(handler.readLine("    0 image files read")).isTrue();
+		assertThat(handler.readLine(null)).isFalse();
+
+		assertThat(results).isEmpty();
+		assertThat(handler.getCount()).isZero();
+	}
+
+	@Test
+	void it_should_keep_reading_output_when_consumer_fails() {
+		IllegalStateException ex = new IllegalStateException("fail");
+		List<FileMetadata> results = new ArrayList<>();
+		DirectoryScanHandler handler = new DirectoryScanHandler(AllTagHandler::new, metadata -> {
+			results.add(metadata);
+			throw ex;
+		});
+
+		assertThat(handler.readLine("======== /tmp/foo.png")).isTrue();
+		assertThat(handler.readLine("Artist: foo")).isTrue();
+		assertThat(handler.readLine("======== /tmp/bar.png")).isTrue();
+		assertThat(handler.readLine("Artist: bar")).isTrue();
+		assertThat(handler.readLine("{ready}")).isFalse();
+
+		assertThat(results).hasSize(1);
+		assertThat(results.get(0).getTags()).containsEntry(new UnspecifiedTag("Artist"), "foo");
+		assertThat(handler.getCount()).isZero();
+		assertThat(handler.getFailure()).isSameAs(ex);
+	}
+}
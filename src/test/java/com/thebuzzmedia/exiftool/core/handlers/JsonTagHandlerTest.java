@@ -0,0 +1,220 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core.handlers;
+
+import com.thebuzzmedia.exiftool.Tag;
+import com.thebuzzmedia.exiftool.core.StandardTag;
+import com.thebuzzmedia.exiftool.core.TagValues;
+import com.thebuzzmedia.exiftool.core.UnspecifiedTag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static com.thebuzzmedia.exiftool.Constants.SEPARATOR;
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JsonTagHandlerTest {
+
+	@Test
+	void it_should_read_null_line() {
+		JsonTagHandler handler = new JsonTagHandler();
+		assertThat(handler.readLine(null)).isFalse();
+		assertThat(handler.getTags()).isEmpty();
+	}
+
+	@Test
+	void it_should_read_last_line() {
+		JsonTagHandler handler = new JsonTagHandler();
+		assertThat(handler.readLine("{ready}")).isFalse();
+		assertThat(handler.getTags()).isEmpty();
+	}
+
+	@Test
+	void it_should_read_all_tags() {
+		JsonTagHandler handler = new JsonTagHandler();
+		read(handler,
+				"[{",
+				"  \"SourceFile\": \"/tmp/foo.jpg\",",
+				"  \"Artist\": \"Test Author\",",
+				"  \"ImageWidth\": 5184,",
+				"  \"Flash\": true",
+				"}]"
+		);
+
+		assertThat(handler.size()).isEqualTo(3);
+		assertThat(handler.getTags())
+				.hasSize(3)
+				.containsEntry(new UnspecifiedTag("Artist"), "Test Author")
+				.containsEntry(new UnspecifiedTag("ImageWidth"), "5184")
+				.containsEntry(new UnspecifiedTag("Flash"), "true");
+
+		assertThat(handler.getTagsBySourceFile()).hasSize(1).containsKey("/tmp/foo.jpg");
+	}
+
+	@Test
+	void it_should_read_expected_tags() {
+		JsonTagHandler handler = new JsonTagHandler(asList(StandardTag.ARTIST, StandardTag.IMAGE_WIDTH));
+		read(handler,
+				"[{",
+				"  \"SourceFile\": \"/tmp/foo.jpg\",",
+				"  \"Artist\": \"Test Author\",",
+				"  \"Comment\": \"Not expected\",",
+				"  \"ImageWidth\": 5184",
+				"}]"
+		);
+
+		assertThat(handler.getTags())
+				.hasSize(2)
+				.containsEntry(StandardTag.ARTIST, "Test Author")
+				.containsEntry(StandardTag.IMAGE_WIDTH, "5184");
+	}
+
+	@Test
+	void it_should_read_tag_values() {
+		JsonTagHandler handler = new JsonTagHandler(asList(StandardTag.ARTIST, StandardTag.IMAGE_WIDTH));
+		read(handler,
+				"[{",
+				"  \"SourceFile\": \"/tmp/foo.jpg\",",
+				"  \"Artist\": \"Test Author\",",
+				"  \"ImageWidth\": 5184",
+				"}]"
+		);
+
+		TagValues values = handler.getTagValues();
+		assertThat(values.getString(StandardTag.ARTIST)).isEqualTo("Test Author");
+		assertThat(values.getInt(StandardTag.IMAGE_WIDTH, 0)).isEqualTo(5184);
+		assertThat(handler.getTagValues()).isSameAs(values);
+		assertThat(TagValues.copyOf(handler.getTags())).isSameAs(values);
+	}
+
+	@Test
+	void it_should_read_escaped_values() {
+		JsonTagHandler handler = new JsonTagHandler();
+		read(handler,
+				"[{",
+				"  \"Comment\": \"line 1\\nline 2 \\\"quoted\\\" \\\\ \\u00e9t\\u00E9\",",
+				"  \"Title\": \"a: b, {c} [d]\"",
+				"}]"
+		);
+
+		assertThat(handler.getTags())
+				.containsEntry(new UnspecifiedTag("Comment"), "line 1\nline 2 \"quoted\" \\ été")
+				.containsEntry(new UnspecifiedTag("Title"), "a: b, {c} [d]");
+	}
+
+	@Test
+	void it_should_read_array_values() {
+		JsonTagHandler handler = new JsonTagHandler();
+		read(handler,
+				"[{",
+				"  \"Keywords\": [\"foo\",\"bar\",42],",
+				"  \"Artist\": \"Test Author\"",
+				"}]"
+		);
+
+		Tag keywords = new UnspecifiedTag("Keywords");
+		assertThat(handler.getTags())
+				.hasSize(2)
+				.containsEntry(keywords, "foo" + SEPARATOR + "bar" + SEPARATOR + "42")
+				.containsEntry(new UnspecifiedTag("Artist"), "Test Author");
+
+		String[] values = keywords.parse(handler.getTags().get(keywords));
+		assertThat(values).containsExactly("foo", "bar", "42");
+	}
+
+	@Test
+	void it_should_read_nested_objects() {
+		JsonTagHandler handler = new JsonTagHandler();
+		read(handler,
+				"[{",
+				"  \"SourceFile\": \"/tmp/foo.jpg\",",
+				"  \"File\": {",
+				"    \"ImageWidth\": 3604",
+				"  },",
+				"  \"IFD0\": {",
+				"    \"Artist\": \"Test Author\"",
+				"  }",
+				"}]"
+		);
+
+		assertThat(handler.getTags())
+				.hasSize(2)
+				.containsEntry(new UnspecifiedTag("ImageWidth"), "3604")
+				.containsEntry(new UnspecifiedTag("Artist"), "Test Author");
+
+		assertThat(handler.getTagsBySourceFile()).containsOnlyKeys("/tmp/foo.jpg");
+	}
+
+	@Test
+	void it_should_read_several_images() {
+		JsonTagHandler handler = new JsonTagHandler(asList(StandardTag.ARTIST, StandardTag.IMAGE_WIDTH));
+		read(handler,
+				"[{",
+				"  \"SourceFile\": \"/tmp/foo.jpg\",",
+				"  \"ImageWidth\": 3604",
+				"},",
+				"{",
+				"  \"SourceFile\": \"/tmp/bar.jpg\",",
+				"  \"Artist\": \"Test Author\",",
+				"  \"ImageWidth\": 5184",
+				"}]",
+				"    2 image files read"
+		);
+
+		Map<String, Map<Tag, String>> results = handler.getTagsBySourceFile();
+		assertThat(results).hasSize(2).containsOnlyKeys("/tmp/foo.jpg", "/tmp/bar.jpg");
+		assertThat(results.get("/tmp/foo.jpg")).hasSize(1).containsEntry(StandardTag.IMAGE_WIDTH, "3604");
+		assertThat(results.get("/tmp/bar.jpg")).hasSize(2)
+				.containsEntry(StandardTag.IMAGE_WIDTH, "5184")
+				.containsEntry(StandardTag.ARTIST, "Test Author");
+	}
+
+	@Test
+	void it_should_skip_lines_that_are_not_json() {
+		JsonTagHandler handler = new JsonTagHandler();
+		read(handler,
+				"Warning: Bad IFD2 directory - /tmp/foo.jpg",
+				"[{",
+				"  \"SourceFile\": \"/tmp/foo.jpg\",",
+				"Warning: [minor] Unrecognized MakerNotes - /tmp/foo.jpg",
+				"  \"Artist\": \"Test Author\"",
+				"}]",
+				"    1 image files read"
+		);
+
+		assertThat(handler.getTags()).hasSize(1).containsEntry(new UnspecifiedTag("Artist"), "Test Author");
+	}
+
+	@Test
+	void it_should_stop_on_ready_line() {
+		JsonTagHandler handler = new JsonTagHandler();
+		assertThat(handler.readLine("[{")).isTrue();
+		assertThat(handler.readLine("  \"Artist\": \"Test Author\"")).isTrue();
+		assertThat(handler.readLine("}]")).isTrue();
+		assertThat(handler.readLine("{ready}")).isFalse();
+
+		assertThat(handler.getTags()).hasSize(1);
+	}
+
+	private static void read(JsonTagHandler handler, String... lines) {
+		for (String line : lines) {
+			assertThat(handler.readLine(line)).isTrue();
+		}
+	}
+}
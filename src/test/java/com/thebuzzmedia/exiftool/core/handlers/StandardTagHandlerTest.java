@@ -77,4 +77,18 @@ class StandardTagHandlerTest {
 
 		assertThat(handler.getTags()).hasSize(1).containsEntry(tag, value);
 	}
+
+	@Test
+	void it_should_read_warnings() {
+		StandardTagHandler handler = new StandardTagHandler(inputs);
+		handler.readLine("Warning: [minor] Unrecognized MakerNotes");
+		handler.readLine(StandardTag.ARTIST.getName() + ": foobar");
+		handler.readLine("Error: File format error");
+
+		assertThat(handler.getTags()).hasSize(1).containsEntry(StandardTag.ARTIST, "foobar");
+		assertThat(handler.getWarnings()).containsExactly(
+				"Warning: [minor] Unrecognized MakerNotes",
+				"Error: File format error"
+		);
+	}
 }
@@ -0,0 +1,82 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core.handlers;
+
+import com.thebuzzmedia.exiftool.core.WriteResult;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WriteResultHandlerTest {
+
+	@Test
+	void it_should_read_null_line() {
+		WriteResultHandler handler = new WriteResultHandler(asList(new File("/tmp/foo.jpg")));
+		assertThat(handler.readLine(null)).isFalse();
+		assertThat(handler.getResult().isSuccess()).isTrue();
+	}
+
+	@Test
+	void it_should_read_last_line() {
+		WriteResultHandler handler = new WriteResultHandler(asList(new File("/tmp/foo.jpg")));
+		assertThat(handler.readLine("{ready}")).isFalse();
+	}
+
+	@Test
+	void it_should_read_errors_and_summary() {
+		File image1 = new File("/tmp/foo.jpg");
+		File image2 = new File("/tmp/a - b.jpg");
+		File image3 = new File("/tmp/bar.jpg");
+		WriteResultHandler handler = new WriteResultHandler(asList(image1, image2, image3));
+
+		assertThat(handler.readLine("Warning: [minor] Ignored empty IFD1 - /tmp/foo.jpg")).isTrue();
+		assertThat(handler.readLine("Error: Not a valid JPEG - /tmp/a - b.jpg")).isTrue();
+		assertThat(handler.readLine("Error: Something unexpected")).isTrue();
+		assertThat(handler.readLine("    1 image files updated")).isTrue();
+		assertThat(handler.readLine("    1 image files unchanged")).isTrue();
+		assertThat(handler.readLine("    1 files weren't updated due to errors")).isTrue();
+		assertThat(handler.readLine("{ready}")).isFalse();
+
+		WriteResult result = handler.getResult();
+		assertThat(result.getImages()).containsExactly(image1, image2, image3);
+		assertThat(result.getErrors()).hasSize(1).containsEntry(image2, "Not a valid JPEG");
+		assertThat(result.getUpdatedCount()).isEqualTo(1);
+		assertThat(result.getUnchangedCount()).isEqualTo(1);
+		assertThat(result.getFailedCount()).isEqualTo(1);
+		assertThat(result.isSuccess(image1)).isTrue();
+		assertThat(result.isSuccess(image2)).isFalse();
+		assertThat(result.isSuccess(new File("/tmp/unknown.jpg"))).isFalse();
+		assertThat(result.isSuccess()).isFalse();
+	}
+
+	@Test
+	void it_should_accumulate_results_of_several_commands() {
+		WriteResultHandler handler = new WriteResultHandler(asList(new File("/tmp/foo.jpg"), new File("/tmp/bar.jpg")));
+
+		handler.readLine("    1 image files updated");
+		handler.readLine("{ready}");
+		handler.readLine("    1 image files updated");
+		handler.readLine("{ready}");
+
+		assertThat(handler.getResult().getUpdatedCount()).isEqualTo(2);
+		assertThat(handler.getResult().isSuccess()).isTrue();
+	}
+}
@@ -0,0 +1,160 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MicrometerMetricsTest {
+
+	private SimpleMeterRegistry registry;
+
+	@BeforeEach
+	void setUp() {
+		registry = new SimpleMeterRegistry();
+		Metrics.globalRegistry.add(registry);
+	}
+
+	@AfterEach
+	void tearDown() {
+		Metrics.globalRegistry.remove(registry);
+		registry.close();
+	}
+
+	@Test
+	void it_should_fail_to_create_metrics_without_registry() {
+		assertThatThrownBy(() -> MicrometerMetrics.create(null))
+				.isInstanceOf(NullPointerException.class)
+				.hasMessage("Registry must not be null");
+	}
+
+	@Test
+	void it_should_fail_to_create_metrics_with_invalid_registry() {
+		assertThatThrownBy(() -> MicrometerMetrics.create(new Object()))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("Registry must be an instance of io.micrometer.core.instrument.MeterRegistry");
+	}
+
+	@Test
+	void it_should_register_meters_in_global_registry() {
+		MicrometerMetrics.create();
+
+		assertThat(registry.get("exiftool.pool.wait").timer()).isNotNull();
+		assertThat(registry.get("exiftool.process.write").timer()).isNotNull();
+		assertThat(registry.get("exiftool.process.read").timer()).isNotNull();
+		assertThat(registry.get("exiftool.response.bytes").summary()).isNotNull();
+		assertThat(registry.get("exiftool.response.lines").summary()).isNotNull();
+		assertThat(registry.get("exiftool.response.tags").summary()).isNotNull();
+		assertThat(registry.get("exiftool.process.starts").counter()).isNotNull();
+		assertThat(registry.get("exiftool.process.restarts").counter()).isNotNull();
+		assertThat(registry.get("exiftool.process.closes").counter()).isNotNull();
+		assertThat(registry.get("exiftool.process.failures").counter()).isNotNull();
+		assertThat(registry.get("exiftool.process.crashes").counter()).isNotNull();
+		assertThat(registry.get("exiftool.process.recycles").counter()).isNotNull();
+	}
+
+	@Test
+	void it_should_record_timers() {
+		MicrometerMetrics metrics = MicrometerMetrics.create();
+
+		metrics.recordQueueWait(1000);
+		metrics.recordWrite(2000);
+		metrics.recordWrite(3000);
+		metrics.recordRead(4000);
+
+		verifyTimer("exiftool.pool.wait", 1, 1000);
+		verifyTimer("exiftool.process.write", 2, 5000);
+		verifyTimer("exiftool.process.read", 1, 4000);
+	}
+
+	@Test
+	void it_should_record_summaries() {
+		MicrometerMetrics metrics = MicrometerMetrics.create();
+
+		metrics.recordOutput(1024, 10);
+		metrics.recordOutput(512, 5);
+		metrics.recordTags(42);
+
+		verifySummary("exiftool.response.bytes", 2, 1536);
+		verifySummary("exiftool.response.lines", 2, 15);
+		verifySummary("exiftool.response.tags", 1, 42);
+	}
+
+	@Test
+	void it_should_increment_counters() {
+		MicrometerMetrics metrics = MicrometerMetrics.create();
+
+		metrics.processStarted();
+		metrics.processStarted();
+		metrics.processRestarted();
+		metrics.processClosed();
+		metrics.processFailed();
+		metrics.processCrashed();
+		metrics.processRecycled();
+
+		verifyCounter("exiftool.process.starts", 2);
+		verifyCounter("exiftool.process.restarts", 1);
+		verifyCounter("exiftool.process.closes", 1);
+		verifyCounter("exiftool.process.failures", 1);
+		verifyCounter("exiftool.process.crashes", 1);
+		verifyCounter("exiftool.process.recycles", 1);
+	}
+
+	@Test
+	void it_should_record_metrics_in_given_registry() {
+		SimpleMeterRegistry other = new SimpleMeterRegistry();
+		MicrometerMetrics metrics = MicrometerMetrics.create(other);
+
+		metrics.recordRead(1000);
+		metrics.recordTags(3);
+		metrics.processStarted();
+
+		assertThat(other.get("exiftool.process.read").timer().count()).isEqualTo(1);
+		assertThat(other.get("exiftool.response.tags").summary().totalAmount()).isEqualTo(3);
+		assertThat(other.get("exiftool.process.starts").counter().count()).isEqualTo(1);
+		assertThat(registry.find("exiftool.process.read").timer()).isNull();
+	}
+
+	private void verifyTimer(String name, long count, long totalNanos) {
+		Timer timer = registry.get(name).timer();
+		assertThat(timer.count()).isEqualTo(count);
+		assertThat(timer.totalTime(TimeUnit.NANOSECONDS)).isEqualTo(totalNanos);
+	}
+
+	private void verifySummary(String name, long count, double total) {
+		DistributionSummary summary = registry.get(name).summary();
+		assertThat(summary.count()).isEqualTo(count);
+		assertThat(summary.totalAmount()).isEqualTo(total);
+	}
+
+	private void verifyCounter(String name, double count) {
+		Counter counter = registry.get(name).counter();
+		assertThat(counter.count()).isEqualTo(count);
+	}
+}
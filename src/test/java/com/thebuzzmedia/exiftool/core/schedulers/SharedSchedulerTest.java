@@ -0,0 +1,138 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core.schedulers;
+
+import com.thebuzzmedia.exiftool.core.schedulers.SharedScheduler.Sweeper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.thebuzzmedia.exiftool.core.schedulers.SchedulerDuration.millis;
+import static com.thebuzzmedia.exiftool.tests.ReflectionTestUtils.readPrivateField;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.InstanceOfAssertFactories.collection;
+
+class SharedSchedulerTest {
+
+	private Sweeper sweeper;
+
+	@BeforeEach
+	void setUp() {
+		sweeper = new Sweeper(millis(10));
+	}
+
+	@AfterEach
+	void tearDown() {
+		sweeper.shutdown();
+	}
+
+	@Test
+	void it_should_not_create_scheduler_without_delay() {
+		assertThatThrownBy(() -> new SharedScheduler(null, sweeper))
+				.isInstanceOf(NullPointerException.class)
+				.hasMessage("Execution delay must not be null");
+	}
+
+	@Test
+	void it_should_create_scheduler_with_shared_sweeper() {
+		SharedScheduler scheduler1 = new SharedScheduler(millis(1000));
+		SharedScheduler scheduler2 = new SharedScheduler(millis(2000));
+
+		assertThat(scheduler1.getExecutionDelay()).isEqualTo(millis(1000));
+		assertThat(scheduler1).extracting("sweeper").isSameAs(Sweeper.shared());
+		assertThat(scheduler2).extracting("sweeper").isSameAs(Sweeper.shared());
+	}
+
+	@Test
+	void it_should_run_task_once_after_delay() throws Exception {
+		SharedScheduler scheduler = new SharedScheduler(millis(50), sweeper);
+
+		AtomicInteger runs = new AtomicInteger(0);
+		CountDownLatch latch = new CountDownLatch(1);
+		scheduler.start(() -> {
+			runs.incrementAndGet();
+			latch.countDown();
+		});
+
+		assertThat(runs).hasValue(0);
+		assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+
+		Thread.sleep(100);
+		assertThat(runs).hasValue(1);
+		AtomicReference<?> task = readPrivateField(scheduler, "task");
+		assertThat(task.get()).isNull();
+	}
+
+	@Test
+	void it_should_not_run_stopped_task() throws Exception {
+		SharedScheduler scheduler = new SharedScheduler(millis(20), sweeper);
+
+		AtomicInteger runs = new AtomicInteger(0);
+		scheduler.start(runs::incrementAndGet);
+		scheduler.stop();
+
+		Thread.sleep(100);
+		assertThat(runs).hasValue(0);
+	}
+
+	@Test
+	void it_should_only_run_last_started_task() throws Exception {
+		SharedScheduler scheduler = new SharedScheduler(millis(20), sweeper);
+
+		AtomicInteger first = new AtomicInteger(0);
+		CountDownLatch latch = new CountDownLatch(1);
+		scheduler.start(first::incrementAndGet);
+		scheduler.start(latch::countDown);
+
+		assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(first).hasValue(0);
+	}
+
+	@Test
+	void it_should_run_tasks_of_several_schedulers() throws Exception {
+		SharedScheduler scheduler1 = new SharedScheduler(millis(20), sweeper);
+		SharedScheduler scheduler2 = new SharedScheduler(millis(40), sweeper);
+
+		CountDownLatch latch = new CountDownLatch(2);
+		scheduler1.start(latch::countDown);
+		scheduler2.start(latch::countDown);
+
+		assertThat(sweeper).extracting("schedulers").asInstanceOf(collection(SharedScheduler.class)).containsOnly(scheduler1, scheduler2);
+		assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+	}
+
+	@Test
+	void it_should_unregister_scheduler_on_shutdown() throws Exception {
+		SharedScheduler scheduler = new SharedScheduler(millis(20), sweeper);
+
+		AtomicInteger runs = new AtomicInteger(0);
+		scheduler.start(runs::incrementAndGet);
+		scheduler.shutdown();
+
+		assertThat(sweeper).extracting("schedulers").asInstanceOf(collection(SharedScheduler.class)).isEmpty();
+
+		Thread.sleep(100);
+		assertThat(runs).hasValue(0);
+	}
+}
@@ -0,0 +1,292 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core.strategies;
+
+import com.thebuzzmedia.exiftool.ExecutionStrategy;
+import com.thebuzzmedia.exiftool.Scheduler;
+import com.thebuzzmedia.exiftool.Version;
+import com.thebuzzmedia.exiftool.exceptions.PoolIOException;
+import com.thebuzzmedia.exiftool.process.CommandExecutor;
+import com.thebuzzmedia.exiftool.process.OutputHandler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.thebuzzmedia.exiftool.tests.MockitoTestUtils.anyListOf;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ElasticPoolStrategyTest {
+
+	private CommandExecutor executor;
+	private String exifTool;
+	private List<String> arguments;
+	private OutputHandler handler;
+	private Scheduler scheduler;
+	private List<ExecutionStrategy> created;
+
+	// Latches used by created strategies: count down "started", then wait for "lock".
+	private volatile CountDownLatch started;
+	private volatile CountDownLatch lock;
+
+	private ElasticPoolStrategy pool;
+
+	@BeforeEach
+	void setUp() {
+		executor = mock(CommandExecutor.class);
+		exifTool = "exiftool";
+		arguments = singletonList("-ver");
+		handler = mock(OutputHandler.class);
+		scheduler = mock(Scheduler.class);
+		created = new CopyOnWriteArrayList<>();
+		started = new CountDownLatch(0);
+		lock = new CountDownLatch(0);
+	}
+
+	@AfterEach
+	void tearDown() {
+		lock.countDown();
+		if (pool != null) {
+			try {
+				pool.close();
+			}
+			catch (Exception ex) {
+				// No worry, that's ok in these unit tests.
+			}
+		}
+	}
+
+	@Test
+	void it_should_create_pool_with_min_size() {
+		pool = createPool(2, 4, 10, 1000);
+
+		assertThat(pool.getSize()).isEqualTo(2);
+		assertThat(pool.getIdleSize()).isEqualTo(2);
+		assertThat(pool.isRunning()).isFalse();
+		assertThat(created).hasSize(2);
+	}
+
+	@Test
+	void it_should_fail_with_invalid_settings() {
+		assertThatThrownBy(() -> createPool(0, 4, 10, 1000))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("Pool minimum size must be strictly positive");
+
+		assertThatThrownBy(() -> createPool(4, 2, 10, 1000))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("Pool maximum size must be greater than or equal to minimum size");
+
+		assertThatThrownBy(() -> createPool(1, 2, 0, 1000))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("Pool grow threshold must be strictly positive");
+
+		assertThatThrownBy(() -> createPool(1, 2, 10, 0))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("Pool idle timeout must be strictly positive");
+	}
+
+	@Test
+	void it_should_execute_most_recently_used_strategy() throws Exception {
+		pool = createPool(2, 2, 10, 1000);
+
+		pool.execute(executor, exifTool, arguments, handler);
+		pool.execute(executor, exifTool, arguments, handler);
+
+		verify(created.get(0), times(2)).execute(executor, exifTool, arguments, handler);
+		verify(created.get(1), never()).execute(executor, exifTool, arguments, handler);
+		verify(scheduler, never()).start(any(Runnable.class));
+	}
+
+	@Test
+	void it_should_grow_pool_until_max_size() throws Exception {
+		pool = createPool(1, 3, 10, 1000);
+
+		// Three strategies should be busy at the same time.
+		started = new CountDownLatch(3);
+		lock = new CountDownLatch(1);
+		runConcurrently(5);
+
+		assertThat(created).hasSize(3);
+		assertThat(pool.getSize()).isEqualTo(3);
+		assertThat(pool.getIdleSize()).isEqualTo(3);
+		assertThat(pool.isRunning()).isFalse();
+		verify(scheduler).start(any(Runnable.class));
+	}
+
+	@Test
+	void it_should_remove_idle_strategies() throws Exception {
+		pool = createPool(1, 2, 1, 1);
+
+		started = new CountDownLatch(2);
+		lock = new CountDownLatch(1);
+		runConcurrently(2);
+
+		assertThat(pool.getSize()).isEqualTo(2);
+
+		ArgumentCaptor<Runnable> taskCaptor = ArgumentCaptor.forClass(Runnable.class);
+		verify(scheduler).start(taskCaptor.capture());
+
+		// Wait for the idle timeout.
+		Thread.sleep(10);
+		taskCaptor.getValue().run();
+
+		assertThat(pool.getSize()).isEqualTo(1);
+		assertThat(pool.getIdleSize()).isEqualTo(1);
+
+		int shutdown = 0;
+		for (ExecutionStrategy strategy : created) {
+			shutdown += mockingDetails(strategy).getInvocations().stream()
+					.filter(invocation -> invocation.getMethod().getName().equals("shutdown"))
+					.count();
+		}
+
+		assertThat(shutdown).isEqualTo(1);
+
+		// Pool has reached its minimum size: task is not scheduled again.
+		verify(scheduler).start(any(Runnable.class));
+	}
+
+	@Test
+	void it_should_not_remove_strategies_used_recently() throws Exception {
+		pool = createPool(1, 2, 1, 60000);
+
+		started = new CountDownLatch(2);
+		lock = new CountDownLatch(1);
+		runConcurrently(2);
+
+		ArgumentCaptor<Runnable> taskCaptor = ArgumentCaptor.forClass(Runnable.class);
+		verify(scheduler).start(taskCaptor.capture());
+		taskCaptor.getValue().run();
+
+		assertThat(pool.getSize()).isEqualTo(2);
+
+		// Task is scheduled again, since pool is larger than its minimum size.
+		verify(scheduler, times(2)).start(any(Runnable.class));
+	}
+
+	@Test
+	void it_should_check_that_version_is_supported() {
+		pool = createPool(2, 4, 10, 1000);
+
+		Version version = new Version("9.0.0");
+		when(created.get(0).isSupported(version)).thenReturn(true);
+		when(created.get(1).isSupported(version)).thenReturn(false);
+		assertThat(pool.isSupported(version)).isFalse();
+
+		when(created.get(1).isSupported(version)).thenReturn(true);
+		assertThat(pool.isSupported(version)).isTrue();
+	}
+
+	@Test
+	void it_should_close_strategies() throws Exception {
+		pool = createPool(2, 4, 10, 1000);
+		pool.close();
+
+		verify(scheduler).stop();
+		verify(created.get(0)).close();
+		verify(created.get(1)).close();
+	}
+
+	@Test
+	void it_should_close_strategies_and_report_failures() throws Exception {
+		pool = createPool(2, 4, 10, 1000);
+		doThrow(new RuntimeException("fail")).when(created.get(0)).close();
+
+		assertThatThrownBy(() -> pool.close()).isInstanceOf(PoolIOException.class);
+
+		verify(created.get(1)).close();
+	}
+
+	@Test
+	void it_should_shutdown_strategies_and_scheduler() throws Exception {
+		pool = createPool(2, 4, 10, 1000);
+		pool.shutdown();
+
+		verify(created.get(0)).shutdown();
+		verify(created.get(1)).shutdown();
+		verify(scheduler).shutdown();
+	}
+
+	private ElasticPoolStrategy createPool(int minSize, int maxSize, long growThreshold, long idleTimeout) {
+		return new ElasticPoolStrategy(minSize, maxSize, growThreshold, idleTimeout, scheduler, this::createStrategy);
+	}
+
+	private ExecutionStrategy createStrategy() {
+		ExecutionStrategy strategy = mock(ExecutionStrategy.class);
+		try {
+			doAnswer(invocation -> {
+				started.countDown();
+				lock.await();
+				return null;
+			}).when(strategy).execute(any(CommandExecutor.class), anyString(), anyListOf(String.class), any(OutputHandler.class));
+		}
+		catch (IOException ex) {
+			throw new AssertionError(ex);
+		}
+
+		created.add(strategy);
+		return strategy;
+	}
+
+	private void runConcurrently(int nbTasks) throws Exception {
+		ExecutorService threads = Executors.newFixedThreadPool(nbTasks);
+		try {
+			List<Future<?>> results = new ArrayList<>(nbTasks);
+			for (int i = 0; i < nbTasks; i++) {
+				results.add(threads.submit(() -> {
+					pool.execute(executor, exifTool, arguments, handler);
+					return null;
+				}));
+			}
+
+			assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+			assertThat(pool.isRunning()).isTrue();
+			lock.countDown();
+
+			for (Future<?> result : results) {
+				result.get(5, TimeUnit.SECONDS);
+			}
+		}
+		finally {
+			lock.countDown();
+			threads.shutdownNow();
+		}
+	}
+}
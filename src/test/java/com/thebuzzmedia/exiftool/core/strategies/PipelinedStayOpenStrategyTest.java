@@ -0,0 +1,284 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core.strategies;
+
+import com.thebuzzmedia.exiftool.Scheduler;
+import com.thebuzzmedia.exiftool.Version;
+import com.thebuzzmedia.exiftool.core.handlers.BinaryTagHandler;
+import com.thebuzzmedia.exiftool.process.BinaryOutputHandler;
+import com.thebuzzmedia.exiftool.process.Command;
+import com.thebuzzmedia.exiftool.process.CommandExecutor;
+import com.thebuzzmedia.exiftool.process.CommandProcess;
+import com.thebuzzmedia.exiftool.process.OutputHandler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static com.thebuzzmedia.exiftool.tests.MockitoTestUtils.anyListOf;
+import static com.thebuzzmedia.exiftool.tests.TestConstants.BR;
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PipelinedStayOpenStrategyTest {
+
+	private static final String EOF = "<EOF>";
+
+	private Scheduler scheduler;
+	private CommandProcess process;
+	private CommandExecutor executor;
+	private BlockingQueue<String> output;
+	private CountDownLatch outputLatch;
+
+	private String exifTool;
+	private List<String> args;
+	private PipelinedStayOpenStrategy strategy;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		scheduler = mock(Scheduler.class);
+		process = mock(CommandProcess.class);
+		executor = mock(CommandExecutor.class);
+		output = new LinkedBlockingQueue<>();
+		outputLatch = new CountDownLatch(0);
+		exifTool = "exiftool";
+
+		when(executor.start(any(Command.class))).thenReturn(process);
+
+		// Each command produces one line, followed by the numbered ready marker.
+		doAnswer(invocation -> {
+			List<String> inputs = invocation.getArgument(0);
+			String last = inputs.get(inputs.size() - 1).trim();
+			String id = last.substring("-execute".length());
+			output.add("Artist: " + id);
+			output.add("{ready" + id + "}");
+			return null;
+		}).when(process).write(anyListOf(String.class));
+
+		// Closing the process ends the output.
+		doAnswer(invocation -> {
+			output.add(EOF);
+			return null;
+		}).when(process).write(anyString());
+
+		// Reading output consumes lines until the handler stops.
+		when(process.read(any(OutputHandler.class))).thenAnswer(invocation -> {
+			OutputHandler handler = invocation.getArgument(0);
+			outputLatch.await();
+
+			// Binary output: raw bytes, followed by the marker.
+			if (handler instanceof BinaryOutputHandler) {
+				String bytes = output.take();
+				((BinaryOutputHandler) handler).getOutputStream().write(bytes.getBytes(StandardCharsets.UTF_8));
+				handler.readLine(output.take());
+				return "";
+			}
+
+			while (true) {
+				String line = output.take();
+				if (EOF.equals(line)) {
+					handler.readLine(null);
+					return null;
+				}
+
+				if (!handler.readLine(line)) {
+					return null;
+				}
+			}
+		});
+
+		args = asList("-S", "-n", "-XArtist", "-execute");
+	}
+
+	@AfterEach
+	void tearDown() throws Exception {
+		if (strategy != null) {
+			strategy.close();
+		}
+	}
+
+	@Test
+	void it_should_create_strategy() {
+		strategy = new PipelinedStayOpenStrategy(scheduler);
+		assertThat(strategy).extracting("scheduler").isSameAs(scheduler);
+		assertThat(strategy).extracting("pipeline").isNull();
+		assertThat(strategy.isRunning()).isFalse();
+	}
+
+	@Test
+	void it_should_check_if_version_is_supported() {
+		strategy = new PipelinedStayOpenStrategy(scheduler);
+		assertThat(strategy.isSupported(new Version("8.63"))).isFalse();
+		assertThat(strategy.isSupported(new Version("8.64"))).isTrue();
+		assertThat(strategy.isSupported(new Version("10.16"))).isTrue();
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	void it_should_execute_command() throws Exception {
+		strategy = new PipelinedStayOpenStrategy(scheduler);
+
+		List<String> lines = new ArrayList<>();
+		strategy.execute(executor, exifTool, args, line -> lines.add(line) && !"{ready}".equals(line));
+
+		assertThat(lines).containsExactly("Artist: 1", "{ready}");
+		assertThat(strategy.isRunning()).isTrue();
+
+		ArgumentCaptor<Command> cmdCaptor = ArgumentCaptor.forClass(Command.class);
+		verify(executor).start(cmdCaptor.capture());
+		assertThat(cmdCaptor.getValue().getArguments()).containsExactly(
+				exifTool, "-stay_open", "True", "-sep", "|>☃", "-@", "-"
+		);
+
+		ArgumentCaptor<List<String>> argsCaptor = ArgumentCaptor.forClass(List.class);
+		verify(process).write(argsCaptor.capture());
+		verify(process).flush();
+		verify(scheduler).stop();
+		verify(scheduler).start(any(Runnable.class));
+		assertThat(argsCaptor.getValue()).containsExactly(
+				"-S" + BR, "-n" + BR, "-XArtist" + BR, "-execute1" + BR
+		);
+	}
+
+	@Test
+	void it_should_execute_commands_without_waiting_for_previous_output() throws Exception {
+		strategy = new PipelinedStayOpenStrategy(scheduler);
+
+		// Output is not available until all commands have been written.
+		outputLatch = new CountDownLatch(1);
+
+		int nbCommands = 5;
+		ExecutorService threads = Executors.newFixedThreadPool(nbCommands);
+		try {
+			List<Future<List<String>>> results = new ArrayList<>(nbCommands);
+			for (int i = 0; i < nbCommands; i++) {
+				results.add(threads.submit(() -> {
+					List<String> lines = new ArrayList<>();
+					strategy.execute(executor, exifTool, args, line -> lines.add(line) && !"{ready}".equals(line));
+					return lines;
+				}));
+			}
+
+			// Wait for all commands to be written before releasing output.
+			verify(process, timeout(5000).times(nbCommands)).flush();
+			outputLatch.countDown();
+
+			List<String> artists = new ArrayList<>();
+			for (Future<List<String>> result : results) {
+				List<String> lines = result.get(5, TimeUnit.SECONDS);
+				assertThat(lines).hasSize(2).endsWith("{ready}");
+				artists.add(lines.get(0));
+			}
+
+			assertThat(artists).containsExactlyInAnyOrder(
+					"Artist: 1", "Artist: 2", "Artist: 3", "Artist: 4", "Artist: 5"
+			);
+
+			verify(executor).start(any(Command.class));
+		}
+		finally {
+			threads.shutdownNow();
+		}
+	}
+
+	@Test
+	void it_should_execute_binary_command_between_text_commands() throws Exception {
+		strategy = new PipelinedStayOpenStrategy(scheduler);
+
+		List<String> lines1 = new ArrayList<>();
+		strategy.execute(executor, exifTool, args, line -> lines1.add(line) && !"{ready}".equals(line));
+
+		ByteArrayOutputStream os = new ByteArrayOutputStream();
+		BinaryTagHandler binaryHandler = new BinaryTagHandler(os);
+		strategy.execute(executor, exifTool, args, binaryHandler);
+
+		List<String> lines3 = new ArrayList<>();
+		strategy.execute(executor, exifTool, args, line -> lines3.add(line) && !"{ready}".equals(line));
+
+		assertThat(lines1).containsExactly("Artist: 1", "{ready}");
+		assertThat(new String(os.toByteArray(), StandardCharsets.UTF_8)).isEqualTo("Artist: 2");
+		assertThat(binaryHandler.size()).isEqualTo(9);
+		assertThat(lines3).containsExactly("Artist: 3", "{ready}");
+	}
+
+	@Test
+	void it_should_rethrow_handler_failure() {
+		strategy = new PipelinedStayOpenStrategy(scheduler);
+
+		IllegalStateException ex = new IllegalStateException("fail");
+		OutputHandler handler = line -> {
+			throw ex;
+		};
+
+		assertThatThrownBy(() -> strategy.execute(executor, exifTool, args, handler)).isSameAs(ex);
+	}
+
+	@Test
+	void it_should_fail_pending_commands_when_output_ends() throws Exception {
+		strategy = new PipelinedStayOpenStrategy(scheduler);
+
+		doAnswer(invocation -> {
+			output.add(EOF);
+			return null;
+		}).when(process).write(anyListOf(String.class));
+
+		assertThatThrownBy(() -> strategy.execute(executor, exifTool, args, line -> true))
+				.isInstanceOf(IOException.class);
+	}
+
+	@Test
+	void it_should_close_process() throws Exception {
+		strategy = new PipelinedStayOpenStrategy(scheduler);
+		strategy.execute(executor, exifTool, args, line -> !"{ready}".equals(line));
+
+		strategy.close();
+
+		verify(process).write("-stay_open\nFalse\n");
+		verify(process).close();
+		assertThat(strategy.isRunning()).isFalse();
+		assertThat(strategy).extracting("pipeline").isNull();
+	}
+
+	@Test
+	void it_should_shutdown_scheduler() throws Exception {
+		strategy = new PipelinedStayOpenStrategy(scheduler);
+		strategy.shutdown();
+		verify(scheduler).shutdown();
+	}
+}
@@ -18,6 +18,7 @@
 package com.thebuzzmedia.exiftool.core.strategies;
 
 import com.thebuzzmedia.exiftool.ExecutionStrategy;
+import com.thebuzzmedia.exiftool.ExifToolMetrics;
 import com.thebuzzmedia.exiftool.Version;
 import com.thebuzzmedia.exiftool.exceptions.PoolIOException;
 import com.thebuzzmedia.exiftool.process.CommandExecutor;
@@ -37,6 +38,7 @@ import static java.util.Arrays.asList;
 import static java.util.Collections.singletonList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
@@ -101,6 +103,18 @@ class PoolStrategyTest {
 		verify(s1).execute(executor, exifTool, arguments, handler);
 	}
 
+	@Test
+	void it_should_record_time_spent_waiting_for_a_strategy() throws Exception {
+		ExecutionStrategy s1 = mock(ExecutionStrategy.class);
+		ExifToolMetrics metrics = mock(ExifToolMetrics.class);
+
+		pool = new PoolStrategy(singletonList(s1), metrics);
+		pool.execute(executor, exifTool, arguments, handler);
+
+		verify(s1).execute(executor, exifTool, arguments, handler);
+		verify(metrics).recordQueueWait(anyLong());
+	}
+
 	@Test
 	void it_should_check_that_version_is_not_supported() {
 		ExecutionStrategy s1 = mock(ExecutionStrategy.class);
@@ -0,0 +1,98 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core.strategies;
+
+import com.thebuzzmedia.exiftool.process.CommandProcess;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RecyclePolicyTest {
+
+	@Test
+	void it_should_create_policy() {
+		RecyclePolicy policy = new RecyclePolicy(100, 60000, 1024);
+		assertThat(policy.getMaxRequests()).isEqualTo(100L);
+		assertThat(policy.getMaxAge()).isEqualTo(60000L);
+		assertThat(policy.getMaxResidentMemory()).isEqualTo(1024L);
+		assertThat(policy.getMemoryCheckInterval()).isEqualTo(32L);
+		assertThat(policy.isEnabled()).isTrue();
+	}
+
+	@Test
+	void it_should_disable_negative_limits() {
+		RecyclePolicy policy = new RecyclePolicy(-1, -1, -1, -1);
+		assertThat(policy.getMaxRequests()).isZero();
+		assertThat(policy.getMaxAge()).isZero();
+		assertThat(policy.getMaxResidentMemory()).isZero();
+		assertThat(policy.getMemoryCheckInterval()).isEqualTo(1L);
+		assertThat(policy.isEnabled()).isFalse();
+		assertThat(RecyclePolicy.noRecycle().isEnabled()).isFalse();
+	}
+
+	@Test
+	void it_should_recycle_process_after_max_requests() {
+		CommandProcess process = mock(CommandProcess.class);
+		RecyclePolicy policy = new RecyclePolicy(10, 0, 0);
+
+		assertThat(policy.shouldRecycle(process, 9, Long.MAX_VALUE)).isFalse();
+		assertThat(policy.shouldRecycle(process, 10, 0)).isTrue();
+		verify(process, never()).getResidentMemory();
+	}
+
+	@Test
+	void it_should_recycle_process_after_max_age() {
+		CommandProcess process = mock(CommandProcess.class);
+		RecyclePolicy policy = new RecyclePolicy(0, 1000, 0);
+
+		assertThat(policy.shouldRecycle(process, Long.MAX_VALUE, 999)).isFalse();
+		assertThat(policy.shouldRecycle(process, 0, 1000)).isTrue();
+	}
+
+	@Test
+	void it_should_recycle_process_once_resident_memory_is_too_high() {
+		CommandProcess process = mock(CommandProcess.class);
+		RecyclePolicy policy = new RecyclePolicy(0, 0, 1024, 1);
+
+		when(process.getResidentMemory()).thenReturn(-1L, 1023L, 1024L);
+
+		assertThat(policy.shouldRecycle(process, 1, 0)).isFalse();
+		assertThat(policy.shouldRecycle(process, 2, 0)).isFalse();
+		assertThat(policy.shouldRecycle(process, 3, 0)).isTrue();
+	}
+
+	@Test
+	void it_should_sample_resident_memory_every_interval() {
+		CommandProcess process = mock(CommandProcess.class);
+		RecyclePolicy policy = new RecyclePolicy(0, 0, 1024, 10);
+
+		when(process.getResidentMemory()).thenReturn(2048L);
+
+		for (int requests = 1; requests < 10; requests++) {
+			assertThat(policy.shouldRecycle(process, requests, 0)).isFalse();
+		}
+
+		verify(process, never()).getResidentMemory();
+		assertThat(policy.shouldRecycle(process, 10, 0)).isTrue();
+		verify(process).getResidentMemory();
+	}
+}
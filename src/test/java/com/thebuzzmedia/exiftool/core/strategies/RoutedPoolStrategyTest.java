@@ -0,0 +1,226 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core.strategies;
+
+import com.thebuzzmedia.exiftool.ExecutionStrategy;
+import com.thebuzzmedia.exiftool.ExifToolMetrics;
+import com.thebuzzmedia.exiftool.Version;
+import com.thebuzzmedia.exiftool.exceptions.PoolIOException;
+import com.thebuzzmedia.exiftool.process.CommandExecutor;
+import com.thebuzzmedia.exiftool.process.OutputHandler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RoutedPoolStrategyTest {
+
+	private CommandExecutor executor;
+	private String exifTool;
+	private List<String> small;
+	private List<String> large;
+	private OutputHandler handler;
+	private ExecutorService threads;
+
+	private RoutedPoolStrategy pool;
+
+	@BeforeEach
+	void setUp() {
+		executor = mock(CommandExecutor.class);
+		exifTool = "exiftool";
+		small = asList("-S", "/tmp/image.jpg", "-execute");
+		large = asList("-S", "-ee", "/tmp/video.mp4", "-execute");
+		handler = mock(OutputHandler.class);
+		threads = Executors.newCachedThreadPool();
+	}
+
+	@AfterEach
+	void tearDown() throws Exception {
+		threads.shutdownNow();
+
+		if (pool != null) {
+			try {
+				pool.close();
+			}
+			catch (Exception ex) {
+				// No worry, that's ok in these unit tests.
+			}
+		}
+	}
+
+	@Test
+	void it_should_route_commands_to_their_pool() throws Exception {
+		ExecutionStrategy s1 = mock(ExecutionStrategy.class);
+		ExecutionStrategy s2 = mock(ExecutionStrategy.class);
+		ExifToolMetrics metrics = mock(ExifToolMetrics.class);
+
+		pool = new RoutedPoolStrategy(singletonList(s1), singletonList(s2), policy(), metrics);
+		pool.execute(executor, exifTool, small, handler);
+		pool.execute(executor, exifTool, large, handler);
+
+		verify(s1).execute(executor, exifTool, small, handler);
+		verify(s2).execute(executor, exifTool, large, handler);
+		verify(s1, never()).execute(executor, exifTool, large, handler);
+		verify(s2, never()).execute(executor, exifTool, small, handler);
+		verify(metrics, times(2)).recordQueueWait(anyLong());
+	}
+
+	@Test
+	void it_should_use_idle_strategy_of_large_pool_if_small_pool_is_busy() throws Exception {
+		ExecutionStrategy s1 = mock(ExecutionStrategy.class);
+		ExecutionStrategy s2 = mock(ExecutionStrategy.class);
+		pool = new RoutedPoolStrategy(singletonList(s1), singletonList(s2), policy());
+
+		CountDownLatch release = block(s1, small);
+		try {
+			pool.execute(executor, exifTool, small, handler);
+			verify(s2).execute(executor, exifTool, small, handler);
+		}
+		finally {
+			release.countDown();
+		}
+	}
+
+	@Test
+	void it_should_not_use_last_idle_strategy_of_small_pool_for_large_files() throws Exception {
+		ExecutionStrategy s1 = mock(ExecutionStrategy.class);
+		ExecutionStrategy s2 = mock(ExecutionStrategy.class);
+		ExecutionStrategy s3 = mock(ExecutionStrategy.class);
+		pool = new RoutedPoolStrategy(asList(s1, s2), singletonList(s3), policy());
+
+		CountDownLatch releaseLarge = block(s3, large);
+		CountDownLatch releaseSmall = new CountDownLatch(1);
+		AtomicInteger borrowed = new AtomicInteger(0);
+		Answer<Void> answer = invocation -> {
+			borrowed.incrementAndGet();
+			releaseSmall.await(5, TimeUnit.SECONDS);
+			return null;
+		};
+
+		doAnswer(answer).when(s1).execute(executor, exifTool, large, handler);
+		doAnswer(answer).when(s2).execute(executor, exifTool, large, handler);
+
+		try {
+			// Large pool is busy, small pool has two idle strategies: one can be used.
+			CountDownLatch done1 = submit(large);
+			verify(s1, timeout(5000)).execute(executor, exifTool, large, handler);
+
+			// Last idle strategy of the small pool is kept for small files.
+			CountDownLatch done2 = submit(large);
+			assertThat(done2.await(200, TimeUnit.MILLISECONDS)).isFalse();
+			assertThat(borrowed).hasValue(1);
+
+			pool.execute(executor, exifTool, small, handler);
+			verify(s2).execute(executor, exifTool, small, handler);
+
+			releaseLarge.countDown();
+			assertThat(done2.await(5, TimeUnit.SECONDS)).isTrue();
+
+			releaseSmall.countDown();
+			assertThat(done1.await(5, TimeUnit.SECONDS)).isTrue();
+		}
+		finally {
+			releaseLarge.countDown();
+			releaseSmall.countDown();
+		}
+	}
+
+	@Test
+	void it_should_check_if_version_is_supported() {
+		ExecutionStrategy s1 = mock(ExecutionStrategy.class);
+		ExecutionStrategy s2 = mock(ExecutionStrategy.class);
+		Version version = new Version("10.0.0");
+		when(s1.isSupported(version)).thenReturn(true);
+		when(s2.isSupported(version)).thenReturn(false);
+
+		pool = new RoutedPoolStrategy(singletonList(s1), singletonList(s2), policy());
+
+		assertThat(pool.isSupported(version)).isFalse();
+	}
+
+	@Test
+	void it_should_close_both_pools_and_report_failures() throws Exception {
+		ExecutionStrategy s1 = mock(ExecutionStrategy.class);
+		ExecutionStrategy s2 = mock(ExecutionStrategy.class);
+		Exception ex = new RuntimeException("fail");
+		doThrow(ex).when(s1).close();
+
+		pool = new RoutedPoolStrategy(singletonList(s1), singletonList(s2), policy());
+
+		assertThatThrownBy(() -> pool.close()).isInstanceOf(PoolIOException.class);
+		verify(s1).close();
+		verify(s2).close();
+	}
+
+	private static RoutingPolicy policy() {
+		return new RoutingPolicy(0, singletonList("mp4"));
+	}
+
+	private CountDownLatch submit(List<String> arguments) {
+		CountDownLatch done = new CountDownLatch(1);
+		threads.submit(() -> {
+			pool.execute(executor, exifTool, arguments, handler);
+			done.countDown();
+			return null;
+		});
+
+		return done;
+	}
+
+	/**
+	 * Run a command on another thread, blocking given strategy until returned latch is released.
+	 */
+	private CountDownLatch block(ExecutionStrategy strategy, List<String> arguments) throws Exception {
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		doAnswer(invocation -> {
+			started.countDown();
+			release.await(5, TimeUnit.SECONDS);
+			return null;
+		}).when(strategy).execute(executor, exifTool, arguments, handler);
+
+		threads.submit(() -> {
+			pool.execute(executor, exifTool, arguments, handler);
+			return null;
+		});
+
+		assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+		return release;
+	}
+}
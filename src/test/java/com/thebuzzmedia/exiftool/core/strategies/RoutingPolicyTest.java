@@ -0,0 +1,77 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core.strategies;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RoutingPolicyTest {
+
+	@Test
+	void it_should_not_create_policy_without_extensions() {
+		assertThatThrownBy(() -> new RoutingPolicy(0, null))
+				.isInstanceOf(NullPointerException.class)
+				.hasMessage("Extensions should not be null");
+	}
+
+	@Test
+	void it_should_normalize_extensions() {
+		RoutingPolicy policy = new RoutingPolicy(-1, asList(".MP4", "mov"));
+		assertThat(policy.getExtensions()).containsOnly("mp4", "mov");
+		assertThat(policy.getSizeThreshold()).isZero();
+	}
+
+	@Test
+	void it_should_detect_large_files_by_extension() {
+		RoutingPolicy policy = new RoutingPolicy(0, asList("mp4", "mov"));
+
+		assertThat(policy.isLarge(asList("-S", "/tmp/video.MP4", "-execute"))).isTrue();
+		assertThat(policy.isLarge(asList("-S", "/tmp/image.jpg", "/tmp/video.mov", "-execute"))).isTrue();
+		assertThat(policy.isLarge(asList("-S", "/tmp/image.jpg", "-execute"))).isFalse();
+		assertThat(policy.isLarge(asList("-S", "/tmp/mp4.d/image", "-execute"))).isFalse();
+		assertThat(policy.isLarge(asList("-ext", "mp4", "-execute"))).isFalse();
+	}
+
+	@Test
+	void it_should_detect_large_files_by_size(@TempDir Path tmp) throws Exception {
+		Path small = Files.write(tmp.resolve("small.jpg"), new byte[10]);
+		Path large = Files.write(tmp.resolve("large.jpg"), new byte[100]);
+		RoutingPolicy policy = new RoutingPolicy(100, emptyList());
+
+		assertThat(policy.isLarge(asList("-S", small.toString(), "-execute"))).isFalse();
+		assertThat(policy.isLarge(asList("-S", large.toString(), "-execute"))).isTrue();
+		assertThat(policy.isLarge(asList("-S", tmp.resolve("missing.jpg").toString(), "-execute"))).isFalse();
+	}
+
+	@Test
+	void it_should_not_detect_large_files_if_disabled(@TempDir Path tmp) throws Exception {
+		Path file = Files.write(tmp.resolve("video.mp4"), new byte[100]);
+		RoutingPolicy policy = new RoutingPolicy(0, emptyList());
+
+		assertThat(policy.isLarge(singletonList(file.toString()))).isFalse();
+	}
+}
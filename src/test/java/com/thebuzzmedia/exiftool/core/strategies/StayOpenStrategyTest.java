@@ -17,7 +17,11 @@
 
 package com.thebuzzmedia.exiftool.core.strategies;
 
+import com.thebuzzmedia.exiftool.ExifToolMetrics;
 import com.thebuzzmedia.exiftool.Scheduler;
+import com.thebuzzmedia.exiftool.Version;
+import com.thebuzzmedia.exiftool.exceptions.CommandTimeoutException;
+import com.thebuzzmedia.exiftool.exceptions.ProcessCrashedException;
 import com.thebuzzmedia.exiftool.process.Command;
 import com.thebuzzmedia.exiftool.process.CommandExecutor;
 import com.thebuzzmedia.exiftool.process.CommandProcess;
@@ -29,17 +33,27 @@ import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InOrder;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static com.thebuzzmedia.exiftool.tests.ReflectionTestUtils.writePrivateField;
 import static com.thebuzzmedia.exiftool.tests.TestConstants.BR;
 import static java.util.Arrays.asList;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
@@ -65,6 +79,7 @@ class StayOpenStrategyTest {
 
 		// Mock withExecutor
 		when(executor.start(any(Command.class))).thenReturn(process);
+		when(process.isRunning()).thenReturn(true);
 
 		// Execution arguments
 		args = asList("-S", "-n", "-XArtist", "XComment", "-execute");
@@ -89,6 +104,14 @@ class StayOpenStrategyTest {
 		assertThat(strategy).extracting("process").isNull();
 	}
 
+	@Test
+	void it_should_check_if_version_is_supported() {
+		strategy = new StayOpenStrategy(scheduler);
+		assertThat(strategy.isSupported(new Version("8.35"))).isFalse();
+		assertThat(strategy.isSupported(new Version("8.36"))).isTrue();
+		assertThat(strategy.isSupported(new Version("10.16"))).isTrue();
+	}
+
 	@SuppressWarnings("unchecked")
 	@Test
 	void it_should_execute_command() throws Exception {
@@ -103,7 +126,7 @@ class StayOpenStrategyTest {
 		inOrder.verify(scheduler).start(any(Runnable.class));
 		inOrder.verify(process).write(argsCaptor.capture());
 		inOrder.verify(process).flush();
-		inOrder.verify(process).read(any(OutputHandler.class));
+		inOrder.verify(process).consume(any(OutputHandler.class));
 
 		assertThat(strategy).extracting("process").isSameAs(process);
 
@@ -111,6 +134,21 @@ class StayOpenStrategyTest {
 		verifyExecutionArguments(argsCaptor);
 	}
 
+	@Test
+	void it_should_not_hold_monitor_while_reading_output() throws Exception {
+		strategy = new StayOpenStrategy(scheduler);
+
+		AtomicBoolean holdsLock = new AtomicBoolean(true);
+		doAnswer(invocation -> {
+			holdsLock.set(Thread.holdsLock(strategy));
+			return null;
+		}).when(process).consume(any(OutputHandler.class));
+
+		strategy.execute(executor, exifTool, args, outputHandler);
+
+		assertThat(holdsLock).isFalse();
+	}
+
 	@SuppressWarnings("unchecked")
 	@Test
 	void it_should_not_start_process_twice_if_it_is_running() throws Exception {
@@ -132,7 +170,7 @@ class StayOpenStrategyTest {
 		inOrder.verify(scheduler).start(any(Runnable.class));
 		inOrder.verify(process).write(argsCaptor.capture());
 		inOrder.verify(process).flush();
-		inOrder.verify(process).read(any(OutputHandler.class));
+		inOrder.verify(process).consume(any(OutputHandler.class));
 
 		verifyExecutionArguments(argsCaptor);
 	}
@@ -157,7 +195,7 @@ class StayOpenStrategyTest {
 		inOrder.verify(scheduler).start(any(Runnable.class));
 		inOrder.verify(process).write(argsCaptor.capture());
 		inOrder.verify(process).flush();
-		inOrder.verify(process).read(any(OutputHandler.class));
+		inOrder.verify(process).consume(any(OutputHandler.class));
 
 		verifyStartProcess(cmdCaptor);
 		verifyExecutionArguments(argsCaptor);
@@ -224,6 +262,258 @@ class StayOpenStrategyTest {
 		assertThat(strategy.isRunning()).isFalse();
 	}
 
+	@Test
+	void it_should_warm_up_process_again_after_cleanup_if_it_has_been_used() throws Exception {
+		strategy = new StayOpenStrategy(scheduler, true);
+		strategy.execute(executor, exifTool, args, outputHandler);
+
+		ArgumentCaptor<Runnable> taskCaptor = ArgumentCaptor.forClass(Runnable.class);
+		verify(scheduler).start(taskCaptor.capture());
+
+		// Run cleanup task.
+		taskCaptor.getValue().run();
+
+		verify(process).close();
+		verify(executor, times(2)).start(any(Command.class));
+		verify(process).write(appendBr(WarmUpCommand.arguments()));
+		assertThat(strategy).extracting("process").isSameAs(process);
+	}
+
+	@Test
+	void it_should_not_warm_up_process_again_after_cleanup_if_it_has_not_been_used() throws Exception {
+		strategy = new StayOpenStrategy(scheduler, true);
+		strategy.execute(executor, exifTool, WarmUpCommand.arguments(), outputHandler);
+
+		ArgumentCaptor<Runnable> taskCaptor = ArgumentCaptor.forClass(Runnable.class);
+		verify(scheduler).start(taskCaptor.capture());
+
+		// Run cleanup task.
+		taskCaptor.getValue().run();
+
+		verify(process).close();
+		verify(executor).start(any(Command.class));
+		assertThat(strategy).extracting("process").isNull();
+	}
+
+	@Test
+	void it_should_not_warm_up_process_again_after_cleanup_by_default() throws Exception {
+		strategy = new StayOpenStrategy(scheduler);
+		strategy.execute(executor, exifTool, args, outputHandler);
+
+		ArgumentCaptor<Runnable> taskCaptor = ArgumentCaptor.forClass(Runnable.class);
+		verify(scheduler).start(taskCaptor.capture());
+
+		// Run cleanup task.
+		taskCaptor.getValue().run();
+
+		verify(process).close();
+		verify(executor).start(any(Command.class));
+		assertThat(strategy).extracting("process").isNull();
+	}
+
+	@Test
+	void it_should_record_metrics() throws Exception {
+		ExifToolMetrics metrics = mock(ExifToolMetrics.class);
+		strategy = new StayOpenStrategy(scheduler, false, metrics);
+
+		strategy.execute(executor, exifTool, args, outputHandler);
+		strategy.close();
+
+		InOrder inOrder = inOrder(metrics);
+		inOrder.verify(metrics).processStarted();
+		inOrder.verify(metrics).recordWrite(anyLong());
+		inOrder.verify(metrics).recordRead(anyLong());
+		inOrder.verify(metrics).processClosed();
+		verifyNoMoreInteractions(metrics);
+	}
+
+	@Test
+	void it_should_record_restart_and_failure() throws Exception {
+		ExifToolMetrics metrics = mock(ExifToolMetrics.class);
+		strategy = new StayOpenStrategy(scheduler, false, metrics);
+
+		writePrivateField(strategy, "process", process);
+		when(process.isClosed()).thenReturn(true);
+		doThrow(new IOException("fail")).when(process).consume(any(OutputHandler.class));
+
+		assertThatThrownBy(() -> strategy.execute(executor, exifTool, args, outputHandler)).isInstanceOf(IOException.class);
+
+		verify(metrics).processRestarted();
+		verify(metrics).processFailed();
+		verify(metrics, never()).recordRead(anyLong());
+	}
+
+	@Test
+	void it_should_kill_process_when_command_does_not_complete_in_time() throws Exception {
+		ExifToolMetrics metrics = mock(ExifToolMetrics.class);
+		strategy = new StayOpenStrategy(scheduler, false, metrics, 50);
+
+		// Read blocks until process is killed.
+		CountDownLatch killed = new CountDownLatch(1);
+		doAnswer(invocation -> {
+			killed.countDown();
+			return null;
+		}).when(process).kill();
+
+		doAnswer(invocation -> {
+			assertThat(killed.await(5, TimeUnit.SECONDS)).isTrue();
+			throw new IOException("Stream closed");
+		}).when(process).consume(any(OutputHandler.class));
+
+		assertThatThrownBy(() -> strategy.execute(executor, exifTool, args, outputHandler))
+				.isExactlyInstanceOf(CommandTimeoutException.class)
+				.hasMessage("ExifTool command did not complete within 50 ms, process has been killed");
+
+		verify(process).kill();
+		verify(process).close();
+		verify(metrics).processClosed();
+		assertThat(strategy).extracting("process").isNull();
+	}
+
+	@Test
+	void it_should_start_fresh_process_after_timeout() throws Exception {
+		strategy = new StayOpenStrategy(scheduler, false, mock(ExifToolMetrics.class), 50);
+
+		CommandProcess process2 = mock(CommandProcess.class);
+		when(process2.isRunning()).thenReturn(true);
+		when(executor.start(any(Command.class))).thenReturn(process, process2);
+
+		CountDownLatch killed = new CountDownLatch(1);
+		doAnswer(invocation -> {
+			killed.countDown();
+			return null;
+		}).when(process).kill();
+
+		doAnswer(invocation -> {
+			killed.await(5, TimeUnit.SECONDS);
+			return null;
+		}).when(process).consume(any(OutputHandler.class));
+
+		assertThatThrownBy(() -> strategy.execute(executor, exifTool, args, outputHandler)).isInstanceOf(CommandTimeoutException.class);
+
+		strategy.execute(executor, exifTool, args, outputHandler);
+
+		verify(executor, times(2)).start(any(Command.class));
+		verify(process2).consume(any(OutputHandler.class));
+		verify(process2, never()).kill();
+		assertThat(strategy).extracting("process").isSameAs(process2);
+	}
+
+	@Test
+	void it_should_fail_and_discard_process_if_it_terminated_while_executing_command() throws Exception {
+		ExifToolMetrics metrics = mock(ExifToolMetrics.class);
+		strategy = new StayOpenStrategy(scheduler, false, metrics);
+
+		// Output ended: process is not running anymore.
+		when(process.isRunning()).thenReturn(false);
+
+		assertThatThrownBy(() -> strategy.execute(executor, exifTool, args, outputHandler))
+				.isExactlyInstanceOf(ProcessCrashedException.class)
+				.hasMessage("ExifTool process terminated while executing command");
+
+		verify(process).close();
+		verify(metrics).processFailed();
+		verify(metrics).processCrashed();
+		assertThat(strategy).extracting("process").isNull();
+	}
+
+	@Test
+	void it_should_start_fresh_process_if_previous_one_terminated() throws Exception {
+		ExifToolMetrics metrics = mock(ExifToolMetrics.class);
+		strategy = new StayOpenStrategy(scheduler, false, metrics);
+
+		CommandProcess process2 = mock(CommandProcess.class);
+		when(process2.isRunning()).thenReturn(true);
+		when(executor.start(any(Command.class))).thenReturn(process2);
+
+		writePrivateField(strategy, "process", process);
+		when(process.isClosed()).thenReturn(false);
+		when(process.isRunning()).thenReturn(false);
+
+		strategy.execute(executor, exifTool, args, outputHandler);
+
+		verify(process).close();
+		verify(process, never()).consume(any(OutputHandler.class));
+		verify(process2).consume(any(OutputHandler.class));
+		verify(metrics).processCrashed();
+		verify(metrics).processRestarted();
+		verify(metrics, never()).processFailed();
+		assertThat(strategy).extracting("process").isSameAs(process2);
+	}
+
+	@Test
+	void it_should_recycle_process_after_max_requests() throws Exception {
+		ExifToolMetrics metrics = mock(ExifToolMetrics.class);
+		strategy = new StayOpenStrategy(scheduler, false, metrics, 0, new RecyclePolicy(2, 0, 0));
+
+		CommandProcess process2 = mock(CommandProcess.class);
+		when(process2.isRunning()).thenReturn(true);
+		when(executor.start(any(Command.class))).thenReturn(process, process2);
+
+		strategy.execute(executor, exifTool, args, outputHandler);
+		verify(executor).start(any(Command.class));
+
+		strategy.execute(executor, exifTool, args, outputHandler);
+
+		// Fresh process is warmed up in the background, then current process is closed.
+		verify(process, timeout(5000)).close();
+		verify(process2).consume(any(OutputHandler.class));
+		verify(process).write("-stay_open\nFalse\n");
+		verify(metrics).processRecycled();
+		assertThat(strategy).extracting("process").isSameAs(process2);
+		assertThat(strategy).extracting("requests").isEqualTo(0L);
+
+		strategy.execute(executor, exifTool, args, outputHandler);
+
+		verify(executor, times(2)).start(any(Command.class));
+		verify(process, times(2)).consume(any(OutputHandler.class));
+		verify(process2, times(2)).consume(any(OutputHandler.class));
+	}
+
+	@Test
+	void it_should_recycle_process_once_resident_memory_is_too_high() throws Exception {
+		strategy = new StayOpenStrategy(scheduler, false, mock(ExifToolMetrics.class), 0, new RecyclePolicy(0, 0, 1024, 2));
+
+		CommandProcess process2 = mock(CommandProcess.class);
+		when(process2.isRunning()).thenReturn(true);
+		when(executor.start(any(Command.class))).thenReturn(process, process2);
+		when(process.getResidentMemory()).thenReturn(512L, 2048L);
+
+		// Resident memory is sampled every two commands.
+		strategy.execute(executor, exifTool, args, outputHandler);
+		strategy.execute(executor, exifTool, args, outputHandler);
+		assertThat(strategy).extracting("recycling").isEqualTo(false);
+		verify(process).getResidentMemory();
+
+		strategy.execute(executor, exifTool, args, outputHandler);
+		strategy.execute(executor, exifTool, args, outputHandler);
+
+		verify(process, timeout(5000)).close();
+		assertThat(strategy).extracting("process").isSameAs(process2);
+	}
+
+	@Test
+	void it_should_discard_fresh_process_if_process_has_been_closed_while_recycling() throws Exception {
+		strategy = new StayOpenStrategy(scheduler, false, mock(ExifToolMetrics.class), 0, new RecyclePolicy(1, 0, 0));
+
+		CountDownLatch closed = new CountDownLatch(1);
+		CommandProcess process2 = mock(CommandProcess.class);
+		when(executor.start(any(Command.class))).thenReturn(process, process2);
+		doAnswer(invocation -> {
+			closed.await(5, TimeUnit.SECONDS);
+			return null;
+		}).when(process2).consume(any(OutputHandler.class));
+
+		strategy.execute(executor, exifTool, args, outputHandler);
+		verify(process2, timeout(5000)).consume(any(OutputHandler.class));
+
+		strategy.close();
+		closed.countDown();
+
+		verify(process2, timeout(5000)).close();
+		assertThat(strategy).extracting("process").isNull();
+	}
+
 	private void verifyStartProcess(ArgumentCaptor<Command> cmdCaptor) {
 		Command startCmd = cmdCaptor.getValue();
 		assertThat(startCmd.getArguments()).hasSize(7).containsExactly(
@@ -0,0 +1,47 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.core.strategies;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WarmUpCommandTest {
+
+	@Test
+	void it_should_create_warm_up_command() throws Exception {
+		List<String> args = WarmUpCommand.arguments();
+
+		assertThat(args).hasSize(4).startsWith("-S", "-n").endsWith("-execute");
+		assertThat(new File(args.get(2))).exists().isFile();
+		assertThat(WarmUpCommand.arguments()).isSameAs(args);
+	}
+
+	@Test
+	void it_should_check_if_arguments_are_warm_up_arguments() throws Exception {
+		List<String> args = WarmUpCommand.arguments();
+
+		assertThat(WarmUpCommand.isWarmUp(args)).isTrue();
+		assertThat(WarmUpCommand.isWarmUp(new ArrayList<>(args))).isFalse();
+		assertThat(WarmUpCommand.isWarmUp(null)).isFalse();
+	}
+}
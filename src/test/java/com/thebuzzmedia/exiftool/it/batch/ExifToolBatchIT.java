@@ -0,0 +1,200 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.it.batch;
+
+import com.thebuzzmedia.exiftool.ExifTool;
+import com.thebuzzmedia.exiftool.ExifToolBuilder;
+import com.thebuzzmedia.exiftool.ExifToolOptions;
+import com.thebuzzmedia.exiftool.Tag;
+import com.thebuzzmedia.exiftool.core.StandardOptions;
+import com.thebuzzmedia.exiftool.core.StandardTag;
+import com.thebuzzmedia.exiftool.core.UnspecifiedTag;
+import com.thebuzzmedia.exiftool.core.WriteResult;
+import com.thebuzzmedia.exiftool.tests.junit.ProcessLeakDetectorExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static com.thebuzzmedia.exiftool.tests.TestConstants.EXIF_TOOL;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExifToolBatchIT {
+
+	private static final String PATH = EXIF_TOOL.getAbsolutePath();
+
+	@RegisterExtension
+	public ProcessLeakDetectorExtension processes = new ProcessLeakDetectorExtension(PATH);
+
+	private static final List<File> IMAGES = asList(
+			new File("src/test/resources/images/nikon-d90-audi.jpg"),
+			new File("src/test/resources/images/palm-pre-menu.jpg"),
+			new File("src/test/resources/images/canon-60d warrior-dash.jpg")
+	);
+
+	@Test
+	void it_should_get_images_meta() throws Exception {
+		try (ExifTool exifTool = new ExifToolBuilder().withPath(PATH).build()) {
+			verifyGetMeta(exifTool);
+		}
+	}
+
+	@Test
+	void it_should_get_images_meta_stay_open() throws Exception {
+		try (ExifTool exifTool = new ExifToolBuilder().withPath(PATH).enableStayOpen().build()) {
+			verifyGetMeta(exifTool);
+			verifyGetMeta(exifTool);
+		}
+	}
+
+	@Test
+	void it_should_get_images_meta_pool() throws Exception {
+		try (ExifTool exifTool = new ExifToolBuilder().withPath(PATH).withPoolSize(2).build()) {
+			verifyGetMeta(exifTool);
+		}
+	}
+
+	@Test
+	void it_should_get_images_meta_json() throws Exception {
+		try (ExifTool exifTool = new ExifToolBuilder().withPath(PATH).build()) {
+			verifyGetMeta(exifTool, true);
+		}
+	}
+
+	@Test
+	void it_should_get_images_meta_json_stay_open() throws Exception {
+		try (ExifTool exifTool = new ExifToolBuilder().withPath(PATH).enableStayOpen().build()) {
+			verifyGetMeta(exifTool, true);
+			verifyGetMeta(exifTool, true);
+		}
+	}
+
+	@Test
+	void it_should_get_image_meta_json() throws Exception {
+		ExifToolOptions options = StandardOptions.builder().withNumericFormat().withUseJsonFormat(true).build();
+		try (ExifTool exifTool = new ExifToolBuilder().withPath(PATH).enableStayOpen().build()) {
+			Map<Tag, String> tags = exifTool.getImageMeta(IMAGES.get(2), options, asList(StandardTag.IMAGE_WIDTH, StandardTag.ARTIST));
+			assertThat(tags).hasSize(2)
+					.containsEntry(StandardTag.IMAGE_WIDTH, "5184")
+					.containsEntry(StandardTag.ARTIST, "Test Author");
+
+			Map<Tag, String> all = exifTool.getImageMeta(IMAGES.get(2), options);
+			assertThat(all)
+					.containsEntry(new UnspecifiedTag("ImageWidth"), "5184")
+					.containsEntry(new UnspecifiedTag("Artist"), "Test Author")
+					.doesNotContainKey(new UnspecifiedTag("SourceFile"));
+		}
+	}
+
+	@Test
+	void it_should_set_images_meta_stay_open(@TempDir Path tmp) throws Exception {
+		File image1 = copy(IMAGES.get(0), tmp.resolve("image - 1.jpg"));
+		File image2 = copy(IMAGES.get(0), tmp.resolve("image.jpg"));
+		File missing = tmp.resolve("missing.jpg").toFile();
+		ExifToolOptions options = StandardOptions.builder().withOverwriteOriginal().build();
+
+		try (ExifTool exifTool = new ExifToolBuilder().withPath(PATH).enableStayOpen().build()) {
+			Map<Tag, String> tags = singletonMap(StandardTag.COPYRIGHT, "Copyright Test");
+			WriteResult result = exifTool.setImageMeta(asList(image1, image2, missing), options, tags);
+
+			assertThat(result.getUpdatedCount()).isEqualTo(2);
+			assertThat(result.getFailedCount()).isEqualTo(1);
+			assertThat(result.isSuccess(image1)).isTrue();
+			assertThat(result.isSuccess(image2)).isTrue();
+			assertThat(result.isSuccess(missing)).isFalse();
+			assertThat(result.getErrors()).containsOnlyKeys(missing);
+
+			Map<File, Map<Tag, String>> results = exifTool.getImageMeta(asList(image1, image2), options, singletonList(StandardTag.COPYRIGHT));
+			assertThat(results.get(image1)).containsEntry(StandardTag.COPYRIGHT, "Copyright Test");
+			assertThat(results.get(image2)).containsEntry(StandardTag.COPYRIGHT, "Copyright Test");
+		}
+	}
+
+	@Test
+	void it_should_scan_directory_stay_open(@TempDir Path tmp) throws Exception {
+		try (ExifTool exifTool = new ExifToolBuilder().withPath(PATH).enableStayOpen().build()) {
+			verifyScanDirectory(exifTool, tmp);
+		}
+	}
+
+	@Test
+	void it_should_scan_directory_pool(@TempDir Path tmp) throws Exception {
+		ExecutorService threads = Executors.newFixedThreadPool(2);
+		try (ExifTool exifTool = new ExifToolBuilder().withPath(PATH).withPoolSize(2).withAsyncExecutor(threads, 10).build()) {
+			verifyScanDirectory(exifTool, tmp);
+		}
+		finally {
+			threads.shutdownNow();
+		}
+	}
+
+	private static void verifyScanDirectory(ExifTool exifTool, Path tmp) throws Exception {
+		Path sub = Files.createDirectories(tmp.resolve("sub").resolve("deep"));
+		Path hidden = Files.createDirectory(tmp.resolve(".hidden"));
+		File image1 = copy(IMAGES.get(0), tmp.resolve("image.JPG"));
+		File image2 = copy(IMAGES.get(2), sub.resolve("image.jpg"));
+		copy(IMAGES.get(0), hidden.resolve("image.jpg"));
+		copy(IMAGES.get(0), tmp.resolve("image.dat"));
+
+		ExifToolOptions options = StandardOptions.builder().withNumericFormat().build();
+		Map<File, Map<Tag, String>> results = new HashMap<>();
+		long count = exifTool.scanDirectory(tmp, options, asList(StandardTag.IMAGE_WIDTH, StandardTag.ARTIST), singletonList("jpg"), metadata ->
+				results.put(metadata.getFile(), metadata.getTags())
+		);
+
+		assertThat(count).isEqualTo(2);
+		assertThat(results).containsOnlyKeys(image1, image2);
+		assertThat(results.get(image1)).hasSize(1).containsEntry(StandardTag.IMAGE_WIDTH, "3604");
+		assertThat(results.get(image2)).hasSize(2)
+				.containsEntry(StandardTag.IMAGE_WIDTH, "5184")
+				.containsEntry(StandardTag.ARTIST, "Test Author");
+	}
+
+	private static File copy(File image, Path target) throws IOException {
+		Files.copy(image.toPath(), target);
+		return target.toFile();
+	}
+
+	private static void verifyGetMeta(ExifTool exifTool) throws Exception {
+		verifyGetMeta(exifTool, false);
+	}
+
+	private static void verifyGetMeta(ExifTool exifTool, boolean json) throws Exception {
+		ExifToolOptions options = StandardOptions.builder().withNumericFormat().withUseJsonFormat(json).build();
+		Map<File, Map<Tag, String>> results = exifTool.getImageMeta(IMAGES, options, asList(StandardTag.IMAGE_WIDTH, StandardTag.ARTIST));
+
+		assertThat(results.keySet()).containsExactlyElementsOf(IMAGES);
+		assertThat(results.get(IMAGES.get(0))).hasSize(1).containsEntry(StandardTag.IMAGE_WIDTH, "3604");
+		assertThat(results.get(IMAGES.get(1))).hasSize(1).containsEntry(StandardTag.IMAGE_WIDTH, "1520");
+		assertThat(results.get(IMAGES.get(2))).hasSize(2)
+				.containsEntry(StandardTag.IMAGE_WIDTH, "5184")
+				.containsEntry(StandardTag.ARTIST, "Test Author");
+	}
+}
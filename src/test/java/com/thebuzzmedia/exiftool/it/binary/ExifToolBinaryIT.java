@@ -0,0 +1,101 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.it.binary;
+
+import com.thebuzzmedia.exiftool.ExifTool;
+import com.thebuzzmedia.exiftool.ExifToolBuilder;
+import com.thebuzzmedia.exiftool.Tag;
+import com.thebuzzmedia.exiftool.core.StandardTag;
+import com.thebuzzmedia.exiftool.core.UnspecifiedTag;
+import com.thebuzzmedia.exiftool.tests.junit.ProcessLeakDetectorExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.util.Map;
+
+import static com.thebuzzmedia.exiftool.tests.TestConstants.EXIF_TOOL;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExifToolBinaryIT {
+
+	private static final String PATH = EXIF_TOOL.getAbsolutePath();
+
+	private static final Tag THUMBNAIL_IMAGE = new UnspecifiedTag("ThumbnailImage");
+
+	@RegisterExtension
+	public ProcessLeakDetectorExtension processes = new ProcessLeakDetectorExtension(PATH);
+
+	@Test
+	void it_should_extract_binary_tag() throws Exception {
+		try (ExifTool exifTool = new ExifToolBuilder().withPath(PATH).build()) {
+			verifyExtract(exifTool);
+		}
+	}
+
+	@Test
+	void it_should_extract_binary_tag_stay_open() throws Exception {
+		try (ExifTool exifTool = new ExifToolBuilder().withPath(PATH).enableStayOpen().build()) {
+			verifyExtract(exifTool);
+			verifyExtract(exifTool);
+		}
+	}
+
+	@Test
+	void it_should_extract_binary_tag_pipelined() throws Exception {
+		try (ExifTool exifTool = new ExifToolBuilder().withPath(PATH).enablePipelining().build()) {
+			verifyExtract(exifTool);
+			verifyExtract(exifTool);
+		}
+	}
+
+	@Test
+	void it_should_extract_binary_tag_pool() throws Exception {
+		try (ExifTool exifTool = new ExifToolBuilder().withPath(PATH).withPoolSize(2).build()) {
+			verifyExtract(exifTool);
+		}
+	}
+
+	private static void verifyExtract(ExifTool exifTool) throws Exception {
+		File image = new File("src/test/resources/images/nikon-d90-audi.jpg");
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		long size = exifTool.extractBinaryTag(image, THUMBNAIL_IMAGE, out);
+
+		byte[] bytes = out.toByteArray();
+		assertThat(size).isEqualTo(4944);
+		assertThat(bytes).hasSize(4944);
+		assertThat(bytes[0]).isEqualTo((byte) 0xFF);
+		assertThat(bytes[1]).isEqualTo((byte) 0xD8);
+
+		// Warnings must not be mixed with binary output.
+		ByteArrayOutputStream out2 = new ByteArrayOutputStream();
+		assertThat(exifTool.extractBinaryTag(new File("src/test/resources/images/palm-pre-menu.jpg"), THUMBNAIL_IMAGE, out2)).isEqualTo(9605);
+
+		// Image without thumbnail.
+		ByteArrayOutputStream out3 = new ByteArrayOutputStream();
+		assertThat(exifTool.extractBinaryTag(new File("src/test/resources/images/sony-xperia-play-coffee-sign.jpg"), THUMBNAIL_IMAGE, out3)).isZero();
+		assertThat(out3.size()).isZero();
+
+		// Next commands must not be altered.
+		Map<Tag, String> tags = exifTool.getImageMeta(image, singletonList(StandardTag.MAKE));
+		assertThat(tags).containsEntry(StandardTag.MAKE, "NIKON CORPORATION");
+	}
+}
@@ -0,0 +1,79 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.it.builder;
+
+import com.thebuzzmedia.exiftool.ExifTool;
+import com.thebuzzmedia.exiftool.ExifToolBuilder;
+import com.thebuzzmedia.exiftool.Tag;
+import com.thebuzzmedia.exiftool.core.StandardTag;
+import com.thebuzzmedia.exiftool.tests.junit.ProcessLeakDetectorExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.thebuzzmedia.exiftool.tests.TestConstants.EXIF_TOOL;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExifToolPipelinedIT extends AbstractExifToolIT {
+
+	@RegisterExtension
+	public ProcessLeakDetectorExtension processes = new ProcessLeakDetectorExtension(EXIF_TOOL.getAbsolutePath());
+
+	@Override
+	ExifToolBuilder create() {
+		return new ExifToolBuilder().enablePipelining();
+	}
+
+	@Test
+	void it_should_get_images_meta_concurrently() throws Exception {
+		List<File> images = asList(
+				new File("src/test/resources/images/nikon-d90-audi.jpg"),
+				new File("src/test/resources/images/palm-pre-menu.jpg"),
+				new File("src/test/resources/images/canon-60d warrior-dash.jpg")
+		);
+
+		List<String> widths = asList("3604", "1520", "5184");
+
+		ExecutorService threads = Executors.newFixedThreadPool(4);
+		try (ExifTool exifTool = create().withPath(EXIF_TOOL.getAbsolutePath()).build()) {
+			List<Future<Map<Tag, String>>> results = new ArrayList<>();
+			for (int i = 0; i < 30; i++) {
+				File image = images.get(i % images.size());
+				results.add(threads.submit(() -> exifTool.getImageMeta(image, singletonList(StandardTag.IMAGE_WIDTH))));
+			}
+
+			for (int i = 0; i < results.size(); i++) {
+				Map<Tag, String> tags = results.get(i).get(30, TimeUnit.SECONDS);
+				assertThat(tags).hasSize(1).containsEntry(StandardTag.IMAGE_WIDTH, widths.get(i % widths.size()));
+			}
+		}
+		finally {
+			threads.shutdownNow();
+		}
+	}
+}
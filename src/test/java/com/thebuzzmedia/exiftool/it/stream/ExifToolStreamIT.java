@@ -0,0 +1,100 @@
+/**
+ * Copyright 2011 The Buzz Media, LLC
+ * Copyright 2015-2019 Mickael Jeanroy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thebuzzmedia.exiftool.it.stream;
+
+import com.thebuzzmedia.exiftool.ExifTool;
+import com.thebuzzmedia.exiftool.ExifToolBuilder;
+import com.thebuzzmedia.exiftool.ExifToolOptions;
+import com.thebuzzmedia.exiftool.Tag;
+import com.thebuzzmedia.exiftool.core.StandardOptions;
+import com.thebuzzmedia.exiftool.core.StandardTag;
+import com.thebuzzmedia.exiftool.tests.junit.ProcessLeakDetectorExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+
+import static com.thebuzzmedia.exiftool.tests.TestConstants.EXIF_TOOL;
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExifToolStreamIT {
+
+	private static final String PATH = EXIF_TOOL.getAbsolutePath();
+
+	private static final File IMAGE = new File("src/test/resources/images/nikon-d90-audi.jpg");
+
+	private static final List<Tag> TAGS = asList(StandardTag.MAKE, StandardTag.MODEL, StandardTag.IMAGE_WIDTH);
+
+	private static final ExifToolOptions OPTIONS = StandardOptions.builder().build();
+
+	@RegisterExtension
+	public ProcessLeakDetectorExtension processes = new ProcessLeakDetectorExtension(PATH);
+
+	@Test
+	void it_should_get_image_meta_from_stream() throws Exception {
+		try (ExifTool exifTool = new ExifToolBuilder().withPath(PATH).build(); InputStream stream = new FileInputStream(IMAGE)) {
+			verifyTags(exifTool.getImageMeta(stream, OPTIONS, TAGS));
+		}
+	}
+
+	@Test
+	void it_should_get_image_meta_from_stream_prefix() throws Exception {
+		try (ExifTool exifTool = new ExifToolBuilder().withPath(PATH).build(); InputStream stream = new FileInputStream(IMAGE)) {
+			verifyTags(exifTool.getImageMeta(stream, 64 * 1024, OPTIONS, TAGS));
+		}
+	}
+
+	@Test
+	void it_should_get_image_meta_from_byte_array_stay_open() throws Exception {
+		byte[] bytes = Files.readAllBytes(IMAGE.toPath());
+		try (ExifTool exifTool = new ExifToolBuilder().withPath(PATH).enableStayOpen().build()) {
+			verifyTags(exifTool.getImageMeta(bytes, OPTIONS, TAGS));
+
+			// Stay open process must not be altered.
+			verifyTags(exifTool.getImageMeta(IMAGE, OPTIONS, TAGS));
+		}
+	}
+
+	@Test
+	void it_should_get_image_meta_from_byte_buffer() throws Exception {
+		byte[] bytes = Files.readAllBytes(IMAGE.toPath());
+		ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+		buffer.put(bytes);
+		buffer.flip();
+
+		try (ExifTool exifTool = new ExifToolBuilder().withPath(PATH).build()) {
+			verifyTags(exifTool.getImageMeta(buffer, OPTIONS, TAGS));
+			assertThat(buffer.remaining()).isEqualTo(bytes.length);
+		}
+	}
+
+	private static void verifyTags(Map<Tag, String> tags) {
+		assertThat(tags)
+				.hasSize(3)
+				.containsEntry(StandardTag.MAKE, "NIKON CORPORATION")
+				.containsEntry(StandardTag.MODEL, "NIKON D90")
+				.containsEntry(StandardTag.IMAGE_WIDTH, "3604");
+	}
+}
@@ -24,6 +24,7 @@ import com.thebuzzmedia.exiftool.process.CommandResult;
 import com.thebuzzmedia.exiftool.process.OutputHandler;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 
 import static com.thebuzzmedia.exiftool.tests.TestConstants.IS_WINDOWS;
@@ -101,6 +102,27 @@ class DefaultCommandExecutorTest {
 		assertThat(output).isNotNull().isEqualTo("Hello World");
 	}
 
+	@Test
+	void it_should_execute_command_line_with_standard_input() throws Exception {
+		assumeFalse(IS_WINDOWS);
+
+		File script = new File(getClass().getResource("/processes/stdin.sh").getFile());
+		Command command = createUnixCommand(script.getAbsolutePath());
+		OutputHandler handler = mock(OutputHandler.class);
+
+		// Larger than pipe buffers.
+		byte[] input = new byte[1024 * 1024];
+
+		CommandExecutor executor = new DefaultCommandExecutor();
+		CommandResult result = executor.execute(command, new ByteArrayInputStream(input), handler);
+
+		verify(handler).readLine("1048576");
+
+		assertThat(result).isNotNull();
+		assertThat(result.getExitStatus()).isZero();
+		assertThat(result.getOutput()).isEqualTo("1048576");
+	}
+
 	private static Command createUnixCommand(String script) {
 		Command command = mock(Command.class);
 		when(command.getArguments()).thenReturn(asList("/bin/sh", script));
@@ -17,8 +17,14 @@
 
 package com.thebuzzmedia.exiftool.process.executor;
 
+import com.thebuzzmedia.exiftool.ExifToolMetrics;
+import com.thebuzzmedia.exiftool.core.StandardTag;
+import com.thebuzzmedia.exiftool.core.handlers.BinaryTagHandler;
+import com.thebuzzmedia.exiftool.core.handlers.StandardTagHandler;
 import com.thebuzzmedia.exiftool.process.OutputHandler;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
 import org.mockito.stubbing.Answer;
 
 import java.io.ByteArrayInputStream;
@@ -27,21 +33,31 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
 import java.util.List;
 
+import static com.thebuzzmedia.exiftool.core.metrics.NoOpMetrics.noOpMetrics;
 import static com.thebuzzmedia.exiftool.tests.TestConstants.BR;
 import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.assertj.core.api.Assertions.failBecauseExceptionWasNotThrown;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 class DefaultCommandProcessTest {
@@ -209,6 +225,79 @@ class DefaultCommandProcessTest {
 		}
 	}
 
+	@Test
+	void it_should_kill_process() throws Exception {
+		Process proc = mock(Process.class);
+		when(proc.getInputStream()).thenReturn(mock(InputStream.class));
+		when(proc.getOutputStream()).thenReturn(mock(OutputStream.class));
+		when(proc.getErrorStream()).thenReturn(mock(InputStream.class));
+
+		DefaultCommandProcess process = new DefaultCommandProcess(proc, noOpMetrics());
+		process.kill();
+
+		verify(proc).destroyForcibly();
+		assertThat(process.isClosed()).isTrue();
+		assertThat(process.isRunning()).isFalse();
+	}
+
+	@Test
+	void it_should_not_be_running_once_process_terminated() {
+		Process proc = mock(Process.class);
+		when(proc.getInputStream()).thenReturn(mock(InputStream.class));
+		when(proc.getOutputStream()).thenReturn(mock(OutputStream.class));
+		when(proc.getErrorStream()).thenReturn(mock(InputStream.class));
+		when(proc.isAlive()).thenReturn(true, false);
+
+		DefaultCommandProcess process = new DefaultCommandProcess(proc, noOpMetrics());
+
+		assertThat(process.isRunning()).isTrue();
+		assertThat(process.isRunning()).isFalse();
+		assertThat(process.isClosed()).isFalse();
+	}
+
+	@Test
+	void it_should_read_resident_memory_from_status_file(@TempDir Path tmp) throws Exception {
+		Path status = tmp.resolve("status");
+		Files.write(status, asList("Name:\tperl", "VmPeak:\t   40000 kB", "VmRSS:\t   25000 kB", "Threads:\t1"), StandardCharsets.UTF_8);
+		assertThat(DefaultCommandProcess.readResidentMemory(status)).isEqualTo(25000L * 1024);
+
+		Files.write(status, singletonList("Name:\tperl"), StandardCharsets.UTF_8);
+		assertThat(DefaultCommandProcess.readResidentMemory(status)).isEqualTo(-1L);
+
+		assertThat(DefaultCommandProcess.readResidentMemory(tmp.resolve("missing"))).isEqualTo(-1L);
+	}
+
+	@Test
+	void it_should_get_resident_memory_of_process() throws Exception {
+		assumeTrue(Files.exists(Paths.get("/proc/self/status")), "Resident memory is only available on Linux");
+
+		Process proc = new ProcessBuilder("sleep", "10").start();
+		try {
+			DefaultCommandProcess process = new DefaultCommandProcess(proc, noOpMetrics());
+			assertThat(process.getResidentMemory()).isPositive();
+		}
+		finally {
+			proc.destroyForcibly();
+		}
+	}
+
+	@Test
+	void it_should_not_get_resident_memory_without_process() {
+		DefaultCommandProcess process = new DefaultCommandProcess(mock(InputStream.class), mock(OutputStream.class), mock(InputStream.class));
+		assertThat(process.getResidentMemory()).isEqualTo(-1L);
+	}
+
+	@Test
+	void it_should_not_be_running_once_output_ended() throws Exception {
+		InputStream stream = new ByteArrayInputStream(("Artist: foo" + BR).getBytes(StandardCharsets.UTF_8));
+		DefaultCommandProcess process = new DefaultCommandProcess(stream, mock(OutputStream.class), mock(InputStream.class));
+
+		process.consume(line -> line != null);
+
+		assertThat(process.isRunning()).isFalse();
+		assertThat(process.isClosed()).isFalse();
+	}
+
 	@Test
 	void it_should_read_from_input() throws Exception {
 		String firstLine = "first-line";
@@ -257,6 +346,67 @@ class DefaultCommandProcessTest {
 		verify(handler, never()).readLine(thirdLine);
 	}
 
+	@Test
+	void it_should_consume_output_of_tag_handler() throws Exception {
+		String output = "Artist: foo" + BR + "Model: bar" + BR + "{ready}" + BR + "next-line";
+		InputStream stream = new ByteArrayInputStream(output.getBytes(StandardCharsets.UTF_8));
+		StandardTagHandler handler = new StandardTagHandler(singletonList(StandardTag.ARTIST));
+
+		DefaultCommandProcess process = new DefaultCommandProcess(stream, mock(OutputStream.class), mock(InputStream.class));
+		process.consume(handler);
+
+		assertThat(handler.getTags()).hasSize(1).containsEntry(StandardTag.ARTIST, "foo");
+
+		// Next output must not be lost.
+		assertThat(process.read()).isEqualTo("next-line");
+	}
+
+	@Test
+	void it_should_consume_output_line_by_line() throws Exception {
+		String output = "first-line" + BR + "{ready}" + BR;
+		InputStream stream = new ByteArrayInputStream(output.getBytes(StandardCharsets.UTF_8));
+		OutputHandler handler = mock(OutputHandler.class);
+		when(handler.readLine(anyString())).thenAnswer(invocation -> !"{ready}".equals(invocation.getArgument(0)));
+
+		DefaultCommandProcess process = new DefaultCommandProcess(stream, mock(OutputStream.class), mock(InputStream.class));
+		process.consume(handler);
+
+		verify(handler).readLine("first-line");
+		verify(handler).readLine("{ready}");
+	}
+
+	@Test
+	void it_should_record_output_read_from_input() throws Exception {
+		String output = "first-line" + BR + "{ready}" + BR + "third-line";
+		InputStream stream = new ByteArrayInputStream(output.getBytes(StandardCharsets.UTF_8));
+		ExifToolMetrics metrics = mock(ExifToolMetrics.class);
+
+		DefaultCommandProcess process = new DefaultCommandProcess(stream, mock(OutputStream.class), mock(InputStream.class), metrics);
+		process.read(line -> !line.equals("{ready}"));
+		verify(metrics).recordOutput(("first-line" + BR + "{ready}" + BR).length(), 2);
+
+		process.read(line -> line != null);
+		verify(metrics).recordOutput("third-line".length(), 1);
+	}
+
+	@Test
+	void it_should_read_binary_output() throws Exception {
+		String output = "binary{ready}" + BR + "next-line" + BR + "{ready}" + BR;
+		InputStream stream = new ByteArrayInputStream(output.getBytes(StandardCharsets.UTF_8));
+		ByteArrayOutputStream os = new ByteArrayOutputStream();
+		BinaryTagHandler handler = new BinaryTagHandler(os);
+
+		DefaultCommandProcess process = new DefaultCommandProcess(stream, mock(OutputStream.class), mock(InputStream.class));
+		String out = process.read(handler);
+
+		assertThat(out).isEmpty();
+		assertThat(handler.size()).isEqualTo(6);
+		assertThat(new String(os.toByteArray(), StandardCharsets.UTF_8)).isEqualTo("binary");
+
+		// Next output must not be lost.
+		assertThat(process.read()).isEqualTo("next-line" + BR + "{ready}");
+	}
+
 	@Test
 	void it_should_write_from_output() throws Exception {
 		ByteArrayOutputStream os = new ByteArrayOutputStream();
@@ -271,7 +421,7 @@ class DefaultCommandProcessTest {
 	@Test
 	void it_should_catch_write_failure() throws Exception {
 		OutputStream os = mock(OutputStream.class);
-		doThrow(new IOException("fail")).when(os).write(any(byte[].class));
+		doThrow(new IOException("fail")).when(os).write(any(byte[].class), anyInt(), anyInt());
 
 		DefaultCommandProcess process = new DefaultCommandProcess(mock(InputStream.class), os, mock(InputStream.class));
 
@@ -327,4 +477,20 @@ class DefaultCommandProcessTest {
 
 		assertThat(os.toString()).isEqualTo(msg1 + msg2);
 	}
+
+	@Test
+	void it_should_write_inputs_as_utf8_at_once() throws Exception {
+		OutputStream os = mock(OutputStream.class);
+		String msg1 = "-charset" + BR;
+		String msg2 = "/tmp/été.jpg" + BR;
+
+		DefaultCommandProcess process = new DefaultCommandProcess(mock(InputStream.class), os, mock(InputStream.class));
+		process.write(asList(msg1, msg2));
+
+		ArgumentCaptor<byte[]> captor = ArgumentCaptor.forClass(byte[].class);
+		byte[] expected = (msg1 + msg2).getBytes(StandardCharsets.UTF_8);
+		verify(os).write(captor.capture(), eq(0), eq(expected.length));
+		verifyNoMoreInteractions(os);
+		assertThat(Arrays.copyOf(captor.getValue(), expected.length)).isEqualTo(expected);
+	}
 }
@@ -0,0 +1,4 @@
+#!/bin/sh
+
+wc -c | tr -d " "
+exit 0
\ No newline at end of file